@@ -0,0 +1,9 @@
+USE jogging;
+
+ALTER TABLE `user` ADD COLUMN `canonical_name` varchar(255) DEFAULT NULL AFTER `name`;
+
+UPDATE `user` SET `canonical_name` = LOWER(`name`);
+
+ALTER TABLE `user`
+  MODIFY `canonical_name` varchar(255) NOT NULL,
+  ADD UNIQUE KEY `UK_user_canonical_name` (`canonical_name`);
\ No newline at end of file
@@ -0,0 +1,8 @@
+USE jogging;
+
+CREATE TABLE `journal_checkpoint` (
+  `name` varchar(255) NOT NULL,
+  `segment` bigint(20) NOT NULL,
+  `segment_offset` int(11) NOT NULL,
+  PRIMARY KEY (`name`)
+) ENGINE=InnoDB DEFAULT CHARSET=latin1;
\ No newline at end of file
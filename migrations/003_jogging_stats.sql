@@ -0,0 +1,16 @@
+USE jogging;
+
+CREATE TABLE `jogging_stats` (
+  `user_id` int(11) NOT NULL,
+  `date` date NOT NULL,
+  `run_count` int(11) NOT NULL,
+  `distance_sum` bigint(20) NOT NULL,
+  `speed_sum` double NOT NULL,
+  PRIMARY KEY (`user_id`,`date`),
+  CONSTRAINT `FK_jogging_stats_user` FOREIGN KEY (`user_id`) REFERENCES `user` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=latin1;
+
+INSERT INTO `jogging_stats` (`user_id`, `date`, `run_count`, `distance_sum`, `speed_sum`)
+SELECT `user_id`, `date`, COUNT(*), SUM(`distance`), SUM(COALESCE(`distance` * 1e0 / NULLIF(TIME_TO_SEC(`time`), 0), 0))
+FROM `jogging`
+GROUP BY `user_id`, `date`;
\ No newline at end of file
@@ -0,0 +1,3 @@
+USE jogging;
+
+CREATE INDEX `IDX_jogging_user_date` ON `jogging` (`user_id`, `date`, `distance`, `time`);
\ No newline at end of file
@@ -0,0 +1,8 @@
+USE jogging;
+
+CREATE TABLE `jogging_sketch` (
+  `period_start` date NOT NULL,
+  `location` varchar(255) NOT NULL,
+  `buckets` longblob NOT NULL,
+  PRIMARY KEY (`period_start`,`location`)
+) ENGINE=InnoDB DEFAULT CHARSET=latin1;
\ No newline at end of file
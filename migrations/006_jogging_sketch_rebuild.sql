@@ -0,0 +1,7 @@
+USE jogging;
+
+CREATE TABLE `jogging_sketch_rebuild` (
+  `id` int(11) NOT NULL,
+  `started_at` datetime NOT NULL,
+  PRIMARY KEY (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=latin1;
\ No newline at end of file
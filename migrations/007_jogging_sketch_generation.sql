@@ -0,0 +1,5 @@
+USE jogging;
+
+ALTER TABLE `jogging_sketch` ADD COLUMN `generation` int(11) NOT NULL DEFAULT 0 AFTER `buckets`;
+
+ALTER TABLE `jogging_sketch_rebuild` ADD COLUMN `generation` int(11) NOT NULL DEFAULT 0 AFTER `started_at`;
\ No newline at end of file
@@ -0,0 +1,67 @@
+package com.laptevn;
+
+import com.laptevn.exception.IntegrityException;
+
+import java.io.IOException;
+import java.io.Reader;
+
+public class BoundedLineReader {
+    private final static int BUFFER_SIZE = 8192;
+
+    private final Reader reader;
+    private final int maxLength;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder line = new StringBuilder();
+    private int position;
+    private int limit;
+
+    public BoundedLineReader(Reader reader, int maxLength) {
+        this.reader = reader;
+        this.maxLength = maxLength;
+    }
+
+    public String readLine() throws IOException {
+        line.setLength(0);
+        boolean hasData = false;
+        boolean isTooLong = false;
+        while (true) {
+            if (position == limit) {
+                limit = Math.max(reader.read(buffer), 0);
+                position = 0;
+                if (limit == 0) {
+                    if (!hasData) {
+                        return null;
+                    }
+                    break;
+                }
+            }
+
+            hasData = true;
+            int start = position;
+            while (position < limit && buffer[position] != '\n') {
+                position++;
+            }
+
+            if (!isTooLong && line.length() + position - start > maxLength + 1) {
+                isTooLong = true;
+                line.setLength(0);
+            }
+            if (!isTooLong) {
+                line.append(buffer, start, position - start);
+            }
+
+            if (position < limit) {
+                position++;
+                break;
+            }
+        }
+
+        if (line.length() > 0 && line.charAt(line.length() - 1) == '\r') {
+            line.setLength(line.length() - 1);
+        }
+        if (isTooLong || line.length() > maxLength) {
+            throw new IntegrityException(String.format(ErrorMessages.LINE_IS_TOO_LONG_FORMAT, maxLength));
+        }
+        return line.toString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,29 @@
+package com.laptevn;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+public final class Continuation {
+    public final static String KEY_FIELD = "id";
+
+    private final int afterId;
+    private final int pageSize;
+
+    public Continuation(int afterId, int pageSize) {
+        this.afterId = afterId;
+        this.pageSize = pageSize;
+    }
+
+    public int getAfterId() {
+        return afterId;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public Pageable getPageable() {
+        return PageRequest.of(0, pageSize + 1, Sort.by(KEY_FIELD));
+    }
+}
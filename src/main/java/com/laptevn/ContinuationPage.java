@@ -0,0 +1,22 @@
+package com.laptevn;
+
+import java.util.List;
+import java.util.Optional;
+
+public final class ContinuationPage<T> {
+    private final List<T> items;
+    private final Optional<String> nextToken;
+
+    public ContinuationPage(List<T> items, Optional<String> nextToken) {
+        this.items = items;
+        this.nextToken = nextToken;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public Optional<String> getNextToken() {
+        return nextToken;
+    }
+}
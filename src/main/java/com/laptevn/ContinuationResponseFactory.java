@@ -0,0 +1,25 @@
+package com.laptevn;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+public final class ContinuationResponseFactory {
+    private ContinuationResponseFactory() {
+    }
+
+    public static ResponseEntity create(String path, ContinuationPage<?> page, Integer pageSize) {
+        return createBuilder(path, page, pageSize).body(page.getItems());
+    }
+
+    public static ResponseEntity create(String path, ContinuationPage<?> page, Integer pageSize, String entityTag) {
+        return createBuilder(path, page, pageSize).eTag(entityTag).body(page.getItems());
+    }
+
+    private static ResponseEntity.BodyBuilder createBuilder(String path, ContinuationPage<?> page, Integer pageSize) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        page.getNextToken().ifPresent(token -> response.header(
+                HttpHeaders.LINK,
+                "<" + path + "?after=" + token + (pageSize == null ? "" : "&per_page=" + pageSize) + ">; rel=\"next\""));
+        return response;
+    }
+}
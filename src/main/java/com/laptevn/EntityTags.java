@@ -0,0 +1,85 @@
+package com.laptevn;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public final class EntityTags {
+    private final static String ANY = "*";
+    private final static String WEAK_PREFIX = "W/";
+    private final static String DIGEST_ALGORITHM = "SHA-256";
+    private final static int DIGEST_LENGTH = 16;
+    private final static Pattern VERSION_TAG = Pattern.compile("\"(-?\\d+)-(\\d+)\"");
+
+    private EntityTags() {
+    }
+
+    public static String create(int id, int version) {
+        return "\"" + id + "-" + version + "\"";
+    }
+
+    public static <T> String create(
+            Iterable<T> entities, Function<T, Integer> idGetter, Function<T, Integer> versionGetter, String filter) {
+
+        MessageDigest digest = createDigest();
+        if (filter != null) {
+            digest.update(filter.getBytes(StandardCharsets.UTF_8));
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(2 * Integer.BYTES);
+        for (T entity : entities) {
+            buffer.clear();
+            buffer.putInt(Objects.hashCode(idGetter.apply(entity)));
+            buffer.putInt(Objects.hashCode(versionGetter.apply(entity)));
+            digest.update(buffer.array());
+        }
+
+        byte[] hash = Arrays.copyOf(digest.digest(), DIGEST_LENGTH);
+        return WEAK_PREFIX + "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(hash) + "\"";
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static boolean matches(String ifNoneMatch, String entityTag) {
+        String opaqueTag = stripWeakPrefix(entityTag);
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .anyMatch(tag -> tag.equals(ANY) || stripWeakPrefix(tag).equals(opaqueTag));
+    }
+
+    private static String stripWeakPrefix(String entityTag) {
+        return entityTag.startsWith(WEAK_PREFIX) ? entityTag.substring(WEAK_PREFIX.length()) : entityTag;
+    }
+
+    public static boolean isAny(String ifMatch) {
+        return ifMatch.trim().equals(ANY);
+    }
+
+    public static Optional<Integer> findVersion(String ifMatch, int id) {
+        for (String tag : ifMatch.split(",")) {
+            Matcher matcher = VERSION_TAG.matcher(tag.trim());
+            if (matcher.matches() && matcher.group(1).equals(Integer.toString(id))) {
+                try {
+                    return Optional.of(Integer.parseInt(matcher.group(2)));
+                } catch (NumberFormatException ignore) {
+                    return Optional.empty();
+                }
+            }
+        }
+        return Optional.empty();
+    }
+}
\ No newline at end of file
@@ -6,6 +6,8 @@ public final class ErrorMessages {
     public final static String NEW_NAME_IS_USED = "New name is already in use";
     public final static String INVALID_PAGE_INDEX = "Page index should start at 1";
     public final static String INVALID_PAGE_SIZE = "Page size cannot be less than one";
+    public final static String INVALID_CONTINUATION_TOKEN = "Invalid continuation token";
+    public final static String PAGE_WITH_CONTINUATION_TOKEN = "Page index cannot be combined with a continuation token";
     public final static String USER_ALREADY_EXISTS = "User already exists";
     public final static String UPDATE_USER_AMBIGUOUS_NAME = "Cannot create new user. Ambiguous user names were provided.";
     public final static String USER_WAS_NOT_FOUND_TEMPLATE = "User with name=%s was not found";
@@ -15,6 +17,25 @@ public final class ErrorMessages {
     public final static String NOT_EXISTING_ROLE_FORMAT = "'%s' role doesn't exist";
     public final static String INCOMPATIBLE_VALUE_TYPE = "Value type doesn't correspond to field data type";
     public final static String EMPTY_LOCATION = "Location cannot be empty";
+    public final static String EMPTY_JOGGING = "Jogging cannot be empty";
+    public final static String BATCH_IS_TOO_LARGE_FORMAT = "Batch cannot contain more than %d joggings";
+    public final static String EMPTY_FILTER = "Filter cannot be empty";
+    public final static String EMPTY_PATCH = "Patch should change at least one field";
+    public final static String JOGGING_WAS_MODIFIED = "Jogging doesn't exist or was modified";
     public final static String NOT_EXISTING_USER_FORMAT = "'%s' user doesn't exist";
+    public final static String PASSWORD_HASHING_OVERLOADED = "Too many password operations. Please retry later.";
+    public final static String INGESTION_QUEUE_IS_FULL = "Too many joggings are waiting to be saved. Please retry later.";
+    public final static String JOGGING_WAS_JOURNALED = "Database is unavailable. Jogging will be saved later.";
+    public final static String JOURNAL_IS_FULL = "Too many joggings are waiting for the database. Please retry later.";
+    public final static String LINE_IS_TOO_LONG_FORMAT = "Line is longer than %d characters";
+    public final static String INVALID_CSV_HEADER = "CSV header should contain date, distance, time and location columns";
+    public final static String INVALID_CSV_VALUE_FORMAT = "Invalid value '%s' of '%s' column";
+    public final static String UNTERMINATED_CSV_QUOTE = "Quoted CSV value isn't terminated";
+    public final static String NOT_SUPPORTED_GRANULARITY_FORMAT = "'%s' granularity is not supported";
+    public final static String INVALID_PERIOD_COUNT_FORMAT = "Period count should be between 1 and %d";
+    public final static String INVALID_REPORT_RANGE = "Report start date cannot be after its end date";
+    public final static String INVALID_MONTH_FORMAT = "Invalid month '%s'. Expected format is yyyy-MM";
+    public final static String INVALID_QUANTILE_FORMAT = "Quantile %s should be between 0 and 1";
+    public final static String NO_RUNS_TO_RANK_FORMAT = "There are no runs in %s to rank";
     public final static String INVALID_USER = "Invalid format of user name. It cannot be used in URI.";
 }
\ No newline at end of file
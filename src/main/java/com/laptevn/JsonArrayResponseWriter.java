@@ -0,0 +1,61 @@
+package com.laptevn;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+public class JsonArrayResponseWriter<T> implements Consumer<T>, Closeable {
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter objectWriter;
+    private final HttpServletResponse response;
+    private JsonGenerator generator;
+    private int count;
+
+    public JsonArrayResponseWriter(ObjectMapper objectMapper, HttpServletResponse response) {
+        this.objectMapper = objectMapper;
+        this.objectWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.response = response;
+    }
+
+    @Override
+    public void accept(T value) {
+        try {
+            start();
+            objectWriter.writeValue(generator, value);
+            count++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void start() throws IOException {
+        if (generator != null) {
+            return;
+        }
+
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
+        generator = objectMapper.getFactory().createGenerator(response.getOutputStream());
+        generator.writeStartArray();
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        start();
+        generator.writeEndArray();
+        generator.close();
+    }
+}
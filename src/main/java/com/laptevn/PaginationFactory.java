@@ -1,10 +1,17 @@
 package com.laptevn;
 
+import com.laptevn.exception.IntegrityException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Component
 public class PaginationFactory {
@@ -20,6 +27,38 @@ public class PaginationFactory {
         int zeroBasedIndex = index - 1;
 
         int size = pageSize == null ? DEFAULT_PAGE_SIZE : pageSize;
-        return Optional.of(PageRequest.of(zeroBasedIndex, size));
+        return Optional.of(PageRequest.of(zeroBasedIndex, size, Sort.by(Continuation.KEY_FIELD)));
     }
-}
\ No newline at end of file
+
+    public Continuation createContinuation(String token, Integer pageSize) {
+        int size = pageSize == null ? DEFAULT_PAGE_SIZE : pageSize;
+        return new Continuation(token.isEmpty() ? Integer.MIN_VALUE : decodeToken(token), size);
+    }
+
+    public <T, R> ContinuationPage<R> createPage(
+            List<T> entities, Continuation continuation, Function<T, Integer> idGetter, Function<T, R> mapper) {
+
+        boolean hasNextPage = entities.size() > continuation.getPageSize();
+        List<T> pageEntities = hasNextPage ? entities.subList(0, continuation.getPageSize()) : entities;
+        Optional<String> nextToken = hasNextPage
+                ? Optional.of(encodeToken(idGetter.apply(pageEntities.get(pageEntities.size() - 1))))
+                : Optional.empty();
+
+        return new ContinuationPage<>(
+                pageEntities.stream().map(mapper).collect(Collectors.toList()),
+                nextToken);
+    }
+
+    static String encodeToken(int id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(
+                Integer.toString(id).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    static int decodeToken(String token) {
+        try {
+            return Integer.parseInt(new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException ignore) {
+            throw new IntegrityException(ErrorMessages.INVALID_CONTINUATION_TOKEN);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.laptevn;
+
+import com.laptevn.exception.ServiceOverloadedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice
+public class ServiceOverloadedExceptionHandler {
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity exceptionHandler(ServiceOverloadedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, ServiceOverloadedException.RETRY_AFTER_SECONDS)
+                .body(new ErrorDto(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage()));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.laptevn;
+
+import java.util.function.Supplier;
+
+public final class TaggedContent<T> {
+    private final String entityTag;
+    private final Supplier<T> contentSupplier;
+
+    public TaggedContent(String entityTag, Supplier<T> contentSupplier) {
+        this.entityTag = entityTag;
+        this.contentSupplier = contentSupplier;
+    }
+
+    public String getEntityTag() {
+        return entityTag;
+    }
+
+    public T getContent() {
+        return contentSupplier.get();
+    }
+}
\ No newline at end of file
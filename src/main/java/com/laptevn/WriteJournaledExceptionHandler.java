@@ -0,0 +1,15 @@
+package com.laptevn;
+
+import com.laptevn.exception.WriteJournaledException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice
+public class WriteJournaledExceptionHandler {
+    @ExceptionHandler(WriteJournaledException.class)
+    public ResponseEntity exceptionHandler(WriteJournaledException e) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(new ErrorDto(HttpStatus.ACCEPTED, e.getMessage()));
+    }
+}
\ No newline at end of file
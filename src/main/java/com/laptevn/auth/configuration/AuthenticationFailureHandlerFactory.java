@@ -1,14 +1,27 @@
 package com.laptevn.auth.configuration;
 
+import com.laptevn.exception.ServiceOverloadedException;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.web.authentication.AuthenticationFailureHandler;
 import org.springframework.security.web.authentication.SimpleUrlAuthenticationFailureHandler;
 
+import javax.servlet.http.HttpServletResponse;
+
 @Configuration
 public class AuthenticationFailureHandlerFactory {
     @Bean
     public AuthenticationFailureHandler createFailureHandler() {
-        return new SimpleUrlAuthenticationFailureHandler();
+        AuthenticationFailureHandler failureHandler = new SimpleUrlAuthenticationFailureHandler();
+        return (request, response, exception) -> {
+            if (exception.getCause() instanceof ServiceOverloadedException) {
+                response.setHeader(HttpHeaders.RETRY_AFTER, ServiceOverloadedException.RETRY_AFTER_SECONDS);
+                response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, exception.getMessage());
+                return;
+            }
+
+            failureHandler.onAuthenticationFailure(request, response, exception);
+        };
     }
 }
\ No newline at end of file
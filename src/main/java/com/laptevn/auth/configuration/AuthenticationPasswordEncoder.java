@@ -0,0 +1,38 @@
+package com.laptevn.auth.configuration;
+
+import com.laptevn.exception.ServiceOverloadedException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.function.Supplier;
+
+class AuthenticationPasswordEncoder implements PasswordEncoder {
+    private final PasswordEncoder passwordEncoder;
+
+    AuthenticationPasswordEncoder(PasswordEncoder passwordEncoder) {
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    private static <T> T execute(Supplier<T> task) {
+        try {
+            return task.get();
+        } catch (ServiceOverloadedException e) {
+            throw new InternalAuthenticationServiceException(e.getMessage(), e);
+        }
+    }
+}
\ No newline at end of file
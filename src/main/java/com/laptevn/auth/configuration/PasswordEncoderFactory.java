@@ -1,14 +1,31 @@
 package com.laptevn.auth.configuration;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.Collections;
+
 @Configuration
 public class PasswordEncoderFactory {
     @Bean
-    public PasswordEncoder createEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder createEncoder(
+            @Value("${jogging.password.strength:10}") int strength,
+            @Value("${jogging.password.threads:0}") int threadCount,
+            @Value("${jogging.password.queueSize:64}") int queueSize,
+            MeterRegistry meterRegistry) {
+
+        BoundedPasswordEncoder passwordEncoder = new BoundedPasswordEncoder(
+                new BCryptPasswordEncoder(strength),
+                strength,
+                threadCount > 0 ? threadCount : Runtime.getRuntime().availableProcessors(),
+                queueSize);
+        new ExecutorServiceMetrics(passwordEncoder.getExecutor(), "passwordHashing", Collections.emptyList())
+                .bindTo(meterRegistry);
+        return passwordEncoder;
     }
 }
\ No newline at end of file
@@ -1,20 +1,47 @@
 package com.laptevn.auth.configuration;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.laptevn.auth.entity.TokenDto;
+import com.laptevn.auth.service.TokenService;
+import com.laptevn.auth.service.UserResolver;
+import org.springframework.http.MediaType;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.web.authentication.SimpleUrlAuthenticationSuccessHandler;
 import org.springframework.stereotype.Component;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Optional;
 
 @Component
 public class RestAuthenticationSuccessHandler extends SimpleUrlAuthenticationSuccessHandler {
+    private final Optional<TokenService> tokenService;
+    private final UserResolver userResolver;
+    private final ObjectMapper objectMapper;
+
+    public RestAuthenticationSuccessHandler(
+            Optional<TokenService> tokenService, UserResolver userResolver, ObjectMapper objectMapper) {
+
+        this.tokenService = tokenService;
+        this.userResolver = userResolver;
+        this.objectMapper = objectMapper;
+    }
+
     @Override
     public void onAuthenticationSuccess(
             HttpServletRequest httpServletRequest,
             HttpServletResponse httpServletResponse,
-            Authentication authentication) {
+            Authentication authentication) throws IOException {
 
         clearAuthenticationAttributes(httpServletRequest);
+
+        if (tokenService.isPresent()) {
+            String token = tokenService.get().createToken(userResolver.resolve(authentication.getName()));
+            httpServletResponse.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
+            objectMapper.writeValue(
+                    httpServletResponse.getOutputStream(),
+                    new TokenDto(token, tokenService.get().getTimeToLive().getSeconds()));
+        }
     }
 }
\ No newline at end of file
@@ -1,17 +1,23 @@
 package com.laptevn.auth.configuration;
 
+import com.laptevn.auth.RoleSpringConverter;
+import com.laptevn.auth.service.TokenService;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.security.web.authentication.AuthenticationFailureHandler;
 import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.authentication.logout.LogoutSuccessHandler;
 
+import java.util.Optional;
+
 @Configuration
 @EnableGlobalMethodSecurity(securedEnabled = true)
 public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
@@ -21,6 +27,8 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
     private final AuthenticationFailureHandler authenticationFailureHandler;
     private final LogoutSuccessHandler logoutSuccessHandler;
     private final AuthenticationEntryPoint authenticationEntryPoint;
+    private final Optional<TokenService> tokenService;
+    private final RoleSpringConverter roleSpringConverter;
 
     public SecurityConfiguration(
             UserDetailsService userDetailsService,
@@ -28,7 +36,9 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
             AuthenticationSuccessHandler authenticationSuccessHandler,
             AuthenticationFailureHandler authenticationFailureHandler,
             LogoutSuccessHandler logoutSuccessHandler,
-            AuthenticationEntryPoint authenticationEntryPoint) {
+            AuthenticationEntryPoint authenticationEntryPoint,
+            Optional<TokenService> tokenService,
+            RoleSpringConverter roleSpringConverter) {
 
         this.userDetailsService = userDetailsService;
         this.passwordEncoder = passwordEncoder;
@@ -36,13 +46,15 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
         this.authenticationFailureHandler = authenticationFailureHandler;
         this.logoutSuccessHandler = logoutSuccessHandler;
         this.authenticationEntryPoint = authenticationEntryPoint;
+        this.tokenService = tokenService;
+        this.roleSpringConverter = roleSpringConverter;
     }
 
     @Override
     protected void configure(AuthenticationManagerBuilder auth) throws Exception {
         auth
                 .userDetailsService(userDetailsService)
-                .passwordEncoder(passwordEncoder);
+                .passwordEncoder(new AuthenticationPasswordEncoder(passwordEncoder));
     }
 
     @Override
@@ -61,5 +73,14 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
                 .antMatchers("/login").permitAll()
                 .antMatchers("/signup").permitAll()
                 .anyRequest().authenticated();
+
+        if (tokenService.isPresent()) {
+            http
+                .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+                .and()
+                .addFilterBefore(
+                        new TokenAuthenticationFilter(tokenService.get(), roleSpringConverter),
+                        UsernamePasswordAuthenticationFilter.class);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,47 @@
+package com.laptevn.auth.configuration;
+
+import com.laptevn.auth.RoleSpringConverter;
+import com.laptevn.auth.entity.TokenClaims;
+import com.laptevn.auth.service.TokenService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Optional;
+
+class TokenAuthenticationFilter extends OncePerRequestFilter {
+    private final static String BEARER_PREFIX = "Bearer ";
+
+    private final TokenService tokenService;
+    private final RoleSpringConverter roleSpringConverter;
+
+    TokenAuthenticationFilter(TokenService tokenService, RoleSpringConverter roleSpringConverter) {
+        this.tokenService = tokenService;
+        this.roleSpringConverter = roleSpringConverter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER_PREFIX)) {
+            Optional<TokenClaims> claims = tokenService.verify(header.substring(BEARER_PREFIX.length()));
+            if (claims.isPresent()) {
+                SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                        claims.get().getName(),
+                        null,
+                        AuthorityUtils.createAuthorityList(roleSpringConverter.convert(claims.get().getRole()))));
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
\ No newline at end of file
@@ -1,5 +1,7 @@
 package com.laptevn.auth.controller;
 
+import com.laptevn.ContinuationPage;
+import com.laptevn.ContinuationResponseFactory;
 import com.laptevn.ErrorDto;
 import com.laptevn.ErrorMessages;
 import com.laptevn.exception.IntegrityException;
@@ -132,9 +134,16 @@ public class UserController {
             @Min(value = 1, message = ErrorMessages.INVALID_PAGE_SIZE)
             Integer pageSize,
 
+            @RequestParam(value = "after", required = false)
+            String continuationToken,
+
             @RequestBody(required = false)
             String filter) {
 
+        if (continuationToken != null) {
+            return getUsersAfter(continuationToken, pageIndex, pageSize, filter);
+        }
+
         Collection<UserDto> users;
         try {
             users = userService.getAllUsers(pageIndex, pageSize, filter);
@@ -151,4 +160,30 @@ public class UserController {
                 filter);
         return ResponseEntity.ok(users);
     }
+
+    private ResponseEntity getUsersAfter(
+            String continuationToken, Integer pageIndex, Integer pageSize, String filter) {
+
+        if (pageIndex != null) {
+            logger.info(ErrorMessages.PAGE_WITH_CONTINUATION_TOKEN);
+            return ResponseEntity.badRequest().body(
+                    new ErrorDto(HttpStatus.BAD_REQUEST, ErrorMessages.PAGE_WITH_CONTINUATION_TOKEN));
+        }
+
+        ContinuationPage<UserDto> users;
+        try {
+            users = userService.getUsersAfter(continuationToken, pageSize, filter);
+        } catch (IntegrityException e) {
+            logger.info(e.getMessage());
+            return ResponseEntity.badRequest().body(new ErrorDto(HttpStatus.BAD_REQUEST, e.getMessage()));
+        }
+
+        logger.info(
+                "Getting users after '{}' token. Found {} users. Per page '{}'. Filter '{}'",
+                continuationToken,
+                users.getItems().size(),
+                pageSize,
+                filter);
+        return ContinuationResponseFactory.create("/users/", users, pageSize);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.laptevn.auth.entity;
+
+import java.time.Instant;
+
+public class TokenClaims {
+    private final int userId;
+    private final String name;
+    private final Role role;
+    private final Instant expirationTime;
+
+    public TokenClaims(int userId, String name, Role role, Instant expirationTime) {
+        this.userId = userId;
+        this.name = name;
+        this.role = role;
+        this.expirationTime = expirationTime;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Role getRole() {
+        return role;
+    }
+
+    public Instant getExpirationTime() {
+        return expirationTime;
+    }
+
+    @Override
+    public String toString() {
+        return "TokenClaims{" +
+                "userId=" + userId +
+                ", name='" + name + '\'' +
+                ", role=" + role +
+                ", expirationTime=" + expirationTime +
+                '}';
+    }
+}
\ No newline at end of file
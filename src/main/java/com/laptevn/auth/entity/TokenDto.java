@@ -0,0 +1,19 @@
+package com.laptevn.auth.entity;
+
+public class TokenDto {
+    private final String token;
+    private final long expiresIn;
+
+    public TokenDto(String token, long expiresIn) {
+        this.token = token;
+        this.expiresIn = expiresIn;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public long getExpiresIn() {
+        return expiresIn;
+    }
+}
\ No newline at end of file
@@ -1,5 +1,10 @@
 package com.laptevn.auth.entity;
 
+import com.laptevn.repository.IdGeneration;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
@@ -8,11 +13,19 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.Version;
+import java.util.Locale;
 
 @Entity
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "userIdGenerator")
+    @GenericGenerator(
+            name = "userIdGenerator",
+            strategy = IdGeneration.STRATEGY,
+            parameters = {
+                    @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = IdGeneration.SEQUENCE_NAME),
+                    @Parameter(name = SequenceStyleGenerator.OPT_PARAM, value = IdGeneration.OPTIMIZER),
+                    @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = IdGeneration.BLOCK_SIZE)})
     private Integer id;
 
     @Version
@@ -22,6 +35,9 @@ public class User {
     @Column(nullable = false, unique = true)
     private String name;
 
+    @Column(nullable = false, unique = true)
+    private String canonicalName;
+
     @Column(nullable = false)
     private String password;
 
@@ -53,9 +69,18 @@ public class User {
 
     public User setName(String name) {
         this.name = name;
+        this.canonicalName = name == null ? null : canonicalize(name);
         return this;
     }
 
+    public String getCanonicalName() {
+        return canonicalName;
+    }
+
+    public static String canonicalize(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
     public String getPassword() {
         return password;
     }
@@ -3,8 +3,10 @@ package com.laptevn.auth.repository;
 import com.laptevn.auth.entity.User;
 import org.springframework.data.domain.Pageable;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface FilterableRepository {
     Iterable<User> findAll(String filter, Optional<Pageable> pagination);
+    List<User> findAllAfter(int id, String filter, Pageable pageable);
 }
\ No newline at end of file
@@ -3,20 +3,33 @@ package com.laptevn.auth.repository;
 import com.laptevn.auth.entity.User;
 import com.laptevn.repository.filtering.WhereClauseBuilder;
 import com.laptevn.repository.ParsingFilterableRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Component;
 
 import javax.persistence.EntityManager;
+import java.util.List;
 import java.util.Optional;
 
 @Component("userRepositoryImpl")
 public class UserParsingFilterableRepository extends ParsingFilterableRepository<User> implements FilterableRepository {
-    public UserParsingFilterableRepository(EntityManager entityManager, WhereClauseBuilder whereClauseBuilder) {
-        super(entityManager, whereClauseBuilder);
+    public UserParsingFilterableRepository(
+            EntityManager entityManager,
+            WhereClauseBuilder whereClauseBuilder,
+            MeterRegistry meterRegistry,
+            @Value("${jogging.streaming.fetchSize:500}") int fetchSize) {
+
+        super(entityManager, whereClauseBuilder, meterRegistry, "user", fetchSize);
     }
 
     @Override
     public Iterable<User> findAll(String filter, Optional<Pageable> pagination) {
         return find(filter, pagination, User.class, Optional.empty());
     }
+
+    @Override
+    public List<User> findAllAfter(int id, String filter, Pageable pageable) {
+        return find(filter, Optional.of(pageable), User.class, Optional.of(createAfterPredicateBuilder(id)));
+    }
 }
\ No newline at end of file
@@ -5,13 +5,15 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.CrudRepository;
 
 import javax.transaction.Transactional;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends CrudRepository<User, Integer>, FilterableRepository {
-    Optional<User> findByNameIgnoreCase(String name);
+    Optional<User> findByCanonicalName(String canonicalName);
 
     @Transactional
-    int deleteByNameIgnoreCase(String name);
+    int deleteByCanonicalName(String canonicalName);
 
     Iterable<User> findAll(Pageable pageable);
+    List<User> findByIdGreaterThan(int id, Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,111 @@
+package com.laptevn.auth.service;
+
+import com.laptevn.auth.entity.Role;
+import com.laptevn.auth.entity.TokenClaims;
+import com.laptevn.auth.entity.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+@Component
+@ConditionalOnProperty(name = "jogging.auth.mode", havingValue = "token")
+public class TokenService {
+    private final static String ALGORITHM = "HmacSHA256";
+    private final static String PART_SEPARATOR = ".";
+    private final static String CLAIM_SEPARATOR = ":";
+    private final static int CLAIM_COUNT = 4;
+
+    private final SecretKeySpec key;
+    private final Duration timeToLive;
+    private final Clock clock;
+
+    @Autowired
+    public TokenService(
+            @Value("${jogging.auth.token.secret:}") String secret,
+            @Value("${jogging.auth.token.timeToLiveSeconds:900}") int timeToLiveSeconds) {
+
+        this(secret, Duration.ofSeconds(timeToLiveSeconds), Clock.systemUTC());
+    }
+
+    TokenService(String secret, Duration timeToLive, Clock clock) {
+        if (secret.isEmpty()) {
+            throw new IllegalArgumentException("Token secret should be configured in token authentication mode");
+        }
+
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.timeToLive = timeToLive;
+        this.clock = clock;
+    }
+
+    public Duration getTimeToLive() {
+        return timeToLive;
+    }
+
+    public String createToken(User user) {
+        long expirationTime = clock.instant().plus(timeToLive).getEpochSecond();
+        String claims = String.join(
+                CLAIM_SEPARATOR,
+                String.valueOf(user.getId()),
+                user.getRole().name(),
+                String.valueOf(expirationTime),
+                user.getName());
+
+        byte[] payload = claims.getBytes(StandardCharsets.UTF_8);
+        return encode(payload) + PART_SEPARATOR + encode(sign(payload));
+    }
+
+    public Optional<TokenClaims> verify(String token) {
+        int separatorIndex = token.indexOf(PART_SEPARATOR);
+        if (separatorIndex < 0) {
+            return Optional.empty();
+        }
+
+        byte[] payload;
+        byte[] signature;
+        try {
+            payload = Base64.getUrlDecoder().decode(token.substring(0, separatorIndex));
+            signature = Base64.getUrlDecoder().decode(token.substring(separatorIndex + 1));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+
+        if (!MessageDigest.isEqual(sign(payload), signature)) {
+            return Optional.empty();
+        }
+
+        String[] claims = new String(payload, StandardCharsets.UTF_8).split(CLAIM_SEPARATOR, CLAIM_COUNT);
+        Instant expirationTime = Instant.ofEpochSecond(Long.parseLong(claims[2]));
+        if (!clock.instant().isBefore(expirationTime)) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new TokenClaims(
+                Integer.parseInt(claims[0]), claims[3], Role.valueOf(claims[1]), expirationTime));
+    }
+
+    private byte[] sign(byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(payload);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,80 @@
+package com.laptevn.auth.service;
+
+import com.laptevn.ErrorMessages;
+import com.laptevn.auth.entity.User;
+import com.laptevn.auth.repository.UserRepository;
+import com.laptevn.cache.BoundedCache;
+import com.laptevn.cache.CacheMetrics;
+import com.laptevn.exception.IntegrityException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class UserResolver {
+    private final static String CACHE_NAME = "users";
+    private final static int CONCURRENCY_LEVEL = 16;
+
+    private final UserRepository userRepository;
+    private final BoundedCache<String, User> cache;
+
+    @Autowired
+    public UserResolver(
+            UserRepository userRepository,
+            @Value("${jogging.userCache.size:10000}") int cacheSize,
+            @Value("${jogging.userCache.timeToLiveSeconds:5}") int timeToLiveSeconds,
+            MeterRegistry meterRegistry) {
+
+        this(
+                userRepository,
+                new BoundedCache<>(
+                        cacheSize, CONCURRENCY_LEVEL, TimeUnit.SECONDS.toNanos(timeToLiveSeconds), System::nanoTime),
+                meterRegistry);
+    }
+
+    UserResolver(UserRepository userRepository, BoundedCache<String, User> cache, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.cache = cache;
+        CacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public User resolve(String userName) {
+        User user = userName == null ? null : cache.get(User.canonicalize(userName), this::load);
+        if (user == null) {
+            throw new IntegrityException(String.format(ErrorMessages.NOT_EXISTING_USER_FORMAT, userName));
+        }
+        return copy(user);
+    }
+
+    private User load(String canonicalName) {
+        return userRepository.findByCanonicalName(canonicalName)
+                .map(UserResolver::copy)
+                .orElse(null);
+    }
+
+    private static User copy(User user) {
+        return new User()
+                .setId(user.getId())
+                .setVersion(user.getVersion())
+                .setName(user.getName())
+                .setRole(user.getRole());
+    }
+
+    public void invalidate(String userName) {
+        String key = User.canonicalize(userName);
+        cache.invalidate(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(key);
+                }
+            });
+        }
+    }
+}
\ No newline at end of file
@@ -1,5 +1,7 @@
 package com.laptevn.auth.service;
 
+import com.laptevn.Continuation;
+import com.laptevn.ContinuationPage;
 import com.laptevn.ErrorMessages;
 import com.laptevn.exception.IntegrityException;
 import com.laptevn.PaginationFactory;
@@ -13,6 +15,7 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -20,24 +23,27 @@ import org.springframework.stereotype.Component;
 
 import javax.transaction.Transactional;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
 @Component
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
     private final static Logger logger = LoggerFactory.getLogger(UserService.class);
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final RoleSpringConverter roleSpringConverter;
     private final PaginationFactory paginationFactory;
+    private final UserResolver userResolver;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, RoleSpringConverter roleSpringConverter, PaginationFactory paginationFactory) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, RoleSpringConverter roleSpringConverter, PaginationFactory paginationFactory, UserResolver userResolver) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.roleSpringConverter = roleSpringConverter;
         this.paginationFactory = paginationFactory;
+        this.userResolver = userResolver;
     }
 
     public boolean createUser(UserDto userDto) {
@@ -57,7 +63,7 @@ public class UserService implements UserDetailsService {
 
     @Transactional
     public Optional<String> updateUser(UserDto userDto, String name) {
-        Optional<User> foundUser = userRepository.findByNameIgnoreCase(name);
+        Optional<User> foundUser = userRepository.findByCanonicalName(User.canonicalize(name));
         User user;
         if (foundUser.isPresent()) {
             user = foundUser.get();
@@ -71,26 +77,34 @@ public class UserService implements UserDetailsService {
             logger.info("Creating new user");
         }
 
+        if (!foundUser.isPresent() || !isPasswordUpToDate(userDto.getPassword(), user.getPassword())) {
+            user.setPassword(passwordEncoder.encode(userDto.getPassword()));
+        }
         user
             .setName(userDto.getName())
-            .setPassword(passwordEncoder.encode(userDto.getPassword()))
             .setRole(userDto.getRole());
 
         userRepository.save(user);
+        userResolver.invalidate(name);
+        userResolver.invalidate(userDto.getName());
 
         return foundUser.isPresent() ? Optional.empty() : Optional.of(user.getName());
     }
 
+    private boolean isPasswordUpToDate(String rawPassword, String encodedPassword) {
+        return passwordEncoder.matches(rawPassword, encodedPassword) && !passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    @Transactional
     public boolean deleteUser(String name) {
-        int deletedEntriesCount = userRepository.deleteByNameIgnoreCase(name);
+        int deletedEntriesCount = userRepository.deleteByCanonicalName(User.canonicalize(name));
+        userResolver.invalidate(name);
         return deletedEntriesCount > 0;
     }
 
     public Optional<UserDto> getUser(String name) {
-        Optional<User> foundUser = userRepository.findByNameIgnoreCase(name);
-        return foundUser.map(user -> new UserDto()
-                .setName(user.getName())
-                .setRole(user.getRole()));
+        Optional<User> foundUser = userRepository.findByCanonicalName(User.canonicalize(name));
+        return foundUser.map(UserService::createUserDto);
     }
 
     public Collection<UserDto> getAllUsers(Integer pageIndex, Integer pageSize, String filter) {
@@ -103,22 +117,50 @@ public class UserService implements UserDetailsService {
                     .orElseGet(userRepository::findAll);
 
         return StreamSupport.stream(users.spliterator(), false)
-                .map(
-                        user ->
-                                new UserDto()
-                                        .setName(user.getName())
-                                        .setRole(user.getRole()))
+                .map(UserService::createUserDto)
                 .collect(Collectors.toList());
     }
 
+    private static UserDto createUserDto(User user) {
+        return new UserDto()
+                .setName(user.getName())
+                .setRole(user.getRole());
+    }
+
+    public ContinuationPage<UserDto> getUsersAfter(String token, Integer pageSize, String filter) {
+        Continuation continuation = paginationFactory.createContinuation(token, pageSize);
+        List<User> users = filter != null
+                ? userRepository.findAllAfter(continuation.getAfterId(), filter, continuation.getPageable())
+                : userRepository.findByIdGreaterThan(continuation.getAfterId(), continuation.getPageable());
+
+        return paginationFactory.createPage(users, continuation, User::getId, UserService::createUserDto);
+    }
+
     @Override
     public UserDetails loadUserByUsername(String username) {
-        Optional<User> foundUser = userRepository.findByNameIgnoreCase(username);
+        return createUserDetails(findUser(username));
+    }
+
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = findUser(userDetails.getUsername());
+        user.setPassword(newPassword);
+        userRepository.save(user);
+        logger.info("Upgraded password hash of existing user");
+
+        return createUserDetails(user);
+    }
+
+    private User findUser(String username) {
+        Optional<User> foundUser = userRepository.findByCanonicalName(User.canonicalize(username));
         if (!foundUser.isPresent()) {
             throw new UsernameNotFoundException(String.format(ErrorMessages.USER_WAS_NOT_FOUND_TEMPLATE, username));
         }
+        return foundUser.get();
+    }
 
-        User user = foundUser.get();
+    private UserDetails createUserDetails(User user) {
         return new org.springframework.security.core.userdetails.User(
                 user.getName(), user.getPassword(), AuthorityUtils.createAuthorityList(roleSpringConverter.convert(user.getRole()))
         );
@@ -0,0 +1,180 @@
+package com.laptevn.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+public class BoundedCache<K, V> {
+    private final static int DEFAULT_CONCURRENCY_LEVEL = 16;
+    private final static long NO_EXPIRATION = 0;
+
+    private final Segment<K, V>[] segments;
+    private final long timeToLiveNanos;
+    private final LongSupplier ticker;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    public BoundedCache(int maximumSize) {
+        this(maximumSize, DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    public BoundedCache(int maximumSize, int concurrencyLevel) {
+        this(maximumSize, concurrencyLevel, NO_EXPIRATION, System::nanoTime);
+    }
+
+    @SuppressWarnings("unchecked")
+    public BoundedCache(int maximumSize, int concurrencyLevel, long timeToLiveNanos, LongSupplier ticker) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Maximum size should be positive");
+        }
+
+        if (timeToLiveNanos < 0) {
+            throw new IllegalArgumentException("Time to live cannot be negative");
+        }
+
+        this.timeToLiveNanos = timeToLiveNanos;
+        this.ticker = ticker;
+
+        int segmentCount = Math.min(Math.max(concurrencyLevel, 1), maximumSize);
+        segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            int capacity = maximumSize / segmentCount + (i < maximumSize % segmentCount ? 1 : 0);
+            segments[i] = new Segment<>(capacity, evictionCount);
+        }
+    }
+
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        Segment<K, V> segment = getSegment(key);
+        long now = ticker.getAsLong();
+        Entry<V> entry = segment.find(key);
+        if (entry != null && !isExpired(entry, now)) {
+            hitCount.increment();
+            return entry.value;
+        }
+
+        missCount.increment();
+        V value = loader.apply(key);
+        if (value == null) {
+            segment.delete(key);
+        } else {
+            segment.add(key, new Entry<>(value, now + timeToLiveNanos));
+        }
+        return value;
+    }
+
+    public V getIfPresent(K key) {
+        Entry<V> entry = getSegment(key).find(key);
+        if (entry != null && !isExpired(entry, ticker.getAsLong())) {
+            hitCount.increment();
+            return entry.value;
+        }
+
+        missCount.increment();
+        return null;
+    }
+
+    public void put(K key, V value) {
+        getSegment(key).add(key, new Entry<>(value, ticker.getAsLong() + timeToLiveNanos));
+    }
+
+    private boolean isExpired(Entry<V> entry, long now) {
+        return timeToLiveNanos != NO_EXPIRATION && now - entry.expirationTime >= 0;
+    }
+
+    public void invalidate(K key) {
+        getSegment(key).delete(key);
+    }
+
+    public void invalidateAll() {
+        for (Segment<K, V> segment : segments) {
+            segment.deleteAll();
+        }
+    }
+
+    private Segment<K, V> getSegment(K key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return segments[(hash & Integer.MAX_VALUE) % segments.length];
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    public double getHitRate() {
+        long hits = getHitCount();
+        long requests = hits + getMissCount();
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            size += segment.count();
+        }
+        return size;
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private final long expirationTime;
+
+        Entry(V value, long expirationTime) {
+            this.value = value;
+            this.expirationTime = expirationTime;
+        }
+    }
+
+    private static class Segment<K, V> extends LinkedHashMap<K, Entry<V>> {
+        private static final long serialVersionUID = -2815512365432071985L;
+
+        private final int capacity;
+        private final transient LongAdder evictionCount;
+
+        Segment(int capacity, LongAdder evictionCount) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+            this.evictionCount = evictionCount;
+        }
+
+        synchronized Entry<V> find(K key) {
+            return get(key);
+        }
+
+        synchronized void add(K key, Entry<V> entry) {
+            put(key, entry);
+        }
+
+        synchronized void delete(K key) {
+            remove(key);
+        }
+
+        synchronized void deleteAll() {
+            clear();
+        }
+
+        synchronized int count() {
+            return size();
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+            boolean isFull = size() > capacity;
+            if (isFull) {
+                evictionCount.increment();
+            }
+            return isFull;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.laptevn.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+public final class CacheMetrics {
+    private final static String CACHE_TAG = "cache";
+    private final static String RESULT_TAG = "result";
+
+    private CacheMetrics() {
+    }
+
+    public static void monitor(MeterRegistry meterRegistry, BoundedCache<?, ?> cache, String cacheName) {
+        FunctionCounter.builder("cache.gets", cache, BoundedCache::getHitCount)
+                .tags(CACHE_TAG, cacheName, RESULT_TAG, "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.gets", cache, BoundedCache::getMissCount)
+                .tags(CACHE_TAG, cacheName, RESULT_TAG, "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.evictions", cache, BoundedCache::getEvictionCount)
+                .tags(CACHE_TAG, cacheName)
+                .register(meterRegistry);
+        Gauge.builder("cache.size", cache, BoundedCache::size)
+                .tags(CACHE_TAG, cacheName)
+                .register(meterRegistry);
+        Gauge.builder("cache.hit.rate", cache, BoundedCache::getHitRate)
+                .tags(CACHE_TAG, cacheName)
+                .register(meterRegistry);
+    }
+}
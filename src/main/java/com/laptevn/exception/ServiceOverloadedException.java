@@ -0,0 +1,15 @@
+package com.laptevn.exception;
+
+public class ServiceOverloadedException extends RuntimeException {
+    public final static String RETRY_AFTER_SECONDS = "1";
+
+    private static final long serialVersionUID = -3870316153906297581L;
+
+    public ServiceOverloadedException(String message) {
+        super(message);
+    }
+
+    public ServiceOverloadedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.laptevn.exception;
+
+public class WriteJournaledException extends RuntimeException {
+    private static final long serialVersionUID = 6140825391733154729L;
+
+    public WriteJournaledException(String message) {
+        super(message);
+    }
+
+    public WriteJournaledException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
\ No newline at end of file
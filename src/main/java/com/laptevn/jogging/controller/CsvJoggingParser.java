@@ -0,0 +1,99 @@
+package com.laptevn.jogging.controller;
+
+import com.laptevn.ErrorMessages;
+import com.laptevn.exception.IntegrityException;
+import com.laptevn.jogging.entity.JoggingDto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+class CsvJoggingParser {
+    private final static List<String> COLUMNS = Arrays.asList("date", "distance", "time", "location");
+
+    private final int[] columnIndexes;
+
+    private CsvJoggingParser(int[] columnIndexes) {
+        this.columnIndexes = columnIndexes;
+    }
+
+    public static CsvJoggingParser create(String header) {
+        if (header == null) {
+            throw new IntegrityException(ErrorMessages.INVALID_CSV_HEADER);
+        }
+
+        List<String> headerColumns = new ArrayList<>();
+        for (String column : split(header)) {
+            headerColumns.add(column.trim().toLowerCase());
+        }
+
+        int[] columnIndexes = new int[COLUMNS.size()];
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            columnIndexes[i] = headerColumns.indexOf(COLUMNS.get(i));
+            if (columnIndexes[i] < 0) {
+                throw new IntegrityException(ErrorMessages.INVALID_CSV_HEADER);
+            }
+        }
+        return new CsvJoggingParser(columnIndexes);
+    }
+
+    public JoggingDto parse(String line) {
+        List<String> values = split(line);
+        return new JoggingDto()
+                .setDate(parseValue(values, 0, LocalDate::parse))
+                .setDistance(parseValue(values, 1, Integer::valueOf))
+                .setTime(parseValue(values, 2, LocalTime::parse))
+                .setLocation(parseValue(values, 3, Function.identity()));
+    }
+
+    private <T> T parseValue(List<String> values, int column, Function<String, T> parser) {
+        int index = columnIndexes[column];
+        if (index >= values.size() || values.get(index).isEmpty()) {
+            return null;
+        }
+
+        String value = values.get(index);
+        try {
+            return parser.apply(value);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IntegrityException(
+                    String.format(ErrorMessages.INVALID_CSV_VALUE_FORMAT, value, COLUMNS.get(column)));
+        }
+    }
+
+    private static List<String> split(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean isQuoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char symbol = line.charAt(i);
+            if (isQuoted) {
+                if (symbol != '"') {
+                    value.append(symbol);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append(symbol);
+                    i++;
+                } else {
+                    isQuoted = false;
+                }
+            } else if (symbol == '"') {
+                isQuoted = true;
+            } else if (symbol == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(symbol);
+            }
+        }
+
+        if (isQuoted) {
+            throw new IntegrityException(ErrorMessages.UNTERMINATED_CSV_QUOTE);
+        }
+        values.add(value.toString());
+        return values;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,88 @@
+package com.laptevn.jogging.controller;
+
+import com.laptevn.ErrorDto;
+import com.laptevn.ErrorMessages;
+import com.laptevn.auth.RoleSpringConverter;
+import com.laptevn.exception.IntegrityException;
+import com.laptevn.jogging.entity.BatchItemResultDto;
+import com.laptevn.jogging.entity.JoggingDto;
+import com.laptevn.jogging.service.JoggingService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.annotation.Secured;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@Secured({RoleSpringConverter.USER_ROLE, RoleSpringConverter.ADMIN_ROLE})
+public class JoggingBatchController {
+    private final static Logger logger = LoggerFactory.getLogger(JoggingBatchController.class);
+
+    private final JoggingService joggingService;
+    private final JoggingDtoValidator validator;
+    private final int maxBatchSize;
+
+    public JoggingBatchController(
+            JoggingService joggingService,
+            JoggingDtoValidator validator,
+            @Value("${jogging.batch.maxSize:1000}") int maxBatchSize) {
+
+        this.joggingService = joggingService;
+        this.validator = validator;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @RequestMapping(value = "/joggings/batch", method = RequestMethod.POST, consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity createJoggings(@RequestBody List<JoggingDto> joggingDtos, Principal principal) {
+        logger.info("Creating {} joggings in a batch", joggingDtos.size());
+
+        if (joggingDtos.size() > maxBatchSize) {
+            String error = String.format(ErrorMessages.BATCH_IS_TOO_LARGE_FORMAT, maxBatchSize);
+            logger.info(error);
+            return ResponseEntity.badRequest().body(new ErrorDto(HttpStatus.BAD_REQUEST, error));
+        }
+
+        List<String> errors = joggingDtos
+                .stream()
+                .map(validator::validate)
+                .collect(Collectors.toList());
+        List<JoggingDto> validJoggings = new ArrayList<>();
+        for (int i = 0; i < joggingDtos.size(); i++) {
+            if (errors.get(i) == null) {
+                validJoggings.add(joggingDtos.get(i));
+            }
+        }
+
+        List<Integer> ids;
+        try {
+            ids = joggingService.createJoggings(validJoggings, principal.getName());
+        } catch (IntegrityException e) {
+            logger.info(e.getMessage());
+            return ResponseEntity.unprocessableEntity().body(
+                    new ErrorDto(HttpStatus.UNPROCESSABLE_ENTITY, e.getMessage()));
+        }
+
+        Iterator<Integer> createdIds = ids.iterator();
+        List<BatchItemResultDto> results = errors
+                .stream()
+                .map(error -> error == null
+                        ? BatchItemResultDto.created(createdIds.next())
+                        : BatchItemResultDto.failed(error))
+                .collect(Collectors.toList());
+
+        logger.info("Created {} of {} joggings in a batch", ids.size(), joggingDtos.size());
+        return ResponseEntity.ok(results);
+    }
+}
\ No newline at end of file
@@ -1,13 +1,22 @@
 package com.laptevn.jogging.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.laptevn.ContinuationPage;
+import com.laptevn.ContinuationResponseFactory;
+import com.laptevn.EntityTags;
 import com.laptevn.ErrorDto;
 import com.laptevn.ErrorMessages;
+import com.laptevn.JsonArrayResponseWriter;
+import com.laptevn.TaggedContent;
 import com.laptevn.exception.IntegrityException;
 import com.laptevn.auth.RoleSpringConverter;
 import com.laptevn.jogging.service.JoggingService;
+import com.laptevn.jogging.entity.BulkOperationResultDto;
 import com.laptevn.jogging.entity.JoggingDto;
+import com.laptevn.jogging.entity.JoggingPatchDto;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -15,13 +24,17 @@ import org.springframework.security.access.annotation.Secured;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.Min;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.security.Principal;
 import java.util.Collection;
@@ -34,9 +47,11 @@ public class JoggingController {
     private final static Logger logger = LoggerFactory.getLogger(JoggingController.class);
 
     private final JoggingService joggingService;
+    private final ObjectMapper objectMapper;
 
-    public JoggingController(JoggingService joggingService) {
+    public JoggingController(JoggingService joggingService, ObjectMapper objectMapper) {
         this.joggingService = joggingService;
+        this.objectMapper = objectMapper;
     }
 
     @RequestMapping(value = "/joggings/", method = RequestMethod.POST, consumes = MediaType.APPLICATION_JSON_VALUE)
@@ -44,6 +59,11 @@ public class JoggingController {
         logger.info("Creating new jogging '{}'", joggingDto);
 
         try {
+            if (joggingService.isIngestionQueued()) {
+                int id = joggingService.enqueueJogging(joggingDto, principal.getName());
+                return ResponseEntity.accepted().location(URI.create("/joggings/" + id)).build();
+            }
+
             return createCreatedResponse(joggingService.createJogging(joggingDto, principal.getName()));
         } catch (IntegrityException e) {
             logger.info(e.getMessage());
@@ -57,12 +77,29 @@ public class JoggingController {
     }
 
     @RequestMapping(value = "/joggings/{id}", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity getJogging(@PathVariable int id, Principal principal) {
+    public ResponseEntity getJogging(
+            @PathVariable
+            int id,
+
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+            String ifNoneMatch,
+            Principal principal) {
+
         logger.info("Getting jogging with '{}' id", id);
 
         Optional<JoggingDto> jogging;
 
         try {
+            if (ifNoneMatch != null) {
+                Optional<String> entityTag = joggingService
+                        .getJoggingVersion(id, principal.getName())
+                        .map(version -> EntityTags.create(id, version));
+                if (entityTag.isPresent() && EntityTags.matches(ifNoneMatch, entityTag.get())) {
+                    logger.info("Jogging wasn't modified");
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(entityTag.get()).build();
+                }
+            }
+
             jogging = joggingService.getJogging(id, principal.getName());
         } catch (IntegrityException e) {
             logger.info(e.getMessage());
@@ -76,7 +113,7 @@ public class JoggingController {
         }
 
         logger.info("Jogging was found");
-        return ResponseEntity.ok(jogging.get());
+        return ResponseEntity.ok().eTag(EntityTags.create(id, jogging.get().getVersion())).body(jogging.get());
     }
 
     @RequestMapping(value = "/joggings/{id}", method = RequestMethod.DELETE)
@@ -107,9 +144,16 @@ public class JoggingController {
             @Valid
             @RequestBody
             JoggingDto joggingDto,
+
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+            String ifMatch,
             Principal principal) {
 
         logger.info("Updating jogging with '{}' id", id);
+        if (ifMatch != null) {
+            return updateExistingJogging(id, joggingDto, ifMatch, principal);
+        }
+
         Optional<Integer> newId;
         try {
             newId = joggingService.updateJogging(id, joggingDto, principal.getName());
@@ -124,6 +168,73 @@ public class JoggingController {
                 .orElseGet(() -> ResponseEntity.ok().build());
     }
 
+    private ResponseEntity updateExistingJogging(int id, JoggingDto joggingDto, String ifMatch, Principal principal) {
+        Optional<Integer> expectedVersion = EntityTags.isAny(ifMatch)
+                ? Optional.empty()
+                : EntityTags.findVersion(ifMatch, id);
+        if (!EntityTags.isAny(ifMatch) && !expectedVersion.isPresent()) {
+            logger.info("'{}' doesn't match jogging with '{}' id", ifMatch, id);
+            return createPreconditionFailedResponse();
+        }
+
+        Optional<Integer> updatedVersion;
+        try {
+            updatedVersion = joggingService.updateExistingJogging(id, joggingDto, principal.getName(), expectedVersion);
+        } catch (IntegrityException e) {
+            logger.info(e.getMessage());
+            return ResponseEntity.unprocessableEntity().body(
+                    new ErrorDto(HttpStatus.UNPROCESSABLE_ENTITY, e.getMessage()));
+        }
+
+        if (!updatedVersion.isPresent()) {
+            logger.info("Jogging with '{}' id doesn't exist or was modified", id);
+            return createPreconditionFailedResponse();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (expectedVersion.isPresent()) {
+            response.eTag(EntityTags.create(id, updatedVersion.get()));
+        }
+        return response.build();
+    }
+
+    private static ResponseEntity createPreconditionFailedResponse() {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(
+                new ErrorDto(HttpStatus.PRECONDITION_FAILED, ErrorMessages.JOGGING_WAS_MODIFIED));
+    }
+
+    @RequestMapping(value = "/joggings/", method = RequestMethod.DELETE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity deleteJoggings(@RequestBody String filter, Principal principal) {
+        int deletedCount;
+        try {
+            deletedCount = joggingService.deleteJoggings(principal.getName(), filter);
+        } catch (IntegrityException e) {
+            logger.info(e.getMessage());
+            return ResponseEntity.badRequest().body(new ErrorDto(HttpStatus.BAD_REQUEST, e.getMessage()));
+        }
+
+        logger.info("Deleted {} joggings. Filter '{}'", deletedCount, filter);
+        return ResponseEntity.ok(new BulkOperationResultDto(deletedCount));
+    }
+
+    @RequestMapping(
+            value = "/joggings/",
+            method = RequestMethod.PATCH,
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity updateJoggings(@Valid @RequestBody JoggingPatchDto joggingPatchDto, Principal principal) {
+        int updatedCount;
+        try {
+            updatedCount = joggingService.updateJoggings(principal.getName(), joggingPatchDto);
+        } catch (IntegrityException e) {
+            logger.info(e.getMessage());
+            return ResponseEntity.badRequest().body(new ErrorDto(HttpStatus.BAD_REQUEST, e.getMessage()));
+        }
+
+        logger.info("Updated {} joggings with '{}'", updatedCount, joggingPatchDto);
+        return ResponseEntity.ok(new BulkOperationResultDto(updatedCount));
+    }
+
     @RequestMapping(value = "/joggings/", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity getAllJoggings(
             @RequestParam(value = "page", required = false)
@@ -134,24 +245,102 @@ public class JoggingController {
             @Min(value = 1, message = ErrorMessages.INVALID_PAGE_SIZE)
             Integer pageSize,
 
+            @RequestParam(value = "after", required = false)
+            String continuationToken,
+
             @RequestBody(required = false)
             String filter,
-            Principal principal) {
 
-        Collection<JoggingDto> joggings;
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+            String ifNoneMatch,
+            Principal principal,
+            HttpServletResponse response) {
+
+        if (continuationToken != null) {
+            return getJoggingsAfter(continuationToken, pageIndex, pageSize, filter, ifNoneMatch, principal);
+        }
+
+        if (pageIndex == null && pageSize == null) {
+            return streamJoggings(filter, principal, response);
+        }
+
+        TaggedContent<Collection<JoggingDto>> taggedJoggings;
         try {
-            joggings = joggingService.getAllJoggings(principal.getName(), pageIndex, pageSize, filter);
+            taggedJoggings = joggingService.getAllJoggings(principal.getName(), pageIndex, pageSize, filter);
         } catch (IntegrityException e) {
             logger.info(e.getMessage());
             return ResponseEntity.badRequest().body(new ErrorDto(HttpStatus.BAD_REQUEST, e.getMessage()));
         }
 
+        if (ifNoneMatch != null && EntityTags.matches(ifNoneMatch, taggedJoggings.getEntityTag())) {
+            logger.info("Joggings weren't modified. Page '{}', Per page '{}'. Filter '{}'", pageIndex, pageSize, filter);
+            return createNotModifiedResponse(taggedJoggings);
+        }
+
+        Collection<JoggingDto> joggings = taggedJoggings.getContent();
         logger.info(
                 "Getting all joggings. Found {} joggings. Page '{}', Per page '{}'. Filter '{}'",
                 joggings.size(),
                 pageIndex,
                 pageSize,
                 filter);
-        return ResponseEntity.ok(joggings);
+        return ResponseEntity.ok().eTag(taggedJoggings.getEntityTag()).body(joggings);
+    }
+
+    private static ResponseEntity createNotModifiedResponse(TaggedContent<?> taggedContent) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(taggedContent.getEntityTag()).build();
+    }
+
+    private ResponseEntity getJoggingsAfter(
+            String continuationToken,
+            Integer pageIndex,
+            Integer pageSize,
+            String filter,
+            String ifNoneMatch,
+            Principal principal) {
+
+        if (pageIndex != null) {
+            logger.info(ErrorMessages.PAGE_WITH_CONTINUATION_TOKEN);
+            return ResponseEntity.badRequest().body(
+                    new ErrorDto(HttpStatus.BAD_REQUEST, ErrorMessages.PAGE_WITH_CONTINUATION_TOKEN));
+        }
+
+        TaggedContent<ContinuationPage<JoggingDto>> taggedJoggings;
+        try {
+            taggedJoggings = joggingService.getJoggingsAfter(principal.getName(), continuationToken, pageSize, filter);
+        } catch (IntegrityException e) {
+            logger.info(e.getMessage());
+            return ResponseEntity.badRequest().body(new ErrorDto(HttpStatus.BAD_REQUEST, e.getMessage()));
+        }
+
+        if (ifNoneMatch != null && EntityTags.matches(ifNoneMatch, taggedJoggings.getEntityTag())) {
+            logger.info("Joggings after '{}' token weren't modified. Filter '{}'", continuationToken, filter);
+            return createNotModifiedResponse(taggedJoggings);
+        }
+
+        ContinuationPage<JoggingDto> joggings = taggedJoggings.getContent();
+        logger.info(
+                "Getting joggings after '{}' token. Found {} joggings. Per page '{}'. Filter '{}'",
+                continuationToken,
+                joggings.getItems().size(),
+                pageSize,
+                filter);
+        return ContinuationResponseFactory.create("/joggings/", joggings, pageSize, taggedJoggings.getEntityTag());
+    }
+
+    private ResponseEntity streamJoggings(String filter, Principal principal, HttpServletResponse response) {
+        JsonArrayResponseWriter<JoggingDto> writer = new JsonArrayResponseWriter<>(objectMapper, response);
+        try {
+            joggingService.streamJoggings(principal.getName(), filter, writer);
+            writer.close();
+        } catch (IntegrityException e) {
+            logger.info(e.getMessage());
+            return ResponseEntity.badRequest().body(new ErrorDto(HttpStatus.BAD_REQUEST, e.getMessage()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        logger.info("Streamed all joggings. Found {} joggings. Filter '{}'", writer.getCount(), filter);
+        return null;
     }
 }
\ No newline at end of file
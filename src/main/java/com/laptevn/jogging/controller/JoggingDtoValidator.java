@@ -0,0 +1,36 @@
+package com.laptevn.jogging.controller;
+
+import com.laptevn.ErrorMessages;
+import com.laptevn.jogging.entity.JoggingDto;
+import org.springframework.stereotype.Component;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Component
+class JoggingDtoValidator {
+    private final Validator validator;
+
+    public JoggingDtoValidator(Validator validator) {
+        this.validator = validator;
+    }
+
+    public String validate(JoggingDto joggingDto) {
+        if (joggingDto == null) {
+            return ErrorMessages.EMPTY_JOGGING;
+        }
+
+        Set<ConstraintViolation<JoggingDto>> violations = validator.validate(joggingDto);
+        if (violations.isEmpty()) {
+            return null;
+        }
+
+        return violations
+                .stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,193 @@
+package com.laptevn.jogging.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.laptevn.BoundedLineReader;
+import com.laptevn.ErrorDto;
+import com.laptevn.ErrorMessages;
+import com.laptevn.auth.RoleSpringConverter;
+import com.laptevn.exception.IntegrityException;
+import com.laptevn.jogging.entity.ImportLineErrorDto;
+import com.laptevn.jogging.entity.ImportResultDto;
+import com.laptevn.jogging.entity.JoggingDto;
+import com.laptevn.jogging.service.JoggingService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.annotation.Secured;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@Secured({RoleSpringConverter.USER_ROLE, RoleSpringConverter.ADMIN_ROLE})
+public class JoggingImportController {
+    public final static String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+    public final static String CSV_MEDIA_TYPE = "text/csv";
+
+    private final static Logger logger = LoggerFactory.getLogger(JoggingImportController.class);
+
+    private final JoggingService joggingService;
+    private final JoggingDtoValidator validator;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int maxErrors;
+    private final int maxLineLength;
+
+    public JoggingImportController(
+            JoggingService joggingService,
+            JoggingDtoValidator validator,
+            ObjectMapper objectMapper,
+            @Value("${jogging.import.chunkSize:5000}") int chunkSize,
+            @Value("${jogging.import.maxErrors:1000}") int maxErrors,
+            @Value("${jogging.import.maxLineLength:4096}") int maxLineLength) {
+
+        this.joggingService = joggingService;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+        this.maxLineLength = maxLineLength;
+    }
+
+    @RequestMapping(value = "/joggings/import", method = RequestMethod.POST, consumes = NDJSON_MEDIA_TYPE)
+    public ResponseEntity importNdjsonJoggings(InputStream body, Principal principal) {
+        logger.info("Importing joggings from NDJSON");
+        return importJoggings(createReader(body), this::parseJson, 0, principal.getName());
+    }
+
+    @RequestMapping(value = "/joggings/import", method = RequestMethod.POST, consumes = CSV_MEDIA_TYPE)
+    public ResponseEntity importCsvJoggings(InputStream body, Principal principal) {
+        logger.info("Importing joggings from CSV");
+
+        BoundedLineReader reader = createReader(body);
+        CsvJoggingParser parser;
+        try {
+            parser = CsvJoggingParser.create(readLine(reader));
+        } catch (IntegrityException e) {
+            logger.info(e.getMessage());
+            return ResponseEntity.badRequest().body(new ErrorDto(HttpStatus.BAD_REQUEST, e.getMessage()));
+        }
+        return importJoggings(reader, parser::parse, 1, principal.getName());
+    }
+
+    private BoundedLineReader createReader(InputStream body) {
+        return new BoundedLineReader(new InputStreamReader(body, StandardCharsets.UTF_8), maxLineLength);
+    }
+
+    private ResponseEntity importJoggings(
+            BoundedLineReader reader, LineParser parser, long lineCount, String userName) {
+
+        List<JoggingDto> chunk = new ArrayList<>(chunkSize);
+        List<ImportLineErrorDto> errors = new ArrayList<>();
+        long importedCount = 0;
+        long failedCount = 0;
+        try {
+            while (true) {
+                String line;
+                try {
+                    line = readLine(reader);
+                } catch (IntegrityException e) {
+                    lineCount++;
+                    failedCount++;
+                    addError(errors, lineCount, e.getMessage());
+                    continue;
+                }
+
+                if (line == null) {
+                    break;
+                }
+                lineCount++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+
+                String error;
+                try {
+                    JoggingDto joggingDto = parser.parse(line);
+                    error = validator.validate(joggingDto);
+                    if (error == null) {
+                        chunk.add(joggingDto);
+                    }
+                } catch (IntegrityException e) {
+                    error = e.getMessage();
+                }
+
+                if (error != null) {
+                    failedCount++;
+                    addError(errors, lineCount, error);
+                }
+
+                if (chunk.size() == chunkSize) {
+                    importedCount += flush(chunk, userName);
+                    logger.info("Imported {} joggings of {} lines", importedCount, lineCount);
+                }
+            }
+
+            importedCount += flush(chunk, userName);
+        } catch (IntegrityException e) {
+            failedCount += chunk.size();
+            logger.info(
+                    "Import stopped after {} lines with {} joggings imported. {}",
+                    lineCount, importedCount, e.getMessage());
+            return ResponseEntity.unprocessableEntity().body(
+                    new ImportResultDto(lineCount, importedCount, failedCount, errors, e.getMessage()));
+        }
+
+        logger.info("Imported {} joggings of {} lines, {} lines failed", importedCount, lineCount, failedCount);
+        return ResponseEntity.ok(new ImportResultDto(lineCount, importedCount, failedCount, errors, null));
+    }
+
+    private int flush(List<JoggingDto> chunk, String userName) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+
+        int count = joggingService.createJoggings(chunk, userName).size();
+        chunk.clear();
+        return count;
+    }
+
+    private void addError(List<ImportLineErrorDto> errors, long line, String error) {
+        if (errors.size() < maxErrors) {
+            errors.add(new ImportLineErrorDto(line, error));
+        }
+    }
+
+    private JoggingDto parseJson(String line) {
+        try {
+            JoggingDto joggingDto = objectMapper.readValue(line, JoggingDto.class);
+            if (joggingDto == null) {
+                throw new IntegrityException(ErrorMessages.EMPTY_JOGGING);
+            }
+            return joggingDto;
+        } catch (JsonProcessingException e) {
+            throw new IntegrityException(e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String readLine(BoundedLineReader reader) {
+        try {
+            return reader.readLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private interface LineParser {
+        JoggingDto parse(String line);
+    }
+}
\ No newline at end of file
@@ -1,21 +1,32 @@
 package com.laptevn.jogging.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.laptevn.ErrorDto;
+import com.laptevn.JsonArrayResponseWriter;
 import com.laptevn.exception.IntegrityException;
 import com.laptevn.auth.RoleSpringConverter;
+import com.laptevn.jogging.entity.UserReportDto;
 import com.laptevn.jogging.service.ReportService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.annotation.Secured;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.security.Principal;
+import java.time.LocalDate;
+import java.time.Period;
 
 @RestController
 @Validated
@@ -24,13 +35,19 @@ public class ReportController {
     private final static Logger logger = LoggerFactory.getLogger(ReportController.class);
 
     private final ReportService reportService;
+    private final ObjectMapper objectMapper;
 
-    public ReportController(ReportService reportService) {
+    public ReportController(ReportService reportService, ObjectMapper objectMapper) {
         this.reportService = reportService;
+        this.objectMapper = objectMapper;
     }
 
     @RequestMapping(value = "/reports/", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity generateReport(Principal principal) {
+    public ResponseEntity generateReport(@RequestBody(required = false) String filter, Principal principal) {
+        if (filter != null) {
+            return generateFilteredReport(filter, principal);
+        }
+
         logger.info("Generating a report for '{}' user", principal.getName());
 
         try {
@@ -41,4 +58,74 @@ public class ReportController {
                     new ErrorDto(HttpStatus.UNPROCESSABLE_ENTITY, e.getMessage()));
         }
     }
+
+    private ResponseEntity generateFilteredReport(String filter, Principal principal) {
+        logger.info("Generating a report for '{}' user with filter '{}'", principal.getName(), filter);
+
+        try {
+            return ResponseEntity.ok(reportService.generateFilteredReport(principal.getName(), filter));
+        } catch (IntegrityException e) {
+            logger.info(e.getMessage());
+            return ResponseEntity.badRequest().body(new ErrorDto(HttpStatus.BAD_REQUEST, e.getMessage()));
+        }
+    }
+
+    @RequestMapping(
+            value = "/reports/",
+            method = RequestMethod.GET,
+            params = "granularity",
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity generateReportSeries(
+            @RequestParam("granularity") String granularity,
+            @RequestParam(value = "periods", defaultValue = "12") int periodCount,
+            @RequestParam(value = "until", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            LocalDate until,
+            Principal principal) {
+
+        logger.info(
+                "Generating {} {} report periods until '{}' for '{}' user",
+                periodCount, granularity, until, principal.getName());
+
+        try {
+            return ResponseEntity.ok(reportService.generateReportSeries(
+                    principal.getName(), granularity, periodCount, until == null ? LocalDate.now() : until));
+        } catch (IntegrityException e) {
+            logger.info(e.getMessage());
+            return ResponseEntity.unprocessableEntity().body(
+                    new ErrorDto(HttpStatus.UNPROCESSABLE_ENTITY, e.getMessage()));
+        }
+    }
+
+    @RequestMapping(value = "/reports/users/", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+    @Secured(RoleSpringConverter.ADMIN_ROLE)
+    public ResponseEntity generateUserReports(
+            @RequestParam(value = "from", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            LocalDate from,
+
+            @RequestParam(value = "until", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            LocalDate until,
+            HttpServletResponse response) {
+
+        LocalDate rightBound = until == null ? LocalDate.now() : until;
+        LocalDate leftBound = from == null ? rightBound.minus(Period.ofWeeks(1)) : from;
+        logger.info("Generating reports for all users from '{}' until '{}'", leftBound, rightBound);
+
+        JsonArrayResponseWriter<UserReportDto> writer = new JsonArrayResponseWriter<>(objectMapper, response);
+        try {
+            reportService.streamUserReports(leftBound, rightBound, writer);
+            writer.close();
+        } catch (IntegrityException e) {
+            logger.info(e.getMessage());
+            return ResponseEntity.unprocessableEntity().body(
+                    new ErrorDto(HttpStatus.UNPROCESSABLE_ENTITY, e.getMessage()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        logger.info("Streamed reports for {} users", writer.getCount());
+        return null;
+    }
 }
\ No newline at end of file
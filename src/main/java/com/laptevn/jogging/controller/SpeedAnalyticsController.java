@@ -0,0 +1,76 @@
+package com.laptevn.jogging.controller;
+
+import com.laptevn.ErrorDto;
+import com.laptevn.auth.RoleSpringConverter;
+import com.laptevn.exception.IntegrityException;
+import com.laptevn.jogging.service.SpeedSketchService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.annotation.Secured;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.security.Principal;
+import java.util.List;
+
+@RestController
+@Validated
+@Secured({RoleSpringConverter.USER_ROLE, RoleSpringConverter.ADMIN_ROLE})
+public class SpeedAnalyticsController {
+    private final static Logger logger = LoggerFactory.getLogger(SpeedAnalyticsController.class);
+
+    private final SpeedSketchService speedSketchService;
+
+    public SpeedAnalyticsController(SpeedSketchService speedSketchService) {
+        this.speedSketchService = speedSketchService;
+    }
+
+    @RequestMapping(
+            value = "/analytics/speed/rank",
+            method = RequestMethod.GET,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity rankSpeed(
+            @RequestParam(value = "month", required = false) String month,
+            @RequestParam(value = "location", required = false) String location,
+            @RequestParam(value = "speed", required = false) Double speed,
+            Principal principal) {
+
+        logger.info(
+                "Ranking speed '{}' in '{}' month and '{}' location for '{}' user",
+                speed, month, location, principal.getName());
+
+        try {
+            return ResponseEntity.ok(speedSketchService.rankSpeed(principal.getName(), month, location, speed));
+        } catch (IntegrityException e) {
+            logger.info(e.getMessage());
+            return ResponseEntity.unprocessableEntity().body(
+                    new ErrorDto(HttpStatus.UNPROCESSABLE_ENTITY, e.getMessage()));
+        }
+    }
+
+    @RequestMapping(
+            value = "/analytics/speed/percentiles",
+            method = RequestMethod.GET,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity getSpeedPercentiles(
+            @RequestParam(value = "month", required = false) String month,
+            @RequestParam(value = "location", required = false) String location,
+            @RequestParam(value = "quantiles", defaultValue = "0.5,0.75,0.9,0.99") List<Double> quantiles) {
+
+        logger.info("Getting speed percentiles {} in '{}' month and '{}' location", quantiles, month, location);
+
+        try {
+            return ResponseEntity.ok(speedSketchService.getSpeedPercentiles(month, location, quantiles));
+        } catch (IntegrityException e) {
+            logger.info(e.getMessage());
+            return ResponseEntity.unprocessableEntity().body(
+                    new ErrorDto(HttpStatus.UNPROCESSABLE_ENTITY, e.getMessage()));
+        }
+    }
+}
\ No newline at end of file
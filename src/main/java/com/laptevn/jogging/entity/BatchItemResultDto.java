@@ -0,0 +1,35 @@
+package com.laptevn.jogging.entity;
+
+public class BatchItemResultDto {
+    private final Integer id;
+    private final String error;
+
+    private BatchItemResultDto(Integer id, String error) {
+        this.id = id;
+        this.error = error;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchItemResultDto{" +
+                "id=" + id +
+                ", error='" + error + '\'' +
+                '}';
+    }
+
+    public static BatchItemResultDto created(int id) {
+        return new BatchItemResultDto(id, null);
+    }
+
+    public static BatchItemResultDto failed(String error) {
+        return new BatchItemResultDto(null, error);
+    }
+}
\ No newline at end of file
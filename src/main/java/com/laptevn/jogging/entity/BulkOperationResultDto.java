@@ -0,0 +1,20 @@
+package com.laptevn.jogging.entity;
+
+public class BulkOperationResultDto {
+    private final int affectedCount;
+
+    public BulkOperationResultDto(int affectedCount) {
+        this.affectedCount = affectedCount;
+    }
+
+    public int getAffectedCount() {
+        return affectedCount;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkOperationResultDto{" +
+                "affectedCount=" + affectedCount +
+                '}';
+    }
+}
\ No newline at end of file
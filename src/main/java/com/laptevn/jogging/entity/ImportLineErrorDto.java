@@ -0,0 +1,27 @@
+package com.laptevn.jogging.entity;
+
+public class ImportLineErrorDto {
+    private final long line;
+    private final String error;
+
+    public ImportLineErrorDto(long line, String error) {
+        this.line = line;
+        this.error = error;
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportLineErrorDto{" +
+                "line=" + line +
+                ", error='" + error + '\'' +
+                '}';
+    }
+}
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.laptevn.jogging.entity;
+
+import java.util.List;
+
+public class ImportResultDto {
+    private final long lineCount;
+    private final long importedCount;
+    private final long failedCount;
+    private final List<ImportLineErrorDto> errors;
+    private final String error;
+
+    public ImportResultDto(
+            long lineCount, long importedCount, long failedCount, List<ImportLineErrorDto> errors, String error) {
+
+        this.lineCount = lineCount;
+        this.importedCount = importedCount;
+        this.failedCount = failedCount;
+        this.errors = errors;
+        this.error = error;
+    }
+
+    public long getLineCount() {
+        return lineCount;
+    }
+
+    public long getImportedCount() {
+        return importedCount;
+    }
+
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    public List<ImportLineErrorDto> getErrors() {
+        return errors;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportResultDto{" +
+                "lineCount=" + lineCount +
+                ", importedCount=" + importedCount +
+                ", failedCount=" + failedCount +
+                ", errors=" + errors +
+                ", error='" + error + '\'' +
+                '}';
+    }
+}
\ No newline at end of file
@@ -1,30 +1,45 @@
 package com.laptevn.jogging.entity;
 
 import com.laptevn.auth.entity.User;
+import com.laptevn.repository.IdGeneration;
+import org.hibernate.annotations.GenericGenerator;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.ManyToOne;
+import javax.persistence.Table;
 import javax.persistence.Version;
 import java.time.LocalDate;
 import java.time.LocalTime;
 
 @Entity
+@Table(indexes = @Index(name = "IDX_jogging_user_date", columnList = "user_id, date, distance, time"))
 public class Jogging {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "joggingIdGenerator")
+    @GenericGenerator(
+            name = "joggingIdGenerator",
+            strategy = IdGeneration.STRATEGY,
+            parameters = {
+                    @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = IdGeneration.SEQUENCE_NAME),
+                    @Parameter(name = SequenceStyleGenerator.OPT_PARAM, value = IdGeneration.OPTIMIZER),
+                    @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = IdGeneration.BLOCK_SIZE)})
     private Integer id;
 
     @Version
     @Column(nullable = false)
     private Integer version;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @OnDelete(action = OnDeleteAction.CASCADE)
     private User user;
 
@@ -1,6 +1,7 @@
 package com.laptevn.jogging.entity;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.laptevn.ErrorMessages;
 
 import javax.validation.constraints.Min;
@@ -10,8 +11,8 @@ import java.time.LocalDate;
 import java.time.LocalTime;
 
 public class JoggingDto {
-    private final static String ISO_DATE_FORMAT = "yyyy-MM-dd";
-    private final static String ISO_TIME_FORMAT = "HH:mm:ss";
+    final static String ISO_DATE_FORMAT = "yyyy-MM-dd";
+    final static String ISO_TIME_FORMAT = "HH:mm:ss";
     private final static String NO_DATA = "No data provided. Please repeat your request later.";
 
     private Integer id;
@@ -35,6 +36,9 @@ public class JoggingDto {
     private String averageTemperature;
     private String weatherCondition;
 
+    @JsonIgnore
+    private Integer version;
+
     public LocalDate getDate() {
         return date;
     }
@@ -98,6 +102,15 @@ public class JoggingDto {
         return this;
     }
 
+    public Integer getVersion() {
+        return version;
+    }
+
+    public JoggingDto setVersion(Integer version) {
+        this.version = version;
+        return this;
+    }
+
     @Override
     public String toString() {
         return "JoggingDto{" +
@@ -114,6 +127,7 @@ public class JoggingDto {
     public static JoggingDto create(Jogging jogging) {
         return new JoggingDto()
                 .setId(jogging.getId())
+                .setVersion(jogging.getVersion())
                 .setLocation(jogging.getLocation())
                 .setDate(jogging.getDate())
                 .setDistance(jogging.getDistance())
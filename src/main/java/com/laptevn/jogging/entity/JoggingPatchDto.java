@@ -0,0 +1,88 @@
+package com.laptevn.jogging.entity;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.laptevn.ErrorMessages;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+public class JoggingPatchDto {
+    @NotNull(message = ErrorMessages.EMPTY_FILTER)
+    @Size(min = 1, message = ErrorMessages.EMPTY_FILTER)
+    private String filter;
+
+    @JsonFormat(pattern = JoggingDto.ISO_DATE_FORMAT)
+    private LocalDate date;
+
+    @Min(1)
+    private Integer distance;
+
+    @JsonFormat(pattern = JoggingDto.ISO_TIME_FORMAT)
+    private LocalTime time;
+
+    @Size(min = 1, message = ErrorMessages.EMPTY_LOCATION)
+    private String location;
+
+    public String getFilter() {
+        return filter;
+    }
+
+    public JoggingPatchDto setFilter(String filter) {
+        this.filter = filter;
+        return this;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public JoggingPatchDto setDate(LocalDate date) {
+        this.date = date;
+        return this;
+    }
+
+    public Integer getDistance() {
+        return distance;
+    }
+
+    public JoggingPatchDto setDistance(Integer distance) {
+        this.distance = distance;
+        return this;
+    }
+
+    public LocalTime getTime() {
+        return time;
+    }
+
+    public JoggingPatchDto setTime(LocalTime time) {
+        this.time = time;
+        return this;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public JoggingPatchDto setLocation(String location) {
+        this.location = location;
+        return this;
+    }
+
+    public boolean hasChanges() {
+        return date != null || distance != null || time != null || location != null;
+    }
+
+    @Override
+    public String toString() {
+        return "JoggingPatchDto{" +
+                "filter='" + filter + '\'' +
+                ", date=" + date +
+                ", distance=" + distance +
+                ", time=" + time +
+                ", location='" + location + '\'' +
+                '}';
+    }
+}
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.laptevn.jogging.entity;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Lob;
+import java.time.LocalDate;
+
+@Entity
+@IdClass(JoggingSketchKey.class)
+public class JoggingSketch {
+    @Id
+    private LocalDate periodStart;
+
+    @Id
+    private String location;
+
+    @Lob
+    @Column(nullable = false)
+    private byte[] buckets;
+
+    @Column(nullable = false)
+    private int generation;
+
+    public JoggingSketch() {
+    }
+
+    public JoggingSketch(JoggingSketchKey key, byte[] buckets) {
+        this.periodStart = key.getPeriodStart();
+        this.location = key.getLocation();
+        this.buckets = buckets;
+    }
+
+    public JoggingSketchKey getKey() {
+        return new JoggingSketchKey(periodStart, location);
+    }
+
+    public LocalDate getPeriodStart() {
+        return periodStart;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public byte[] getBuckets() {
+        return buckets;
+    }
+
+    public JoggingSketch setBuckets(byte[] buckets) {
+        this.buckets = buckets;
+        return this;
+    }
+
+    public int getGeneration() {
+        return generation;
+    }
+
+    public JoggingSketch setGeneration(int generation) {
+        this.generation = generation;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "JoggingSketch{" +
+                "periodStart=" + periodStart +
+                ", location='" + location + '\'' +
+                ", bucketsLength=" + buckets.length +
+                ", generation=" + generation +
+                '}';
+    }
+}
\ No newline at end of file
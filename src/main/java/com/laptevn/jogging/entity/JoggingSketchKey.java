@@ -0,0 +1,47 @@
+package com.laptevn.jogging.entity;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+public class JoggingSketchKey implements Serializable {
+    public final static String ALL_LOCATIONS = "";
+
+    private LocalDate periodStart;
+    private String location;
+
+    public JoggingSketchKey() {
+    }
+
+    public JoggingSketchKey(LocalDate periodStart, String location) {
+        this.periodStart = periodStart;
+        this.location = location;
+    }
+
+    public LocalDate getPeriodStart() {
+        return periodStart;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        JoggingSketchKey that = (JoggingSketchKey) o;
+        return Objects.equals(periodStart, that.periodStart) &&
+                Objects.equals(location, that.location);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(periodStart, location);
+    }
+
+    @Override
+    public String toString() {
+        return periodStart + ":" + location;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.laptevn.jogging.entity;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.time.LocalDateTime;
+
+@Entity
+public class JoggingSketchRebuild {
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(nullable = false)
+    private int generation;
+
+    public Integer getId() {
+        return id;
+    }
+
+    public JoggingSketchRebuild setId(Integer id) {
+        this.id = id;
+        return this;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public JoggingSketchRebuild setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+        return this;
+    }
+
+    public int getGeneration() {
+        return generation;
+    }
+
+    public JoggingSketchRebuild setGeneration(int generation) {
+        this.generation = generation;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "JoggingSketchRebuild{" +
+                "id=" + id +
+                ", startedAt=" + startedAt +
+                ", generation=" + generation +
+                '}';
+    }
+}
\ No newline at end of file
@@ -0,0 +1,110 @@
+package com.laptevn.jogging.entity;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Entity
+@IdClass(JoggingStatsKey.class)
+public class JoggingStats {
+    @Id
+    private Integer userId;
+
+    @Id
+    private LocalDate date;
+
+    @Column(nullable = false)
+    private Integer runCount;
+
+    @Column(nullable = false)
+    private Long distanceSum;
+
+    @Column(nullable = false)
+    private Double speedSum;
+
+    public JoggingStats() {
+    }
+
+    public JoggingStats(Integer userId, LocalDate date, Integer distance, LocalTime time) {
+        this(userId, date, 1, distance, calculateSpeed(distance, time));
+    }
+
+    public JoggingStats(Integer userId, LocalDate date, int runCount, long distanceSum, double speedSum) {
+        this.userId = userId;
+        this.date = date;
+        this.runCount = runCount;
+        this.distanceSum = distanceSum;
+        this.speedSum = speedSum;
+    }
+
+    public static double calculateSpeed(int distance, LocalTime time) {
+        int seconds = time.toSecondOfDay();
+        return seconds == 0 ? 0 : (double) distance / seconds;
+    }
+
+    public JoggingStatsKey getKey() {
+        return new JoggingStatsKey(userId, date);
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public Integer getRunCount() {
+        return runCount;
+    }
+
+    public JoggingStats setRunCount(Integer runCount) {
+        this.runCount = runCount;
+        return this;
+    }
+
+    public Long getDistanceSum() {
+        return distanceSum;
+    }
+
+    public JoggingStats setDistanceSum(Long distanceSum) {
+        this.distanceSum = distanceSum;
+        return this;
+    }
+
+    public Double getSpeedSum() {
+        return speedSum;
+    }
+
+    public JoggingStats setSpeedSum(Double speedSum) {
+        this.speedSum = speedSum;
+        return this;
+    }
+
+    public JoggingStats add(JoggingStats other) {
+        return new JoggingStats(
+                userId, date, runCount + other.runCount, distanceSum + other.distanceSum, speedSum + other.speedSum);
+    }
+
+    public JoggingStats negate() {
+        return new JoggingStats(userId, date, -runCount, -distanceSum, -speedSum);
+    }
+
+    public boolean isEmpty() {
+        return runCount == 0 && distanceSum == 0 && speedSum == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "JoggingStats{" +
+                "userId=" + userId +
+                ", date=" + date +
+                ", runCount=" + runCount +
+                ", distanceSum=" + distanceSum +
+                ", speedSum=" + speedSum +
+                '}';
+    }
+}
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.laptevn.jogging.entity;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+public class JoggingStatsKey implements Serializable, Comparable<JoggingStatsKey> {
+    private Integer userId;
+    private LocalDate date;
+
+    public JoggingStatsKey() {
+    }
+
+    public JoggingStatsKey(Integer userId, LocalDate date) {
+        this.userId = userId;
+        this.date = date;
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    @Override
+    public int compareTo(JoggingStatsKey other) {
+        int result = Integer.compare(userId, other.userId);
+        return result != 0 ? result : date.compareTo(other.date);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        JoggingStatsKey that = (JoggingStatsKey) o;
+        return Objects.equals(userId, that.userId) &&
+                Objects.equals(date, that.date);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, date);
+    }
+
+    @Override
+    public String toString() {
+        return userId + ":" + date;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.laptevn.jogging.entity;
+
+public class JournaledJoggingWrite {
+    private String userName;
+    private Integer id;
+    private JoggingDto jogging;
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public JournaledJoggingWrite setUserName(String userName) {
+        this.userName = userName;
+        return this;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public JournaledJoggingWrite setId(Integer id) {
+        this.id = id;
+        return this;
+    }
+
+    public JoggingDto getJogging() {
+        return jogging;
+    }
+
+    public JournaledJoggingWrite setJogging(JoggingDto jogging) {
+        this.jogging = jogging;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "JournaledJoggingWrite{" +
+                "userName='" + userName + '\'' +
+                ", id=" + id +
+                ", jogging=" + jogging +
+                '}';
+    }
+}
\ No newline at end of file
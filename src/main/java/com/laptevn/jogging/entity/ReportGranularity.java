@@ -0,0 +1,45 @@
+package com.laptevn.jogging.entity;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+
+public enum ReportGranularity {
+    DAY(ChronoUnit.DAYS) {
+        @Override
+        public LocalDate getPeriodStart(LocalDate date) {
+            return date;
+        }
+    },
+    WEEK(ChronoUnit.WEEKS) {
+        @Override
+        public LocalDate getPeriodStart(LocalDate date) {
+            return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        }
+    },
+    MONTH(ChronoUnit.MONTHS) {
+        @Override
+        public LocalDate getPeriodStart(LocalDate date) {
+            return date.withDayOfMonth(1);
+        }
+    },
+    YEAR(ChronoUnit.YEARS) {
+        @Override
+        public LocalDate getPeriodStart(LocalDate date) {
+            return date.withDayOfYear(1);
+        }
+    };
+
+    private final ChronoUnit unit;
+
+    ReportGranularity(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    public abstract LocalDate getPeriodStart(LocalDate date);
+
+    public LocalDate addPeriods(LocalDate periodStart, long periodCount) {
+        return periodStart.plus(periodCount, unit);
+    }
+}
\ No newline at end of file
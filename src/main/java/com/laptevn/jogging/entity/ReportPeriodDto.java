@@ -0,0 +1,61 @@
+package com.laptevn.jogging.entity;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.time.LocalDate;
+
+public class ReportPeriodDto {
+    @JsonFormat(pattern = JoggingDto.ISO_DATE_FORMAT)
+    private final LocalDate start;
+
+    @JsonFormat(pattern = JoggingDto.ISO_DATE_FORMAT)
+    private final LocalDate end;
+
+    private final long runCount;
+
+    @JsonSerialize(using = DoubleSerializer.class)
+    private final double averageSpeed;
+
+    @JsonSerialize(using = DoubleSerializer.class)
+    private final double averageDistance;
+
+    public ReportPeriodDto(LocalDate start, LocalDate end, long runCount, double averageSpeed, double averageDistance) {
+        this.start = start;
+        this.end = end;
+        this.runCount = runCount;
+        this.averageSpeed = averageSpeed;
+        this.averageDistance = averageDistance;
+    }
+
+    public LocalDate getStart() {
+        return start;
+    }
+
+    public LocalDate getEnd() {
+        return end;
+    }
+
+    public long getRunCount() {
+        return runCount;
+    }
+
+    public double getAverageSpeed() {
+        return averageSpeed;
+    }
+
+    public double getAverageDistance() {
+        return averageDistance;
+    }
+
+    @Override
+    public String toString() {
+        return "ReportPeriodDto{" +
+                "start=" + start +
+                ", end=" + end +
+                ", runCount=" + runCount +
+                ", averageSpeed=" + averageSpeed +
+                ", averageDistance=" + averageDistance +
+                '}';
+    }
+}
\ No newline at end of file
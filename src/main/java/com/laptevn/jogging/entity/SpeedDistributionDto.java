@@ -0,0 +1,36 @@
+package com.laptevn.jogging.entity;
+
+import java.util.List;
+
+public class SpeedDistributionDto {
+    private final long runCount;
+    private final double relativeAccuracy;
+    private final List<SpeedPercentileDto> percentiles;
+
+    public SpeedDistributionDto(long runCount, double relativeAccuracy, List<SpeedPercentileDto> percentiles) {
+        this.runCount = runCount;
+        this.relativeAccuracy = relativeAccuracy;
+        this.percentiles = percentiles;
+    }
+
+    public long getRunCount() {
+        return runCount;
+    }
+
+    public double getRelativeAccuracy() {
+        return relativeAccuracy;
+    }
+
+    public List<SpeedPercentileDto> getPercentiles() {
+        return percentiles;
+    }
+
+    @Override
+    public String toString() {
+        return "SpeedDistributionDto{" +
+                "runCount=" + runCount +
+                ", relativeAccuracy=" + relativeAccuracy +
+                ", percentiles=" + percentiles +
+                '}';
+    }
+}
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.laptevn.jogging.entity;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+public class SpeedPercentileDto {
+    private final double quantile;
+
+    @JsonSerialize(using = DoubleSerializer.class)
+    private final double speed;
+
+    public SpeedPercentileDto(double quantile, double speed) {
+        this.quantile = quantile;
+        this.speed = speed;
+    }
+
+    public double getQuantile() {
+        return quantile;
+    }
+
+    public double getSpeed() {
+        return speed;
+    }
+
+    @Override
+    public String toString() {
+        return "SpeedPercentileDto{" +
+                "quantile=" + quantile +
+                ", speed=" + speed +
+                '}';
+    }
+}
\ No newline at end of file
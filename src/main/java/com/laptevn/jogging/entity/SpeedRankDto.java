@@ -0,0 +1,48 @@
+package com.laptevn.jogging.entity;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+public class SpeedRankDto {
+    private final long runCount;
+
+    @JsonSerialize(using = DoubleSerializer.class)
+    private final double speed;
+
+    @JsonSerialize(using = DoubleSerializer.class)
+    private final double percentile;
+
+    private final double relativeAccuracy;
+
+    public SpeedRankDto(long runCount, double speed, double percentile, double relativeAccuracy) {
+        this.runCount = runCount;
+        this.speed = speed;
+        this.percentile = percentile;
+        this.relativeAccuracy = relativeAccuracy;
+    }
+
+    public long getRunCount() {
+        return runCount;
+    }
+
+    public double getSpeed() {
+        return speed;
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    public double getRelativeAccuracy() {
+        return relativeAccuracy;
+    }
+
+    @Override
+    public String toString() {
+        return "SpeedRankDto{" +
+                "runCount=" + runCount +
+                ", speed=" + speed +
+                ", percentile=" + percentile +
+                ", relativeAccuracy=" + relativeAccuracy +
+                '}';
+    }
+}
\ No newline at end of file
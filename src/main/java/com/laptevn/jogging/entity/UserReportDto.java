@@ -0,0 +1,54 @@
+package com.laptevn.jogging.entity;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+public class UserReportDto {
+    private final int userId;
+    private final String userName;
+    private final long runCount;
+
+    @JsonSerialize(using = DoubleSerializer.class)
+    private final double averageSpeed;
+
+    @JsonSerialize(using = DoubleSerializer.class)
+    private final double averageDistance;
+
+    public UserReportDto(int userId, String userName, long runCount, double averageSpeed, double averageDistance) {
+        this.userId = userId;
+        this.userName = userName;
+        this.runCount = runCount;
+        this.averageSpeed = averageSpeed;
+        this.averageDistance = averageDistance;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public long getRunCount() {
+        return runCount;
+    }
+
+    public double getAverageSpeed() {
+        return averageSpeed;
+    }
+
+    public double getAverageDistance() {
+        return averageDistance;
+    }
+
+    @Override
+    public String toString() {
+        return "UserReportDto{" +
+                "userId=" + userId +
+                ", userName='" + userName + '\'' +
+                ", runCount=" + runCount +
+                ", averageSpeed=" + averageSpeed +
+                ", averageDistance=" + averageDistance +
+                '}';
+    }
+}
\ No newline at end of file
@@ -2,12 +2,39 @@ package com.laptevn.jogging.repository;
 
 import com.laptevn.auth.entity.User;
 import com.laptevn.jogging.entity.Jogging;
+import com.laptevn.jogging.entity.JoggingStats;
+import com.laptevn.jogging.entity.ReportDto;
 import org.springframework.data.domain.Pageable;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 public interface FilterableRepository {
     List<Jogging> findByUser(User user, String filter, Optional<Pageable> pagination);
     List<Jogging> findAll(String filter, Optional<Pageable> pagination);
+    List<Jogging> findByUserAfter(User user, int id, String filter, Pageable pageable);
+    List<Jogging> findAllAfter(int id, String filter, Pageable pageable);
+    void streamByUser(User user, String filter, Consumer<Jogging> consumer);
+    void streamAll(String filter, Consumer<Jogging> consumer);
+    ReportDto aggregateByUser(User user, String filter);
+    ReportDto aggregateAll(String filter);
+    void saveInBatches(List<Jogging> joggings);
+    int reserveId();
+    int deleteByUser(
+            User user, String filter, BiConsumer<Collection<Jogging>, Collection<Jogging>> changedRunsConsumer);
+    int deleteAll(String filter, BiConsumer<Collection<Jogging>, Collection<Jogging>> changedRunsConsumer);
+    int updateByUser(
+            User user,
+            String filter,
+            Jogging changes,
+            BiConsumer<Collection<Jogging>, Collection<Jogging>> changedRunsConsumer);
+    int updateAll(
+            String filter, Jogging changes, BiConsumer<Collection<Jogging>, Collection<Jogging>> changedRunsConsumer);
+    void streamStatsByUsers(Collection<Integer> userIds, Consumer<JoggingStats> consumer);
+    void streamStatsSumsByUser(LocalDate leftBound, LocalDate rightBound, Consumer<Object[]> consumer);
+    void streamRunsByDateBetween(LocalDate leftBound, LocalDate rightBound, Consumer<Object[]> consumer);
 }
\ No newline at end of file
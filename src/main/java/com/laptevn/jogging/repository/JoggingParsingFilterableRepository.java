@@ -1,35 +1,385 @@
 package com.laptevn.jogging.repository;
 
 import com.laptevn.auth.entity.User;
+import com.laptevn.jogging.entity.JoggingStats;
+import com.laptevn.jogging.entity.ReportDto;
 import com.laptevn.repository.AdditionalPredicateBuilder;
+import com.laptevn.repository.AggregateBuilder;
+import com.laptevn.repository.ChunkListener;
 import com.laptevn.repository.ParsingFilterableRepository;
+import com.laptevn.repository.SqlFunctionContributor;
+import com.laptevn.repository.UpdateBuilder;
 import com.laptevn.repository.filtering.WhereClauseBuilder;
 import com.laptevn.jogging.entity.Jogging;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Component("joggingRepositoryImpl")
 public class JoggingParsingFilterableRepository extends ParsingFilterableRepository<Jogging> implements FilterableRepository {
-    public JoggingParsingFilterableRepository(EntityManager entityManager, WhereClauseBuilder whereClauseBuilder) {
-        super(entityManager, whereClauseBuilder);
+    private final static AggregateBuilder<Jogging> REPORT_AGGREGATE_BUILDER =
+            JoggingParsingFilterableRepository::buildReportAggregates;
+
+    private final EntityManager entityManager;
+    private final JoggingStatsRepository statsRepository;
+    private final int fetchSize;
+    private final int batchSize;
+    private final TransactionOperations transactionOperations;
+    private final int chunkSize;
+
+    public JoggingParsingFilterableRepository(
+            EntityManager entityManager,
+            WhereClauseBuilder whereClauseBuilder,
+            MeterRegistry meterRegistry,
+            @Value("${jogging.streaming.fetchSize:500}") int fetchSize,
+            @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize,
+            PlatformTransactionManager transactionManager,
+            @Value("${jogging.bulk.chunkSize:1000}") int chunkSize,
+            JoggingStatsRepository statsRepository) {
+
+        super(entityManager, whereClauseBuilder, meterRegistry, "jogging", fetchSize);
+        this.entityManager = entityManager;
+        this.statsRepository = statsRepository;
+        this.fetchSize = fetchSize;
+        this.batchSize = batchSize;
+        this.transactionOperations = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
     }
 
     @Override
     public List<Jogging> findByUser(User user, String filter, Optional<Pageable> pagination) {
+        return find(filter, pagination, Jogging.class, Optional.of(createUserPredicateBuilder(user)));
+    }
+
+    private static AdditionalPredicateBuilder<Jogging> createUserPredicateBuilder(User user) {
+        return (criteriaBuilder, entity) -> criteriaBuilder.equal(entity.get("user"), user);
+    }
+
+    @Override
+    public List<Jogging> findAll(String filter, Optional<Pageable> pagination) {
+        return find(filter, pagination, Jogging.class, Optional.empty());
+    }
+
+    @Override
+    public List<Jogging> findByUserAfter(User user, int id, String filter, Pageable pageable) {
+        AdditionalPredicateBuilder<Jogging> userPredicateBuilder = createUserPredicateBuilder(user);
+        AdditionalPredicateBuilder<Jogging> afterPredicateBuilder = createAfterPredicateBuilder(id);
         return find(
                 filter,
-                pagination,
+                Optional.of(pageable),
                 Jogging.class,
-                Optional.of((AdditionalPredicateBuilder<Jogging>)
-                        (criteriaBuilder, entity) -> criteriaBuilder.equal(entity.get("user"), user)));
+                Optional.of((AdditionalPredicateBuilder<Jogging>) (criteriaBuilder, entity) -> criteriaBuilder.and(
+                        userPredicateBuilder.build(criteriaBuilder, entity),
+                        afterPredicateBuilder.build(criteriaBuilder, entity))));
     }
 
     @Override
-    public List<Jogging> findAll(String filter, Optional<Pageable> pagination) {
-        return find(filter, pagination, Jogging.class, Optional.empty());
+    public List<Jogging> findAllAfter(int id, String filter, Pageable pageable) {
+        return find(filter, Optional.of(pageable), Jogging.class, Optional.of(createAfterPredicateBuilder(id)));
+    }
+
+    @Override
+    public void streamByUser(User user, String filter, Consumer<Jogging> consumer) {
+        stream(filter, Jogging.class, Optional.of(createUserPredicateBuilder(user)), consumer);
+    }
+
+    @Override
+    public void streamAll(String filter, Consumer<Jogging> consumer) {
+        stream(filter, Jogging.class, Optional.empty(), consumer);
+    }
+
+    @Override
+    public ReportDto aggregateByUser(User user, String filter) {
+        return createReport(aggregate(
+                filter, Jogging.class, Optional.of(createUserPredicateBuilder(user)), REPORT_AGGREGATE_BUILDER));
+    }
+
+    @Override
+    public ReportDto aggregateAll(String filter) {
+        return createReport(aggregate(filter, Jogging.class, Optional.empty(), REPORT_AGGREGATE_BUILDER));
+    }
+
+    private static List<Selection<?>> buildReportAggregates(CriteriaBuilder criteriaBuilder, Root<Jogging> entity) {
+        Path<Integer> distance = entity.get("distance");
+        Path<LocalTime> time = entity.get("time");
+        Expression<Integer> seconds = criteriaBuilder.sum(
+                criteriaBuilder.sum(
+                        criteriaBuilder.prod(criteriaBuilder.function("HOUR", Integer.class, time), 3600),
+                        criteriaBuilder.prod(criteriaBuilder.function("MINUTE", Integer.class, time), 60)),
+                criteriaBuilder.function("SECOND", Integer.class, time));
+        Expression<Number> speed = criteriaBuilder.<Number>selectCase()
+                .when(
+                        criteriaBuilder.gt(seconds, 0),
+                        criteriaBuilder.quot(
+                                criteriaBuilder.function(SqlFunctionContributor.TO_DOUBLE, Double.class, distance),
+                                seconds))
+                .otherwise(0.0);
+
+        return Arrays.asList(criteriaBuilder.count(entity), criteriaBuilder.avg(speed), criteriaBuilder.avg(distance));
+    }
+
+    private static ReportDto createReport(Optional<Tuple> aggregates) {
+        if (!aggregates.isPresent() || aggregates.get().get(0, Long.class) == 0) {
+            return new ReportDto(0, 0);
+        }
+
+        return new ReportDto(
+                aggregates.get().get(1, Number.class).doubleValue(),
+                aggregates.get().get(2, Number.class).doubleValue());
+    }
+
+    @Override
+    public void saveInBatches(List<Jogging> joggings) {
+        persistInBatches(joggings, batchSize);
+        statsRepository.updateStats(Collections.emptyList(), joggings);
+    }
+
+    @Override
+    public int reserveId() {
+        return (Integer) reserveId(Jogging.class);
+    }
+
+    @Override
+    public int deleteByUser(
+            User user, String filter, BiConsumer<Collection<Jogging>, Collection<Jogging>> changedRunsConsumer) {
+
+        return deleteInChunks(
+                filter,
+                Jogging.class,
+                Optional.of(createUserPredicateBuilder(user)),
+                Optional.of(new StatsChunkListener(Optional.empty(), changedRunsConsumer)),
+                transactionOperations,
+                chunkSize);
+    }
+
+    @Override
+    public int deleteAll(String filter, BiConsumer<Collection<Jogging>, Collection<Jogging>> changedRunsConsumer) {
+        return deleteInChunks(
+                filter,
+                Jogging.class,
+                Optional.empty(),
+                Optional.of(new StatsChunkListener(Optional.empty(), changedRunsConsumer)),
+                transactionOperations,
+                chunkSize);
+    }
+
+    @Override
+    public int updateByUser(
+            User user,
+            String filter,
+            Jogging changes,
+            BiConsumer<Collection<Jogging>, Collection<Jogging>> changedRunsConsumer) {
+
+        return updateInChunks(
+                filter,
+                Jogging.class,
+                Optional.of(createUserPredicateBuilder(user)),
+                createUpdateBuilder(changes),
+                createStatsChunkListener(changes, changedRunsConsumer),
+                transactionOperations,
+                chunkSize);
+    }
+
+    @Override
+    public int updateAll(
+            String filter, Jogging changes, BiConsumer<Collection<Jogging>, Collection<Jogging>> changedRunsConsumer) {
+
+        return updateInChunks(
+                filter,
+                Jogging.class,
+                Optional.empty(),
+                createUpdateBuilder(changes),
+                createStatsChunkListener(changes, changedRunsConsumer),
+                transactionOperations,
+                chunkSize);
+    }
+
+    private Optional<ChunkListener<Jogging>> createStatsChunkListener(
+            Jogging changes, BiConsumer<Collection<Jogging>, Collection<Jogging>> changedRunsConsumer) {
+
+        if (changes.getDate() == null
+                && changes.getDistance() == null
+                && changes.getTime() == null
+                && changes.getLocation() == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new StatsChunkListener(Optional.of(changes), changedRunsConsumer));
+    }
+
+    @Override
+    public void streamStatsByUsers(Collection<Integer> userIds, Consumer<JoggingStats> consumer) {
+        TypedQuery<JoggingStats> query = entityManager
+                .createQuery(
+                        "SELECT new com.laptevn.jogging.entity.JoggingStats(j.user.id, j.date, j.distance, j.time) "
+                                + "FROM Jogging j WHERE j.user.id IN :userIds",
+                        JoggingStats.class)
+                .setParameter("userIds", userIds)
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize);
+        try (Stream<JoggingStats> stats = query.getResultStream()) {
+            stats.forEach(consumer);
+        }
+    }
+
+    @Override
+    public void streamStatsSumsByUser(LocalDate leftBound, LocalDate rightBound, Consumer<Object[]> consumer) {
+        TypedQuery<Object[]> query = entityManager
+                .createQuery(
+                        "SELECT s.userId, u.name, SUM(s.runCount), SUM(s.distanceSum), SUM(s.speedSum) "
+                                + "FROM JoggingStats s, User u "
+                                + "WHERE u.id = s.userId AND s.date BETWEEN :leftBound AND :rightBound "
+                                + "GROUP BY s.userId, u.name HAVING SUM(s.runCount) > 0 ORDER BY s.userId",
+                        Object[].class)
+                .setParameter("leftBound", leftBound)
+                .setParameter("rightBound", rightBound)
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.HINT_READONLY, true);
+        try (Stream<Object[]> sums = query.getResultStream()) {
+            sums.forEach(consumer);
+        }
+    }
+
+    @Override
+    public void streamRunsByDateBetween(LocalDate leftBound, LocalDate rightBound, Consumer<Object[]> consumer) {
+        TypedQuery<Object[]> query = entityManager
+                .createQuery(
+                        "SELECT j.date, j.location, j.distance, j.time FROM Jogging j "
+                                + "WHERE j.date BETWEEN :leftBound AND :rightBound",
+                        Object[].class)
+                .setParameter("leftBound", leftBound)
+                .setParameter("rightBound", rightBound)
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.HINT_READONLY, true);
+        try (Stream<Object[]> runs = query.getResultStream()) {
+            runs.forEach(consumer);
+        }
+    }
+
+    private static UpdateBuilder<Jogging> createUpdateBuilder(Jogging changes) {
+        return (criteriaBuilder, criteriaUpdate, entity) -> {
+            if (changes.getDate() != null || changes.getLocation() != null) {
+                Predicate isWeatherActual = criteriaBuilder.and(
+                        changes.getDate() != null
+                                ? criteriaBuilder.equal(entity.get("date"), changes.getDate())
+                                : criteriaBuilder.conjunction(),
+                        changes.getLocation() != null
+                                ? criteriaBuilder.equal(entity.get("location"), changes.getLocation())
+                                : criteriaBuilder.conjunction());
+
+                for (String weatherField : new String[]{"averageTemperature", "weatherCondition"}) {
+                    Path<String> weatherPath = entity.get(weatherField);
+                    Expression<String> weatherValue = criteriaBuilder.<String>selectCase()
+                            .when(isWeatherActual, weatherPath)
+                            .otherwise(criteriaBuilder.nullLiteral(String.class));
+                    criteriaUpdate.set(weatherPath, weatherValue);
+                }
+            }
+
+            if (changes.getDate() != null) {
+                criteriaUpdate.set("date", changes.getDate());
+            }
+            if (changes.getDistance() != null) {
+                criteriaUpdate.set("distance", changes.getDistance());
+            }
+            if (changes.getTime() != null) {
+                criteriaUpdate.set("time", changes.getTime());
+            }
+            if (changes.getLocation() != null) {
+                criteriaUpdate.set("location", changes.getLocation());
+            }
+
+            Path<Integer> version = entity.get("version");
+            criteriaUpdate.set(version, criteriaBuilder.sum(version, 1));
+        };
+    }
+
+    private class StatsChunkListener implements ChunkListener<Jogging> {
+        private final Optional<Jogging> changes;
+        private final BiConsumer<Collection<Jogging>, Collection<Jogging>> changedRunsConsumer;
+        private final List<Jogging> removedJoggings = new ArrayList<>();
+        private final List<Jogging> addedJoggings = new ArrayList<>();
+
+        StatsChunkListener(
+                Optional<Jogging> changes, BiConsumer<Collection<Jogging>, Collection<Jogging>> changedRunsConsumer) {
+
+            this.changes = changes;
+            this.changedRunsConsumer = changedRunsConsumer;
+        }
+
+        @Override
+        public void beforeChunk(AdditionalPredicateBuilder<Jogging> chunkPredicateBuilder) {
+            CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+            CriteriaQuery<Tuple> criteriaQuery = criteriaBuilder.createTupleQuery();
+            Root<Jogging> entity = criteriaQuery.from(Jogging.class);
+            criteriaQuery
+                    .multiselect(
+                            entity.get("user").get("id"),
+                            entity.get("date"),
+                            entity.get("distance"),
+                            entity.get("time"),
+                            entity.get("location"))
+                    .where(chunkPredicateBuilder.build(criteriaBuilder, entity));
+
+            removedJoggings.clear();
+            addedJoggings.clear();
+            for (Tuple row : createQuery(() -> entityManager.createQuery(criteriaQuery))
+                    .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                    .getResultList()) {
+
+                User user = new User().setId(row.get(0, Integer.class));
+                LocalDate date = row.get(1, LocalDate.class);
+                Integer distance = row.get(2, Integer.class);
+                LocalTime time = row.get(3, LocalTime.class);
+                String location = row.get(4, String.class);
+                removedJoggings.add(new Jogging()
+                        .setUser(user)
+                        .setDate(date)
+                        .setDistance(distance)
+                        .setTime(time)
+                        .setLocation(location));
+                changes.ifPresent(jogging -> addedJoggings.add(new Jogging()
+                        .setUser(user)
+                        .setDate(jogging.getDate() != null ? jogging.getDate() : date)
+                        .setDistance(jogging.getDistance() != null ? jogging.getDistance() : distance)
+                        .setTime(jogging.getTime() != null ? jogging.getTime() : time)
+                        .setLocation(jogging.getLocation() != null ? jogging.getLocation() : location)));
+            }
+        }
+
+        @Override
+        public void afterChunk() {
+            statsRepository.updateStats(removedJoggings, addedJoggings);
+            changedRunsConsumer.accept(removedJoggings, addedJoggings);
+            removedJoggings.clear();
+            addedJoggings.clear();
+        }
     }
 }
\ No newline at end of file
@@ -2,23 +2,77 @@ package com.laptevn.jogging.repository;
 
 import com.laptevn.auth.entity.User;
 import com.laptevn.jogging.entity.Jogging;
+import com.laptevn.jogging.entity.JoggingStats;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.LockModeType;
 import javax.transaction.Transactional;
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
 import java.util.Optional;
 
 public interface JoggingRepository extends CrudRepository<Jogging, Integer>, FilterableRepository {
+    String UPDATE_QUERY = "UPDATE Jogging j SET "
+            + "j.averageTemperature = CASE WHEN j.date = :date AND j.location = :location "
+            + "THEN j.averageTemperature ELSE NULL END, "
+            + "j.weatherCondition = CASE WHEN j.date = :date AND j.location = :location "
+            + "THEN j.weatherCondition ELSE NULL END, "
+            + "j.date = :date, j.distance = :distance, j.time = :time, j.location = :location, "
+            + "j.version = j.version + 1 "
+            + "WHERE j.id = :id AND j.version = :version";
+
     Optional<Jogging> findByIdAndUser(int id, User user);
     List<Jogging> findByUser(User user, Pageable pageable);
     Page<Jogging> findAll(Pageable pageable);
+    List<Jogging> findByUserAndIdGreaterThan(User user, int id, Pageable pageable);
+    List<Jogging> findByIdGreaterThan(int id, Pageable pageable);
     List<Jogging> findByUser(User user);
     List<Jogging> findByDateBetweenAndUser(LocalDate leftBound, LocalDate rightBound, User user);
     List<Jogging> findByWeatherConditionIsNull();
 
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Jogging> findForUpdateById(int id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Jogging> findForUpdateByIdAndUser(int id, User user);
+
+    @Query("SELECT new com.laptevn.jogging.entity.JoggingStats(j.user.id, j.date, j.distance, j.time) "
+            + "FROM Jogging j WHERE j.user.id = :userId AND j.date = :date")
+    List<JoggingStats> findStatsByUserIdAndDate(@Param("userId") int userId, @Param("date") LocalDate date);
+
+    @Query("SELECT j.version FROM Jogging j WHERE j.id = :id")
+    Optional<Integer> findVersionById(@Param("id") int id);
+
+    @Query("SELECT j.version FROM Jogging j WHERE j.id = :id AND j.user = :user")
+    Optional<Integer> findVersionByIdAndUser(@Param("id") int id, @Param("user") User user);
+
+    @Transactional
+    @Modifying
+    @Query(UPDATE_QUERY)
+    int updateByIdAndVersion(
+            @Param("id") int id,
+            @Param("version") int version,
+            @Param("date") LocalDate date,
+            @Param("distance") Integer distance,
+            @Param("time") LocalTime time,
+            @Param("location") String location);
+
     @Transactional
-    int deleteByIdAndUser(int id, User user);
+    @Modifying
+    @Query(UPDATE_QUERY + " AND j.user = :user")
+    int updateByIdAndUserAndVersion(
+            @Param("id") int id,
+            @Param("user") User user,
+            @Param("version") int version,
+            @Param("date") LocalDate date,
+            @Param("distance") Integer distance,
+            @Param("time") LocalTime time,
+            @Param("location") String location);
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.laptevn.jogging.repository;
+
+import com.laptevn.jogging.entity.JoggingSketchRebuild;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.repository.CrudRepository;
+
+import javax.persistence.LockModeType;
+import java.util.Optional;
+
+public interface JoggingSketchRebuildRepository extends CrudRepository<JoggingSketchRebuild, Integer> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<JoggingSketchRebuild> findLockedById(int id);
+}
\ No newline at end of file
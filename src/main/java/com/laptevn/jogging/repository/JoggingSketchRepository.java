@@ -0,0 +1,18 @@
+package com.laptevn.jogging.repository;
+
+import com.laptevn.jogging.entity.JoggingSketch;
+import com.laptevn.jogging.entity.JoggingSketchKey;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.repository.CrudRepository;
+
+import javax.persistence.LockModeType;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+public interface JoggingSketchRepository extends CrudRepository<JoggingSketch, JoggingSketchKey> {
+    List<JoggingSketch> findByPeriodStartBetween(LocalDate leftBound, LocalDate rightBound);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<JoggingSketch> findLockedByPeriodStartAndLocation(LocalDate periodStart, String location);
+}
\ No newline at end of file
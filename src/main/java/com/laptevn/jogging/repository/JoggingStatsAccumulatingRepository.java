@@ -0,0 +1,80 @@
+package com.laptevn.jogging.repository;
+
+import com.laptevn.jogging.entity.Jogging;
+import com.laptevn.jogging.entity.JoggingStats;
+import com.laptevn.jogging.entity.JoggingStatsKey;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnitUtil;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Component("joggingStatsRepositoryImpl")
+public class JoggingStatsAccumulatingRepository implements JoggingStatsAccumulator {
+    private final static String MYSQL_UPSERT_QUERY = "INSERT INTO jogging_stats "
+            + "(user_id, date, run_count, distance_sum, speed_sum) VALUES (?1, ?2, ?3, ?4, ?5) "
+            + "ON DUPLICATE KEY UPDATE run_count = run_count + VALUES(run_count), "
+            + "distance_sum = distance_sum + VALUES(distance_sum), speed_sum = speed_sum + VALUES(speed_sum)";
+    private final static String MERGE_UPSERT_QUERY = "MERGE INTO jogging_stats s USING (SELECT "
+            + "CAST(?1 AS INT) user_id, CAST(?2 AS DATE) date, CAST(?3 AS INT) run_count, "
+            + "CAST(?4 AS BIGINT) distance_sum, CAST(?5 AS DOUBLE) speed_sum) d "
+            + "ON s.user_id = d.user_id AND s.date = d.date "
+            + "WHEN MATCHED THEN UPDATE SET run_count = s.run_count + d.run_count, "
+            + "distance_sum = s.distance_sum + d.distance_sum, speed_sum = s.speed_sum + d.speed_sum "
+            + "WHEN NOT MATCHED THEN INSERT (user_id, date, run_count, distance_sum, speed_sum) "
+            + "VALUES (d.user_id, d.date, d.run_count, d.distance_sum, d.speed_sum)";
+
+    private final EntityManager entityManager;
+    private final PersistenceUnitUtil persistenceUnitUtil;
+    private final String upsertQuery;
+
+    public JoggingStatsAccumulatingRepository(EntityManager entityManager, EntityManagerFactory entityManagerFactory) {
+        this.entityManager = entityManager;
+        this.persistenceUnitUtil = entityManagerFactory.getPersistenceUnitUtil();
+        this.upsertQuery = entityManagerFactory
+                .unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect() instanceof MySQLDialect ? MYSQL_UPSERT_QUERY : MERGE_UPSERT_QUERY;
+    }
+
+    @Override
+    public void updateStats(Collection<Jogging> removedJoggings, Collection<Jogging> addedJoggings) {
+        Map<JoggingStatsKey, JoggingStats> deltas = new TreeMap<>();
+        removedJoggings.forEach(jogging -> mergeDelta(deltas, createStats(jogging).negate()));
+        addedJoggings.forEach(jogging -> mergeDelta(deltas, createStats(jogging)));
+        applyDeltas(deltas);
+    }
+
+    private JoggingStats createStats(Jogging jogging) {
+        return new JoggingStats(
+                (Integer) persistenceUnitUtil.getIdentifier(jogging.getUser()),
+                jogging.getDate(),
+                jogging.getDistance(),
+                jogging.getTime());
+    }
+
+    private static void mergeDelta(Map<JoggingStatsKey, JoggingStats> deltas, JoggingStats delta) {
+        deltas.merge(delta.getKey(), delta, JoggingStats::add);
+    }
+
+    private void applyDeltas(Map<JoggingStatsKey, JoggingStats> deltas) {
+        for (JoggingStats delta : deltas.values()) {
+            if (delta.isEmpty()) {
+                continue;
+            }
+
+            entityManager.createNativeQuery(upsertQuery)
+                    .setParameter(1, delta.getUserId())
+                    .setParameter(2, delta.getDate())
+                    .setParameter(3, delta.getRunCount())
+                    .setParameter(4, delta.getDistanceSum())
+                    .setParameter(5, delta.getSpeedSum())
+                    .executeUpdate();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.laptevn.jogging.repository;
+
+import com.laptevn.jogging.entity.Jogging;
+
+import java.util.Collection;
+
+public interface JoggingStatsAccumulator {
+    void updateStats(Collection<Jogging> removedJoggings, Collection<Jogging> addedJoggings);
+}
\ No newline at end of file
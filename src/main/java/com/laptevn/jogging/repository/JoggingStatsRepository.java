@@ -0,0 +1,20 @@
+package com.laptevn.jogging.repository;
+
+import com.laptevn.jogging.entity.JoggingStats;
+import com.laptevn.jogging.entity.JoggingStatsKey;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.repository.CrudRepository;
+
+import javax.persistence.LockModeType;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface JoggingStatsRepository extends CrudRepository<JoggingStats, JoggingStatsKey>, JoggingStatsAccumulator {
+    List<JoggingStats> findByUserIdAndDateBetween(int userId, LocalDate leftBound, LocalDate rightBound);
+    List<JoggingStats> findByUserIdIn(Collection<Integer> userIds);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<JoggingStats> findLockedByUserIdAndDate(int userId, LocalDate date);
+}
\ No newline at end of file
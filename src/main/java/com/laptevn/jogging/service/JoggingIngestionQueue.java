@@ -0,0 +1,224 @@
+package com.laptevn.jogging.service;
+
+import com.laptevn.jogging.entity.Jogging;
+import com.laptevn.jogging.repository.JoggingRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+@ConditionalOnProperty(name = "jogging.ingestion.mode", havingValue = "async")
+public class JoggingIngestionQueue implements DisposableBean {
+    private final static Logger logger = LoggerFactory.getLogger(JoggingIngestionQueue.class);
+    private final static long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private final Deque<Jogging> queue = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final Map<Integer, Jogging> pendingJoggings = new ConcurrentHashMap<>();
+    private final JoggingRepository joggingRepository;
+    private final SpeedSketchService speedSketchService;
+    private final TransactionOperations transactionOperations;
+    private final int capacity;
+    private final int batchSize;
+    private final boolean readYourWrites;
+    private final long flushIntervalMillis;
+    private final long maxRetryDelayMillis;
+    private final Timer flushTimer;
+    private final ScheduledExecutorService flusher;
+    private volatile boolean isClosed;
+    private long retryDelayMillis;
+    private long nextFlushNanos = System.nanoTime();
+
+    public JoggingIngestionQueue(
+            JoggingRepository joggingRepository,
+            SpeedSketchService speedSketchService,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${jogging.ingestion.queueSize:10000}") int capacity,
+            @Value("${jogging.ingestion.batchSize:1000}") int batchSize,
+            @Value("${jogging.ingestion.flushIntervalMillis:100}") long flushIntervalMillis,
+            @Value("${jogging.ingestion.readYourWrites:true}") boolean readYourWrites,
+            @Value("${jogging.ingestion.maxRetryDelayMillis:10000}") long maxRetryDelayMillis) {
+
+        this.joggingRepository = joggingRepository;
+        this.speedSketchService = speedSketchService;
+        this.transactionOperations = new TransactionTemplate(transactionManager);
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.readYourWrites = readYourWrites;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.maxRetryDelayMillis = maxRetryDelayMillis;
+
+        Gauge.builder("jogging.ingestion.queue.size", this, JoggingIngestionQueue::size)
+                .register(meterRegistry);
+        FunctionCounter.builder("jogging.ingestion.rejections", rejectedCount, AtomicLong::get)
+                .register(meterRegistry);
+        FunctionCounter.builder("jogging.ingestion.failures", failedCount, AtomicLong::get)
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("jogging.ingestion.flush")
+                .register(meterRegistry);
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jogging-ingestion");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.flusher.scheduleWithFixedDelay(
+                this::flushSafely, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean offer(Jogging jogging) {
+        int currentSize;
+        do {
+            currentSize = size.get();
+            if (isClosed || currentSize >= capacity) {
+                rejectedCount.incrementAndGet();
+                return false;
+            }
+        } while (!size.compareAndSet(currentSize, currentSize + 1));
+
+        if (readYourWrites) {
+            pendingJoggings.put(jogging.getId(), jogging);
+        }
+        queue.offer(jogging);
+        return true;
+    }
+
+    public Optional<Jogging> findPending(int id) {
+        return Optional.ofNullable(pendingJoggings.get(id));
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    void flush() {
+        List<Jogging> batch;
+        while (!(batch = poll()).isEmpty()) {
+            List<Jogging> joggings = batch;
+            if (!flushTimer.record(() -> save(joggings))) {
+                return;
+            }
+        }
+    }
+
+    private void flushSafely() {
+        if (System.nanoTime() - nextFlushNanos < 0) {
+            return;
+        }
+
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.error("Couldn't flush queued joggings", e);
+        }
+    }
+
+    private List<Jogging> poll() {
+        List<Jogging> batch = new ArrayList<>();
+        Jogging jogging;
+        while (batch.size() < batchSize && (jogging = queue.poll()) != null) {
+            size.decrementAndGet();
+            batch.add(jogging);
+        }
+        return batch;
+    }
+
+    private boolean save(List<Jogging> joggings) {
+        try {
+            saveInTransaction(joggings);
+            logger.info("Saved {} queued joggings", joggings.size());
+            joggings.forEach(jogging -> pendingJoggings.remove(jogging.getId()));
+            retryDelayMillis = 0;
+            return true;
+        } catch (DataAccessResourceFailureException | CannotCreateTransactionException e) {
+            requeue(joggings, e);
+            return false;
+        } catch (RuntimeException e) {
+            logger.warn("Couldn't save batch of {} queued joggings. Saving them one by one", joggings.size(), e);
+        }
+
+        for (int i = 0; i < joggings.size(); i++) {
+            Jogging jogging = joggings.get(i).setVersion(null);
+            try {
+                saveInTransaction(Collections.singletonList(jogging));
+            } catch (DataAccessResourceFailureException | CannotCreateTransactionException e) {
+                requeue(joggings.subList(i, joggings.size()), e);
+                return false;
+            } catch (RuntimeException e) {
+                failedCount.incrementAndGet();
+                logger.error("Couldn't save queued jogging with '{}' id. It is dropped", jogging.getId(), e);
+            }
+            pendingJoggings.remove(jogging.getId());
+        }
+        retryDelayMillis = 0;
+        return true;
+    }
+
+    private void saveInTransaction(List<Jogging> joggings) {
+        transactionOperations.execute(status -> {
+            joggingRepository.saveInBatches(joggings);
+            speedSketchService.updateSketches(Collections.emptyList(), joggings);
+            return null;
+        });
+    }
+
+    private void requeue(List<Jogging> joggings, RuntimeException databaseException) {
+        for (int i = joggings.size() - 1; i >= 0; i--) {
+            queue.offerFirst(joggings.get(i).setVersion(null));
+        }
+        size.addAndGet(joggings.size());
+
+        retryDelayMillis = Math.min(
+                retryDelayMillis == 0 ? flushIntervalMillis : retryDelayMillis * 2, maxRetryDelayMillis);
+        nextFlushNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(retryDelayMillis);
+        logger.warn(
+                "Database is unavailable. Retrying {} queued joggings in {} ms",
+                joggings.size(),
+                retryDelayMillis,
+                databaseException);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        isClosed = true;
+        flusher.shutdown();
+        if (!flusher.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            logger.warn("Queued joggings flushing didn't finish in {} seconds", SHUTDOWN_TIMEOUT_SECONDS);
+        }
+
+        logger.info("Flushing {} queued joggings on shutdown", size());
+        flush();
+        if (size() > 0) {
+            logger.error("{} queued joggings weren't saved on shutdown", size());
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,87 @@
+package com.laptevn.jogging.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.laptevn.jogging.entity.JournaledJoggingWrite;
+import com.laptevn.journal.JournalPosition;
+import com.laptevn.journal.JournalRecord;
+import com.laptevn.journal.SegmentJournal;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+@ConditionalOnProperty(name = "jogging.journal.enable", havingValue = "true")
+public class JoggingJournal implements DisposableBean {
+    private final SegmentJournal journal;
+    private final ObjectMapper objectMapper;
+    private final AtomicLong appendedCount = new AtomicLong();
+    private volatile JournalPosition replayedPosition = JournalPosition.START;
+
+    public JoggingJournal(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${jogging.journal.directory:journal}") String directory,
+            @Value("${jogging.journal.segmentSize:16777216}") int segmentSize,
+            @Value("${jogging.journal.maxSegments:64}") int maxSegmentCount) throws IOException {
+
+        this.journal = new SegmentJournal(Paths.get(directory), segmentSize, maxSegmentCount);
+        this.objectMapper = objectMapper;
+
+        FunctionCounter.builder("jogging.journal.appends", appendedCount, AtomicLong::get)
+                .register(meterRegistry);
+        Gauge.builder("jogging.journal.segments", journal, SegmentJournal::getSegmentCount)
+                .register(meterRegistry);
+    }
+
+    public boolean append(JournaledJoggingWrite write) {
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(write);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (!journal.append(payload)) {
+            return false;
+        }
+
+        appendedCount.incrementAndGet();
+        return true;
+    }
+
+    public boolean hasPending() {
+        return !journal.read(replayedPosition, 1).isEmpty();
+    }
+
+    public List<JournalRecord> read(JournalPosition from, int maxCount) {
+        return journal.read(from, maxCount);
+    }
+
+    public JournaledJoggingWrite parse(JournalRecord record) {
+        try {
+            return objectMapper.readValue(record.getPayload(), JournaledJoggingWrite.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void markReplayed(JournalPosition position) {
+        replayedPosition = position;
+        journal.compact(position);
+    }
+
+    @Override
+    public void destroy() {
+        journal.close();
+    }
+}
\ No newline at end of file
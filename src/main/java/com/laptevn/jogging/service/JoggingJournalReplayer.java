@@ -0,0 +1,170 @@
+package com.laptevn.jogging.service;
+
+import com.laptevn.exception.IntegrityException;
+import com.laptevn.jogging.entity.JournaledJoggingWrite;
+import com.laptevn.journal.JournalPosition;
+import com.laptevn.journal.JournalRecord;
+import com.laptevn.journal.entity.JournalCheckpoint;
+import com.laptevn.journal.repository.JournalCheckpointRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@ConditionalOnProperty(name = "jogging.journal.enable", havingValue = "true")
+public class JoggingJournalReplayer implements DisposableBean {
+    private final static Logger logger = LoggerFactory.getLogger(JoggingJournalReplayer.class);
+
+    private final JoggingJournal journal;
+    private final JoggingService joggingService;
+    private final JournalCheckpointRepository checkpointRepository;
+    private final TransactionOperations transactionOperations;
+    private final String name;
+    private final int batchSize;
+    private final Timer replayTimer;
+    private final ScheduledExecutorService replayer;
+
+    public JoggingJournalReplayer(
+            JoggingJournal journal,
+            JoggingService joggingService,
+            JournalCheckpointRepository checkpointRepository,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${jogging.journal.name:jogging}") String name,
+            @Value("${jogging.journal.batchSize:500}") int batchSize,
+            @Value("${jogging.journal.replayIntervalMillis:1000}") long replayIntervalMillis) {
+
+        this.journal = journal;
+        this.joggingService = joggingService;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionOperations = new TransactionTemplate(transactionManager);
+        this.name = name;
+        this.batchSize = batchSize;
+        this.replayTimer = Timer.builder("jogging.journal.replay")
+                .register(meterRegistry);
+        loadCheckpoint();
+
+        this.replayer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jogging-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.replayer.scheduleWithFixedDelay(
+                this::replaySafely, replayIntervalMillis, replayIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void loadCheckpoint() {
+        try {
+            journal.markReplayed(findCheckpoint());
+        } catch (RuntimeException e) {
+            logger.warn("Couldn't load journal checkpoint. Writes are journaled until it is loaded", e);
+        }
+    }
+
+    private JournalPosition findCheckpoint() {
+        return checkpointRepository
+                .findById(name)
+                .map(JournalCheckpoint::getPosition)
+                .orElse(JournalPosition.START);
+    }
+
+    void replay() {
+        if (!journal.hasPending()) {
+            return;
+        }
+
+        JournalPosition position = findCheckpoint();
+        journal.markReplayed(position);
+
+        List<JournalRecord> records;
+        while (!(records = journal.read(position, batchSize)).isEmpty()) {
+            List<JournalRecord> batch = records;
+            position = replayTimer.record(() -> replayBatch(batch));
+            journal.markReplayed(position);
+            logger.info("Replayed {} journaled joggings up to {}", batch.size(), position);
+        }
+    }
+
+    private void replaySafely() {
+        try {
+            replay();
+        } catch (RuntimeException e) {
+            logger.warn("Couldn't replay journaled joggings", e);
+        }
+    }
+
+    private JournalPosition replayBatch(List<JournalRecord> records) {
+        JournalPosition nextPosition = records.get(records.size() - 1).getNextPosition();
+        try {
+            transactionOperations.execute(status -> {
+                records.forEach(this::apply);
+                return saveCheckpoint(nextPosition);
+            });
+        } catch (RuntimeException e) {
+            if (isOutage(e)) {
+                throw e;
+            }
+
+            logger.warn("Couldn't replay batch of {} journaled joggings. Replaying them one by one", records.size(), e);
+            records.forEach(this::replaySeparately);
+        }
+        return nextPosition;
+    }
+
+    private void replaySeparately(JournalRecord record) {
+        try {
+            transactionOperations.execute(status -> {
+                apply(record);
+                return saveCheckpoint(record.getNextPosition());
+            });
+        } catch (RuntimeException e) {
+            if (isOutage(e)) {
+                throw e;
+            }
+
+            logger.error("Couldn't replay journaled jogging. Skipping it", e);
+            transactionOperations.execute(status -> saveCheckpoint(record.getNextPosition()));
+        }
+    }
+
+    private void apply(JournalRecord record) {
+        JournaledJoggingWrite write = journal.parse(record);
+        try {
+            joggingService.applyJournaledWrite(write);
+        } catch (IntegrityException e) {
+            logger.info("Skipping journaled jogging {}. {}", write, e.getMessage());
+        }
+    }
+
+    private JournalCheckpoint saveCheckpoint(JournalPosition position) {
+        return checkpointRepository.save(new JournalCheckpoint().setName(name).setPosition(position));
+    }
+
+    private static boolean isOutage(RuntimeException e) {
+        return e instanceof DataAccessResourceFailureException
+                || e instanceof CannotCreateTransactionException
+                || e instanceof TransactionSystemException;
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        replayer.shutdown();
+        replayer.awaitTermination(1, TimeUnit.MINUTES);
+    }
+}
\ No newline at end of file
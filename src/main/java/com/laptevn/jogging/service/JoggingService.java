@@ -1,132 +1,406 @@
 package com.laptevn.jogging.service;
 
+import com.laptevn.Continuation;
+import com.laptevn.ContinuationPage;
+import com.laptevn.EntityTags;
 import com.laptevn.ErrorMessages;
 import com.laptevn.exception.IntegrityException;
+import com.laptevn.exception.ServiceOverloadedException;
+import com.laptevn.exception.WriteJournaledException;
 import com.laptevn.PaginationFactory;
+import com.laptevn.TaggedContent;
 import com.laptevn.auth.entity.Role;
 import com.laptevn.auth.entity.User;
-import com.laptevn.auth.repository.UserRepository;
+import com.laptevn.auth.service.UserResolver;
+import com.laptevn.cache.BoundedCache;
 import com.laptevn.jogging.entity.Jogging;
 import com.laptevn.jogging.entity.JoggingDto;
+import com.laptevn.jogging.entity.JoggingPatchDto;
+import com.laptevn.jogging.entity.JournaledJoggingWrite;
 import com.laptevn.jogging.repository.JoggingRepository;
+import com.laptevn.jogging.repository.JoggingStatsRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.transaction.Transactional;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
 @Component
 public class JoggingService {
     private final static Logger logger = LoggerFactory.getLogger(JoggingService.class);
+    private final static int PENDING_JOGGING_VERSION = 0;
 
     private final JoggingRepository joggingRepository;
-    private final UserRepository userRepository;
+    private final JoggingStatsRepository statsRepository;
+    private final SpeedSketchService speedSketchService;
+    private final UserResolver userResolver;
     private final PaginationFactory paginationFactory;
+    private final TransactionOperations transactionOperations;
+    private final Optional<JoggingIngestionQueue> ingestionQueue;
+    private final Optional<JoggingJournal> journal;
+    private final BoundedCache<Integer, Jogging> knownJoggings;
+
+    public JoggingService(
+            JoggingRepository joggingRepository,
+            JoggingStatsRepository statsRepository,
+            SpeedSketchService speedSketchService,
+            UserResolver userResolver,
+            PaginationFactory paginationFactory,
+            PlatformTransactionManager transactionManager,
+            Optional<JoggingIngestionQueue> ingestionQueue,
+            Optional<JoggingJournal> journal,
+            @Value("${jogging.update.cacheSize:10000}") int updateCacheSize) {
 
-    public JoggingService(JoggingRepository joggingRepository, UserRepository userRepository, PaginationFactory paginationFactory) {
         this.joggingRepository = joggingRepository;
-        this.userRepository = userRepository;
+        this.statsRepository = statsRepository;
+        this.speedSketchService = speedSketchService;
+        this.userResolver = userResolver;
         this.paginationFactory = paginationFactory;
+        this.transactionOperations = new TransactionTemplate(transactionManager);
+        this.ingestionQueue = ingestionQueue;
+        this.journal = journal;
+        this.knownJoggings = new BoundedCache<>(updateCacheSize);
+    }
+
+    public boolean isIngestionQueued() {
+        return ingestionQueue.isPresent();
     }
 
     public int createJogging(JoggingDto joggingDto, String userName) {
+        JournaledJoggingWrite write = new JournaledJoggingWrite().setUserName(userName).setJogging(joggingDto);
+        appendToJournalIfPending(write);
+        try {
+            return insertJogging(joggingDto, getUser(userName), userName);
+        } catch (DataAccessResourceFailureException | CannotCreateTransactionException e) {
+            throw appendToJournal(write, e);
+        }
+    }
+
+    private void appendToJournalIfPending(JournaledJoggingWrite write) {
+        if (!journal.isPresent() || !journal.get().hasPending()) {
+            return;
+        }
+
+        if (!journal.get().append(write)) {
+            throw new ServiceOverloadedException(ErrorMessages.JOURNAL_IS_FULL);
+        }
+        logger.info("Journaled jogging behind pending writes");
+        throw new WriteJournaledException(ErrorMessages.JOGGING_WAS_JOURNALED);
+    }
+
+    private RuntimeException appendToJournal(JournaledJoggingWrite write, RuntimeException databaseException) {
+        if (!journal.isPresent() || !journal.get().append(write)) {
+            return databaseException;
+        }
+
+        logger.warn("Journaled jogging because database is unavailable", databaseException);
+        return new WriteJournaledException(ErrorMessages.JOGGING_WAS_JOURNALED, databaseException);
+    }
+
+    public void applyJournaledWrite(JournaledJoggingWrite write) {
+        User user = getUser(write.getUserName());
+        if (write.getId() == null) {
+            insertJogging(write.getJogging(), user, write.getUserName());
+        } else {
+            upsertJogging(write.getId(), write.getJogging(), user, write.getUserName());
+        }
+    }
+
+    private int insertJogging(JoggingDto joggingDto, User user, String userName) {
         Jogging jogging = new Jogging()
                 .setDate(joggingDto.getDate())
                 .setDistance(joggingDto.getDistance())
                 .setLocation(joggingDto.getLocation())
                 .setTime(joggingDto.getTime())
-                .setUser(getUser(userName));
+                .setUser(user);
 
         try {
-            joggingRepository.save(jogging);
+            transactionOperations.execute(status -> {
+                joggingRepository.save(jogging);
+                statsRepository.updateStats(Collections.emptyList(), Collections.singleton(jogging));
+                speedSketchService.updateSketches(Collections.emptyList(), Collections.singleton(jogging));
+                return null;
+            });
+            rememberJogging(jogging);
             return jogging.getId();
         } catch (DataIntegrityViolationException e) {
             String error = String.format(ErrorMessages.NOT_EXISTING_USER_FORMAT, userName);
             logger.info(error, e);
+            userResolver.invalidate(userName);
             throw new IntegrityException(error);
         }
     }
 
+    public int enqueueJogging(JoggingDto joggingDto, String userName) {
+        JoggingIngestionQueue queue = ingestionQueue.orElseThrow(
+                () -> new IllegalStateException("Ingestion queue isn't enabled"));
+        Jogging jogging = new Jogging()
+                .setId(joggingRepository.reserveId())
+                .setDate(joggingDto.getDate())
+                .setDistance(joggingDto.getDistance())
+                .setLocation(joggingDto.getLocation())
+                .setTime(joggingDto.getTime())
+                .setUser(getUser(userName));
+
+        if (!queue.offer(jogging)) {
+            throw new ServiceOverloadedException(ErrorMessages.INGESTION_QUEUE_IS_FULL);
+        }
+        return jogging.getId();
+    }
+
+    @Transactional
+    public List<Integer> createJoggings(List<JoggingDto> joggingDtos, String userName) {
+        User user = getUser(userName);
+        List<Jogging> joggings = joggingDtos
+                .stream()
+                .map(joggingDto -> new Jogging()
+                        .setDate(joggingDto.getDate())
+                        .setDistance(joggingDto.getDistance())
+                        .setLocation(joggingDto.getLocation())
+                        .setTime(joggingDto.getTime())
+                        .setUser(user))
+                .collect(Collectors.toList());
+
+        joggingRepository.saveInBatches(joggings);
+        speedSketchService.updateSketches(Collections.emptyList(), joggings);
+        return joggings
+                .stream()
+                .map(Jogging::getId)
+                .collect(Collectors.toList());
+    }
+
     public Optional<JoggingDto> getJogging(int id, String userName) {
         User user = getUser(userName);
+        Optional<Jogging> pendingJogging = findPendingJogging(id, user);
+        if (pendingJogging.isPresent()) {
+            return pendingJogging.map(jogging -> JoggingDto.create(jogging).setVersion(PENDING_JOGGING_VERSION));
+        }
+
         Optional<Jogging> foundJogging = isAllowedToAccessAllRecords(user)
                 ? joggingRepository.findById(id)
                 : joggingRepository.findByIdAndUser(id, user);
+        foundJogging.ifPresent(this::rememberJogging);
         return foundJogging.map(JoggingDto::create);
     }
 
+    private void rememberJogging(Jogging jogging) {
+        knownJoggings.put(jogging.getId(), copyJogging(jogging));
+    }
+
+    private static Jogging copyJogging(Jogging jogging) {
+        return new Jogging()
+                .setId(jogging.getId())
+                .setVersion(jogging.getVersion())
+                .setDate(jogging.getDate())
+                .setDistance(jogging.getDistance())
+                .setTime(jogging.getTime())
+                .setLocation(jogging.getLocation())
+                .setUser(jogging.getUser());
+    }
+
+    public Optional<Integer> getJoggingVersion(int id, String userName) {
+        User user = getUser(userName);
+        if (findPendingJogging(id, user).isPresent()) {
+            return Optional.of(PENDING_JOGGING_VERSION);
+        }
+
+        return isAllowedToAccessAllRecords(user)
+                ? joggingRepository.findVersionById(id)
+                : joggingRepository.findVersionByIdAndUser(id, user);
+    }
+
+    private Optional<Jogging> findPendingJogging(int id, User user) {
+        return ingestionQueue
+                .flatMap(queue -> queue.findPending(id))
+                .filter(jogging -> isAllowedToAccessAllRecords(user)
+                        || jogging.getUser().getId().equals(user.getId()));
+    }
+
     private static boolean isAllowedToAccessAllRecords(User user) {
         return user.getRole() == Role.ADMIN;
     }
 
     public boolean deleteJogging(int id, String userName) {
         User user = getUser(userName);
-        if (isAllowedToAccessAllRecords(user)) {
-            try {
-                joggingRepository.deleteById(id);
-                return true;
-            } catch (EmptyResultDataAccessException e) {
+        knownJoggings.invalidate(id);
+        return transactionOperations.execute(status -> {
+            Optional<Jogging> jogging = findJoggingForUpdate(id, user);
+            if (!jogging.isPresent()) {
                 return false;
             }
-        }
 
-        int deletedEntriesCount = joggingRepository.deleteByIdAndUser(id, user);
-        return deletedEntriesCount > 0;
+            joggingRepository.delete(jogging.get());
+            statsRepository.updateStats(Collections.singleton(jogging.get()), Collections.emptyList());
+            speedSketchService.updateSketches(Collections.singleton(jogging.get()), Collections.emptyList());
+            return true;
+        });
+    }
+
+    private Optional<Jogging> findJoggingForUpdate(int id, User user) {
+        return isAllowedToAccessAllRecords(user)
+                ? joggingRepository.findForUpdateById(id)
+                : joggingRepository.findForUpdateByIdAndUser(id, user);
     }
 
     public Optional<Integer> updateJogging(int id, JoggingDto joggingDto, String userName) {
-        User user = getUser(userName);
-        Optional<Jogging> foundJogging = isAllowedToAccessAllRecords(user)
-                ? joggingRepository.findById(id)
-                : joggingRepository.findByIdAndUser(id, user);
+        JournaledJoggingWrite write = new JournaledJoggingWrite()
+                .setUserName(userName)
+                .setId(id)
+                .setJogging(joggingDto);
+        appendToJournalIfPending(write);
+        try {
+            return upsertJogging(id, joggingDto, getUser(userName), userName);
+        } catch (DataAccessResourceFailureException | CannotCreateTransactionException e) {
+            throw appendToJournal(write, e);
+        }
+    }
 
-        Jogging jogging;
-        boolean isUpdate = foundJogging.isPresent();
-        if (isUpdate) {
-            logger.info("Updating existing jogging");
-            jogging = foundJogging.get();
-
-            boolean needToUpdateWeather = !jogging.getDate().equals(joggingDto.getDate())
-                    || !jogging.getLocation().equals(joggingDto.getLocation());
-            if (needToUpdateWeather) {
-                jogging.setWeatherCondition(null);
-                jogging.setAverageTemperature(null);
-            }
-        } else {
-            logger.info("Creating new jogging");
-            jogging = new Jogging();
-            jogging.setUser(user);
+    private Optional<Integer> upsertJogging(int id, JoggingDto joggingDto, User user, String userName) {
+        if (updateExistingJogging(id, joggingDto, user, Optional.empty()).isPresent()) {
+            logger.info("Updated existing jogging");
+            return Optional.empty();
+        }
+
+        logger.info("Creating new jogging");
+        return Optional.of(insertJogging(joggingDto, user, userName));
+    }
+
+    public Optional<Integer> updateExistingJogging(
+            int id, JoggingDto joggingDto, String userName, Optional<Integer> expectedVersion) {
+
+        return updateExistingJogging(id, joggingDto, getUser(userName), expectedVersion);
+    }
+
+    private Optional<Integer> updateExistingJogging(
+            int id, JoggingDto joggingDto, User user, Optional<Integer> expectedVersion) {
+
+        Jogging knownJogging = knownJoggings.getIfPresent(id);
+        Optional<Jogging> updatedJogging = Optional.empty();
+        if (knownJogging != null && expectedVersion.map(knownJogging.getVersion()::equals).orElse(true)) {
+            updatedJogging = transactionOperations.execute(
+                    status -> updateJoggingRow(knownJogging, joggingDto, user));
+        }
+
+        if (!updatedJogging.isPresent()) {
+            updatedJogging = transactionOperations.execute(status -> findJoggingForUpdate(id, user)
+                    .filter(jogging -> expectedVersion.map(jogging.getVersion()::equals).orElse(true))
+                    .flatMap(jogging -> updateJoggingRow(copyJogging(jogging), joggingDto, user)));
+        }
+
+        updatedJogging.ifPresent(jogging -> knownJoggings.put(id, jogging));
+        return updatedJogging.map(Jogging::getVersion);
+    }
+
+    private Optional<Jogging> updateJoggingRow(Jogging previousJogging, JoggingDto joggingDto, User user) {
+        int updatedEntriesCount = isAllowedToAccessAllRecords(user)
+                ? joggingRepository.updateByIdAndVersion(
+                        previousJogging.getId(), previousJogging.getVersion(), joggingDto.getDate(),
+                        joggingDto.getDistance(), joggingDto.getTime(), joggingDto.getLocation())
+                : joggingRepository.updateByIdAndUserAndVersion(
+                        previousJogging.getId(), user, previousJogging.getVersion(), joggingDto.getDate(),
+                        joggingDto.getDistance(), joggingDto.getTime(), joggingDto.getLocation());
+        if (updatedEntriesCount == 0) {
+            return Optional.empty();
         }
 
-        jogging
+        Jogging updatedJogging = new Jogging()
+                .setId(previousJogging.getId())
+                .setVersion(previousJogging.getVersion() + 1)
                 .setDate(joggingDto.getDate())
                 .setDistance(joggingDto.getDistance())
+                .setTime(joggingDto.getTime())
                 .setLocation(joggingDto.getLocation())
-                .setTime(joggingDto.getTime());
+                .setUser(previousJogging.getUser());
+        statsRepository.updateStats(Collections.singleton(previousJogging), Collections.singleton(updatedJogging));
+        speedSketchService.updateSketches(
+                Collections.singleton(previousJogging), Collections.singleton(updatedJogging));
+        return Optional.of(updatedJogging);
+    }
 
-        try {
-            joggingRepository.save(jogging);
-        } catch (DataIntegrityViolationException e) {
-            String error = String.format(ErrorMessages.NOT_EXISTING_USER_FORMAT, userName);
-            logger.info(error, e);
-            throw new IntegrityException(error);
+    public int deleteJoggings(String userName, String filter) {
+        User user = getUser(userName);
+        return isAllowedToAccessAllRecords(user)
+                ? joggingRepository.deleteAll(filter, speedSketchService::updateSketches)
+                : joggingRepository.deleteByUser(user, filter, speedSketchService::updateSketches);
+    }
+
+    public int updateJoggings(String userName, JoggingPatchDto joggingPatchDto) {
+        if (!joggingPatchDto.hasChanges()) {
+            throw new IntegrityException(ErrorMessages.EMPTY_PATCH);
         }
 
-        return foundJogging.isPresent() ? Optional.empty() : Optional.of(jogging.getId());
+        User user = getUser(userName);
+        Jogging changes = new Jogging()
+                .setDate(joggingPatchDto.getDate())
+                .setDistance(joggingPatchDto.getDistance())
+                .setLocation(joggingPatchDto.getLocation())
+                .setTime(joggingPatchDto.getTime());
+        return isAllowedToAccessAllRecords(user)
+                ? joggingRepository.updateAll(joggingPatchDto.getFilter(), changes, speedSketchService::updateSketches)
+                : joggingRepository.updateByUser(
+                        user, joggingPatchDto.getFilter(), changes, speedSketchService::updateSketches);
     }
 
-    public Collection<JoggingDto> getAllJoggings(String userName, Integer pageIndex, Integer pageSize, String filter) {
+    public TaggedContent<Collection<JoggingDto>> getAllJoggings(
+            String userName, Integer pageIndex, Integer pageSize, String filter) {
+
         Iterable<Jogging> joggings = getJoggings(
                 paginationFactory.createPagination(pageIndex, pageSize), getUser(userName), filter);
-        return StreamSupport.stream(joggings.spliterator(), false)
-                .map(JoggingDto::create)
-                .collect(Collectors.toList());
+        return new TaggedContent<>(
+                EntityTags.create(joggings, Jogging::getId, Jogging::getVersion, filter),
+                () -> StreamSupport.stream(joggings.spliterator(), false)
+                        .map(JoggingDto::create)
+                        .collect(Collectors.toList()));
+    }
+
+    @Transactional
+    public void streamJoggings(String userName, String filter, Consumer<JoggingDto> consumer) {
+        User user = getUser(userName);
+        Consumer<Jogging> joggingConsumer = jogging -> consumer.accept(JoggingDto.create(jogging));
+        if (isAllowedToAccessAllRecords(user)) {
+            joggingRepository.streamAll(filter, joggingConsumer);
+        } else {
+            joggingRepository.streamByUser(user, filter, joggingConsumer);
+        }
+    }
+
+    public TaggedContent<ContinuationPage<JoggingDto>> getJoggingsAfter(
+            String userName, String token, Integer pageSize, String filter) {
+
+        Continuation continuation = paginationFactory.createContinuation(token, pageSize);
+        List<Jogging> joggings = getJoggings(continuation, getUser(userName), filter);
+        return new TaggedContent<>(
+                EntityTags.create(joggings, Jogging::getId, Jogging::getVersion, filter),
+                () -> paginationFactory.createPage(joggings, continuation, Jogging::getId, JoggingDto::create));
+    }
+
+    private List<Jogging> getJoggings(Continuation continuation, User user, String filter) {
+        if (filter != null) {
+            return isAllowedToAccessAllRecords(user)
+                    ? joggingRepository.findAllAfter(continuation.getAfterId(), filter, continuation.getPageable())
+                    : joggingRepository.findByUserAfter(
+                            user, continuation.getAfterId(), filter, continuation.getPageable());
+        }
+
+        return isAllowedToAccessAllRecords(user)
+                ? joggingRepository.findByIdGreaterThan(continuation.getAfterId(), continuation.getPageable())
+                : joggingRepository.findByUserAndIdGreaterThan(
+                        user, continuation.getAfterId(), continuation.getPageable());
     }
 
     private Iterable<Jogging> getJoggings(Optional<Pageable> pagination, User user, String filter) {
@@ -148,14 +422,6 @@ public class JoggingService {
     }
 
     private User getUser(String userName) {
-        return getUser(userRepository, userName);
-    }
-
-    public static User getUser(UserRepository userRepository, String userName) {
-        Optional<User> user = userRepository.findByNameIgnoreCase(userName);
-        if (!user.isPresent()) {
-            throw new IntegrityException(String.format(ErrorMessages.NOT_EXISTING_USER_FORMAT, userName));
-        }
-        return user.get();
+        return userResolver.resolve(userName);
     }
 }
\ No newline at end of file
@@ -0,0 +1,139 @@
+package com.laptevn.jogging.service;
+
+import com.laptevn.auth.entity.User;
+import com.laptevn.auth.repository.UserRepository;
+import com.laptevn.jogging.entity.JoggingStats;
+import com.laptevn.jogging.entity.JoggingStatsKey;
+import com.laptevn.jogging.repository.JoggingRepository;
+import com.laptevn.jogging.repository.JoggingStatsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+@Component
+public class JoggingStatsRepairJob {
+    private final static Logger logger = LoggerFactory.getLogger(JoggingStatsRepairJob.class);
+    private final static double SPEED_SUM_TOLERANCE = 1e-6;
+
+    private final JoggingRepository joggingRepository;
+    private final JoggingStatsRepository statsRepository;
+    private final UserRepository userRepository;
+    private final TransactionOperations transactionOperations;
+    private final int pageSize;
+
+    public JoggingStatsRepairJob(
+            JoggingRepository joggingRepository,
+            JoggingStatsRepository statsRepository,
+            UserRepository userRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${jogging.stats.repairPageSize:100}") int pageSize) {
+
+        this.joggingRepository = joggingRepository;
+        this.statsRepository = statsRepository;
+        this.userRepository = userRepository;
+        this.transactionOperations = new TransactionTemplate(transactionManager);
+        this.pageSize = pageSize;
+    }
+
+    @Scheduled(cron = "${jogging.stats.repairTime:0 0 3 * * *}")
+    public void repairStats() {
+        logger.info("Checking jogging stats");
+
+        List<JoggingStatsKey> inconsistentKeys = findInconsistentStats();
+        logger.info("Found {} inconsistent jogging stats", inconsistentKeys.size());
+
+        inconsistentKeys.forEach(key -> transactionOperations.execute(status -> {
+            repairStats(key);
+            return null;
+        }));
+        logger.info("Repaired {} jogging stats", inconsistentKeys.size());
+    }
+
+    private void repairStats(JoggingStatsKey key) {
+        Optional<JoggingStats> storedStats = statsRepository.findLockedByUserIdAndDate(key.getUserId(), key.getDate());
+        List<JoggingStats> runs = joggingRepository.findStatsByUserIdAndDate(key.getUserId(), key.getDate());
+        if (runs.isEmpty()) {
+            storedStats.ifPresent(statsRepository::delete);
+            return;
+        }
+
+        JoggingStats actualStats = runs.stream().reduce(JoggingStats::add).get();
+        if (storedStats.isPresent()) {
+            storedStats.get()
+                    .setRunCount(actualStats.getRunCount())
+                    .setDistanceSum(actualStats.getDistanceSum())
+                    .setSpeedSum(actualStats.getSpeedSum());
+        } else {
+            statsRepository.save(actualStats);
+        }
+    }
+
+    public List<JoggingStatsKey> findInconsistentStats() {
+        List<JoggingStatsKey> inconsistentKeys = new ArrayList<>();
+        int lastUserId = Integer.MIN_VALUE;
+        while (true) {
+            List<Integer> userIds = userRepository
+                    .findByIdGreaterThan(lastUserId, PageRequest.of(0, pageSize, Sort.by("id")))
+                    .stream()
+                    .map(User::getId)
+                    .collect(Collectors.toList());
+            if (userIds.isEmpty()) {
+                return inconsistentKeys;
+            }
+
+            inconsistentKeys.addAll(transactionOperations.execute(status -> findInconsistentStats(userIds)));
+            lastUserId = userIds.get(userIds.size() - 1);
+        }
+    }
+
+    private List<JoggingStatsKey> findInconsistentStats(List<Integer> userIds) {
+        Map<JoggingStatsKey, JoggingStats> actualStats = new HashMap<>();
+        joggingRepository.streamStatsByUsers(
+                userIds, stats -> actualStats.merge(stats.getKey(), stats, JoggingStats::add));
+        Map<JoggingStatsKey, JoggingStats> storedStats = statsRepository
+                .findByUserIdIn(userIds)
+                .stream()
+                .collect(Collectors.toMap(JoggingStats::getKey, stats -> stats));
+
+        Set<JoggingStatsKey> keys = new TreeSet<>(actualStats.keySet());
+        keys.addAll(storedStats.keySet());
+        return keys
+                .stream()
+                .filter(key -> !isConsistent(actualStats.get(key), storedStats.get(key)))
+                .collect(Collectors.toList());
+    }
+
+    private static boolean isConsistent(JoggingStats actualStats, JoggingStats storedStats) {
+        if (actualStats == null || storedStats == null) {
+            return isBlank(actualStats) && isBlank(storedStats);
+        }
+
+        return actualStats.getRunCount().equals(storedStats.getRunCount())
+                && actualStats.getDistanceSum().equals(storedStats.getDistanceSum())
+                && Math.abs(actualStats.getSpeedSum() - storedStats.getSpeedSum())
+                        <= SPEED_SUM_TOLERANCE * Math.max(1, actualStats.getRunCount());
+    }
+
+    private static boolean isBlank(JoggingStats stats) {
+        return stats == null
+                || stats.getRunCount() == 0
+                && stats.getDistanceSum() == 0
+                && Math.abs(stats.getSpeedSum()) <= SPEED_SUM_TOLERANCE;
+    }
+}
\ No newline at end of file
@@ -1,47 +1,161 @@
 package com.laptevn.jogging.service;
 
-import com.laptevn.auth.repository.UserRepository;
-import com.laptevn.jogging.entity.Jogging;
+import com.laptevn.ErrorMessages;
+import com.laptevn.auth.entity.Role;
+import com.laptevn.auth.entity.User;
+import com.laptevn.auth.service.UserResolver;
+import com.laptevn.exception.IntegrityException;
+import com.laptevn.jogging.entity.JoggingStats;
 import com.laptevn.jogging.entity.ReportDto;
+import com.laptevn.jogging.entity.ReportGranularity;
+import com.laptevn.jogging.entity.ReportPeriodDto;
+import com.laptevn.jogging.entity.UserReportDto;
 import com.laptevn.jogging.repository.JoggingRepository;
+import com.laptevn.jogging.repository.JoggingStatsRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.Period;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 @Component
 public class ReportService {
+    private final static Logger logger = LoggerFactory.getLogger(ReportService.class);
+
+    private final JoggingStatsRepository statsRepository;
     private final JoggingRepository joggingRepository;
-    private final UserRepository userRepository;
+    private final UserResolver userResolver;
+    private final int maxPeriodCount;
+    private final Duration latencyBudget;
+    private final Timer filteredReportTimer;
+    private final TransactionOperations readOnlyTransactionOperations;
+
+    public ReportService(
+            JoggingStatsRepository statsRepository,
+            JoggingRepository joggingRepository,
+            UserResolver userResolver,
+            MeterRegistry meterRegistry,
+            PlatformTransactionManager transactionManager,
+            @Value("${jogging.report.maxPeriods:366}") int maxPeriodCount,
+            @Value("${jogging.report.latencyBudgetMillis:500}") long latencyBudgetMillis) {
 
-    public ReportService(JoggingRepository joggingRepository, UserRepository userRepository) {
+        this.statsRepository = statsRepository;
         this.joggingRepository = joggingRepository;
-        this.userRepository = userRepository;
+        this.userResolver = userResolver;
+        this.maxPeriodCount = maxPeriodCount;
+        this.latencyBudget = Duration.ofMillis(latencyBudgetMillis);
+        this.filteredReportTimer = Timer.builder("jogging.report.filtered")
+                .sla(latencyBudget)
+                .register(meterRegistry);
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        this.readOnlyTransactionOperations = transactionTemplate;
     }
 
     public ReportDto generateReport(String userName) {
         LocalDate rightBound = LocalDate.now();
         LocalDate leftBound = rightBound.minus(Period.ofWeeks(1));
-        List<Jogging> weeklyJoggings = joggingRepository.findByDateBetweenAndUser(
-                leftBound, rightBound, JoggingService.getUser(userRepository, userName));
+        int userId = userResolver.resolve(userName).getId();
+        JoggingStats weeklyStats = statsRepository
+                .findByUserIdAndDateBetween(userId, leftBound, rightBound)
+                .stream()
+                .reduce(new JoggingStats(userId, rightBound, 0, 0, 0), JoggingStats::add);
 
-        return new ReportDto(calculateAverageSpeed(weeklyJoggings), calculateAverageDistance(weeklyJoggings));
+        return weeklyStats.getRunCount() <= 0
+                ? new ReportDto(0, 0)
+                : new ReportDto(
+                        weeklyStats.getSpeedSum() / weeklyStats.getRunCount(),
+                        (double) weeklyStats.getDistanceSum() / weeklyStats.getRunCount());
     }
 
-    private static double calculateAverageDistance(List<Jogging> joggings) {
-        return joggings
-                .stream()
-                .mapToDouble(Jogging::getDistance)
-                .average()
-                .orElse(0);
+    public ReportDto generateFilteredReport(String userName, String filter) {
+        User user = userResolver.resolve(userName);
+        long startTime = System.nanoTime();
+        ReportDto report = user.getRole() == Role.ADMIN
+                ? joggingRepository.aggregateAll(filter)
+                : joggingRepository.aggregateByUser(user, filter);
+
+        long elapsedNanos = System.nanoTime() - startTime;
+        filteredReportTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        if (elapsedNanos > latencyBudget.toNanos()) {
+            logger.warn(
+                    "Filtered report took {} ms, which exceeds {} ms budget. Filter '{}'",
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos), latencyBudget.toMillis(), filter);
+        }
+        return report;
     }
 
-    private static double calculateAverageSpeed(List<Jogging> joggings) {
-        return joggings
-                .stream()
-                .mapToDouble(jogging -> (double) jogging.getDistance() / jogging.getTime().toSecondOfDay())
-                .average()
-                .orElse(0);
+    public void streamUserReports(LocalDate leftBound, LocalDate rightBound, Consumer<UserReportDto> consumer) {
+        if (leftBound.isAfter(rightBound)) {
+            throw new IntegrityException(ErrorMessages.INVALID_REPORT_RANGE);
+        }
+
+        readOnlyTransactionOperations.execute(status -> {
+            joggingRepository.streamStatsSumsByUser(leftBound, rightBound, sums -> {
+                long runCount = ((Number) sums[2]).longValue();
+                consumer.accept(new UserReportDto(
+                        (Integer) sums[0],
+                        (String) sums[1],
+                        runCount,
+                        ((Number) sums[4]).doubleValue() / runCount,
+                        ((Number) sums[3]).doubleValue() / runCount));
+            });
+            return null;
+        });
+    }
+
+    public List<ReportPeriodDto> generateReportSeries(
+            String userName, String granularityName, int periodCount, LocalDate rightBound) {
+
+        ReportGranularity granularity = getGranularity(granularityName);
+        if (periodCount < 1 || periodCount > maxPeriodCount) {
+            throw new IntegrityException(String.format(ErrorMessages.INVALID_PERIOD_COUNT_FORMAT, maxPeriodCount));
+        }
+
+        int userId = userResolver.resolve(userName).getId();
+        LocalDate leftBound = granularity.addPeriods(granularity.getPeriodStart(rightBound), 1 - periodCount);
+        Map<LocalDate, JoggingStats> periodStats = new HashMap<>();
+        for (JoggingStats dailyStats : statsRepository.findByUserIdAndDateBetween(userId, leftBound, rightBound)) {
+            periodStats.merge(granularity.getPeriodStart(dailyStats.getDate()), dailyStats, JoggingStats::add);
+        }
+
+        List<ReportPeriodDto> series = new ArrayList<>(periodCount);
+        for (LocalDate start = leftBound; !start.isAfter(rightBound); start = granularity.addPeriods(start, 1)) {
+            LocalDate end = granularity.addPeriods(start, 1).minusDays(1);
+            JoggingStats stats = periodStats.get(start);
+            series.add(stats == null || stats.getRunCount() <= 0
+                    ? new ReportPeriodDto(start, end, 0, 0, 0)
+                    : new ReportPeriodDto(
+                            start,
+                            end,
+                            stats.getRunCount(),
+                            stats.getSpeedSum() / stats.getRunCount(),
+                            (double) stats.getDistanceSum() / stats.getRunCount()));
+        }
+        return series;
+    }
+
+    private static ReportGranularity getGranularity(String granularityName) {
+        try {
+            return ReportGranularity.valueOf(granularityName.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ignore) {
+            throw new IntegrityException(String.format(ErrorMessages.NOT_SUPPORTED_GRANULARITY_FORMAT, granularityName));
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,455 @@
+package com.laptevn.jogging.service;
+
+import com.laptevn.ErrorMessages;
+import com.laptevn.auth.service.UserResolver;
+import com.laptevn.exception.IntegrityException;
+import com.laptevn.jogging.entity.Jogging;
+import com.laptevn.jogging.entity.JoggingSketch;
+import com.laptevn.jogging.entity.JoggingSketchKey;
+import com.laptevn.jogging.entity.JoggingSketchRebuild;
+import com.laptevn.jogging.entity.JoggingStats;
+import com.laptevn.jogging.entity.SpeedDistributionDto;
+import com.laptevn.jogging.entity.SpeedPercentileDto;
+import com.laptevn.jogging.entity.SpeedRankDto;
+import com.laptevn.jogging.repository.JoggingRepository;
+import com.laptevn.jogging.repository.JoggingSketchRebuildRepository;
+import com.laptevn.jogging.repository.JoggingSketchRepository;
+import com.laptevn.jogging.repository.JoggingStatsRepository;
+import com.laptevn.sketch.QuantileSketch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+@Component
+public class SpeedSketchService {
+    private final static Logger logger = LoggerFactory.getLogger(SpeedSketchService.class);
+    private final static int REBUILD_ID = 0;
+    private final static long UPDATES_PAUSE_TIMEOUT_SECONDS = 5;
+    private final static int UNKNOWN_GENERATION = -1;
+
+    private final JoggingSketchRepository sketchRepository;
+    private final JoggingSketchRebuildRepository rebuildRepository;
+    private final JoggingRepository joggingRepository;
+    private final JoggingStatsRepository statsRepository;
+    private final UserResolver userResolver;
+    private final TransactionOperations transactionOperations;
+    private final TransactionOperations readOnlyTransactionOperations;
+    private final double relativeAccuracy;
+    private final int rebuildMonthCount;
+    private final Duration rebuildLease;
+    private final Map<JoggingSketchKey, QuantileSketch> storedSketches = new ConcurrentHashMap<>();
+    private final Map<JoggingSketchKey, QuantileSketch> deltas = new HashMap<>();
+    private final Map<JoggingSketchKey, Integer> deltaGenerations = new HashMap<>();
+    private final ReadWriteLock updatesLock = new ReentrantReadWriteLock();
+    private volatile int generation = UNKNOWN_GENERATION;
+
+    public SpeedSketchService(
+            JoggingSketchRepository sketchRepository,
+            JoggingSketchRebuildRepository rebuildRepository,
+            JoggingRepository joggingRepository,
+            JoggingStatsRepository statsRepository,
+            UserResolver userResolver,
+            PlatformTransactionManager transactionManager,
+            @Value("${jogging.sketch.relativeAccuracy:0.01}") double relativeAccuracy,
+            @Value("${jogging.sketch.rebuildMonths:2}") int rebuildMonthCount,
+            @Value("${jogging.sketch.rebuildLeaseMinutes:60}") long rebuildLeaseMinutes) {
+
+        this.sketchRepository = sketchRepository;
+        this.rebuildRepository = rebuildRepository;
+        this.joggingRepository = joggingRepository;
+        this.statsRepository = statsRepository;
+        this.userResolver = userResolver;
+        this.transactionOperations = new TransactionTemplate(transactionManager);
+        this.relativeAccuracy = relativeAccuracy;
+        this.rebuildMonthCount = rebuildMonthCount;
+        this.rebuildLease = Duration.ofMinutes(rebuildLeaseMinutes);
+
+        TransactionTemplate readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTransactionTemplate.setReadOnly(true);
+        this.readOnlyTransactionOperations = readOnlyTransactionTemplate;
+    }
+
+    public void updateSketches(Collection<Jogging> removedJoggings, Collection<Jogging> addedJoggings) {
+        Map<JoggingSketchKey, QuantileSketch> changes = new HashMap<>();
+        removedJoggings.forEach(jogging -> addRun(changes, jogging, -1));
+        addedJoggings.forEach(jogging -> addRun(changes, jogging, 1));
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            addToDeltas(changes);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                addToDeltas(changes);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                updatesLock.readLock().unlock();
+            }
+        });
+        updatesLock.readLock().lock();
+    }
+
+    private void addRun(Map<JoggingSketchKey, QuantileSketch> sketches, Jogging jogging, long count) {
+        addRun(sketches, jogging.getDate(), jogging.getLocation(), jogging.getDistance(), jogging.getTime(), count);
+    }
+
+    private void addRun(
+            Map<JoggingSketchKey, QuantileSketch> sketches,
+            LocalDate date,
+            String location,
+            int distance,
+            LocalTime time,
+            long count) {
+
+        double speed = JoggingStats.calculateSpeed(distance, time);
+        LocalDate periodStart = date.withDayOfMonth(1);
+        for (String sketchLocation : Arrays.asList(location, JoggingSketchKey.ALL_LOCATIONS)) {
+            sketches
+                    .computeIfAbsent(
+                            new JoggingSketchKey(periodStart, sketchLocation),
+                            key -> new QuantileSketch(relativeAccuracy))
+                    .add(speed, count);
+        }
+    }
+
+    private void addToDeltas(Map<JoggingSketchKey, QuantileSketch> changes) {
+        synchronized (deltas) {
+            changes.forEach((key, change) -> {
+                deltaGenerations.putIfAbsent(key, generation);
+                deltas.merge(key, change, (delta, newChange) -> {
+                    delta.merge(newChange);
+                    return delta;
+                });
+            });
+        }
+    }
+
+    public SpeedRankDto rankSpeed(String userName, String month, String location, Double speed) {
+        YearMonth yearMonth = parseMonth(month);
+        double rankedSpeed = speed != null ? speed : getAverageSpeed(userName, yearMonth);
+        QuantileSketch sketch = getSketch(createKey(yearMonth, location));
+        return new SpeedRankDto(sketch.getCount(), rankedSpeed, 100 * sketch.getRank(rankedSpeed), relativeAccuracy);
+    }
+
+    private double getAverageSpeed(String userName, YearMonth month) {
+        int userId = userResolver.resolve(userName).getId();
+        List<JoggingStats> stats = statsRepository.findByUserIdAndDateBetween(
+                userId, month.atDay(1), month.atEndOfMonth());
+        int runCount = stats.stream().mapToInt(JoggingStats::getRunCount).sum();
+        if (runCount <= 0) {
+            throw new IntegrityException(String.format(ErrorMessages.NO_RUNS_TO_RANK_FORMAT, month));
+        }
+        return stats.stream().mapToDouble(JoggingStats::getSpeedSum).sum() / runCount;
+    }
+
+    public SpeedDistributionDto getSpeedPercentiles(String month, String location, List<Double> quantiles) {
+        YearMonth yearMonth = parseMonth(month);
+        for (Double quantile : quantiles) {
+            if (quantile == null || !(quantile >= 0 && quantile <= 1)) {
+                throw new IntegrityException(String.format(ErrorMessages.INVALID_QUANTILE_FORMAT, quantile));
+            }
+        }
+
+        QuantileSketch sketch = getSketch(createKey(yearMonth, location));
+        long runCount = sketch.getCount();
+        List<SpeedPercentileDto> percentiles = quantiles
+                .stream()
+                .map(quantile -> new SpeedPercentileDto(quantile, runCount == 0 ? 0 : sketch.getQuantile(quantile)))
+                .collect(Collectors.toList());
+        return new SpeedDistributionDto(runCount, relativeAccuracy, percentiles);
+    }
+
+    private static YearMonth parseMonth(String month) {
+        if (month == null) {
+            return YearMonth.now();
+        }
+
+        try {
+            return YearMonth.parse(month);
+        } catch (DateTimeParseException e) {
+            throw new IntegrityException(String.format(ErrorMessages.INVALID_MONTH_FORMAT, month));
+        }
+    }
+
+    private static JoggingSketchKey createKey(YearMonth month, String location) {
+        return new JoggingSketchKey(month.atDay(1), location == null ? JoggingSketchKey.ALL_LOCATIONS : location);
+    }
+
+    private QuantileSketch getSketch(JoggingSketchKey key) {
+        QuantileSketch loadedSketch = storedSketches.get(key);
+        if (loadedSketch == null) {
+            loadedSketch = sketchRepository
+                    .findById(key)
+                    .map(this::readSketch)
+                    .orElseGet(() -> new QuantileSketch(relativeAccuracy));
+            QuantileSketch concurrentlyLoadedSketch = storedSketches.putIfAbsent(key, loadedSketch);
+            if (concurrentlyLoadedSketch != null) {
+                loadedSketch = concurrentlyLoadedSketch;
+            }
+        }
+
+        synchronized (deltas) {
+            QuantileSketch storedSketch = storedSketches.getOrDefault(key, loadedSketch);
+            QuantileSketch delta = deltas.get(key);
+            if (delta == null) {
+                return storedSketch;
+            }
+
+            QuantileSketch sketch = storedSketch.copy();
+            sketch.merge(delta);
+            return sketch;
+        }
+    }
+
+    private QuantileSketch readSketch(JoggingSketch storedSketch) {
+        QuantileSketch sketch = QuantileSketch.fromBytes(storedSketch.getBuckets());
+        if (sketch.getRelativeAccuracy() != relativeAccuracy) {
+            logger.warn(
+                    "Ignoring '{}' speed sketch with {} relative accuracy until it's rebuilt",
+                    storedSketch.getKey(), sketch.getRelativeAccuracy());
+            return new QuantileSketch(relativeAccuracy);
+        }
+        return sketch;
+    }
+
+    @Scheduled(fixedDelayString = "${jogging.sketch.flushIntervalMillis:60000}")
+    public synchronized void flushSketches() {
+        if (generation == UNKNOWN_GENERATION) {
+            learnGeneration(rebuildRepository
+                    .findById(REBUILD_ID)
+                    .map(JoggingSketchRebuild::getGeneration)
+                    .orElse(0));
+        }
+
+        Map<JoggingSketchKey, QuantileSketch> flushedDeltas;
+        Map<JoggingSketchKey, Integer> flushedGenerations;
+        synchronized (deltas) {
+            flushedDeltas = copyDeltas(key -> true);
+            flushedGenerations = new HashMap<>(deltaGenerations);
+        }
+
+        int flushedCount = 0;
+        for (Map.Entry<JoggingSketchKey, QuantileSketch> flushedDelta : flushedDeltas.entrySet()) {
+            JoggingSketchKey key = flushedDelta.getKey();
+            try {
+                QuantileSketch storedSketch = transactionOperations.execute(status -> addToStoredSketch(
+                        key, flushedDelta.getValue(), flushedGenerations.get(key)));
+                synchronized (deltas) {
+                    storedSketches.put(key, storedSketch);
+                    removeFromDelta(key, flushedDelta.getValue());
+                    if (deltas.containsKey(key)) {
+                        deltaGenerations.put(key, generation);
+                    }
+                }
+                flushedCount++;
+            } catch (RuntimeException e) {
+                logger.warn("Couldn't flush '{}' speed sketch", key, e);
+            }
+        }
+
+        storedSketches.keySet().retainAll(flushedDeltas.keySet());
+        if (!flushedDeltas.isEmpty()) {
+            logger.info("Flushed {} of {} speed sketches", flushedCount, flushedDeltas.size());
+        }
+    }
+
+    private Map<JoggingSketchKey, QuantileSketch> copyDeltas(Predicate<JoggingSketchKey> keyPredicate) {
+        synchronized (deltas) {
+            return deltas
+                    .entrySet()
+                    .stream()
+                    .filter(entry -> keyPredicate.test(entry.getKey()))
+                    .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().copy()));
+        }
+    }
+
+    private void removeFromDelta(JoggingSketchKey key, QuantileSketch removedDelta) {
+        QuantileSketch delta = deltas.get(key);
+        delta.merge(removedDelta.negate());
+        if (delta.isEmpty()) {
+            deltas.remove(key);
+            deltaGenerations.remove(key);
+        }
+    }
+
+    private void learnGeneration(int knownGeneration) {
+        synchronized (deltas) {
+            generation = Math.max(generation, knownGeneration);
+        }
+    }
+
+    private QuantileSketch addToStoredSketch(JoggingSketchKey key, QuantileSketch delta, int deltaGeneration) {
+        Optional<JoggingSketch> storedSketch = sketchRepository.findLockedByPeriodStartAndLocation(
+                key.getPeriodStart(), key.getLocation());
+        QuantileSketch sketch = storedSketch
+                .map(this::readSketch)
+                .orElseGet(() -> new QuantileSketch(relativeAccuracy));
+
+        int storedGeneration = storedSketch.map(JoggingSketch::getGeneration).orElse(0);
+        learnGeneration(storedGeneration);
+        if (deltaGeneration != UNKNOWN_GENERATION && storedGeneration > deltaGeneration) {
+            logger.info("Discarding '{}' speed sketch delta that precedes its rebuild", key);
+            return sketch;
+        }
+
+        sketch.merge(delta);
+        if (storedSketch.isPresent()) {
+            storedSketch.get().setBuckets(sketch.toBytes());
+        } else {
+            sketchRepository.save(new JoggingSketch(key, sketch.toBytes()).setGeneration(storedGeneration));
+        }
+        return sketch;
+    }
+
+    @Scheduled(cron = "${jogging.sketch.rebuildTime:0 30 3 * * *}")
+    public void rebuildSketches() {
+        if (!startRebuild()) {
+            logger.info("Skipping speed sketches rebuild because it was started less than {} ago", rebuildLease);
+            return;
+        }
+
+        YearMonth lastMonth = YearMonth.now();
+        rebuildSketches(lastMonth.minusMonths(rebuildMonthCount - 1), lastMonth);
+    }
+
+    private boolean startRebuild() {
+        LocalDateTime startTime = LocalDateTime.now();
+        try {
+            return transactionOperations.execute(status -> {
+                Optional<JoggingSketchRebuild> rebuild = rebuildRepository.findLockedById(REBUILD_ID);
+                if (rebuild.isPresent() && rebuild.get().getStartedAt().isAfter(startTime.minus(rebuildLease))) {
+                    return false;
+                }
+
+                rebuildRepository.save(rebuild
+                        .orElseGet(() -> new JoggingSketchRebuild().setId(REBUILD_ID))
+                        .setStartedAt(startTime));
+                return true;
+            });
+        } catch (RuntimeException e) {
+            logger.warn("Couldn't start speed sketches rebuild", e);
+            return false;
+        }
+    }
+
+    public synchronized void rebuildSketches(YearMonth firstMonth, YearMonth lastMonth) {
+        logger.info("Rebuilding speed sketches from {} until {}", firstMonth, lastMonth);
+        flushSketches();
+        int rebuildGeneration = transactionOperations.execute(status -> nextGeneration());
+
+        LocalDate leftBound = firstMonth.atDay(1);
+        LocalDate rightBound = lastMonth.atEndOfMonth();
+        Map<JoggingSketchKey, QuantileSketch> sketches = new HashMap<>();
+        Map<JoggingSketchKey, QuantileSketch> snapshotDeltas = readOnlyTransactionOperations.execute(status -> {
+            Map<JoggingSketchKey, QuantileSketch> committedDeltas;
+            Lock pauseLock = pauseUpdates();
+            try {
+                committedDeltas = copyDeltas(key -> isWithin(key, leftBound, rightBound));
+                rebuildRepository.findById(REBUILD_ID);
+            } finally {
+                pauseLock.unlock();
+            }
+
+            joggingRepository.streamRunsByDateBetween(leftBound, rightBound, run -> addRun(
+                    sketches, (LocalDate) run[0], (String) run[1], (Integer) run[2], (LocalTime) run[3], 1));
+            return committedDeltas;
+        });
+
+        transactionOperations.execute(status -> {
+            replaceStoredSketches(sketches, leftBound, rightBound, rebuildGeneration);
+            return null;
+        });
+
+        synchronized (deltas) {
+            snapshotDeltas.forEach(this::removeFromDelta);
+            learnGeneration(rebuildGeneration);
+            deltaGenerations.replaceAll((key, deltaGeneration) -> isWithin(key, leftBound, rightBound)
+                    ? rebuildGeneration
+                    : deltaGeneration);
+            storedSketches.keySet().removeIf(key -> isWithin(key, leftBound, rightBound));
+            storedSketches.putAll(sketches);
+        }
+        logger.info("Rebuilt {} speed sketches", sketches.size());
+    }
+
+    private int nextGeneration() {
+        JoggingSketchRebuild rebuild = rebuildRepository
+                .findLockedById(REBUILD_ID)
+                .orElseGet(() -> new JoggingSketchRebuild().setId(REBUILD_ID).setStartedAt(LocalDateTime.now()));
+        rebuildRepository.save(rebuild.setGeneration(rebuild.getGeneration() + 1));
+        return rebuild.getGeneration();
+    }
+
+    private Lock pauseUpdates() {
+        Lock pauseLock = updatesLock.writeLock();
+        try {
+            if (pauseLock.tryLock(UPDATES_PAUSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                return pauseLock;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        throw new IllegalStateException("Couldn't pause speed sketch updates to take the rebuild snapshot");
+    }
+
+    private static boolean isWithin(JoggingSketchKey key, LocalDate leftBound, LocalDate rightBound) {
+        return !key.getPeriodStart().isBefore(leftBound) && !key.getPeriodStart().isAfter(rightBound);
+    }
+
+    private void replaceStoredSketches(
+            Map<JoggingSketchKey, QuantileSketch> sketches,
+            LocalDate leftBound,
+            LocalDate rightBound,
+            int rebuildGeneration) {
+
+        Map<JoggingSketchKey, JoggingSketch> storedSketches = sketchRepository
+                .findByPeriodStartBetween(leftBound, rightBound)
+                .stream()
+                .collect(Collectors.toMap(JoggingSketch::getKey, Function.identity()));
+
+        sketches.forEach((key, sketch) -> {
+            JoggingSketch storedSketch = storedSketches.remove(key);
+            if (storedSketch != null) {
+                storedSketch.setBuckets(sketch.toBytes()).setGeneration(rebuildGeneration);
+            } else {
+                sketchRepository.save(new JoggingSketch(key, sketch.toBytes()).setGeneration(rebuildGeneration));
+            }
+        });
+
+        byte[] emptyBuckets = new QuantileSketch(relativeAccuracy).toBytes();
+        storedSketches.values().forEach(
+                storedSketch -> storedSketch.setBuckets(emptyBuckets).setGeneration(rebuildGeneration));
+    }
+}
\ No newline at end of file
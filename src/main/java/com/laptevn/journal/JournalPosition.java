@@ -0,0 +1,48 @@
+package com.laptevn.journal;
+
+import java.util.Objects;
+
+public final class JournalPosition implements Comparable<JournalPosition> {
+    public final static JournalPosition START = new JournalPosition(0, 0);
+
+    private final long segment;
+    private final int offset;
+
+    public JournalPosition(long segment, int offset) {
+        this.segment = segment;
+        this.offset = offset;
+    }
+
+    public long getSegment() {
+        return segment;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    @Override
+    public int compareTo(JournalPosition other) {
+        int result = Long.compare(segment, other.segment);
+        return result != 0 ? result : Integer.compare(offset, other.offset);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        JournalPosition that = (JournalPosition) o;
+        return segment == that.segment &&
+                offset == that.offset;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(segment, offset);
+    }
+
+    @Override
+    public String toString() {
+        return segment + ":" + offset;
+    }
+}
\ No newline at end of file
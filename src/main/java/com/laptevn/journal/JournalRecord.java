@@ -0,0 +1,19 @@
+package com.laptevn.journal;
+
+public class JournalRecord {
+    private final byte[] payload;
+    private final JournalPosition nextPosition;
+
+    public JournalRecord(byte[] payload, JournalPosition nextPosition) {
+        this.payload = payload;
+        this.nextPosition = nextPosition;
+    }
+
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    public JournalPosition getNextPosition() {
+        return nextPosition;
+    }
+}
\ No newline at end of file
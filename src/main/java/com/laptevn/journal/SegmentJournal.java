@@ -0,0 +1,192 @@
+package com.laptevn.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+public class SegmentJournal implements Closeable {
+    private final static String SEGMENT_SUFFIX = ".segment";
+    private final static String SEGMENT_NAME_FORMAT = "%020d" + SEGMENT_SUFFIX;
+    private final static int HEADER_SIZE = 2 * Integer.BYTES;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegmentCount;
+    private final NavigableMap<Long, MappedByteBuffer> segments = new TreeMap<>();
+    private long activeSegment;
+    private int writeOffset;
+    private boolean isClosed;
+
+    public SegmentJournal(Path directory, int segmentSize, int maxSegmentCount) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegmentCount = maxSegmentCount;
+
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                long segment = Long.parseLong(fileName.substring(0, fileName.length() - SEGMENT_SUFFIX.length()));
+                segments.put(segment, map(file));
+            }
+        }
+
+        if (segments.isEmpty()) {
+            segments.put(0L, map(getSegmentPath(0)));
+        }
+        activeSegment = segments.lastKey();
+        writeOffset = recover(segments.get(activeSegment));
+    }
+
+    private MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(
+                file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), segmentSize));
+        }
+    }
+
+    private Path getSegmentPath(long segment) {
+        return directory.resolve(String.format(SEGMENT_NAME_FORMAT, segment));
+    }
+
+    private static int recover(MappedByteBuffer buffer) {
+        int offset = 0;
+        int length;
+        while ((length = getRecordLength(buffer, offset)) >= 0) {
+            offset += HEADER_SIZE + length;
+        }
+
+        boolean isTruncated = false;
+        for (int i = offset; i < buffer.capacity(); i++) {
+            if (buffer.get(i) != 0) {
+                buffer.put(i, (byte) 0);
+                isTruncated = true;
+            }
+        }
+        if (isTruncated) {
+            buffer.force();
+        }
+        return offset;
+    }
+
+    private static int getRecordLength(ByteBuffer buffer, int offset) {
+        if (offset > buffer.capacity() - HEADER_SIZE) {
+            return -1;
+        }
+
+        int length = buffer.getInt(offset);
+        if (length <= 0 || length > buffer.capacity() - offset - HEADER_SIZE) {
+            return -1;
+        }
+
+        return buffer.getInt(offset + Integer.BYTES) == computeChecksum(buffer, offset + HEADER_SIZE, length)
+                ? length
+                : -1;
+    }
+
+    private static int computeChecksum(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer payload = buffer.duplicate();
+        payload.position(offset).limit(offset + length);
+        CRC32 checksum = new CRC32();
+        checksum.update(payload);
+        return (int) checksum.getValue();
+    }
+
+    public synchronized boolean append(byte[] payload) {
+        if (payload.length == 0 || payload.length > segmentSize - HEADER_SIZE) {
+            throw new IllegalArgumentException("Record size should be between 1 and " + (segmentSize - HEADER_SIZE));
+        }
+
+        if (isClosed) {
+            return false;
+        }
+
+        MappedByteBuffer buffer = segments.get(activeSegment);
+        if (writeOffset + HEADER_SIZE + payload.length > buffer.capacity()) {
+            if (segments.size() >= maxSegmentCount) {
+                return false;
+            }
+
+            buffer = startSegment(activeSegment + 1);
+        }
+
+        ByteBuffer target = buffer.duplicate();
+        target.position(writeOffset + HEADER_SIZE);
+        target.put(payload);
+        buffer.putInt(writeOffset + Integer.BYTES, computeChecksum(buffer, writeOffset + HEADER_SIZE, payload.length));
+        buffer.putInt(writeOffset, payload.length);
+        buffer.force();
+        writeOffset += HEADER_SIZE + payload.length;
+        return true;
+    }
+
+    private MappedByteBuffer startSegment(long segment) {
+        try {
+            MappedByteBuffer buffer = map(getSegmentPath(segment));
+            segments.put(segment, buffer);
+            activeSegment = segment;
+            writeOffset = 0;
+            return buffer;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public synchronized List<JournalRecord> read(JournalPosition from, int maxCount) {
+        List<JournalRecord> records = new ArrayList<>();
+        Map.Entry<Long, MappedByteBuffer> segment = segments.ceilingEntry(from.getSegment());
+        int offset = segment != null && segment.getKey() == from.getSegment() ? from.getOffset() : 0;
+        while (segment != null && records.size() < maxCount) {
+            ByteBuffer buffer = segment.getValue();
+            int length = getRecordLength(buffer, offset);
+            if (length < 0) {
+                segment = segments.higherEntry(segment.getKey());
+                offset = 0;
+                continue;
+            }
+
+            byte[] payload = new byte[length];
+            ByteBuffer source = buffer.duplicate();
+            source.position(offset + HEADER_SIZE);
+            source.get(payload);
+            offset += HEADER_SIZE + length;
+            records.add(new JournalRecord(payload, new JournalPosition(segment.getKey(), offset)));
+        }
+        return records;
+    }
+
+    public synchronized void compact(JournalPosition replayedPosition) {
+        while (segments.firstKey() < Math.min(replayedPosition.getSegment(), activeSegment)) {
+            long segment = segments.pollFirstEntry().getKey();
+            try {
+                Files.deleteIfExists(getSegmentPath(segment));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public synchronized void close() {
+        segments.values().forEach(MappedByteBuffer::force);
+        isClosed = true;
+    }
+}
\ No newline at end of file
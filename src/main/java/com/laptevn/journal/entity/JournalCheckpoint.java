@@ -0,0 +1,47 @@
+package com.laptevn.journal.entity;
+
+import com.laptevn.journal.JournalPosition;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+@Entity
+public class JournalCheckpoint {
+    @Id
+    private String name;
+
+    @Column(nullable = false)
+    private Long segment;
+
+    @Column(nullable = false)
+    private Integer segmentOffset;
+
+    public String getName() {
+        return name;
+    }
+
+    public JournalCheckpoint setName(String name) {
+        this.name = name;
+        return this;
+    }
+
+    public JournalPosition getPosition() {
+        return new JournalPosition(segment, segmentOffset);
+    }
+
+    public JournalCheckpoint setPosition(JournalPosition position) {
+        this.segment = position.getSegment();
+        this.segmentOffset = position.getOffset();
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "JournalCheckpoint{" +
+                "name='" + name + '\'' +
+                ", segment=" + segment +
+                ", segmentOffset=" + segmentOffset +
+                '}';
+    }
+}
\ No newline at end of file
@@ -0,0 +1,7 @@
+package com.laptevn.journal.repository;
+
+import com.laptevn.journal.entity.JournalCheckpoint;
+import org.springframework.data.repository.CrudRepository;
+
+public interface JournalCheckpointRepository extends CrudRepository<JournalCheckpoint, String> {
+}
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.laptevn.repository;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.util.List;
+
+@FunctionalInterface
+public interface AggregateBuilder<T> {
+    List<Selection<?>> build(CriteriaBuilder criteriaBuilder, Root<T> entity);
+}
\ No newline at end of file
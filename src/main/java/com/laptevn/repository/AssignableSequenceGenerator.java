@@ -0,0 +1,20 @@
+package com.laptevn.repository;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import java.io.Serializable;
+
+public class AssignableSequenceGenerator extends SequenceStyleGenerator {
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) {
+        if (object != null) {
+            Serializable id = session.getEntityPersister(null, object).getIdentifier(object, session);
+            if (id != null) {
+                return id;
+            }
+        }
+
+        return super.generate(session, object);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,6 @@
+package com.laptevn.repository;
+
+public interface ChunkListener<T> {
+    void beforeChunk(AdditionalPredicateBuilder<T> chunkPredicateBuilder);
+    void afterChunk();
+}
\ No newline at end of file
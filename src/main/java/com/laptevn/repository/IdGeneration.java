@@ -0,0 +1,11 @@
+package com.laptevn.repository;
+
+public final class IdGeneration {
+    public final static String STRATEGY = "com.laptevn.repository.AssignableSequenceGenerator";
+    public final static String SEQUENCE_NAME = "hibernate_sequence";
+    public final static String OPTIMIZER = "pooled-lo";
+    public final static String BLOCK_SIZE = "50";
+
+    private IdGeneration() {
+    }
+}
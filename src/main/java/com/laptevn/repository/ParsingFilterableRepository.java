@@ -1,26 +1,60 @@
 package com.laptevn.repository;
 
+import com.laptevn.Continuation;
 import com.laptevn.ErrorMessages;
 import com.laptevn.exception.IntegrityException;
 import com.laptevn.repository.filtering.WhereClauseBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.jpa.QueryHints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.transaction.support.TransactionOperations;
 
 import javax.persistence.EntityManager;
 import javax.persistence.Query;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaDelete;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 public abstract class ParsingFilterableRepository<T> {
+    private final static Logger logger = LoggerFactory.getLogger(ParsingFilterableRepository.class);
+    private final static String SKIPPED_QUERIES_METER = "filter.queries.skipped";
+
     private final EntityManager entityManager;
     private final WhereClauseBuilder whereClauseBuilder;
+    private final Counter skippedQueries;
+    private final int fetchSize;
+
+    protected ParsingFilterableRepository(
+            EntityManager entityManager,
+            WhereClauseBuilder whereClauseBuilder,
+            MeterRegistry meterRegistry,
+            String entityName,
+            int fetchSize) {
 
-    protected ParsingFilterableRepository(EntityManager entityManager, WhereClauseBuilder whereClauseBuilder) {
         this.entityManager = entityManager;
         this.whereClauseBuilder = whereClauseBuilder;
+        this.skippedQueries = meterRegistry.counter(SKIPPED_QUERIES_METER, "entity", entityName);
+        this.fetchSize = fetchSize;
     }
 
     protected List<T> find(
@@ -33,28 +67,284 @@ public abstract class ParsingFilterableRepository<T> {
         CriteriaQuery<T> criteriaQuery = criteriaBuilder.createQuery(entityClass);
         Root<T> entity = criteriaQuery.from(entityClass);
 
-        Predicate predicate = whereClauseBuilder.build(criteriaBuilder, entity, filter);
-        if (predicate == null) {
-            throw new IntegrityException(ErrorMessages.INVALID_FORMAT_WHERE);
+        criteriaQuery.select(entity).where(buildPredicate(criteriaBuilder, entity, filter, additionalPredicateBuilder));
+        if (pagination.isPresent() && pagination.get().getSort().isSorted()) {
+            criteriaQuery.orderBy(QueryUtils.toOrders(pagination.get().getSort(), entity, criteriaBuilder));
+        }
+
+        TypedQuery<T> query = createQuery(criteriaQuery);
+        if (isSkipped(entity, filter)) {
+            return Collections.emptyList();
+        }
+
+        if (pagination.isPresent()) {
+            query.setFirstResult(pagination.get().getPageNumber() * pagination.get().getPageSize());
+            query.setMaxResults(pagination.get().getPageSize());
+        }
+
+        return query.getResultList();
+    }
+
+    protected void stream(
+            String filter,
+            Class<T> entityClass,
+            Optional<AdditionalPredicateBuilder> additionalPredicateBuilder,
+            Consumer<T> consumer) {
+
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> criteriaQuery = criteriaBuilder.createQuery(entityClass);
+        Root<T> entity = criteriaQuery.from(entityClass);
+
+        Stream.Builder<Predicate> predicates = Stream.builder();
+        if (filter != null) {
+            predicates.add(buildFilterPredicate(criteriaBuilder, entity, filter));
+        }
+        additionalPredicateBuilder.ifPresent(builder -> predicates.add(builder.build(criteriaBuilder, entity)));
+        criteriaQuery.select(entity).where(predicates.build().toArray(Predicate[]::new));
+
+        TypedQuery<T> query = createQuery(criteriaQuery);
+        if (filter != null && isSkipped(entity, filter)) {
+            return;
+        }
+
+        query.setHint(QueryHints.HINT_FETCH_SIZE, fetchSize);
+        query.setHint(QueryHints.HINT_READONLY, true);
+        try (Stream<T> entities = query.getResultStream()) {
+            entities.forEach(foundEntity -> {
+                consumer.accept(foundEntity);
+                entityManager.detach(foundEntity);
+            });
+        }
+    }
+
+    protected Optional<Tuple> aggregate(
+            String filter,
+            Class<T> entityClass,
+            Optional<AdditionalPredicateBuilder> additionalPredicateBuilder,
+            AggregateBuilder<T> aggregateBuilder) {
+
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> criteriaQuery = criteriaBuilder.createTupleQuery();
+        Root<T> entity = criteriaQuery.from(entityClass);
+
+        criteriaQuery
+                .multiselect(aggregateBuilder.build(criteriaBuilder, entity))
+                .where(buildPredicate(criteriaBuilder, entity, filter, additionalPredicateBuilder));
+
+        TypedQuery<Tuple> query = createQuery(() -> entityManager.createQuery(criteriaQuery));
+        if (isSkipped(entity, filter)) {
+            return Optional.empty();
         }
 
+        return Optional.of(query.getSingleResult());
+    }
+
+    protected int deleteInChunks(
+            String filter,
+            Class<T> entityClass,
+            Optional<AdditionalPredicateBuilder> additionalPredicateBuilder,
+            Optional<ChunkListener<T>> chunkListener,
+            TransactionOperations transactionOperations,
+            int chunkSize) {
+
+        return executeInChunks(
+                filter,
+                entityClass,
+                additionalPredicateBuilder,
+                chunkListener,
+                transactionOperations,
+                chunkSize,
+                keyPredicateBuilder -> {
+                    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+                    CriteriaDelete<T> criteriaDelete = criteriaBuilder.createCriteriaDelete(entityClass);
+                    Root<T> entity = criteriaDelete.from(entityClass);
+                    criteriaDelete.where(
+                            buildPredicate(criteriaBuilder, entity, filter, additionalPredicateBuilder),
+                            keyPredicateBuilder.build(criteriaBuilder, entity));
+                    return createQuery(() -> entityManager.createQuery(criteriaDelete)).executeUpdate();
+                });
+    }
+
+    protected int updateInChunks(
+            String filter,
+            Class<T> entityClass,
+            Optional<AdditionalPredicateBuilder> additionalPredicateBuilder,
+            UpdateBuilder<T> updateBuilder,
+            Optional<ChunkListener<T>> chunkListener,
+            TransactionOperations transactionOperations,
+            int chunkSize) {
+
+        return executeInChunks(
+                filter,
+                entityClass,
+                additionalPredicateBuilder,
+                chunkListener,
+                transactionOperations,
+                chunkSize,
+                keyPredicateBuilder -> {
+                    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+                    CriteriaUpdate<T> criteriaUpdate = criteriaBuilder.createCriteriaUpdate(entityClass);
+                    Root<T> entity = criteriaUpdate.from(entityClass);
+                    updateBuilder.build(criteriaBuilder, criteriaUpdate, entity);
+                    criteriaUpdate.where(
+                            buildPredicate(criteriaBuilder, entity, filter, additionalPredicateBuilder),
+                            keyPredicateBuilder.build(criteriaBuilder, entity));
+                    return createQuery(() -> entityManager.createQuery(criteriaUpdate)).executeUpdate();
+                });
+    }
+
+    private int executeInChunks(
+            String filter,
+            Class<T> entityClass,
+            Optional<AdditionalPredicateBuilder> additionalPredicateBuilder,
+            Optional<ChunkListener<T>> chunkListener,
+            TransactionOperations transactionOperations,
+            int chunkSize,
+            Function<AdditionalPredicateBuilder<T>, Integer> chunkOperation) {
+
+        if (isSkipped(entityManager.getCriteriaBuilder().createQuery(entityClass).from(entityClass), filter)) {
+            return 0;
+        }
+
+        int affectedCount = 0;
+        Optional<Integer> lowerKey = Optional.empty();
+        while (true) {
+            Optional<Integer> chunkLowerKey = lowerKey;
+            Optional<Integer> chunkUpperKey = findChunkUpperKey(
+                    filter, entityClass, additionalPredicateBuilder, chunkLowerKey, chunkSize);
+
+            AdditionalPredicateBuilder<T> keyPredicateBuilder = (criteriaBuilder, entity) ->
+                    buildKeyPredicate(criteriaBuilder, entity, chunkLowerKey, chunkUpperKey);
+            Integer chunkAffectedCount = transactionOperations.execute(status -> {
+                chunkListener.ifPresent(listener -> listener.beforeChunk((criteriaBuilder, entity) -> criteriaBuilder.and(
+                        buildPredicate(criteriaBuilder, entity, filter, additionalPredicateBuilder),
+                        keyPredicateBuilder.build(criteriaBuilder, entity))));
+                int chunkCount = chunkOperation.apply(keyPredicateBuilder);
+                chunkListener.ifPresent(ChunkListener::afterChunk);
+                return chunkCount;
+            });
+            affectedCount += chunkAffectedCount;
+            logger.debug("Affected {} entities with keys in ({}, {}]", chunkAffectedCount, chunkLowerKey, chunkUpperKey);
+
+            if (!chunkUpperKey.isPresent()) {
+                return affectedCount;
+            }
+            lowerKey = chunkUpperKey;
+        }
+    }
+
+    private Optional<Integer> findChunkUpperKey(
+            String filter,
+            Class<T> entityClass,
+            Optional<AdditionalPredicateBuilder> additionalPredicateBuilder,
+            Optional<Integer> lowerKey,
+            int chunkSize) {
+
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Integer> criteriaQuery = criteriaBuilder.createQuery(Integer.class);
+        Root<T> entity = criteriaQuery.from(entityClass);
+        Path<Integer> key = entity.get(Continuation.KEY_FIELD);
+        criteriaQuery
+                .select(key)
+                .where(
+                        buildPredicate(criteriaBuilder, entity, filter, additionalPredicateBuilder),
+                        buildKeyPredicate(criteriaBuilder, entity, lowerKey, Optional.empty()))
+                .orderBy(criteriaBuilder.asc(key));
+
+        return createQuery(() -> entityManager.createQuery(criteriaQuery))
+                .setFirstResult(chunkSize - 1)
+                .setMaxResults(1)
+                .getResultList()
+                .stream()
+                .findFirst();
+    }
+
+    private static <T> Predicate buildKeyPredicate(
+            CriteriaBuilder criteriaBuilder, Root<T> entity, Optional<Integer> lowerKey, Optional<Integer> upperKey) {
+
+        Path<Integer> key = entity.get(Continuation.KEY_FIELD);
+        Predicate predicate = criteriaBuilder.conjunction();
+        if (lowerKey.isPresent()) {
+            predicate = criteriaBuilder.and(predicate, criteriaBuilder.greaterThan(key, lowerKey.get()));
+        }
+        if (upperKey.isPresent()) {
+            predicate = criteriaBuilder.and(predicate, criteriaBuilder.lessThanOrEqualTo(key, upperKey.get()));
+        }
+        return predicate;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Predicate buildPredicate(
+            CriteriaBuilder criteriaBuilder,
+            Root<T> entity,
+            String filter,
+            Optional<AdditionalPredicateBuilder> additionalPredicateBuilder) {
+
+        Predicate predicate = buildFilterPredicate(criteriaBuilder, entity, filter);
         if (additionalPredicateBuilder.isPresent()) {
             predicate = criteriaBuilder.and(additionalPredicateBuilder.get().build(criteriaBuilder, entity), predicate);
         }
+        return predicate;
+    }
+
+    private Predicate buildFilterPredicate(CriteriaBuilder criteriaBuilder, Root<T> entity, String filter) {
+        Predicate predicate = whereClauseBuilder.build(criteriaBuilder, entity, filter);
+        if (predicate == null) {
+            throw new IntegrityException(ErrorMessages.INVALID_FORMAT_WHERE);
+        }
+        return predicate;
+    }
+
+    private TypedQuery<T> createQuery(CriteriaQuery<T> criteriaQuery) {
+        return createQuery(() -> entityManager.createQuery(criteriaQuery));
+    }
 
-        criteriaQuery.select(entity).where(predicate);
-        Query query;
+    protected static <Q extends Query> Q createQuery(Supplier<Q> querySupplier) {
         try {
-            query = entityManager.createQuery(criteriaQuery);
+            return querySupplier.get();
         } catch (IllegalArgumentException e) {
             throw new IntegrityException(ErrorMessages.INCOMPATIBLE_VALUE_TYPE);
         }
+    }
 
-        if (pagination.isPresent()) {
-            query.setFirstResult(pagination.get().getPageNumber() * pagination.get().getPageSize());
-            query.setMaxResults(pagination.get().getPageSize());
+    private boolean isSkipped(Root<T> entity, String filter) {
+        if (whereClauseBuilder.isSatisfiable(entity, filter)) {
+            return false;
         }
 
-        return query.getResultList();
+        logger.debug("Filter '{}' can't match any entity, skipping the query", filter);
+        skippedQueries.increment();
+        return true;
+    }
+
+    protected static <T> AdditionalPredicateBuilder<T> createAfterPredicateBuilder(int id) {
+        return (criteriaBuilder, entity) -> criteriaBuilder.greaterThan(entity.get(Continuation.KEY_FIELD), id);
+    }
+
+    protected void persistInBatches(Collection<T> entities, int batchSize) {
+        int pendingCount = 0;
+        for (T entity : entities) {
+            entityManager.persist(entity);
+            if (++pendingCount == batchSize) {
+                entityManager.flush();
+                entityManager.clear();
+                pendingCount = 0;
+            }
+        }
+        entityManager.flush();
+    }
+
+    protected Serializable reserveId(Class<T> entityClass) {
+        EntityManager reservingEntityManager = entityManager.getEntityManagerFactory().createEntityManager();
+        try {
+            SessionImplementor session = reservingEntityManager.unwrap(SessionImplementor.class);
+            return session.getFactory()
+                    .getMetamodel()
+                    .entityPersister(entityClass)
+                    .getIdentifierGenerator()
+                    .generate(session, null);
+        } finally {
+            reservingEntityManager.close();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,15 @@
+package com.laptevn.repository;
+
+import org.hibernate.boot.MetadataBuilder;
+import org.hibernate.boot.spi.MetadataBuilderContributor;
+import org.hibernate.dialect.function.SQLFunctionTemplate;
+import org.hibernate.type.StandardBasicTypes;
+
+public class SqlFunctionContributor implements MetadataBuilderContributor {
+    public final static String TO_DOUBLE = "to_double";
+
+    @Override
+    public void contribute(MetadataBuilder metadataBuilder) {
+        metadataBuilder.applySqlFunction(TO_DOUBLE, new SQLFunctionTemplate(StandardBasicTypes.DOUBLE, "(?1 * 1e0)"));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.laptevn.repository;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Root;
+
+@FunctionalInterface
+public interface UpdateBuilder<T> {
+    void build(CriteriaBuilder criteriaBuilder, CriteriaUpdate<T> criteriaUpdate, Root<T> entity);
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.laptevn.repository.filtering;
+
+import com.laptevn.repository.filtering.expression.FilterExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@ConditionalOnProperty(value = "jogging.filtering.parser", havingValue = "antlr", matchIfMissing = true)
+@Component
+class AntlrFilterParser implements FilterParser {
+    private final WhereClauseParserFactory parserFactory;
+    private final ExpressionBuildingVisitorFactory visitorFactory;
+
+    public AntlrFilterParser(WhereClauseParserFactory parserFactory, ExpressionBuildingVisitorFactory visitorFactory) {
+        this.parserFactory = parserFactory;
+        this.visitorFactory = visitorFactory;
+    }
+
+    @Override
+    public FilterExpression parse(String filter) {
+        return (FilterExpression) visitorFactory.createVisitor().visit(parserFactory.parse(filter));
+    }
+}
@@ -0,0 +1,22 @@
+package com.laptevn.repository.filtering;
+
+import com.laptevn.repository.filtering.expression.ConstantExpression;
+import com.laptevn.repository.filtering.expression.FilterExpression;
+
+final class CompiledFilter {
+    private final FilterExpression expression;
+    private final boolean isSatisfiable;
+
+    CompiledFilter(FilterExpression parsedExpression, FilterExpression optimizedExpression) {
+        this.isSatisfiable = optimizedExpression != ConstantExpression.FALSE;
+        this.expression = isSatisfiable ? optimizedExpression : parsedExpression;
+    }
+
+    public FilterExpression getExpression() {
+        return expression;
+    }
+
+    public boolean isSatisfiable() {
+        return isSatisfiable;
+    }
+}
@@ -0,0 +1,126 @@
+package com.laptevn.repository.filtering;
+
+import com.laptevn.cache.BoundedCache;
+import com.laptevn.cache.CacheMetrics;
+import com.laptevn.repository.filtering.expression.FilterExpression;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.metamodel.ManagedType;
+import java.util.Objects;
+import java.util.function.Function;
+
+@Component
+class FilterExpressionCache {
+    private final static Logger logger = LoggerFactory.getLogger(FilterExpressionCache.class);
+    private final static String CACHE_NAME = "filterExpressions";
+
+    private final FilterParser filterParser;
+    private final FilterOptimizer filterOptimizer;
+    private final BoundedCache<FilterKey, CompiledFilter> cache;
+
+    public FilterExpressionCache(
+            FilterParser filterParser,
+            FilterOptimizer filterOptimizer,
+            @Value("${jogging.filtering.cacheSize:1000}") int cacheSize,
+            MeterRegistry meterRegistry) {
+
+        this.filterParser = filterParser;
+        this.filterOptimizer = filterOptimizer;
+        this.cache = new BoundedCache<>(cacheSize);
+        CacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public CompiledFilter get(String filter, ManagedType<?> entityType) {
+        return cache.get(
+                new FilterKey(normalize(filter), entityType == null ? null : entityType.getJavaType()),
+                key -> compile(key.filter, entityType));
+    }
+
+    private CompiledFilter compile(String filter, ManagedType<?> entityType) {
+        FilterExpression expression = filterParser.parse(filter);
+        FilterExpression optimizedExpression = filterOptimizer.optimize(expression, getAttributeTypes(entityType));
+        if (!optimizedExpression.equals(expression)) {
+            logger.debug("Filter '{}' is rewritten to '{}'", filter, optimizedExpression);
+        }
+        return new CompiledFilter(expression, optimizedExpression);
+    }
+
+    private static Function<String, Class<?>> getAttributeTypes(ManagedType<?> entityType) {
+        return attributeName -> {
+            if (entityType == null) {
+                return null;
+            }
+
+            try {
+                return entityType.getAttribute(attributeName).getJavaType();
+            } catch (IllegalArgumentException ignore) {
+                return null;
+            }
+        };
+    }
+
+    BoundedCache<FilterKey, CompiledFilter> getCache() {
+        return cache;
+    }
+
+    static String normalize(String filter) {
+        StringBuilder normalizedFilter = new StringBuilder(filter.length());
+        boolean isQuoted = false;
+        boolean isSpacePending = false;
+        for (int i = 0; i < filter.length(); i++) {
+            char symbol = filter.charAt(i);
+            if (!isQuoted && isWhitespace(symbol)) {
+                isSpacePending = normalizedFilter.length() > 0;
+                continue;
+            }
+
+            if (isSpacePending) {
+                normalizedFilter.append(' ');
+                isSpacePending = false;
+            }
+
+            if (symbol == '\'') {
+                isQuoted = !isQuoted;
+            }
+            normalizedFilter.append(symbol);
+        }
+        return normalizedFilter.toString();
+    }
+
+    private static boolean isWhitespace(char symbol) {
+        return symbol == ' ' || symbol == '\t' || symbol == '\r' || symbol == '\n' || symbol == '\u000C';
+    }
+
+    static final class FilterKey {
+        private final String filter;
+        private final Class<?> entityClass;
+
+        FilterKey(String filter, Class<?> entityClass) {
+            this.filter = filter;
+            this.entityClass = entityClass;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            FilterKey that = (FilterKey) o;
+            return filter.equals(that.filter) && Objects.equals(entityClass, that.entityClass);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(filter, entityClass);
+        }
+    }
+}
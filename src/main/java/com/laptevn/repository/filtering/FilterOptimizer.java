@@ -0,0 +1,236 @@
+package com.laptevn.repository.filtering;
+
+import com.laptevn.repository.filtering.expression.ComparisonExpression;
+import com.laptevn.repository.filtering.expression.ConstantExpression;
+import com.laptevn.repository.filtering.expression.FilterExpression;
+import com.laptevn.repository.filtering.expression.InExpression;
+import com.laptevn.repository.filtering.expression.LogicalExpression;
+import com.laptevn.repository.filtering.expression.LogicalOperator;
+import com.laptevn.repository.filtering.operation.OperationType;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+@Component
+class FilterOptimizer {
+    private final static Set<Class<?>> ORDERED_TYPES = new HashSet<>(Arrays.asList(
+            Integer.class, LocalDate.class, LocalTime.class));
+
+    public FilterExpression optimize(FilterExpression expression, Function<String, Class<?>> attributeTypes) {
+        if (!(expression instanceof LogicalExpression)) {
+            return expression;
+        }
+
+        LogicalExpression logicalExpression = (LogicalExpression) expression;
+        LogicalOperator operator = logicalExpression.getOperator();
+        Set<FilterExpression> operands = new LinkedHashSet<>();
+        for (FilterExpression operand : logicalExpression.getOperands()) {
+            FilterExpression optimizedOperand = optimize(operand, attributeTypes);
+            if (optimizedOperand instanceof LogicalExpression
+                    && ((LogicalExpression) optimizedOperand).getOperator() == operator) {
+                operands.addAll(((LogicalExpression) optimizedOperand).getOperands());
+            } else {
+                operands.add(optimizedOperand);
+            }
+        }
+
+        List<FilterExpression> mergedOperands = operator == LogicalOperator.AND
+                ? mergeConjunction(operands, attributeTypes)
+                : mergeDisjunction(operands);
+
+        if (mergedOperands.isEmpty() || mergedOperands.contains(ConstantExpression.FALSE)) {
+            return ConstantExpression.FALSE;
+        }
+
+        return mergedOperands.size() == 1
+                ? mergedOperands.get(0)
+                : new LogicalExpression(operator, mergedOperands);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<FilterExpression> mergeConjunction(
+            Collection<FilterExpression> operands, Function<String, Class<?>> attributeTypes) {
+
+        List<Object> slots = new ArrayList<>();
+        Map<String, Range> ranges = new HashMap<>();
+        for (FilterExpression operand : operands) {
+            if (operand == ConstantExpression.FALSE) {
+                return Collections.singletonList(ConstantExpression.FALSE);
+            }
+
+            if (!isOrderedComparison(operand, attributeTypes)) {
+                slots.add(operand);
+                continue;
+            }
+
+            ComparisonExpression comparison = (ComparisonExpression) operand;
+            Range range = ranges.get(comparison.getIdentifierName());
+            if (range == null) {
+                range = new Range(comparison.getIdentifierName());
+                ranges.put(comparison.getIdentifierName(), range);
+                slots.add(range);
+            }
+            range.add(comparison.getOperationType(), (Comparable<Object>) comparison.getValue());
+        }
+
+        List<FilterExpression> mergedOperands = new ArrayList<>();
+        for (Object slot : slots) {
+            if (slot instanceof Range) {
+                Range range = (Range) slot;
+                if (range.isEmpty()) {
+                    return Collections.singletonList(ConstantExpression.FALSE);
+                }
+                mergedOperands.addAll(range.toExpressions());
+            } else {
+                mergedOperands.add((FilterExpression) slot);
+            }
+        }
+        return mergedOperands;
+    }
+
+    private static boolean isOrderedComparison(FilterExpression operand, Function<String, Class<?>> attributeTypes) {
+        if (!(operand instanceof ComparisonExpression)) {
+            return false;
+        }
+
+        ComparisonExpression comparison = (ComparisonExpression) operand;
+        Class<?> valueType = comparison.getValue().getClass();
+        return ORDERED_TYPES.contains(valueType) && valueType == attributeTypes.apply(comparison.getIdentifierName());
+    }
+
+    private static List<FilterExpression> mergeDisjunction(Collection<FilterExpression> operands) {
+        List<Object> slots = new ArrayList<>();
+        Map<List<Object>, ValueList> valueLists = new HashMap<>();
+        for (FilterExpression operand : operands) {
+            if (operand == ConstantExpression.FALSE) {
+                continue;
+            }
+
+            String identifierName;
+            List<Object> values;
+            if (operand instanceof ComparisonExpression
+                    && ((ComparisonExpression) operand).getOperationType() == OperationType.EQ) {
+                identifierName = ((ComparisonExpression) operand).getIdentifierName();
+                values = Collections.singletonList(((ComparisonExpression) operand).getValue());
+            } else if (operand instanceof InExpression) {
+                identifierName = ((InExpression) operand).getIdentifierName();
+                values = ((InExpression) operand).getValues();
+            } else {
+                slots.add(operand);
+                continue;
+            }
+
+            List<Object> key = Arrays.asList(identifierName, values.get(0).getClass());
+            ValueList valueList = valueLists.get(key);
+            if (valueList == null) {
+                valueList = new ValueList(identifierName);
+                valueLists.put(key, valueList);
+                slots.add(valueList);
+            }
+            valueList.values.addAll(values);
+        }
+
+        List<FilterExpression> mergedOperands = new ArrayList<>();
+        for (Object slot : slots) {
+            mergedOperands.add(slot instanceof ValueList ? ((ValueList) slot).toExpression() : (FilterExpression) slot);
+        }
+        return mergedOperands;
+    }
+
+    private static class ValueList {
+        private final String identifierName;
+        private final Set<Object> values = new LinkedHashSet<>();
+
+        ValueList(String identifierName) {
+            this.identifierName = identifierName;
+        }
+
+        FilterExpression toExpression() {
+            return values.size() == 1
+                    ? new ComparisonExpression(identifierName, OperationType.EQ, values.iterator().next())
+                    : new InExpression(identifierName, new ArrayList<>(values));
+        }
+    }
+
+    private static class Range {
+        private final String identifierName;
+        private final Set<Comparable<Object>> notEqualValues = new LinkedHashSet<>();
+        private Comparable<Object> lowerBound;
+        private Comparable<Object> upperBound;
+        private Comparable<Object> equalValue;
+        private boolean hasConflictingEqualValues;
+
+        Range(String identifierName) {
+            this.identifierName = identifierName;
+        }
+
+        void add(OperationType operationType, Comparable<Object> value) {
+            switch (operationType) {
+                case GT:
+                    lowerBound = lowerBound == null || value.compareTo(lowerBound) > 0 ? value : lowerBound;
+                    break;
+                case LT:
+                    upperBound = upperBound == null || value.compareTo(upperBound) < 0 ? value : upperBound;
+                    break;
+                case EQ:
+                    hasConflictingEqualValues |= equalValue != null && !equalValue.equals(value);
+                    equalValue = value;
+                    break;
+                case NE:
+                    notEqualValues.add(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Not supported operation " + operationType);
+            }
+        }
+
+        boolean isEmpty() {
+            if (hasConflictingEqualValues) {
+                return true;
+            }
+
+            if (equalValue != null) {
+                return !isWithinBounds(equalValue) || notEqualValues.contains(equalValue);
+            }
+
+            return lowerBound != null && upperBound != null && lowerBound.compareTo(upperBound) >= 0;
+        }
+
+        private boolean isWithinBounds(Comparable<Object> value) {
+            return (lowerBound == null || value.compareTo(lowerBound) > 0)
+                    && (upperBound == null || value.compareTo(upperBound) < 0);
+        }
+
+        List<FilterExpression> toExpressions() {
+            if (equalValue != null) {
+                return Collections.singletonList(new ComparisonExpression(identifierName, OperationType.EQ, equalValue));
+            }
+
+            List<FilterExpression> expressions = new ArrayList<>();
+            if (lowerBound != null) {
+                expressions.add(new ComparisonExpression(identifierName, OperationType.GT, lowerBound));
+            }
+            if (upperBound != null) {
+                expressions.add(new ComparisonExpression(identifierName, OperationType.LT, upperBound));
+            }
+            notEqualValues
+                    .stream()
+                    .filter(this::isWithinBounds)
+                    .map(value -> new ComparisonExpression(identifierName, OperationType.NE, value))
+                    .forEach(expressions::add);
+            return expressions;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.laptevn.repository.filtering;
+
+import com.laptevn.repository.filtering.expression.FilterExpression;
+
+interface FilterParser {
+    FilterExpression parse(String filter);
+}
@@ -0,0 +1,24 @@
+package com.laptevn.repository.filtering;
+
+final class FilterToken {
+    private final FilterTokenType type;
+    private final String text;
+
+    FilterToken(FilterTokenType type, String text) {
+        this.type = type;
+        this.text = text;
+    }
+
+    FilterTokenType getType() {
+        return type;
+    }
+
+    String getText() {
+        return text;
+    }
+
+    @Override
+    public String toString() {
+        return type == FilterTokenType.EOF ? "<EOF>" : text;
+    }
+}
@@ -0,0 +1,5 @@
+package com.laptevn.repository.filtering;
+
+enum FilterTokenType {
+    AND, OR, GT, LT, EQ, NE, LPAREN, RPAREN, DECIMAL, IDENTIFIER, TEXT, DATE, TIME, EOF
+}
@@ -0,0 +1,171 @@
+package com.laptevn.repository.filtering;
+
+import com.laptevn.ErrorMessages;
+import com.laptevn.exception.IntegrityException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+class FilterTokenizer {
+    private final static Map<String, FilterTokenType> KEYWORDS = new HashMap<>();
+
+    static {
+        KEYWORDS.put("AND", FilterTokenType.AND);
+        KEYWORDS.put("and", FilterTokenType.AND);
+        KEYWORDS.put("OR", FilterTokenType.OR);
+        KEYWORDS.put("or", FilterTokenType.OR);
+        KEYWORDS.put("GT", FilterTokenType.GT);
+        KEYWORDS.put("gt", FilterTokenType.GT);
+        KEYWORDS.put("LT", FilterTokenType.LT);
+        KEYWORDS.put("lt", FilterTokenType.LT);
+        KEYWORDS.put("EQ", FilterTokenType.EQ);
+        KEYWORDS.put("eq", FilterTokenType.EQ);
+        KEYWORDS.put("NE", FilterTokenType.NE);
+        KEYWORDS.put("ne", FilterTokenType.NE);
+    }
+
+    private final String filter;
+    private int position;
+
+    FilterTokenizer(String filter) {
+        this.filter = filter;
+    }
+
+    FilterToken next() {
+        while (position < filter.length() && isWhitespace(filter.charAt(position))) {
+            position++;
+        }
+
+        if (position == filter.length()) {
+            return new FilterToken(FilterTokenType.EOF, "");
+        }
+
+        char symbol = filter.charAt(position);
+        if (symbol == '(') {
+            return createToken(FilterTokenType.LPAREN, position + 1);
+        }
+
+        if (symbol == ')') {
+            return createToken(FilterTokenType.RPAREN, position + 1);
+        }
+
+        if (symbol == '-' || isDigit(symbol)) {
+            return readDecimal();
+        }
+
+        if (isIdentifierStart(symbol)) {
+            return readIdentifier();
+        }
+
+        if (symbol == '\'') {
+            return readQuotedValue();
+        }
+
+        throw createError();
+    }
+
+    private FilterToken readDecimal() {
+        int end = filter.charAt(position) == '-' ? position + 1 : position;
+        int digitsEnd = skipDigits(end);
+        if (digitsEnd == end) {
+            throw createError();
+        }
+
+        if (digitsEnd + 1 < filter.length() && filter.charAt(digitsEnd) == '.' && isDigit(filter.charAt(digitsEnd + 1))) {
+            digitsEnd = skipDigits(digitsEnd + 1);
+        }
+        return createToken(FilterTokenType.DECIMAL, digitsEnd);
+    }
+
+    private int skipDigits(int start) {
+        int end = start;
+        while (end < filter.length() && isDigit(filter.charAt(end))) {
+            end++;
+        }
+        return end;
+    }
+
+    private FilterToken readIdentifier() {
+        int end = position + 1;
+        while (end < filter.length() && isIdentifierPart(filter.charAt(end))) {
+            end++;
+        }
+
+        FilterTokenType keyword = KEYWORDS.get(filter.substring(position, end));
+        return createToken(keyword == null ? FilterTokenType.IDENTIFIER : keyword, end);
+    }
+
+    private FilterToken readQuotedValue() {
+        if (matches("'dddd-dd-dd'")) {
+            return createToken(FilterTokenType.DATE, position + 12);
+        }
+
+        if (matches("'dd:dd:dd'")) {
+            return createToken(FilterTokenType.TIME, position + 10);
+        }
+
+        int end = position + 1;
+        while (end < filter.length() && filter.charAt(end) == '-') {
+            end++;
+        }
+        while (end < filter.length() && isTextPart(filter.charAt(end))) {
+            end++;
+        }
+
+        if (end == filter.length() || filter.charAt(end) != '\'') {
+            throw createError();
+        }
+        return createToken(FilterTokenType.TEXT, end + 1);
+    }
+
+    private boolean matches(String pattern) {
+        if (position + pattern.length() > filter.length()) {
+            return false;
+        }
+
+        for (int i = 0; i < pattern.length(); i++) {
+            char expected = pattern.charAt(i);
+            char actual = filter.charAt(position + i);
+            boolean isMatched = expected == 'd' ? isDigit(actual) : expected == actual;
+            if (!isMatched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private FilterToken createToken(FilterTokenType type, int end) {
+        FilterToken token = new FilterToken(type, filter.substring(position, end));
+        position = end;
+        return token;
+    }
+
+    private IntegrityException createError() {
+        return new IntegrityException(
+                ErrorMessages.INVALID_FORMAT_WHERE_DETAILS + "token recognition error at: '" + filter.charAt(position) + "'");
+    }
+
+    private static boolean isWhitespace(char symbol) {
+        return symbol == ' ' || symbol == '\t' || symbol == '\r' || symbol == '\n' || symbol == '\u000C';
+    }
+
+    private static boolean isDigit(char symbol) {
+        return symbol >= '0' && symbol <= '9';
+    }
+
+    private static boolean isLetter(char symbol) {
+        return symbol >= 'a' && symbol <= 'z' || symbol >= 'A' && symbol <= 'Z';
+    }
+
+    private static boolean isIdentifierStart(char symbol) {
+        return isLetter(symbol) || symbol == '_';
+    }
+
+    private static boolean isIdentifierPart(char symbol) {
+        return isIdentifierStart(symbol) || isDigit(symbol);
+    }
+
+    private static boolean isTextPart(char symbol) {
+        return isIdentifierPart(symbol) || symbol == '.' || symbol == ',' || symbol == ' ';
+    }
+}
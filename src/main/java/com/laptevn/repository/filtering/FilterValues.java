@@ -0,0 +1,38 @@
+package com.laptevn.repository.filtering;
+
+import com.laptevn.ErrorMessages;
+import com.laptevn.exception.IntegrityException;
+import com.laptevn.repository.filtering.operation.Operation;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+
+final class FilterValues {
+    private FilterValues() {
+    }
+
+    static Integer parseDecimal(String text) {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException ignore) {
+            throw new IntegrityException(ErrorMessages.INCOMPATIBLE_VALUE_TYPE);
+        }
+    }
+
+    static LocalDate parseDate(String text) {
+        try {
+            return LocalDate.parse(Operation.removeQuotes(text));
+        } catch (DateTimeParseException e) {
+            throw new IntegrityException(ErrorMessages.INCOMPATIBLE_VALUE_TYPE);
+        }
+    }
+
+    static LocalTime parseTime(String text) {
+        try {
+            return LocalTime.parse(Operation.removeQuotes(text));
+        } catch (DateTimeParseException e) {
+            throw new IntegrityException(ErrorMessages.INCOMPATIBLE_VALUE_TYPE);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.laptevn.repository.filtering;
+
+import com.laptevn.ErrorMessages;
+import com.laptevn.exception.IntegrityException;
+import com.laptevn.repository.filtering.expression.ComparisonExpression;
+import com.laptevn.repository.filtering.expression.FilterExpression;
+import com.laptevn.repository.filtering.expression.LogicalExpression;
+import com.laptevn.repository.filtering.expression.LogicalOperator;
+import com.laptevn.repository.filtering.operation.OperationType;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+@ConditionalOnProperty(value = "jogging.filtering.parser", havingValue = "recursive-descent")
+@Component
+class RecursiveDescentFilterParser implements FilterParser {
+    private final static int BINARY_PRECEDENCE = 1;
+    private final static String EXPECTED_END = "{<EOF>, AND, OR}";
+    private final static String EXPECTED_CLOSING_PARENTHESIS = "{')', AND, OR}";
+    private final static String EXPECTED_COMPARISON = "{'(', IDENTIFIER}";
+    private final static String EXPECTED_COMPARATOR = "{GT, LT, EQ, NE}";
+    private final static String EXPECTED_VALUE = "{DECIMAL, TEXT, DATE, TIME}";
+    private final static Map<FilterTokenType, LogicalOperator> BINARY_OPERATORS = new EnumMap<>(FilterTokenType.class);
+    private final static Map<FilterTokenType, OperationType> COMPARATORS = new EnumMap<>(FilterTokenType.class);
+
+    static {
+        BINARY_OPERATORS.put(FilterTokenType.AND, LogicalOperator.AND);
+        BINARY_OPERATORS.put(FilterTokenType.OR, LogicalOperator.OR);
+
+        COMPARATORS.put(FilterTokenType.EQ, OperationType.EQ);
+        COMPARATORS.put(FilterTokenType.NE, OperationType.NE);
+        COMPARATORS.put(FilterTokenType.GT, OperationType.GT);
+        COMPARATORS.put(FilterTokenType.LT, OperationType.LT);
+    }
+
+    @Override
+    public FilterExpression parse(String filter) {
+        return new Parsing(new FilterTokenizer(filter)).parse();
+    }
+
+    private static class Parsing {
+        private final FilterTokenizer tokenizer;
+        private FilterToken current;
+        private int nestingLevel;
+
+        Parsing(FilterTokenizer tokenizer) {
+            this.tokenizer = tokenizer;
+        }
+
+        FilterExpression parse() {
+            current = tokenizer.next();
+            FilterExpression expression = parseExpression(BINARY_PRECEDENCE);
+            expect(FilterTokenType.EOF, EXPECTED_END);
+            return expression;
+        }
+
+        private FilterExpression parseExpression(int minimumPrecedence) {
+            FilterExpression left = parsePrimary();
+            while (BINARY_OPERATORS.containsKey(current.getType()) && BINARY_PRECEDENCE >= minimumPrecedence) {
+                LogicalOperator operator = BINARY_OPERATORS.get(consume().getType());
+                FilterExpression right = parseExpression(BINARY_PRECEDENCE + 1);
+                left = new LogicalExpression(operator, left, right);
+            }
+            return left;
+        }
+
+        private FilterExpression parsePrimary() {
+            if (current.getType() == FilterTokenType.LPAREN) {
+                consume();
+                nestingLevel++;
+                FilterExpression expression = parseExpression(BINARY_PRECEDENCE);
+                if (nestingLevel == 1 && current.getType() == FilterTokenType.EOF) {
+                    throw new IntegrityException(ErrorMessages.INVALID_FORMAT_WHERE_DETAILS + "missing ')' at '<EOF>'");
+                }
+
+                expect(FilterTokenType.RPAREN, EXPECTED_CLOSING_PARENTHESIS);
+                nestingLevel--;
+                return expression;
+            }
+
+            String identifierName = expect(FilterTokenType.IDENTIFIER, EXPECTED_COMPARISON).getText();
+            OperationType operationType = COMPARATORS.get(current.getType());
+            if (operationType == null) {
+                throw createError(EXPECTED_COMPARATOR);
+            }
+            consume();
+
+            Object value = parseValue(current);
+            consume();
+            return new ComparisonExpression(identifierName, operationType, value);
+        }
+
+        private Object parseValue(FilterToken token) {
+            switch (token.getType()) {
+                case DECIMAL:
+                    return FilterValues.parseDecimal(token.getText());
+                case TEXT:
+                    return token.getText();
+                case DATE:
+                    return FilterValues.parseDate(token.getText());
+                case TIME:
+                    return FilterValues.parseTime(token.getText());
+                default:
+                    throw createError(EXPECTED_VALUE);
+            }
+        }
+
+        private FilterToken expect(FilterTokenType type, String expected) {
+            if (current.getType() != type) {
+                throw createError(expected);
+            }
+            return consume();
+        }
+
+        private FilterToken consume() {
+            FilterToken token = current;
+            if (token.getType() != FilterTokenType.EOF) {
+                current = tokenizer.next();
+            }
+            return token;
+        }
+
+        private IntegrityException createError(String expected) {
+            return new IntegrityException(
+                    ErrorMessages.INVALID_FORMAT_WHERE_DETAILS + "mismatched input '" + current + "' expecting " + expected);
+        }
+    }
+}
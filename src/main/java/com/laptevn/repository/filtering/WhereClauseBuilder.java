@@ -12,21 +12,21 @@ import java.util.Map;
 @Component
 public class WhereClauseBuilder {
     private final Map<OperationType, Operation> operations;
-    private final WhereClauseParserFactory parserFactory;
-    private final ExpressionBuildingVisitorFactory visitorFactory;
-
-    public WhereClauseBuilder(
-            Map<OperationType, Operation> operations,
-            WhereClauseParserFactory parserFactory,
-            ExpressionBuildingVisitorFactory visitorFactory) {
+    private final FilterExpressionCache filterExpressionCache;
 
+    public WhereClauseBuilder(Map<OperationType, Operation> operations, FilterExpressionCache filterExpressionCache) {
         this.operations = operations;
-        this.parserFactory = parserFactory;
-        this.visitorFactory = visitorFactory;
+        this.filterExpressionCache = filterExpressionCache;
     }
 
     public <T> Predicate build(CriteriaBuilder criteriaBuilder, Root<T> entity, String expression) {
-        return (Predicate) visitorFactory.createVisitor(criteriaBuilder, entity, operations)
-                .visit(parserFactory.createParser(expression).parse());
+        return filterExpressionCache
+                .get(expression, entity.getModel())
+                .getExpression()
+                .toPredicate(criteriaBuilder, entity, operations);
+    }
+
+    public <T> boolean isSatisfiable(Root<T> entity, String expression) {
+        return filterExpressionCache.get(expression, entity.getModel()).isSatisfiable();
     }
-}
\ No newline at end of file
+}
@@ -2,21 +2,53 @@ package com.laptevn.repository.filtering;
 
 import com.laptevn.jogging.WhereClauseLexer;
 import com.laptevn.jogging.WhereClauseParser;
+import org.antlr.v4.runtime.ANTLRErrorStrategy;
+import org.antlr.v4.runtime.BailErrorStrategy;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
 import org.springframework.stereotype.Component;
 
 @Component
 class WhereClauseParserFactory {
-    public WhereClauseParser createParser(String expression) {
-        WhereClauseLexer lexer = new WhereClauseLexer(CharStreams.fromString(expression));
-        ExceptionErrorListener errorListener = new ExceptionErrorListener();
-        lexer.removeErrorListeners();
-        lexer.addErrorListener(errorListener);
+    private final ThreadLocal<ReusableParser> parsers = ThreadLocal.withInitial(ReusableParser::new);
 
-        WhereClauseParser parser = new WhereClauseParser(new CommonTokenStream(lexer));
-        parser.removeErrorListeners();
-        parser.addErrorListener(errorListener);
-        return parser;
+    public WhereClauseParser.ParseContext parse(String expression) {
+        return parsers.get().parse(expression);
     }
-}
\ No newline at end of file
+
+    private static class ReusableParser {
+        private final ExceptionErrorListener errorListener = new ExceptionErrorListener();
+        private final ANTLRErrorStrategy bailErrorStrategy = new BailErrorStrategy();
+        private final ANTLRErrorStrategy defaultErrorStrategy = new DefaultErrorStrategy();
+        private final WhereClauseLexer lexer = new WhereClauseLexer(null);
+        private final CommonTokenStream tokenStream = new CommonTokenStream(lexer);
+        private final WhereClauseParser parser = new WhereClauseParser(tokenStream);
+
+        ReusableParser() {
+            lexer.removeErrorListeners();
+            lexer.addErrorListener(errorListener);
+        }
+
+        WhereClauseParser.ParseContext parse(String expression) {
+            lexer.setInputStream(CharStreams.fromString(expression));
+            tokenStream.setTokenSource(lexer);
+            parser.setTokenStream(tokenStream);
+
+            parser.removeErrorListeners();
+            parser.setErrorHandler(bailErrorStrategy);
+            parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+            try {
+                return parser.parse();
+            } catch (ParseCancellationException ignore) {
+                parser.reset();
+                parser.addErrorListener(errorListener);
+                parser.setErrorHandler(defaultErrorStrategy);
+                parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+                return parser.parse();
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.laptevn.repository.filtering.expression;
+
+import com.laptevn.repository.filtering.operation.Operation;
+import com.laptevn.repository.filtering.operation.OperationType;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.Map;
+import java.util.Objects;
+
+public final class ComparisonExpression implements FilterExpression {
+    private final String identifierName;
+    private final OperationType operationType;
+    private final Object value;
+
+    public ComparisonExpression(String identifierName, OperationType operationType, Object value) {
+        this.identifierName = identifierName;
+        this.operationType = operationType;
+        this.value = value;
+    }
+
+    public String getIdentifierName() {
+        return identifierName;
+    }
+
+    public OperationType getOperationType() {
+        return operationType;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    @Override
+    public <T> Predicate toPredicate(
+            CriteriaBuilder criteriaBuilder, Root<T> entity, Map<OperationType, Operation> operations) {
+
+        return operations.get(operationType).createPredicate(criteriaBuilder, entity, identifierName, value);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        ComparisonExpression that = (ComparisonExpression) o;
+        return identifierName.equals(that.identifierName)
+                && operationType == that.operationType
+                && value.equals(that.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(identifierName, operationType, value);
+    }
+
+    @Override
+    public String toString() {
+        return identifierName + " " + operationType + " " + value;
+    }
+}
@@ -0,0 +1,20 @@
+package com.laptevn.repository.filtering.expression;
+
+import com.laptevn.repository.filtering.operation.Operation;
+import com.laptevn.repository.filtering.operation.OperationType;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.Map;
+
+public enum ConstantExpression implements FilterExpression {
+    FALSE;
+
+    @Override
+    public <T> Predicate toPredicate(
+            CriteriaBuilder criteriaBuilder, Root<T> entity, Map<OperationType, Operation> operations) {
+
+        return criteriaBuilder.disjunction();
+    }
+}
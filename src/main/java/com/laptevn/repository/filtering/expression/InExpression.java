@@ -0,0 +1,67 @@
+package com.laptevn.repository.filtering.expression;
+
+import com.laptevn.repository.filtering.operation.Operation;
+import com.laptevn.repository.filtering.operation.OperationType;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+public final class InExpression implements FilterExpression {
+    private final String identifierName;
+    private final List<Object> values;
+
+    public InExpression(String identifierName, List<Object> values) {
+        this.identifierName = identifierName;
+        this.values = Collections.unmodifiableList(values);
+    }
+
+    public String getIdentifierName() {
+        return identifierName;
+    }
+
+    public List<Object> getValues() {
+        return values;
+    }
+
+    @Override
+    public <T> Predicate toPredicate(
+            CriteriaBuilder criteriaBuilder, Root<T> entity, Map<OperationType, Operation> operations) {
+
+        Expression<?> attribute = entity.get(identifierName);
+        CriteriaBuilder.In<Object> predicate = criteriaBuilder.in(attribute);
+        for (Object value : values) {
+            predicate.value(Operation.toAttributeValue(attribute, identifierName, value));
+        }
+        return predicate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        InExpression that = (InExpression) o;
+        return identifierName.equals(that.identifierName) && values.equals(that.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(identifierName, values);
+    }
+
+    @Override
+    public String toString() {
+        return identifierName + " IN " + values;
+    }
+}
@@ -0,0 +1,77 @@
+package com.laptevn.repository.filtering.expression;
+
+import com.laptevn.repository.filtering.operation.Operation;
+import com.laptevn.repository.filtering.operation.OperationType;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+public final class LogicalExpression implements FilterExpression {
+    private final LogicalOperator operator;
+    private final List<FilterExpression> operands;
+
+    public LogicalExpression(LogicalOperator operator, FilterExpression... operands) {
+        this(operator, Arrays.asList(operands));
+    }
+
+    public LogicalExpression(LogicalOperator operator, List<FilterExpression> operands) {
+        this.operator = operator;
+        this.operands = Collections.unmodifiableList(operands);
+    }
+
+    public LogicalOperator getOperator() {
+        return operator;
+    }
+
+    public List<FilterExpression> getOperands() {
+        return operands;
+    }
+
+    @Override
+    public <T> Predicate toPredicate(
+            CriteriaBuilder criteriaBuilder, Root<T> entity, Map<OperationType, Operation> operations) {
+
+        Predicate[] predicates = operands
+                .stream()
+                .map(operand -> operand.toPredicate(criteriaBuilder, entity, operations))
+                .toArray(Predicate[]::new);
+
+        return operator == LogicalOperator.AND
+                ? criteriaBuilder.and(predicates)
+                : criteriaBuilder.or(predicates);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        LogicalExpression that = (LogicalExpression) o;
+        return operator == that.operator && operands.equals(that.operands);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(operator, operands);
+    }
+
+    @Override
+    public String toString() {
+        return operands
+                .stream()
+                .map(operand -> "(" + operand + ")")
+                .collect(Collectors.joining(" " + operator + " "));
+    }
+}
@@ -0,0 +1,5 @@
+package com.laptevn.repository.filtering.expression;
+
+public enum LogicalOperator {
+    AND, OR
+}
@@ -17,37 +17,56 @@ public abstract class Operation {
     private final static Pattern UNQUOTE_PATTERN = Pattern.compile("^\'|\'$");
 
     public <T> Predicate createPredicate(CriteriaBuilder criteriaBuilder, Root<T> entity, String identifierName, Object value) {
-        if (identifierName.equalsIgnoreCase(ENUM_FIELD_NAME)) {
-            String stringValue = value instanceof String
-                    ? removeQuotes((String) value)
-                    : value.toString();
+        Expression<?> leftExpression = entity.get(identifierName);
+        Object attributeValue = toAttributeValue(leftExpression, identifierName, value);
 
-            return executeRoleOperation(criteriaBuilder, entity.get(identifierName), getRole(stringValue));
+        if (attributeValue instanceof Role) {
+            return executeRoleOperation(criteriaBuilder, (Expression<Role>) leftExpression, (Role) attributeValue);
         }
 
-        if (value instanceof Integer) {
-            return executeIntegerOperation(criteriaBuilder, entity.get(identifierName), (Integer) value);
+        if (attributeValue instanceof Integer) {
+            return executeIntegerOperation(criteriaBuilder, (Expression<Integer>) leftExpression, (Integer) attributeValue);
         }
 
-        if (value instanceof String) {
+        if (attributeValue instanceof String) {
             try {
-                return executeStringOperation(criteriaBuilder, entity.get(identifierName), removeQuotes((String) value));
+                return executeStringOperation(criteriaBuilder, (Expression<String>) leftExpression, (String) attributeValue);
             } catch (NumberFormatException ignore) {
                 throw new IntegrityException(ErrorMessages.INCOMPATIBLE_VALUE_TYPE);
             }
         }
 
-        if (value instanceof LocalDate) {
-            return executeDateOperation(criteriaBuilder, entity.get(identifierName), (LocalDate) value);
+        if (attributeValue instanceof LocalDate) {
+            return executeDateOperation(criteriaBuilder, (Expression<LocalDate>) leftExpression, (LocalDate) attributeValue);
         }
 
-        if (value instanceof LocalTime) {
-            return executeTimeOperation(criteriaBuilder, entity.get(identifierName), (LocalTime) value);
+        if (attributeValue instanceof LocalTime) {
+            return executeTimeOperation(criteriaBuilder, (Expression<LocalTime>) leftExpression, (LocalTime) attributeValue);
         }
 
         throw new IntegrityException(String.format(ErrorMessages.NOT_SUPPORTED_DATA_TYPE_FORMAT, value.getClass()));
     }
 
+    public static Object toAttributeValue(Expression<?> attribute, String identifierName, Object value) {
+        if (identifierName.equalsIgnoreCase(ENUM_FIELD_NAME)) {
+            String stringValue = value instanceof String
+                    ? removeQuotes((String) value)
+                    : value.toString();
+
+            return getRole(stringValue);
+        }
+
+        if (value instanceof String) {
+            return removeQuotes((String) value);
+        }
+
+        if (value instanceof Integer && attribute.getJavaType() == String.class) {
+            return value.toString();
+        }
+
+        return value;
+    }
+
     private static Role getRole(String textValue) {
         try {
             return Role.valueOf(textValue);
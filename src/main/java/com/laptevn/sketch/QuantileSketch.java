@@ -0,0 +1,193 @@
+package com.laptevn.sketch;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+public class QuantileSketch {
+    private final static double MIN_INDEXED_VALUE = 1e-6;
+    private final static int HEADER_SIZE = Double.BYTES + Long.BYTES + 2 * Integer.BYTES;
+
+    private final double relativeAccuracy;
+    private final double logGamma;
+    private long zeroCount;
+    private long[] counts = new long[0];
+    private int minIndex;
+
+    public QuantileSketch(double relativeAccuracy) {
+        if (!(relativeAccuracy > 0 && relativeAccuracy < 1)) {
+            throw new IllegalArgumentException("Relative accuracy should be between 0 and 1 exclusively");
+        }
+
+        this.relativeAccuracy = relativeAccuracy;
+        this.logGamma = Math.log((1 + relativeAccuracy) / (1 - relativeAccuracy));
+    }
+
+    public double getRelativeAccuracy() {
+        return relativeAccuracy;
+    }
+
+    public void add(double value) {
+        add(value, 1);
+    }
+
+    public void remove(double value) {
+        add(value, -1);
+    }
+
+    public void add(double value, long valueCount) {
+        if (value < MIN_INDEXED_VALUE) {
+            zeroCount += valueCount;
+            return;
+        }
+
+        int index = getIndex(value);
+        ensureCapacity(index);
+        counts[index - minIndex] += valueCount;
+    }
+
+    private int getIndex(double value) {
+        return (int) Math.ceil(Math.log(value) / logGamma);
+    }
+
+    private double getValue(int index) {
+        return Math.exp(index * logGamma) * (1 - relativeAccuracy);
+    }
+
+    private void ensureCapacity(int index) {
+        if (counts.length == 0) {
+            counts = new long[1];
+            minIndex = index;
+        } else if (index < minIndex) {
+            long[] newCounts = new long[counts.length + minIndex - index];
+            System.arraycopy(counts, 0, newCounts, minIndex - index, counts.length);
+            counts = newCounts;
+            minIndex = index;
+        } else if (index >= minIndex + counts.length) {
+            counts = Arrays.copyOf(counts, index - minIndex + 1);
+        }
+    }
+
+    public void merge(QuantileSketch other) {
+        if (other.relativeAccuracy != relativeAccuracy) {
+            throw new IllegalArgumentException("Sketches with different relative accuracy cannot be merged");
+        }
+
+        zeroCount += other.zeroCount;
+        if (other.counts.length == 0) {
+            return;
+        }
+
+        ensureCapacity(other.minIndex);
+        ensureCapacity(other.minIndex + other.counts.length - 1);
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[other.minIndex - minIndex + i] += other.counts[i];
+        }
+    }
+
+    public QuantileSketch copy() {
+        QuantileSketch copy = new QuantileSketch(relativeAccuracy);
+        copy.zeroCount = zeroCount;
+        copy.counts = counts.clone();
+        copy.minIndex = minIndex;
+        return copy;
+    }
+
+    public QuantileSketch negate() {
+        QuantileSketch negation = new QuantileSketch(relativeAccuracy);
+        negation.zeroCount = -zeroCount;
+        negation.counts = Arrays.stream(counts).map(bucketCount -> -bucketCount).toArray();
+        negation.minIndex = minIndex;
+        return negation;
+    }
+
+    public long getCount() {
+        long count = Math.max(0, zeroCount);
+        for (long bucketCount : counts) {
+            count += Math.max(0, bucketCount);
+        }
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return zeroCount == 0 && Arrays.stream(counts).allMatch(bucketCount -> bucketCount == 0);
+    }
+
+    public double getQuantile(double quantile) {
+        if (!(quantile >= 0 && quantile <= 1)) {
+            throw new IllegalArgumentException("Quantile should be between 0 and 1");
+        }
+
+        long count = getCount();
+        if (count == 0) {
+            return Double.NaN;
+        }
+
+        long rank = (long) (quantile * (count - 1));
+        long cumulativeCount = Math.max(0, zeroCount);
+        if (cumulativeCount > rank) {
+            return 0;
+        }
+
+        int lastIndex = minIndex;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] <= 0) {
+                continue;
+            }
+
+            lastIndex = minIndex + i;
+            cumulativeCount += counts[i];
+            if (cumulativeCount > rank) {
+                return getValue(lastIndex);
+            }
+        }
+        return getValue(lastIndex);
+    }
+
+    public double getRank(double value) {
+        long count = getCount();
+        if (count == 0 || value < MIN_INDEXED_VALUE) {
+            return 0;
+        }
+
+        long lowerCount = Math.max(0, zeroCount);
+        int index = getIndex(value);
+        for (int i = 0; i < counts.length && minIndex + i < index; i++) {
+            lowerCount += Math.max(0, counts[i]);
+        }
+        return (double) lowerCount / count;
+    }
+
+    public byte[] toBytes() {
+        int first = 0;
+        while (first < counts.length && counts[first] == 0) {
+            first++;
+        }
+        int last = counts.length - 1;
+        while (last >= first && counts[last] == 0) {
+            last--;
+        }
+
+        int length = last - first + 1;
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + length * Long.BYTES)
+                .putDouble(relativeAccuracy)
+                .putLong(zeroCount)
+                .putInt(minIndex + first)
+                .putInt(length);
+        for (int i = first; i <= last; i++) {
+            buffer.putLong(counts[i]);
+        }
+        return buffer.array();
+    }
+
+    public static QuantileSketch fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        QuantileSketch sketch = new QuantileSketch(buffer.getDouble());
+        sketch.zeroCount = buffer.getLong();
+        sketch.minIndex = buffer.getInt();
+        sketch.counts = new long[buffer.getInt()];
+        for (int i = 0; i < sketch.counts.length; i++) {
+            sketch.counts[i] = buffer.getLong();
+        }
+        return sketch;
+    }
+}
\ No newline at end of file
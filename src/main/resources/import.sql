@@ -1 +1 @@
-INSERT INTO user VALUES (0,'admin','$2a$10$QHiSYzD4znIKll8pR5T1Veq03NWrSfAnJMHhfX/0B6sHGB02ZAhIK','ADMIN',0);
\ No newline at end of file
+INSERT INTO user (id, name, canonical_name, password, role, version) VALUES (0,'admin','admin','$2a$10$QHiSYzD4znIKll8pR5T1Veq03NWrSfAnJMHhfX/0B6sHGB02ZAhIK','ADMIN',0);
\ No newline at end of file
@@ -0,0 +1,53 @@
+package com.laptevn;
+
+import com.laptevn.exception.IntegrityException;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class BoundedLineReaderTest {
+    @Test
+    public void readLines() throws IOException {
+        BoundedLineReader reader = new BoundedLineReader(new StringReader("first\r\n\nsecond\nthird"), 10);
+        assertEquals("first", reader.readLine());
+        assertEquals("", reader.readLine());
+        assertEquals("second", reader.readLine());
+        assertEquals("third", reader.readLine());
+        assertNull(reader.readLine());
+    }
+
+    @Test
+    public void readLinesAcrossBuffer() throws IOException {
+        String line = String.join("", Collections.nCopies(10000, "a"));
+        BoundedLineReader reader = new BoundedLineReader(new StringReader(line + "\n" + line), line.length());
+        assertEquals(line, reader.readLine());
+        assertEquals(line, reader.readLine());
+        assertNull(reader.readLine());
+    }
+
+    @Test
+    public void skipTooLongLine() throws IOException {
+        String line = String.join("", Collections.nCopies(10000, "a"));
+        BoundedLineReader reader = new BoundedLineReader(new StringReader("short\n" + line + "\r\nnext"), 100);
+        assertEquals("short", reader.readLine());
+        try {
+            reader.readLine();
+            fail("Too long line was read");
+        } catch (IntegrityException e) {
+            assertEquals(String.format(ErrorMessages.LINE_IS_TOO_LONG_FORMAT, 100), e.getMessage());
+        }
+        assertEquals("next", reader.readLine());
+        assertNull(reader.readLine());
+    }
+
+    @Test
+    public void readEmptyInput() throws IOException {
+        assertNull(new BoundedLineReader(new StringReader(""), 10).readLine());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,70 @@
+package com.laptevn;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class EntityTagsTest {
+    private final static List<int[]> ENTITIES = Arrays.asList(new int[]{1, 0}, new int[]{2, 5});
+
+    @Test
+    public void createEntityTag() {
+        assertEquals("\"10-2\"", EntityTags.create(10, 2));
+    }
+
+    @Test
+    public void createAggregateEntityTag() {
+        String entityTag = createAggregateEntityTag(ENTITIES, "distance gt 10");
+        assertTrue("Aggregate entity tag isn't weak", entityTag.startsWith("W/\""));
+        assertEquals(entityTag, createAggregateEntityTag(Arrays.asList(new int[]{1, 0}, new int[]{2, 5}), "distance gt 10"));
+
+        assertNotEquals(entityTag, createAggregateEntityTag(ENTITIES, "distance gt 11"));
+        assertNotEquals(entityTag, createAggregateEntityTag(ENTITIES, null));
+        assertNotEquals(entityTag, createAggregateEntityTag(
+                Arrays.asList(new int[]{1, 0}, new int[]{2, 6}), "distance gt 10"));
+        assertNotEquals(entityTag, createAggregateEntityTag(
+                Collections.singletonList(new int[]{1, 0}), "distance gt 10"));
+    }
+
+    private static String createAggregateEntityTag(List<int[]> entities, String filter) {
+        Function<int[], Integer> idGetter = entity -> entity[0];
+        Function<int[], Integer> versionGetter = entity -> entity[1];
+        return EntityTags.create(entities, idGetter, versionGetter, filter);
+    }
+
+    @Test
+    public void matchEntityTags() {
+        assertTrue(EntityTags.matches("\"10-2\"", "\"10-2\""));
+        assertTrue(EntityTags.matches("\"10-1\", \"10-2\"", "\"10-2\""));
+        assertTrue(EntityTags.matches("W/\"10-2\"", "\"10-2\""));
+        assertTrue(EntityTags.matches("\"abc\"", "W/\"abc\""));
+        assertTrue(EntityTags.matches("*", "\"10-2\""));
+        assertFalse(EntityTags.matches("\"10-1\"", "\"10-2\""));
+        assertFalse(EntityTags.matches("10-2", "\"10-2\""));
+    }
+
+    @Test
+    public void findVersion() {
+        assertEquals(Optional.of(2), EntityTags.findVersion("\"10-2\"", 10));
+        assertEquals(Optional.of(2), EntityTags.findVersion("\"11-1\", \"10-2\"", 10));
+        assertEquals(Optional.empty(), EntityTags.findVersion("\"11-2\"", 10));
+        assertEquals(Optional.empty(), EntityTags.findVersion("W/\"10-2\"", 10));
+        assertEquals(Optional.empty(), EntityTags.findVersion("\"10-99999999999\"", 10));
+        assertEquals(Optional.empty(), EntityTags.findVersion("garbage", 10));
+    }
+
+    @Test
+    public void detectAnyEntityTag() {
+        assertTrue(EntityTags.isAny(" * "));
+        assertFalse(EntityTags.isAny("\"10-2\""));
+    }
+}
\ No newline at end of file
@@ -1,10 +1,12 @@
 package com.laptevn;
 
-import com.laptevn.PaginationFactory;
+import com.laptevn.exception.IntegrityException;
 import org.junit.Test;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Arrays;
 import java.util.Optional;
+import java.util.function.Function;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -39,4 +41,41 @@ public class PaginationFactoryTest {
         assertEquals("Invalid page index", 2, pageable.get().getPageNumber());
         assertEquals("Invalid page size", 10, pageable.get().getPageSize());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void continuationFromStart() {
+        Continuation continuation = new PaginationFactory().createContinuation("", null);
+        assertEquals("Invalid after id", Integer.MIN_VALUE, continuation.getAfterId());
+        assertEquals("Invalid page size", 10, continuation.getPageSize());
+        assertEquals("Invalid limit", 11, continuation.getPageable().getPageSize());
+        assertEquals("Invalid offset", 0, continuation.getPageable().getOffset());
+    }
+
+    @Test
+    public void continuationToken() {
+        String token = PaginationFactory.encodeToken(99998);
+        Continuation continuation = new PaginationFactory().createContinuation(token, 3);
+        assertEquals("Invalid after id", 99998, continuation.getAfterId());
+        assertEquals("Invalid page size", 3, continuation.getPageSize());
+    }
+
+    @Test(expected = IntegrityException.class)
+    public void invalidContinuationToken() {
+        new PaginationFactory().createContinuation("!abc", 3);
+    }
+
+    @Test
+    public void createPage() {
+        PaginationFactory paginationFactory = new PaginationFactory();
+        Continuation continuation = new Continuation(0, 2);
+
+        ContinuationPage<String> page = paginationFactory.createPage(
+                Arrays.asList(1, 2, 3), continuation, Function.identity(), String::valueOf);
+        assertEquals("Invalid items", Arrays.asList("1", "2"), page.getItems());
+        assertEquals("Invalid next token", Optional.of(PaginationFactory.encodeToken(2)), page.getNextToken());
+
+        page = paginationFactory.createPage(Arrays.asList(1, 2), continuation, Function.identity(), String::valueOf);
+        assertEquals("Invalid items", Arrays.asList("1", "2"), page.getItems());
+        assertFalse("Last page has next token", page.getNextToken().isPresent());
+    }
+}
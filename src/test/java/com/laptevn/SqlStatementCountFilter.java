@@ -0,0 +1,45 @@
+package com.laptevn;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SqlStatementCountFilter extends OncePerRequestFilter {
+    public final static String MAX_STATEMENTS_ATTRIBUTE = SqlStatementCountFilter.class.getName() + ".maxStatements";
+    final static int MAX_STATEMENTS_PER_REQUEST = 5;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        SqlStatementRecorder.startRequest();
+        List<String> statements;
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            statements = SqlStatementRecorder.finishRequest();
+        }
+
+        Object requestLimit = request.getAttribute(MAX_STATEMENTS_ATTRIBUTE);
+        int maxStatements = requestLimit == null ? MAX_STATEMENTS_PER_REQUEST : (Integer) requestLimit;
+        if (statements.size() > maxStatements) {
+            throw new AssertionError(String.format(
+                    "%s %s issued %d SQL statements, the limit is %d: %s",
+                    request.getMethod(),
+                    request.getRequestURI(),
+                    statements.size(),
+                    maxStatements,
+                    statements));
+        }
+    }
+}
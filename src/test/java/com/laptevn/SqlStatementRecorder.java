@@ -0,0 +1,47 @@
+package com.laptevn;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class SqlStatementRecorder implements StatementInspector {
+    private static final long serialVersionUID = -6254917337061806453L;
+    private final static List<String> statements = new ArrayList<>();
+    private final static ThreadLocal<List<String>> requestStatements = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        synchronized (statements) {
+            statements.add(sql);
+        }
+
+        List<String> currentRequestStatements = requestStatements.get();
+        if (currentRequestStatements != null) {
+            currentRequestStatements.add(sql);
+        }
+        return sql;
+    }
+
+    public static void clear() {
+        synchronized (statements) {
+            statements.clear();
+        }
+    }
+
+    public static List<String> getStatements() {
+        synchronized (statements) {
+            return new ArrayList<>(statements);
+        }
+    }
+
+    static void startRequest() {
+        requestStatements.set(new ArrayList<>());
+    }
+
+    static List<String> finishRequest() {
+        List<String> currentRequestStatements = requestStatements.get();
+        requestStatements.remove();
+        return currentRequestStatements;
+    }
+}
@@ -0,0 +1,116 @@
+package com.laptevn.auth.configuration;
+
+import com.laptevn.exception.ServiceOverloadedException;
+import org.junit.Test;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BoundedPasswordEncoderTest {
+    @Test
+    public void encodeAndMatch() throws Exception {
+        BoundedPasswordEncoder passwordEncoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 4, 2, 2);
+        try {
+            String encodedPassword = passwordEncoder.encode("password");
+            assertTrue(passwordEncoder.matches("password", encodedPassword));
+            assertFalse(passwordEncoder.matches("password1", encodedPassword));
+        } finally {
+            passwordEncoder.destroy();
+        }
+    }
+
+    @Test
+    public void rejectWhenSaturated() throws Exception {
+        CountDownLatch startedLatch = new CountDownLatch(1);
+        CountDownLatch releaseLatch = new CountDownLatch(1);
+        BoundedPasswordEncoder passwordEncoder = new BoundedPasswordEncoder(
+                new BlockingPasswordEncoder(startedLatch, releaseLatch), 4, 1, 1);
+        try {
+            CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> passwordEncoder.encode("1"));
+            assertTrue("Hashing didn't start", startedLatch.await(10, TimeUnit.SECONDS));
+            CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> passwordEncoder.encode("2"));
+            while (passwordEncoder.getExecutor().getQueue().isEmpty()) {
+                Thread.sleep(1);
+            }
+
+            try {
+                passwordEncoder.encode("3");
+                throw new AssertionError("Saturated encoder accepted a task");
+            } catch (ServiceOverloadedException ignore) {
+            }
+
+            releaseLatch.countDown();
+            assertEquals("1", running.get(10, TimeUnit.SECONDS));
+            assertEquals("2", queued.get(10, TimeUnit.SECONDS));
+            assertEquals("Encoder isn't usable after rejection", "4", passwordEncoder.encode("4"));
+        } finally {
+            releaseLatch.countDown();
+            passwordEncoder.destroy();
+        }
+    }
+
+    @Test
+    public void reportRejectionAsAuthenticationFailure() {
+        PasswordEncoder passwordEncoder = new AuthenticationPasswordEncoder(new BCryptPasswordEncoder(4) {
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                throw new ServiceOverloadedException("Overloaded");
+            }
+        });
+
+        try {
+            passwordEncoder.matches("password", "hash");
+            throw new AssertionError("Rejection isn't reported");
+        } catch (InternalAuthenticationServiceException e) {
+            assertTrue(e.getCause() instanceof ServiceOverloadedException);
+        }
+    }
+
+    @Test
+    public void upgradeWeakerHashes() throws Exception {
+        BoundedPasswordEncoder passwordEncoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(5), 5, 1, 1);
+        try {
+            assertTrue(passwordEncoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("password")));
+            assertFalse(passwordEncoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode("password")));
+            assertFalse(passwordEncoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("password")));
+            assertFalse(passwordEncoder.upgradeEncoding("plain"));
+            assertFalse(passwordEncoder.upgradeEncoding(null));
+        } finally {
+            passwordEncoder.destroy();
+        }
+    }
+
+    private static class BlockingPasswordEncoder implements PasswordEncoder {
+        private final CountDownLatch startedLatch;
+        private final CountDownLatch releaseLatch;
+
+        BlockingPasswordEncoder(CountDownLatch startedLatch, CountDownLatch releaseLatch) {
+            this.startedLatch = startedLatch;
+            this.releaseLatch = releaseLatch;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            startedLatch.countDown();
+            try {
+                releaseLatch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return rawPassword.toString().equals(encodedPassword);
+        }
+    }
+}
\ No newline at end of file
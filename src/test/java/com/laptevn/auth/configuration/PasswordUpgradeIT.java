@@ -0,0 +1,78 @@
+package com.laptevn.auth.configuration;
+
+import com.laptevn.auth.entity.Role;
+import com.laptevn.auth.entity.User;
+import com.laptevn.auth.repository.UserRepository;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@AutoConfigureMockMvc
+@SpringBootTest(properties = "jogging.password.strength=5")
+public class PasswordUpgradeIT {
+    private final static String USER_NAME = "upgradedUser";
+    private final static String PASSWORD = "upgradedPassword";
+
+    private MockMvc client;
+    private UserRepository userRepository;
+
+    @Autowired
+    public void setClient(MockMvc client) {
+        this.client = client;
+    }
+
+    @Autowired
+    public void setUserRepository(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @After
+    public void deleteUser() {
+        userRepository.deleteByCanonicalName(User.canonicalize(USER_NAME));
+    }
+
+    @Test
+    public void upgradeHashOnLogin() throws Exception {
+        userRepository.save(new User()
+                .setName(USER_NAME)
+                .setPassword(new BCryptPasswordEncoder(4).encode(PASSWORD))
+                .setRole(Role.USER));
+
+        client.perform(post("/login").param("username", USER_NAME).param("password", PASSWORD))
+                .andExpect(status().isOk());
+
+        String password = userRepository.findByCanonicalName(User.canonicalize(USER_NAME)).get().getPassword();
+        assertTrue("Password hash wasn't upgraded: " + password, password.startsWith("$2a$05$"));
+        assertTrue(new BCryptPasswordEncoder().matches(PASSWORD, password));
+
+        client.perform(post("/login").param("username", USER_NAME).param("password", PASSWORD))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void rejectWrongPasswordWithoutUpgrade() throws Exception {
+        String password = new BCryptPasswordEncoder(4).encode(PASSWORD);
+        userRepository.save(new User()
+                .setName(USER_NAME)
+                .setPassword(password)
+                .setRole(Role.USER));
+
+        client.perform(post("/login").param("username", USER_NAME).param("password", PASSWORD + 1))
+                .andExpect(status().isUnauthorized());
+
+        assertTrue(
+                "Password hash was changed",
+                password.equals(userRepository.findByCanonicalName(User.canonicalize(USER_NAME)).get().getPassword()));
+    }
+}
\ No newline at end of file
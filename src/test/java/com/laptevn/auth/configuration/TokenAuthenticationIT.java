@@ -0,0 +1,129 @@
+package com.laptevn.auth.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.laptevn.auth.entity.SignupDto;
+import com.laptevn.auth.entity.User;
+import com.laptevn.auth.repository.UserRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.Assert.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@AutoConfigureMockMvc
+@SpringBootTest(properties = {"jogging.auth.mode=token", "jogging.auth.token.secret=test-secret"})
+public class TokenAuthenticationIT {
+    private final static Logger logger = LoggerFactory.getLogger(TokenAuthenticationIT.class);
+    private final static String USER_NAME = "tokenUser";
+    private final static String PASSWORD = "tokenPassword";
+    private final static int REQUEST_COUNT = 200;
+
+    private MockMvc client;
+    private ObjectMapper objectMapper;
+    private UserRepository userRepository;
+
+    @Autowired
+    public void setClient(MockMvc client) {
+        this.client = client;
+    }
+
+    @Autowired
+    public void setObjectMapper(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Autowired
+    public void setUserRepository(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Before
+    public void signup() throws Exception {
+        client.perform(post("/signup")
+                .content(objectMapper.writeValueAsString(new SignupDto().setName(USER_NAME).setPassword(PASSWORD)))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated());
+    }
+
+    @After
+    public void deleteUser() {
+        userRepository.deleteByCanonicalName(User.canonicalize(USER_NAME));
+    }
+
+    @Test
+    public void loginWithoutSession() throws Exception {
+        MvcResult result = client.perform(post("/login").param("username", USER_NAME).param("password", PASSWORD))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.expiresIn").value(900))
+                .andReturn();
+
+        assertNull("Session was created", result.getRequest().getSession(false));
+    }
+
+    @Test
+    public void authenticateWithToken() throws Exception {
+        String token = login();
+
+        client.perform(get("/joggings/").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk());
+        client.perform(get("/users/").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    public void rejectInvalidToken() throws Exception {
+        String token = login();
+        int payloadEnd = token.indexOf('.');
+        char lastPayloadSymbol = token.charAt(payloadEnd - 1) == 'A' ? 'B' : 'A';
+        String tamperedToken = token.substring(0, payloadEnd - 1) + lastPayloadSymbol + token.substring(payloadEnd);
+
+        client.perform(get("/joggings/"))
+                .andExpect(status().isUnauthorized());
+        client.perform(get("/joggings/").header(HttpHeaders.AUTHORIZATION, "Bearer " + tamperedToken))
+                .andExpect(status().isUnauthorized());
+        client.perform(get("/joggings/").header(HttpHeaders.AUTHORIZATION, "Bearer invalid"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void measureTokenAuthenticatedRequests() throws Exception {
+        String token = login();
+
+        long startTime = System.nanoTime();
+        for (int i = 0; i < REQUEST_COUNT; i++) {
+            MvcResult result = client.perform(get("/reports/").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            assertNull("Session was created", result.getRequest().getSession(false));
+        }
+        long elapsedNanos = System.nanoTime() - startTime;
+
+        logger.info(
+                "{} token authenticated requests without sessions, {} requests/s",
+                REQUEST_COUNT,
+                REQUEST_COUNT * 1_000_000_000L / elapsedNanos);
+    }
+
+    private String login() throws Exception {
+        MvcResult result = client.perform(post("/login").param("username", USER_NAME).param("password", PASSWORD))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get("token").asText();
+    }
+}
\ No newline at end of file
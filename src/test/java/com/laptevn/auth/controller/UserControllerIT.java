@@ -11,11 +11,13 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -24,6 +26,7 @@ import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
+import static org.junit.Assert.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -138,6 +141,45 @@ public class UserControllerIT {
         }
     }
 
+    @Test
+    @WithMockUser(username = "manager", roles = {"MANAGER"})
+    public void getUsersWithContinuationToken() throws Exception {
+        List<UserDto> users = createUserDtos(3);
+
+        try {
+            for (UserDto user : users) {
+                createUser(user);
+            }
+
+            String filter = users
+                    .stream()
+                    .map(user -> "(name eq '" + user.getName() + "')")
+                    .collect(Collectors.joining(" OR "));
+            List<String> names = new ArrayList<>();
+            String uri = "/users/?after=&per_page=2";
+            int pageCount = 0;
+            while (uri != null) {
+                MvcResult result = client.perform(get(uri).contentType(MediaType.APPLICATION_JSON).content(filter))
+                        .andExpect(status().isOk())
+                        .andReturn();
+                Arrays.stream(objectMapper.readValue(result.getResponse().getContentAsString(), UserDto[].class))
+                        .map(UserDto::getName)
+                        .forEach(names::add);
+                pageCount++;
+
+                String link = result.getResponse().getHeader(HttpHeaders.LINK);
+                uri = link == null ? null : link.substring(link.indexOf('<') + 1, link.indexOf('>'));
+            }
+
+            assertEquals(users.stream().map(UserDto::getName).collect(Collectors.toList()), names);
+            assertEquals("Invalid page count", 2, pageCount);
+        } finally {
+            for (UserDto user : users) {
+                deleteUser(user.getName());
+            }
+        }
+    }
+
     private static List<UserDto> createUserDtos(int usersCount) {
         return IntStream.range(0, usersCount)
                 .mapToObj(i -> new UserDto()
@@ -132,7 +132,7 @@ public class UserControllerTest {
         EasyMock.replay(userService);
 
         ResponseEntity<Collection<UserDto>> response = new UserController(userService)
-                .getAllUsers(null, null, null);
+                .getAllUsers(null, null, null, null);
         assertEquals("Invalid status code", HttpStatus.OK, response.getStatusCode());
         assertSame("Invalid users found", users, response.getBody());
     }
@@ -1,7 +1,9 @@
 package com.laptevn.auth.repository;
 
+import com.laptevn.auth.entity.User;
 import com.laptevn.exception.IntegrityException;
 import com.laptevn.repository.filtering.WhereClauseBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.easymock.EasyMock;
 import org.junit.Test;
 import org.springframework.data.domain.PageRequest;
@@ -13,10 +15,13 @@ import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Predicate;
 import java.util.Optional;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
 public class UserParsingFilterableRepositoryTest {
     @Test(expected = IntegrityException.class)
     public void noPredicateBuild() {
-        new UserParsingFilterableRepository(createEntityManager(createQuery(false)), createWhereClauseBuilder(null))
+        createRepository(createEntityManager(createQuery(false)), createWhereClauseBuilder(null))
                 .findAll(null, Optional.empty());
     }
 
@@ -49,25 +54,55 @@ public class UserParsingFilterableRepositoryTest {
     }
 
     private static WhereClauseBuilder createWhereClauseBuilder(Predicate predicate) {
+        return createWhereClauseBuilder(predicate, true);
+    }
+
+    private static WhereClauseBuilder createWhereClauseBuilder(Predicate predicate, boolean isSatisfiable) {
         WhereClauseBuilder whereClauseBuilder = EasyMock.mock(WhereClauseBuilder.class);
         EasyMock.expect(whereClauseBuilder.build(EasyMock.anyObject(), EasyMock.anyObject(), EasyMock.anyString()))
                 .andReturn(predicate);
+        EasyMock.expect(whereClauseBuilder.isSatisfiable(EasyMock.anyObject(), EasyMock.anyString()))
+                .andReturn(isSatisfiable);
 
         EasyMock.replay(whereClauseBuilder);
         return whereClauseBuilder;
     }
 
+    private static UserParsingFilterableRepository createRepository(
+            EntityManager entityManager, WhereClauseBuilder whereClauseBuilder) {
+
+        return new UserParsingFilterableRepository(entityManager, whereClauseBuilder, new SimpleMeterRegistry(), 500);
+    }
+
     @Test
     public void noPagination() {
-        new UserParsingFilterableRepository(createEntityManager(createQuery(false)), createWhereClauseBuilder(EasyMock.mock(Predicate.class)))
+        createRepository(createEntityManager(createQuery(false)), createWhereClauseBuilder(EasyMock.mock(Predicate.class)))
                 .findAll(null, Optional.empty());
     }
 
     @Test
     public void pagination() {
         TypedQuery query = createQuery(true);
-        new UserParsingFilterableRepository(createEntityManager(query), createWhereClauseBuilder(EasyMock.mock(Predicate.class)))
+        createRepository(createEntityManager(query), createWhereClauseBuilder(EasyMock.mock(Predicate.class)))
                 .findAll(null, Optional.of(PageRequest.of(1, 2)));
         EasyMock.verify(query);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void skipUnsatisfiableFilter() {
+        TypedQuery query = EasyMock.mock(TypedQuery.class);
+        EasyMock.replay(query);
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        Iterable<User> users = new UserParsingFilterableRepository(
+                createEntityManager(query),
+                createWhereClauseBuilder(EasyMock.mock(Predicate.class), false),
+                meterRegistry,
+                500)
+                .findAll("(id gt 5) AND (id lt 3)", Optional.empty());
+
+        assertFalse("Users were found", users.iterator().hasNext());
+        assertEquals(1, meterRegistry.get("filter.queries.skipped").tag("entity", "user").counter().count(), 0);
+        EasyMock.verify(query);
+    }
+}
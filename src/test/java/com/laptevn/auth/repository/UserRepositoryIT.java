@@ -0,0 +1,65 @@
+package com.laptevn.auth.repository;
+
+import com.laptevn.SqlStatementRecorder;
+import com.laptevn.auth.entity.User;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class UserRepositoryIT {
+    private final static String TABLE_SCAN = "tableScan";
+
+    private UserRepository userRepository;
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public void setUserRepository(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Autowired
+    public void setJdbcTemplate(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Test
+    public void findByCanonicalName() {
+        assertEquals(99999, (int) userRepository.findByCanonicalName(User.canonicalize("USER1")).get().getId());
+    }
+
+    @Test
+    public void findByCanonicalNameUsesIndex() {
+        SqlStatementRecorder.clear();
+        assertTrue(userRepository.findByCanonicalName("user1").isPresent());
+
+        List<String> statements = SqlStatementRecorder.getStatements();
+        assertEquals("Unexpected statements: " + statements, 1, statements.size());
+
+        String plan = explain(statements.get(0), "user1");
+        assertThat(plan, not(containsString(TABLE_SCAN)));
+        assertThat(plan.toUpperCase(), containsString("CANONICAL_NAME = "));
+    }
+
+    @Test
+    public void caseInsensitiveComparisonDoesNotUseIndex() {
+        String plan = explain("select id from user where upper(name) = upper(?)", "user1");
+        assertThat(plan, containsString(TABLE_SCAN));
+    }
+
+    private String explain(String sql, Object... parameters) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, parameters);
+    }
+}
\ No newline at end of file
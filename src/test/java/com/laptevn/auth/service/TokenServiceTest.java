@@ -0,0 +1,72 @@
+package com.laptevn.auth.service;
+
+import com.laptevn.auth.entity.Role;
+import com.laptevn.auth.entity.TokenClaims;
+import com.laptevn.auth.entity.User;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TokenServiceTest {
+    private final static Instant NOW = Instant.parse("2019-04-01T10:00:00Z");
+    private final static Duration TIME_TO_LIVE = Duration.ofMinutes(15);
+    private final static User USER = new User()
+            .setId(42)
+            .setName("John:Smith")
+            .setRole(Role.MANAGER);
+
+    @Test
+    public void verifyIssuedToken() {
+        TokenService tokenService = createService("secret", NOW);
+        Optional<TokenClaims> claims = tokenService.verify(tokenService.createToken(USER));
+
+        assertTrue("Token wasn't verified", claims.isPresent());
+        assertEquals("Invalid user id", 42, claims.get().getUserId());
+        assertEquals("Invalid name", USER.getName(), claims.get().getName());
+        assertEquals("Invalid role", Role.MANAGER, claims.get().getRole());
+        assertEquals("Invalid expiration time", NOW.plus(TIME_TO_LIVE), claims.get().getExpirationTime());
+    }
+
+    @Test
+    public void rejectExpiredToken() {
+        String token = createService("secret", NOW).createToken(USER);
+        assertTrue(createService("secret", NOW.plus(TIME_TO_LIVE).minusSeconds(1)).verify(token).isPresent());
+        assertFalse(createService("secret", NOW.plus(TIME_TO_LIVE)).verify(token).isPresent());
+    }
+
+    @Test
+    public void rejectTokenSignedWithOtherSecret() {
+        String token = createService("other secret", NOW).createToken(USER);
+        assertFalse(createService("secret", NOW).verify(token).isPresent());
+    }
+
+    @Test
+    public void rejectTamperedToken() {
+        TokenService tokenService = createService("secret", NOW);
+        String token = tokenService.createToken(USER);
+        String forgedToken = tokenService.createToken(new User().setId(1).setName("admin").setRole(Role.ADMIN));
+
+        String forgedPayload = forgedToken.substring(0, forgedToken.indexOf('.'));
+        String signature = token.substring(token.indexOf('.'));
+        for (String invalidToken : new String[]{forgedPayload + signature, "", ".", "abc", "a.b", "%%%.%%%"}) {
+            assertFalse("Invalid token '" + invalidToken + "' was verified", tokenService.verify(invalidToken).isPresent());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void requireSecret() {
+        createService("", NOW);
+    }
+
+    private static TokenService createService(String secret, Instant now) {
+        return new TokenService(secret, TIME_TO_LIVE, Clock.fixed(now, ZoneOffset.UTC));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,95 @@
+package com.laptevn.auth.service;
+
+import com.laptevn.auth.entity.Role;
+import com.laptevn.auth.entity.User;
+import com.laptevn.auth.repository.UserRepository;
+import com.laptevn.cache.BoundedCache;
+import com.laptevn.exception.IntegrityException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.easymock.EasyMock;
+import org.junit.Test;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+public class UserResolverTest {
+    private final static long TIME_TO_LIVE = TimeUnit.SECONDS.toNanos(5);
+
+    private final AtomicLong time = new AtomicLong();
+    private final User storedUser = new User()
+            .setId(1)
+            .setVersion(0)
+            .setName("John")
+            .setPassword("hash")
+            .setRole(Role.USER);
+
+    @Test
+    public void resolveOnce() {
+        UserRepository userRepository = EasyMock.mock(UserRepository.class);
+        EasyMock.expect(userRepository.findByCanonicalName("john")).andReturn(Optional.of(storedUser)).once();
+        EasyMock.replay(userRepository);
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        UserResolver userResolver = createResolver(userRepository, meterRegistry);
+        User user = userResolver.resolve("John");
+        assertEquals("Invalid id", storedUser.getId(), user.getId());
+        assertEquals("Invalid role", Role.USER, user.getRole());
+        assertNull("Password is exposed", user.getPassword());
+
+        assertNotSame("Cached user is shared", user, userResolver.resolve("JOHN"));
+        EasyMock.verify(userRepository);
+        assertEquals(0.5, meterRegistry.get("cache.hit.rate").tag("cache", "users").gauge().value(), 0);
+    }
+
+    @Test
+    public void roleChangeTakesEffectWithinTimeToLive() {
+        UserRepository userRepository = createRepository();
+        UserResolver userResolver = createResolver(userRepository, new SimpleMeterRegistry());
+        assertEquals(Role.USER, userResolver.resolve("John").getRole());
+
+        storedUser.setRole(Role.ADMIN);
+        time.addAndGet(TIME_TO_LIVE - 1);
+        assertEquals("Stale role is dropped before time to live", Role.USER, userResolver.resolve("John").getRole());
+
+        time.incrementAndGet();
+        assertEquals("Stale role is kept after time to live", Role.ADMIN, userResolver.resolve("John").getRole());
+    }
+
+    @Test
+    public void roleChangeTakesEffectAfterInvalidation() {
+        UserRepository userRepository = createRepository();
+        UserResolver userResolver = createResolver(userRepository, new SimpleMeterRegistry());
+        assertEquals(Role.USER, userResolver.resolve("John").getRole());
+
+        storedUser.setRole(Role.ADMIN);
+        userResolver.invalidate("JOHN");
+        assertEquals(Role.ADMIN, userResolver.resolve("John").getRole());
+    }
+
+    @Test(expected = IntegrityException.class)
+    public void resolveNotExistingUser() {
+        UserRepository userRepository = EasyMock.mock(UserRepository.class);
+        EasyMock.expect(userRepository.findByCanonicalName(EasyMock.anyString())).andReturn(Optional.empty());
+        EasyMock.replay(userRepository);
+
+        createResolver(userRepository, new SimpleMeterRegistry()).resolve("John");
+    }
+
+    private UserRepository createRepository() {
+        UserRepository userRepository = EasyMock.mock(UserRepository.class);
+        EasyMock.expect(userRepository.findByCanonicalName(EasyMock.anyString()))
+                .andAnswer(() -> Optional.of(storedUser))
+                .anyTimes();
+        EasyMock.replay(userRepository);
+        return userRepository;
+    }
+
+    private UserResolver createResolver(UserRepository userRepository, SimpleMeterRegistry meterRegistry) {
+        return new UserResolver(userRepository, new BoundedCache<>(10, 1, TIME_TO_LIVE, time::get), meterRegistry);
+    }
+}
\ No newline at end of file
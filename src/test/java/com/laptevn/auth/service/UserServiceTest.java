@@ -8,9 +8,11 @@ import com.laptevn.auth.entity.Role;
 import com.laptevn.auth.entity.User;
 import com.laptevn.auth.entity.UserDto;
 import org.easymock.EasyMock;
+import org.easymock.IMocksControl;
 import org.junit.Test;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Pageable;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -42,7 +44,7 @@ public class UserServiceTest {
         EasyMock.expect(userRepository.save(EasyMock.anyObject())).andReturn(null);
         EasyMock.replay(userRepository);
 
-        assertTrue(new UserService(userRepository, createPasswordEncoder(), null, null)
+        assertTrue(new UserService(userRepository, createPasswordEncoder(), null, null, null)
                 .createUser(USER_DTO));
     }
 
@@ -53,13 +55,14 @@ public class UserServiceTest {
                 userRepository.save(EasyMock.anyObject())).andThrow(new DataIntegrityViolationException("Test exception"));
         EasyMock.replay(userRepository);
 
-        assertFalse(new UserService(userRepository, createPasswordEncoder(), null, null)
+        assertFalse(new UserService(userRepository, createPasswordEncoder(), null, null, null)
                 .createUser(USER_DTO));
     }
 
     private static PasswordEncoder createPasswordEncoder() {
         PasswordEncoder passwordEncoder = EasyMock.mock(PasswordEncoder.class);
         EasyMock.expect(passwordEncoder.encode(EasyMock.anyString())).andReturn(USER_DTO.getPassword());
+        EasyMock.expect(passwordEncoder.matches(EasyMock.anyString(), EasyMock.anyString())).andReturn(false).anyTimes();
         EasyMock.replay(passwordEncoder);
         return passwordEncoder;
     }
@@ -67,7 +70,7 @@ public class UserServiceTest {
     @Test
     public void getExistingUser() {
         Optional<UserDto> actualUser = new UserService(
-                createSearchableRepository(Optional.of(USER)), null, null, null)
+                createSearchableRepository(Optional.of(USER)), null, null, null, null)
                 .getUser(USER_DTO.getName());
 
         assertTrue("User wasn't found", actualUser.isPresent());
@@ -79,7 +82,7 @@ public class UserServiceTest {
     @Test
     public void getNonExistingUser() {
         Optional<UserDto> actualUser = new UserService(
-                createSearchableRepository(Optional.empty()), null, null, null)
+                createSearchableRepository(Optional.empty()), null, null, null, null)
                 .getUser(USER_DTO.getName());
         assertFalse(actualUser.isPresent());
     }
@@ -87,7 +90,7 @@ public class UserServiceTest {
     private static UserRepository createSearchableRepository(Optional<User> foundUser) {
         UserRepository userRepository = EasyMock.mock(UserRepository.class);
         EasyMock.expect(
-                userRepository.findByNameIgnoreCase(EasyMock.anyString())).andReturn(foundUser);
+                userRepository.findByCanonicalName(EasyMock.anyString())).andReturn(foundUser);
         EasyMock.expect(userRepository.save(EasyMock.anyObject())).andReturn(USER);
         EasyMock.replay(userRepository);
         return userRepository;
@@ -96,21 +99,41 @@ public class UserServiceTest {
     @Test
     public void deleteExistingUser() {
         assertTrue(new UserService(
-                createDeletableRepository(1), null, null, null)
+                createDeletableRepository(1), null, null, null, createUserResolver())
                 .deleteUser(USER_DTO.getName()));
     }
 
     @Test
     public void deleteNonExistingUser() {
         assertFalse(new UserService(
-                createDeletableRepository(0), null, null, null)
+                createDeletableRepository(0), null, null, null, createUserResolver())
                 .deleteUser(USER_DTO.getName()));
     }
 
+    @Test
+    public void deleteUserInvalidatesResolvedUser() {
+        IMocksControl control = EasyMock.createStrictControl();
+        UserRepository userRepository = control.createMock(UserRepository.class);
+        UserResolver userResolver = control.createMock(UserResolver.class);
+        EasyMock.expect(userRepository.deleteByCanonicalName(EasyMock.anyString())).andReturn(1);
+        userResolver.invalidate(USER_DTO.getName());
+        control.replay();
+
+        new UserService(userRepository, null, null, null, userResolver)
+                .deleteUser(USER_DTO.getName());
+        control.verify();
+    }
+
+    private static UserResolver createUserResolver() {
+        UserResolver userResolver = EasyMock.niceMock(UserResolver.class);
+        EasyMock.replay(userResolver);
+        return userResolver;
+    }
+
     private static UserRepository createDeletableRepository(int deletedEntriesCount) {
         UserRepository userRepository = EasyMock.mock(UserRepository.class);
         EasyMock.expect(
-                userRepository.deleteByNameIgnoreCase(USER_DTO.getName())).andReturn(deletedEntriesCount);
+                userRepository.deleteByCanonicalName(User.canonicalize(USER_DTO.getName()))).andReturn(deletedEntriesCount);
         EasyMock.replay(userRepository);
         return userRepository;
     }
@@ -118,7 +141,7 @@ public class UserServiceTest {
     @Test
     public void updateExistingUser() {
         Optional<String> name = new UserService(
-                createSearchableRepository(Optional.of(USER)), createPasswordEncoder(), null, null)
+                createSearchableRepository(Optional.of(USER)), createPasswordEncoder(), null, null, createUserResolver())
                 .updateUser(USER_DTO, USER_DTO.getName());
 
         assertFalse(name.isPresent());
@@ -132,23 +155,79 @@ public class UserServiceTest {
                 .setRole(USER_DTO.getRole());
 
         Optional<String> name = new UserService(
-                createSearchableRepository(Optional.empty()), createPasswordEncoder(), null, null)
+                createSearchableRepository(Optional.empty()), createPasswordEncoder(), null, null, createUserResolver())
                 .updateUser(updatedEntry, USER_DTO.getName() + 1);
 
         assertTrue(name.isPresent());
     }
 
+    @Test
+    public void updateUserInvalidatesResolvedUsers() {
+        UserDto renamedEntry = new UserDto()
+                .setName(USER_DTO.getName() + 1)
+                .setPassword(USER_DTO.getPassword())
+                .setRole(Role.ADMIN);
+
+        UserResolver userResolver = EasyMock.mock(UserResolver.class);
+        userResolver.invalidate(USER_DTO.getName());
+        userResolver.invalidate(renamedEntry.getName());
+        EasyMock.replay(userResolver);
+
+        User user = new User().setName(USER_DTO.getName());
+        new UserService(
+                createSearchableRepository(Optional.of(user)), createPasswordEncoder(), null, null, userResolver)
+                .updateUser(renamedEntry, USER_DTO.getName());
+        EasyMock.verify(userResolver);
+    }
+
+    @Test
+    public void updateUserWithSamePasswordSkipsHashing() {
+        User user = new User()
+                .setName(USER_DTO.getName())
+                .setPassword("hash")
+                .setRole(USER_DTO.getRole());
+
+        PasswordEncoder passwordEncoder = EasyMock.mock(PasswordEncoder.class);
+        EasyMock.expect(passwordEncoder.matches(USER_DTO.getPassword(), "hash")).andReturn(true);
+        EasyMock.expect(passwordEncoder.upgradeEncoding("hash")).andReturn(false);
+        EasyMock.replay(passwordEncoder);
+
+        new UserService(createSearchableRepository(Optional.of(user)), passwordEncoder, null, null, createUserResolver())
+                .updateUser(USER_DTO, USER_DTO.getName());
+        EasyMock.verify(passwordEncoder);
+        assertEquals("Password hash was changed", "hash", user.getPassword());
+    }
+
+    @Test
+    public void updateUserWithOutdatedHashRehashes() {
+        User user = new User()
+                .setName(USER_DTO.getName())
+                .setPassword("hash")
+                .setRole(USER_DTO.getRole());
+
+        PasswordEncoder passwordEncoder = EasyMock.mock(PasswordEncoder.class);
+        EasyMock.expect(passwordEncoder.matches(USER_DTO.getPassword(), "hash")).andReturn(true);
+        EasyMock.expect(passwordEncoder.upgradeEncoding("hash")).andReturn(true);
+        EasyMock.expect(passwordEncoder.encode(USER_DTO.getPassword())).andReturn("newHash");
+        EasyMock.replay(passwordEncoder);
+
+        new UserService(createSearchableRepository(Optional.of(user)), passwordEncoder, null, null, createUserResolver())
+                .updateUser(USER_DTO, USER_DTO.getName());
+        EasyMock.verify(passwordEncoder);
+        assertEquals("Password hash wasn't upgraded", "newHash", user.getPassword());
+    }
+
     @Test(expected = IntegrityException.class)
     public void updateNonExistingUserAmbiguousName() {
         new UserService(
-                createSearchableRepository(Optional.empty()), createPasswordEncoder(), null, null)
+                createSearchableRepository(Optional.empty()), createPasswordEncoder(), null, null, createUserResolver())
                 .updateUser(USER_DTO, USER_DTO.getName() + 1);
     }
 
     @Test
     public void getAllUsersEmptyRepository() {
         Collection<UserDto> foundUsers = new UserService(
-                createSearchableGroupRepository(new ArrayList<>(), false), null, null, new PaginationFactory())
+                createSearchableGroupRepository(new ArrayList<>(), false), null, null, new PaginationFactory(), null)
                 .getAllUsers(null, null, null);
         assertTrue(foundUsers.isEmpty());
     }
@@ -162,7 +241,7 @@ public class UserServiceTest {
                         .setPassword(USER.getPassword() + 1)
                         .setRole(USER.getRole()));
         List<UserDto> foundUsers = (List<UserDto>) new UserService(
-                createSearchableGroupRepository(users, true), null, null, new PaginationFactory())
+                createSearchableGroupRepository(users, true), null, null, new PaginationFactory(), null)
                 .getAllUsers(1, 1, null);
         assertEquals("Not all users were found", 2, foundUsers.size());
         assertEquals("Invalid first user", USER.getName(), foundUsers.get(0).getName());
@@ -180,7 +259,7 @@ public class UserServiceTest {
                         .setPassword(USER.getPassword() + 1)
                         .setRole(USER.getRole()));
         List<UserDto> foundUsers = (List<UserDto>) new UserService(
-                createSearchableGroupRepository(users, false), null, null, new PaginationFactory())
+                createSearchableGroupRepository(users, false), null, null, new PaginationFactory(), null)
                 .getAllUsers(null, null, null);
         assertEquals("Not all users were found", 2, foundUsers.size());
         assertEquals("Invalid first user", USER.getName(), foundUsers.get(0).getName());
@@ -203,7 +282,7 @@ public class UserServiceTest {
     @Test
     public void loadExistingUser() {
         UserDetails userDetails = new UserService(
-                createSearchableRepository(Optional.of(USER)), null, new RoleSpringConverter(), null)
+                createSearchableRepository(Optional.of(USER)), null, new RoleSpringConverter(), null, null)
                 .loadUserByUsername(USER.getName());
         assertEquals("Invalid user name", USER.getName(), userDetails.getUsername());
         assertEquals("Invalid password", USER.getPassword(), userDetails.getPassword());
@@ -213,9 +292,26 @@ public class UserServiceTest {
                 userDetails.getAuthorities().iterator().next().getAuthority());
     }
 
+    @Test
+    public void updatePassword() {
+        User user = new User()
+                .setName(USER_DTO.getName())
+                .setPassword("hash")
+                .setRole(USER_DTO.getRole());
+
+        UserDetails userDetails = new UserService(
+                createSearchableRepository(Optional.of(user)), null, new RoleSpringConverter(), null, null)
+                .updatePassword(
+                        new org.springframework.security.core.userdetails.User(
+                                user.getName(), user.getPassword(), AuthorityUtils.createAuthorityList("ROLE_USER")),
+                        "newHash");
+        assertEquals("Password hash wasn't stored", "newHash", user.getPassword());
+        assertEquals("Invalid password", "newHash", userDetails.getPassword());
+    }
+
     @Test(expected = UsernameNotFoundException.class)
     public void loadNonExistingUser() {
-        new UserService(createSearchableRepository(Optional.empty()), null, new RoleSpringConverter(), null)
+        new UserService(createSearchableRepository(Optional.empty()), null, new RoleSpringConverter(), null, null)
                 .loadUserByUsername(USER.getName());
     }
 }
\ No newline at end of file
@@ -0,0 +1,100 @@
+package com.laptevn.cache;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class BoundedCacheTest {
+    @Test
+    public void loadOnce() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10);
+        assertEquals("Invalid loaded value", "a1", cache.get("a", key -> key + 1));
+        assertEquals("Value was loaded twice", "a1", cache.get("a", key -> key + 2));
+        assertEquals("Invalid hit count", 1, cache.getHitCount());
+        assertEquals("Invalid miss count", 1, cache.getMissCount());
+        assertEquals("Invalid size", 1, cache.size());
+    }
+
+    @Test
+    public void evictLeastRecentlyUsed() {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(2, 1);
+        cache.get(1, key -> key);
+        cache.get(2, key -> key);
+        cache.get(1, key -> key);
+        cache.get(3, key -> key);
+
+        assertEquals("Invalid size", 2, cache.size());
+        assertEquals("Invalid eviction count", 1, cache.getEvictionCount());
+        assertEquals("Recently used entry was evicted", 1, (int) cache.get(1, key -> -1));
+        assertEquals("Least recently used entry wasn't evicted", -1, (int) cache.get(2, key -> -1));
+    }
+
+    @Test
+    public void sizeLimit() {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(100);
+        for (int i = 0; i < 10_000; i++) {
+            cache.get(i, key -> key);
+        }
+
+        assertEquals("Invalid miss count", 10_000, cache.getMissCount());
+        assertEquals("Size limit is exceeded", 100, cache.size());
+        assertEquals("Invalid eviction count", 10_000 - 100, cache.getEvictionCount());
+    }
+
+    @Test
+    public void expireAfterTimeToLive() {
+        AtomicLong time = new AtomicLong(Long.MAX_VALUE - 5);
+        BoundedCache<String, Long> cache = new BoundedCache<>(10, 1, 10, time::get);
+        assertEquals(Long.MAX_VALUE - 5, (long) cache.get("a", key -> time.get()));
+
+        time.addAndGet(9);
+        assertEquals("Entry expired too early", Long.MAX_VALUE - 5, (long) cache.get("a", key -> time.get()));
+
+        time.incrementAndGet();
+        assertEquals("Entry didn't expire", time.get(), (long) cache.get("a", key -> time.get()));
+        assertEquals("Invalid hit rate", 1.0 / 3, cache.getHitRate(), 0.001);
+    }
+
+    @Test
+    public void invalidate() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10);
+        cache.get("a", key -> key + 1);
+        cache.get("b", key -> key + 1);
+
+        cache.invalidate("a");
+        assertEquals("Entry wasn't invalidated", "a2", cache.get("a", key -> key + 2));
+        assertEquals("Other entry was invalidated", "b1", cache.get("b", key -> key + 2));
+
+        cache.invalidateAll();
+        assertEquals("Cache wasn't cleared", 0, cache.size());
+    }
+
+    @Test
+    public void notCacheMissingValues() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10);
+        assertNull(cache.get("a", key -> null));
+        assertEquals("Missing value was cached", "a1", cache.get("a", key -> key + 1));
+        assertEquals("Invalid size", 1, cache.size());
+    }
+
+    @Test
+    public void putAndGetIfPresent() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10);
+        assertNull(cache.getIfPresent("a"));
+
+        cache.put("a", "a1");
+        cache.put("a", "a2");
+        assertEquals("Value wasn't replaced", "a2", cache.getIfPresent("a"));
+        assertEquals("Put value wasn't used by loading get", "a2", cache.get("a", key -> key + 3));
+        assertEquals("Invalid hit count", 2, cache.getHitCount());
+        assertEquals("Invalid miss count", 1, cache.getMissCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidSize() {
+        new BoundedCache<>(0);
+    }
+}
@@ -0,0 +1,52 @@
+package com.laptevn.jogging.controller;
+
+import com.laptevn.ErrorMessages;
+import com.laptevn.exception.IntegrityException;
+import com.laptevn.jogging.entity.JoggingDto;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class CsvJoggingParserTest {
+    @Test
+    public void parseLine() {
+        JoggingDto joggingDto = CsvJoggingParser.create("Time, location,DATE,distance,comment")
+                .parse("00:30:00,\"Paris, \"\"Left bank\"\"\",2019-04-01,5000,ignored");
+        assertEquals(LocalTime.parse("00:30:00"), joggingDto.getTime());
+        assertEquals("Paris, \"Left bank\"", joggingDto.getLocation());
+        assertEquals(LocalDate.parse("2019-04-01"), joggingDto.getDate());
+        assertEquals(Integer.valueOf(5000), joggingDto.getDistance());
+    }
+
+    @Test
+    public void parseMissingValues() {
+        JoggingDto joggingDto = CsvJoggingParser.create("date,distance,time,location").parse("2019-04-01,,00:30:00");
+        assertNull(joggingDto.getDistance());
+        assertNull(joggingDto.getLocation());
+    }
+
+    @Test(expected = IntegrityException.class)
+    public void parseInvalidValue() {
+        CsvJoggingParser.create("date,distance,time,location").parse("2019-04-01,far,00:30:00,Paris");
+    }
+
+    @Test(expected = IntegrityException.class)
+    public void parseUnterminatedQuote() {
+        CsvJoggingParser.create("date,distance,time,location").parse("2019-04-01,10,00:30:00,\"Paris");
+    }
+
+    @Test
+    public void createWithInvalidHeader() {
+        try {
+            CsvJoggingParser.create("date,distance,location");
+        } catch (IntegrityException e) {
+            assertEquals(ErrorMessages.INVALID_CSV_HEADER, e.getMessage());
+            return;
+        }
+        throw new AssertionError("Invalid header was accepted");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,172 @@
+package com.laptevn.jogging.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.laptevn.SqlStatementRecorder;
+import com.laptevn.jogging.entity.JoggingDto;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@AutoConfigureMockMvc
+@SpringBootTest
+public class JoggingBatchControllerIT {
+    private final static Logger logger = LoggerFactory.getLogger(JoggingBatchControllerIT.class);
+    private final static int JDBC_BATCH_SIZE = 50;
+
+    private MockMvc client;
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    public void setClient(MockMvc client) {
+        this.client = client;
+    }
+
+    @Autowired
+    public void setObjectMapper(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Test
+    @WithMockUser(username = "user1")
+    public void createJoggings() throws Exception {
+        List<JoggingDto> joggings = Arrays.asList(
+                createJoggingDto("Lisbon", 1000),
+                createJoggingDto("Porto", 0),
+                null,
+                createJoggingDto("Faro", 3000));
+
+        List<Integer> ids = new ArrayList<>();
+        try {
+            MvcResult result = client.perform(createBatchRequest(joggings))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(joggings.size()))
+                    .andExpect(jsonPath("$[0].id").value(notNullValue()))
+                    .andExpect(jsonPath("$[0].error").value(nullValue()))
+                    .andExpect(jsonPath("$[1].id").value(nullValue()))
+                    .andExpect(jsonPath("$[1].error").value(containsString("distance")))
+                    .andExpect(jsonPath("$[2].error").value("Jogging cannot be empty"))
+                    .andExpect(jsonPath("$[3].id").value(notNullValue()))
+                    .andReturn();
+            JsonNode results = objectMapper.readTree(result.getResponse().getContentAsString());
+            ids.add(results.get(0).get("id").asInt());
+            ids.add(results.get(3).get("id").asInt());
+
+            client.perform(get("/joggings/" + ids.get(0)).contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.location").value("Lisbon"));
+            client.perform(get("/joggings/" + ids.get(1)).contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.location").value("Faro"));
+        } finally {
+            deleteJoggings(ids);
+        }
+    }
+
+    @Test
+    @WithMockUser(username = "user1")
+    public void createJoggingsWithJdbcBatching() throws Exception {
+        int count = JDBC_BATCH_SIZE + 10;
+        List<JoggingDto> joggings = Collections.nCopies(count, createJoggingDto("Madrid", 5000));
+        List<Integer> ids = new ArrayList<>();
+        try {
+            SqlStatementRecorder.clear();
+            long batchStartTime = System.nanoTime();
+            ids.addAll(createJoggings(joggings));
+            long batchElapsedNanos = System.nanoTime() - batchStartTime;
+
+            long insertCount = SqlStatementRecorder.getStatements()
+                    .stream()
+                    .filter(statement -> statement.startsWith("insert into jogging"))
+                    .count();
+            assertEquals("Inserts weren't batched", 2, insertCount);
+
+            long singleStartTime = System.nanoTime();
+            for (JoggingDto jogging : joggings) {
+                String location = JoggingControllerIT.createJogging(jogging, client, objectMapper);
+                ids.add(Integer.parseInt(location.substring(location.lastIndexOf('/') + 1)));
+            }
+            long singleElapsedNanos = System.nanoTime() - singleStartTime;
+
+            logger.info(
+                    "Created {} joggings: batch endpoint {} rows/s, single-item endpoint {} rows/s",
+                    count,
+                    count * 1_000_000_000L / batchElapsedNanos,
+                    count * 1_000_000_000L / singleElapsedNanos);
+        } finally {
+            deleteJoggings(ids);
+        }
+    }
+
+    @Test
+    @WithMockUser(username = "user1")
+    public void createTooLargeBatch() throws Exception {
+        client.perform(createBatchRequest(Collections.nCopies(1001, createJoggingDto("Madrid", 5000))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "unknown_user")
+    public void createJoggingsWithUnknownUser() throws Exception {
+        client.perform(createBatchRequest(Collections.singletonList(createJoggingDto("Madrid", 5000))))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    private List<Integer> createJoggings(List<JoggingDto> joggings) throws Exception {
+        MvcResult result = client.perform(createBatchRequest(joggings))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        List<Integer> ids = new ArrayList<>();
+        objectMapper.readTree(result.getResponse().getContentAsString())
+                .forEach(item -> ids.add(item.get("id").asInt()));
+        return ids;
+    }
+
+    private RequestBuilder createBatchRequest(List<JoggingDto> joggings) throws Exception {
+        return post("/joggings/batch")
+                .content(objectMapper.writeValueAsString(joggings))
+                .contentType(MediaType.APPLICATION_JSON);
+    }
+
+    private void deleteJoggings(List<Integer> ids) throws Exception {
+        for (int id : ids) {
+            JoggingControllerIT.deleteJogging("/joggings/" + id, client);
+        }
+    }
+
+    private static JoggingDto createJoggingDto(String location, int distance) {
+        return new JoggingDto()
+                .setTime(LocalTime.parse("00:30:00"))
+                .setLocation(location)
+                .setDistance(distance)
+                .setDate(LocalDate.parse("2019-04-01"));
+    }
+}
\ No newline at end of file
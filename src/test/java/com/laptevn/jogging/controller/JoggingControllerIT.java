@@ -2,34 +2,44 @@ package com.laptevn.jogging.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.laptevn.ErrorDto;
+import com.laptevn.ErrorMessages;
+import com.laptevn.SqlStatementRecorder;
 import com.laptevn.jogging.entity.JoggingDto;
+import com.laptevn.jogging.entity.JoggingPatchDto;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -316,6 +326,351 @@ public class JoggingControllerIT {
                 .andExpect(jsonPath("$[*]['location']").value(PREDEFINED_JOGGING.getLocation()));
     }
 
+    @Test
+    @WithMockUser(username = "user1")
+    public void getJoggingsWithFilteringReusesStatement() throws Exception {
+        List<String> statements = getFilteringStatements("(distance gt 10) AND (date eq '2019-03-28')");
+        assertFalse("No statements were executed", statements.isEmpty());
+        assertEquals(
+                "Filter values are not bound as parameters",
+                statements,
+                getFilteringStatements("(distance gt 9999) AND (date eq '2018-01-01')"));
+    }
+
+    @Test
+    @WithMockUser(username = "user1")
+    public void getJoggingsWithContinuationToken() throws Exception {
+        List<String> joggingLocations = createJoggings("Lisbon", "Porto", "Faro");
+
+        try {
+            assertEquals(Arrays.asList("Lisbon", "Porto", "Faro"), getLocationsByContinuation(null));
+            assertEquals(
+                    Arrays.asList("Lisbon", "Faro"),
+                    getLocationsByContinuation("(location eq 'Lisbon') OR (location eq 'Faro')"));
+        } finally {
+            for (String joggingLocation : joggingLocations) {
+                deleteJogging(joggingLocation);
+            }
+        }
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    public void getJoggingsByAdminWithContinuationToken() throws Exception {
+        List<String> joggingLocations = createJoggings("Lisbon", "Porto");
+
+        try {
+            MvcResult result = client.perform(get("/joggings/").contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            List<String> allLocations = Arrays
+                    .stream(objectMapper.readValue(result.getResponse().getContentAsString(), JoggingDto[].class))
+                    .map(JoggingDto::getLocation)
+                    .collect(Collectors.toList());
+
+            List<String> locations = getLocationsByContinuation(null);
+            assertEquals(allLocations.size(), locations.size());
+            assertTrue(locations.containsAll(allLocations));
+            assertEquals(
+                    Arrays.asList("Lisbon", "Porto"),
+                    getLocationsByContinuation("(location eq 'Lisbon') OR (location eq 'Porto')"));
+        } finally {
+            for (String joggingLocation : joggingLocations) {
+                deleteJogging(joggingLocation);
+            }
+        }
+    }
+
+    private List<String> createJoggings(String... locations) throws Exception {
+        List<String> joggingLocations = new ArrayList<>();
+        for (String location : locations) {
+            joggingLocations.add(createJogging(new JoggingDto()
+                    .setTime(LocalTime.parse("00:30:00"))
+                    .setLocation(location)
+                    .setDistance(3000)
+                    .setDate(LocalDate.parse("2019-04-01"))));
+        }
+        return joggingLocations;
+    }
+
+    private List<String> getLocationsByContinuation(String filter) throws Exception {
+        List<String> locations = new ArrayList<>();
+        String uri = "/joggings/?after=&per_page=1";
+        while (uri != null) {
+            MockHttpServletRequestBuilder request = get(uri).contentType(MediaType.APPLICATION_JSON);
+            if (filter != null) {
+                request.content(filter);
+            }
+
+            MvcResult result = client.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn();
+            Arrays.stream(objectMapper.readValue(result.getResponse().getContentAsString(), JoggingDto[].class))
+                    .map(JoggingDto::getLocation)
+                    .forEach(locations::add);
+
+            String link = result.getResponse().getHeader(HttpHeaders.LINK);
+            uri = link == null ? null : link.substring(link.indexOf('<') + 1, link.indexOf('>'));
+        }
+        return locations;
+    }
+
+    @Test
+    @WithMockUser(username = "user2")
+    public void getJoggingsWithInvalidContinuationToken() throws Exception {
+        client.perform(get("/joggings/?after=&page=1").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        client.perform(get("/joggings/?after=abc").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    public void getJoggingsWithEqualityAlternatives() throws Exception {
+        client.perform(
+                get("/joggings/")
+                        .content("(location eq 'Paris') OR (location eq 'Atlantis') OR (location eq 'Paris')")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[*]['location']").value(PREDEFINED_JOGGING.getLocation()));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    public void getJoggingsWithContradictoryFilterSkipsQuery() throws Exception {
+        SqlStatementRecorder.clear();
+        client.perform(get("/joggings/")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("(location eq 'Paris') AND ((distance gt 20) AND (distance lt 5))"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+
+        assertTrue(
+                "Query was executed for a contradictory filter",
+                SqlStatementRecorder.getStatements().stream().noneMatch(statement -> statement.contains("jogging")));
+
+        client.perform(get("/joggings/")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("(distance gt 20) AND (distance lt 5) AND (date eq 5)"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    public void getJoggingsLoadsOnlyJoggings() throws Exception {
+        for (String uri : Arrays.asList("/joggings/", "/joggings/?per_page=10", "/joggings/?after=")) {
+            SqlStatementRecorder.clear();
+            client.perform(get(uri).contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk());
+
+            List<String> statements = SqlStatementRecorder.getStatements();
+            assertEquals(
+                    "Unexpected statements for " + uri + ": " + statements,
+                    1,
+                    statements.stream().filter(statement -> !statement.contains(" from user ")).count());
+            assertTrue(
+                    "User is loaded with joggings for " + uri + ": " + statements,
+                    statements.stream().noneMatch(statement -> statement.contains(" join ")));
+        }
+    }
+
+    @Test
+    @WithMockUser(username = "user1")
+    public void getJoggingsResolvesUserOnce() throws Exception {
+        client.perform(get("/joggings/").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        SqlStatementRecorder.clear();
+        client.perform(get("/reports/").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        client.perform(get("/joggings/").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        List<String> statements = SqlStatementRecorder.getStatements();
+        assertTrue(
+                "User is looked up again: " + statements,
+                statements.stream().noneMatch(statement -> statement.contains(" from user ")));
+    }
+
+    @Test
+    @WithMockUser(username = "user1")
+    public void updateAndDeleteJoggingsByFilter() throws Exception {
+        JoggingDto joggingDto = new JoggingDto()
+                .setTime(LocalTime.now())
+                .setLocation("Atlantis")
+                .setDistance(1000)
+                .setDate(LocalDate.now());
+        List<String> joggingLocations = Arrays.asList(createJogging(joggingDto), createJogging(joggingDto));
+
+        try {
+            client.perform(patch("/joggings/")
+                    .content(objectMapper.writeValueAsString(
+                            new JoggingPatchDto().setFilter("location eq 'Atlantis'").setDistance(7)))
+                    .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.affectedCount").value(joggingLocations.size()));
+
+            client.perform(get(joggingLocations.get(0)).contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.distance").value(7));
+
+            client.perform(delete("/joggings/").content("location eq 'Atlantis'"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.affectedCount").value(joggingLocations.size()));
+        } catch (Throwable e) {
+            for (String joggingLocation : joggingLocations) {
+                client.perform(delete(joggingLocation));
+            }
+            throw e;
+        }
+
+        for (String joggingLocation : joggingLocations) {
+            client.perform(get(joggingLocation).contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isNotFound());
+        }
+    }
+
+    @Test
+    @WithMockUser(username = "user1")
+    public void deleteJoggingsOfAnotherUserByFilter() throws Exception {
+        client.perform(delete("/joggings/").content("location eq 'Paris'"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affectedCount").value(0));
+
+        client.perform(patch("/joggings/")
+                .content(objectMapper.writeValueAsString(
+                        new JoggingPatchDto().setFilter("location eq 'Paris'").setDistance(7)))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affectedCount").value(0));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    public void updateJoggingsWithInvalidRequest() throws Exception {
+        client.perform(patch("/joggings/")
+                .content(objectMapper.writeValueAsString(new JoggingPatchDto().setFilter("location eq 'Paris'")))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(ErrorMessages.EMPTY_PATCH));
+
+        client.perform(patch("/joggings/")
+                .content(objectMapper.writeValueAsString(new JoggingPatchDto().setDistance(7)))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        client.perform(delete("/joggings/").content("location eq"))
+                .andExpect(status().isBadRequest());
+
+        client.perform(delete("/joggings/"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "user1")
+    public void conditionalRequests() throws Exception {
+        JoggingDto joggingDto = new JoggingDto()
+                .setTime(LocalTime.now())
+                .setLocation("Reykjavik")
+                .setDistance(1000)
+                .setDate(LocalDate.now());
+        String joggingLocation = createJogging(joggingDto);
+
+        try {
+            String entityTag = client.perform(get(joggingLocation).contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+            assertNotNull("No entity tag", entityTag);
+
+            SqlStatementRecorder.clear();
+            client.perform(get(joggingLocation).header(HttpHeaders.IF_NONE_MATCH, entityTag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(content().string(""));
+            assertTrue(
+                    "Jogging was loaded for a conditional request",
+                    SqlStatementRecorder.getStatements().stream().noneMatch(statement -> statement.contains("location")));
+
+            String pageEntityTag = client.perform(get("/joggings/?per_page=100"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+            client.perform(get("/joggings/?per_page=100").header(HttpHeaders.IF_NONE_MATCH, pageEntityTag))
+                    .andExpect(status().isNotModified());
+
+            joggingDto.setDistance(2000);
+            String newEntityTag = client.perform(put(joggingLocation)
+                    .header(HttpHeaders.IF_MATCH, entityTag)
+                    .content(objectMapper.writeValueAsString(joggingDto))
+                    .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+            client.perform(put(joggingLocation)
+                    .header(HttpHeaders.IF_MATCH, entityTag)
+                    .content(objectMapper.writeValueAsString(joggingDto))
+                    .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isPreconditionFailed());
+
+            client.perform(get(joggingLocation).header(HttpHeaders.IF_NONE_MATCH, entityTag))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.distance").value(2000))
+                    .andExpect(jsonPath("$.version").doesNotExist())
+                    .andExpect(header().string(HttpHeaders.ETAG, newEntityTag));
+
+            client.perform(get("/joggings/?per_page=100").header(HttpHeaders.IF_NONE_MATCH, pageEntityTag))
+                    .andExpect(status().isOk());
+        } finally {
+            deleteJogging(joggingLocation);
+        }
+
+        client.perform(put("/joggings/666")
+                .header(HttpHeaders.IF_MATCH, "*")
+                .content(objectMapper.writeValueAsString(joggingDto))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    @WithMockUser(username = "user1")
+    public void chainUnchangedUpdates() throws Exception {
+        JoggingDto joggingDto = new JoggingDto()
+                .setTime(LocalTime.now())
+                .setLocation("Tromso")
+                .setDistance(1000)
+                .setDate(LocalDate.now());
+        String joggingLocation = createJogging(joggingDto);
+
+        try {
+            String entityTag = client.perform(get(joggingLocation))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+            for (int i = 0; i < 2; i++) {
+                entityTag = client.perform(put(joggingLocation)
+                        .header(HttpHeaders.IF_MATCH, entityTag)
+                        .content(objectMapper.writeValueAsString(joggingDto))
+                        .contentType(MediaType.APPLICATION_JSON))
+                        .andExpect(status().isOk())
+                        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+            }
+
+            client.perform(get(joggingLocation))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, entityTag));
+        } finally {
+            deleteJogging(joggingLocation);
+        }
+    }
+
+    private List<String> getFilteringStatements(String filter) throws Exception {
+        SqlStatementRecorder.clear();
+        client.perform(get("/joggings/")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(filter))
+                .andExpect(status().isOk());
+        return SqlStatementRecorder.getStatements();
+    }
+
     @Test
     @WithMockUser(username = "user1")
     public void getAllJoggings() throws Exception {
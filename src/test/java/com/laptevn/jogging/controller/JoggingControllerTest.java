@@ -1,5 +1,7 @@
 package com.laptevn.jogging.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.laptevn.TaggedContent;
 import com.laptevn.exception.IntegrityException;
 import com.laptevn.jogging.service.JoggingService;
 import com.laptevn.jogging.entity.JoggingDto;
@@ -7,6 +9,7 @@ import org.easymock.EasyMock;
 import org.junit.Test;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
 
 import javax.management.remote.JMXPrincipal;
 import java.security.Principal;
@@ -15,46 +18,90 @@ import java.time.LocalTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 
 public class JoggingControllerTest {
     private final static Principal USER = new JMXPrincipal("test");
+    private final static ObjectMapper OBJECT_MAPPER = new ObjectMapper().findAndRegisterModules();
 
     @Test
     public void createJoggingFailed() {
         JoggingService service = EasyMock.mock(JoggingService.class);
+        EasyMock.expect(service.isIngestionQueued()).andReturn(false);
         EasyMock.expect(service.createJogging(EasyMock.anyObject(), EasyMock.anyString()))
                 .andThrow(new IntegrityException("test exception"));
         EasyMock.replay(service);
 
-        ResponseEntity response = new JoggingController(service).createJogging(null, USER);
+        ResponseEntity response = new JoggingController(service, OBJECT_MAPPER).createJogging(null, USER);
         assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, response.getStatusCode());
     }
 
     @Test
     public void createJogging() {
         JoggingService service = EasyMock.mock(JoggingService.class);
+        EasyMock.expect(service.isIngestionQueued()).andReturn(false);
         EasyMock.expect(service.createJogging(EasyMock.anyObject(), EasyMock.anyString())).andReturn(1);
         EasyMock.replay(service);
 
-        ResponseEntity response = new JoggingController(service).createJogging(null, USER);
+        ResponseEntity response = new JoggingController(service, OBJECT_MAPPER).createJogging(null, USER);
         assertEquals("Invalid status", HttpStatus.CREATED, response.getStatusCode());
         assertEquals("Invalid location header", "/joggings/1", response.getHeaders().getFirst("Location"));
     }
 
+    @Test
+    public void createQueuedJogging() {
+        JoggingService service = EasyMock.mock(JoggingService.class);
+        EasyMock.expect(service.isIngestionQueued()).andReturn(true);
+        EasyMock.expect(service.enqueueJogging(EasyMock.anyObject(), EasyMock.anyString())).andReturn(2);
+        EasyMock.replay(service);
+
+        ResponseEntity response = new JoggingController(service, OBJECT_MAPPER).createJogging(null, USER);
+        assertEquals("Invalid status", HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals("Invalid location header", "/joggings/2", response.getHeaders().getFirst("Location"));
+    }
+
     @Test
     public void getExistingJogging() {
-        JoggingDto jogging = new JoggingDto();
+        JoggingDto jogging = new JoggingDto().setVersion(3);
         JoggingService service = EasyMock.mock(JoggingService.class);
         EasyMock.expect(service.getJogging(EasyMock.anyInt(), EasyMock.anyString()))
                 .andReturn(Optional.of(jogging));
         EasyMock.replay(service);
 
-        ResponseEntity response = new JoggingController(service).getJogging(0, USER);
+        ResponseEntity response = new JoggingController(service, OBJECT_MAPPER).getJogging(0, null, USER);
         assertEquals("Invalid status", HttpStatus.OK, response.getStatusCode());
         assertSame("Invalid jogging was found", jogging, response.getBody());
+        assertEquals("Invalid entity tag", "\"0-3\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    public void getNotModifiedJogging() {
+        JoggingService service = EasyMock.mock(JoggingService.class);
+        EasyMock.expect(service.getJoggingVersion(EasyMock.anyInt(), EasyMock.anyString())).andReturn(Optional.of(3));
+        EasyMock.replay(service);
+
+        ResponseEntity response = new JoggingController(service, OBJECT_MAPPER).getJogging(0, "\"0-3\"", USER);
+        assertEquals("Invalid status", HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull("Body isn't empty", response.getBody());
+        EasyMock.verify(service);
+    }
+
+    @Test
+    public void getModifiedJogging() {
+        JoggingDto jogging = new JoggingDto().setVersion(4);
+        JoggingService service = EasyMock.mock(JoggingService.class);
+        EasyMock.expect(service.getJoggingVersion(EasyMock.anyInt(), EasyMock.anyString())).andReturn(Optional.of(4));
+        EasyMock.expect(service.getJogging(EasyMock.anyInt(), EasyMock.anyString())).andReturn(Optional.of(jogging));
+        EasyMock.replay(service);
+
+        ResponseEntity response = new JoggingController(service, OBJECT_MAPPER).getJogging(0, "\"0-3\"", USER);
+        assertEquals("Invalid status", HttpStatus.OK, response.getStatusCode());
+        assertEquals("Invalid entity tag", "\"0-4\"", response.getHeaders().getETag());
     }
 
     @Test
@@ -64,7 +111,7 @@ public class JoggingControllerTest {
                 .andReturn(Optional.empty());
         EasyMock.replay(service);
 
-        ResponseEntity response = new JoggingController(service).getJogging(0, USER);
+        ResponseEntity response = new JoggingController(service, OBJECT_MAPPER).getJogging(0, null, USER);
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
 
@@ -75,7 +122,7 @@ public class JoggingControllerTest {
                 .andReturn(true);
         EasyMock.replay(service);
 
-        ResponseEntity response = new JoggingController(service).deleteJogging(0, USER);
+        ResponseEntity response = new JoggingController(service, OBJECT_MAPPER).deleteJogging(0, USER);
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
     }
 
@@ -86,7 +133,7 @@ public class JoggingControllerTest {
                 .andReturn(false);
         EasyMock.replay(service);
 
-        ResponseEntity response = new JoggingController(service).deleteJogging(0, USER);
+        ResponseEntity response = new JoggingController(service, OBJECT_MAPPER).deleteJogging(0, USER);
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
 
@@ -97,7 +144,7 @@ public class JoggingControllerTest {
                 .andReturn(Optional.empty());
         EasyMock.replay(service);
 
-        ResponseEntity response = new JoggingController(service).updateJogging(0, null, USER);
+        ResponseEntity response = new JoggingController(service, OBJECT_MAPPER).updateJogging(0, null, null, USER);
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
 
@@ -108,11 +155,59 @@ public class JoggingControllerTest {
                 .andReturn(Optional.of(1));
         EasyMock.replay(service);
 
-        ResponseEntity response = new JoggingController(service).updateJogging(0, null, USER);
+        ResponseEntity response = new JoggingController(service, OBJECT_MAPPER).updateJogging(0, null, null, USER);
         assertEquals("Invalid status", HttpStatus.CREATED, response.getStatusCode());
         assertEquals("Invalid location header", "/joggings/1", response.getHeaders().getFirst("Location"));
     }
 
+    @Test
+    public void updateMatchingJogging() {
+        JoggingService service = EasyMock.mock(JoggingService.class);
+        EasyMock.expect(service.updateExistingJogging(
+                EasyMock.eq(0), EasyMock.anyObject(), EasyMock.anyString(), EasyMock.eq(Optional.of(3))))
+                .andReturn(Optional.of(4));
+        EasyMock.replay(service);
+
+        ResponseEntity response = new JoggingController(service, OBJECT_MAPPER).updateJogging(0, null, "\"0-3\"", USER);
+        assertEquals("Invalid status", HttpStatus.OK, response.getStatusCode());
+        assertEquals("Invalid entity tag", "\"0-4\"", response.getHeaders().getETag());
+        EasyMock.verify(service);
+    }
+
+    @Test
+    public void updateModifiedJogging() {
+        JoggingService service = EasyMock.mock(JoggingService.class);
+        EasyMock.expect(service.updateExistingJogging(
+                EasyMock.eq(0), EasyMock.anyObject(), EasyMock.anyString(), EasyMock.eq(Optional.of(3))))
+                .andReturn(Optional.empty());
+        EasyMock.replay(service);
+
+        ResponseEntity response = new JoggingController(service, OBJECT_MAPPER).updateJogging(0, null, "\"0-3\"", USER);
+        assertEquals(HttpStatus.PRECONDITION_FAILED, response.getStatusCode());
+    }
+
+    @Test
+    public void updateAnyExistingJogging() {
+        JoggingService service = EasyMock.mock(JoggingService.class);
+        EasyMock.expect(service.updateExistingJogging(
+                EasyMock.eq(0), EasyMock.anyObject(), EasyMock.anyString(), EasyMock.eq(Optional.empty())))
+                .andReturn(Optional.of(4));
+        EasyMock.replay(service);
+
+        ResponseEntity response = new JoggingController(service, OBJECT_MAPPER).updateJogging(0, null, "*", USER);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNull("Entity tag is unknown", response.getHeaders().getETag());
+    }
+
+    @Test
+    public void updateJoggingWithForeignEntityTag() {
+        JoggingService service = EasyMock.mock(JoggingService.class);
+        EasyMock.replay(service);
+
+        ResponseEntity response = new JoggingController(service, OBJECT_MAPPER).updateJogging(0, null, "\"1-3\"", USER);
+        assertEquals(HttpStatus.PRECONDITION_FAILED, response.getStatusCode());
+    }
+
     @Test
     public void updateJoggingFailed() {
         JoggingService service = EasyMock.mock(JoggingService.class);
@@ -120,7 +215,7 @@ public class JoggingControllerTest {
                 .andThrow(new IntegrityException("test"));
         EasyMock.replay(service);
 
-        ResponseEntity response = new JoggingController(service).updateJogging(0, null, USER);
+        ResponseEntity response = new JoggingController(service, OBJECT_MAPPER).updateJogging(0, null, null, USER);
         assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, response.getStatusCode());
     }
 
@@ -132,7 +227,7 @@ public class JoggingControllerTest {
                 .andThrow(new IntegrityException("test"));
         EasyMock.replay(service);
 
-        ResponseEntity response = new JoggingController(service).getAllJoggings(null, null, null, USER);
+        ResponseEntity response = new JoggingController(service, OBJECT_MAPPER).getAllJoggings(1, null, null, null, null, USER, null);
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
 
@@ -148,11 +243,78 @@ public class JoggingControllerTest {
         JoggingService service = EasyMock.mock(JoggingService.class);
         EasyMock.expect(service.getAllJoggings(
                 EasyMock.anyString(), EasyMock.anyObject(), EasyMock.anyObject(), EasyMock.anyString()))
-                .andReturn(joggings);
+                .andReturn(new TaggedContent<>("W/\"tag\"", () -> joggings));
         EasyMock.replay(service);
 
-        ResponseEntity response = new JoggingController(service).getAllJoggings(null, null, null, USER);
+        ResponseEntity response = new JoggingController(service, OBJECT_MAPPER).getAllJoggings(1, null, null, null, null, USER, null);
         assertEquals("Invalid status", HttpStatus.OK, response.getStatusCode());
         assertSame("Invalid status", joggings, response.getBody());
+        assertEquals("Invalid entity tag", "W/\"tag\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    public void getNotModifiedJoggings() {
+        JoggingService service = EasyMock.mock(JoggingService.class);
+        EasyMock.expect(service.getAllJoggings(
+                EasyMock.anyString(), EasyMock.anyObject(), EasyMock.anyObject(), EasyMock.anyString()))
+                .andReturn(new TaggedContent<>("W/\"tag\"", () -> {
+                    throw new AssertionError("Joggings were converted");
+                }));
+        EasyMock.replay(service);
+
+        ResponseEntity response = new JoggingController(service, OBJECT_MAPPER)
+                .getAllJoggings(1, null, null, null, "\"other\", W/\"tag\"", USER, null);
+        assertEquals("Invalid status", HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull("Body isn't empty", response.getBody());
+    }
+
+    @Test
+    public void getJoggingsWithPageAndContinuationToken() {
+        JoggingService service = EasyMock.mock(JoggingService.class);
+        EasyMock.replay(service);
+
+        ResponseEntity response = new JoggingController(service, OBJECT_MAPPER).getAllJoggings(1, null, "", null, null, USER, null);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    public void streamAllJoggings() throws Exception {
+        JoggingDto joggingDto = new JoggingDto()
+                .setTime(LocalTime.parse("00:14:44"))
+                .setLocation("Munich")
+                .setDistance(100)
+                .setDate(LocalDate.parse("2019-03-28"));
+
+        JoggingService service = EasyMock.mock(JoggingService.class);
+        service.streamJoggings(EasyMock.anyString(), EasyMock.isNull(), EasyMock.anyObject());
+        EasyMock.expectLastCall().andAnswer(() -> {
+            Consumer<JoggingDto> consumer = (Consumer<JoggingDto>) EasyMock.getCurrentArguments()[2];
+            consumer.accept(joggingDto);
+            consumer.accept(joggingDto);
+            return null;
+        });
+        EasyMock.replay(service);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertNull(new JoggingController(service, OBJECT_MAPPER).getAllJoggings(null, null, null, null, null, USER, response));
+        assertEquals("Invalid status", HttpStatus.OK.value(), response.getStatus());
+        assertEquals(
+                "Invalid content",
+                OBJECT_MAPPER.writeValueAsString(Arrays.asList(joggingDto, joggingDto)),
+                response.getContentAsString());
+    }
+
+    @Test
+    public void streamAllJoggingsFailed() {
+        JoggingService service = EasyMock.mock(JoggingService.class);
+        service.streamJoggings(EasyMock.anyString(), EasyMock.anyString(), EasyMock.anyObject());
+        EasyMock.expectLastCall().andThrow(new IntegrityException("test"));
+        EasyMock.replay(service);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ResponseEntity responseEntity = new JoggingController(service, OBJECT_MAPPER)
+                .getAllJoggings(null, null, null, "distance eq", null, USER, response);
+        assertEquals(HttpStatus.BAD_REQUEST, responseEntity.getStatusCode());
+        assertFalse("Response was committed", response.isCommitted());
     }
-}
\ No newline at end of file
+}
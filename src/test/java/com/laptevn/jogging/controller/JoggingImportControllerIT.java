@@ -0,0 +1,230 @@
+package com.laptevn.jogging.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.laptevn.ErrorMessages;
+import com.laptevn.SqlStatementCountFilter;
+import com.laptevn.SqlStatementRecorder;
+import com.laptevn.exception.IntegrityException;
+import com.laptevn.jogging.entity.ImportResultDto;
+import com.laptevn.jogging.service.JoggingService;
+import org.easymock.EasyMock;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.function.IntFunction;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@AutoConfigureMockMvc
+@SpringBootTest(properties = "jogging.import.chunkSize=" + JoggingImportControllerIT.CHUNK_SIZE)
+public class JoggingImportControllerIT {
+    private final static Logger logger = LoggerFactory.getLogger(JoggingImportControllerIT.class);
+    private final static int BENCHMARK_ROW_COUNT = 20000;
+    final static int CHUNK_SIZE = 1000;
+    private final static int CHUNK_COUNT = BENCHMARK_ROW_COUNT / CHUNK_SIZE;
+    private final static int JDBC_BATCH_SIZE = 50;
+    private final static int STATEMENTS_PER_CHUNK = 2 * CHUNK_SIZE / JDBC_BATCH_SIZE + 1;
+
+    private MockMvc client;
+    private JoggingService joggingService;
+    private JoggingDtoValidator validator;
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    public void setClient(MockMvc client) {
+        this.client = client;
+    }
+
+    @Autowired
+    public void setJoggingService(JoggingService joggingService) {
+        this.joggingService = joggingService;
+    }
+
+    @Autowired
+    public void setValidator(JoggingDtoValidator validator) {
+        this.validator = validator;
+    }
+
+    @Autowired
+    public void setObjectMapper(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Test
+    @WithMockUser(username = "user1")
+    public void importNdjsonJoggings() throws Exception {
+        String body = ""
+                + "{\"date\":\"2019-04-01\",\"distance\":1000,\"time\":\"00:30:00\",\"location\":\"Ndjson Import\"}\n"
+                + "\n"
+                + "{\"date\":\"2019-04-02\",\"distance\":0,\"time\":\"00:30:00\",\"location\":\"Ndjson Import\"}\n"
+                + "{\"date\":\n"
+                + "null\r\n"
+                + "{\"date\":\"2019-04-03\",\"distance\":2000,\"time\":\"00:40:00\",\"location\":\"Ndjson Import\"}";
+
+        try {
+            client.perform(post("/joggings/import")
+                    .content(body)
+                    .contentType(JoggingImportController.NDJSON_MEDIA_TYPE))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.lineCount").value(6))
+                    .andExpect(jsonPath("$.importedCount").value(2))
+                    .andExpect(jsonPath("$.failedCount").value(3))
+                    .andExpect(jsonPath("$.errors.length()").value(3))
+                    .andExpect(jsonPath("$.errors[0].line").value(3))
+                    .andExpect(jsonPath("$.errors[0].error").value(containsString("distance")))
+                    .andExpect(jsonPath("$.errors[1].line").value(4))
+                    .andExpect(jsonPath("$.errors[2].line").value(5))
+                    .andExpect(jsonPath("$.errors[2].error").value(ErrorMessages.EMPTY_JOGGING));
+        } finally {
+            deleteJoggings("Ndjson Import", 2);
+        }
+    }
+
+    @Test
+    @WithMockUser(username = "user1")
+    public void importCsvJoggings() throws Exception {
+        String body = "location,date,time,distance\r\n"
+                + "\"Csv Import\",2019-04-01,00:30:00,1000\r\n"
+                + "\"Csv Import\",2019-04-31,00:30:00,1000\r\n"
+                + "\"Csv Import\",2019-04-02,00:30:00\r\n"
+                + "\"Csv Import\",2019-04-03,00:40:00,2000\r\n";
+
+        try {
+            client.perform(post("/joggings/import")
+                    .content(body)
+                    .contentType(JoggingImportController.CSV_MEDIA_TYPE))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.lineCount").value(5))
+                    .andExpect(jsonPath("$.importedCount").value(2))
+                    .andExpect(jsonPath("$.failedCount").value(2))
+                    .andExpect(jsonPath("$.errors[0].line").value(3))
+                    .andExpect(jsonPath("$.errors[0].error").value(containsString("2019-04-31")))
+                    .andExpect(jsonPath("$.errors[1].line").value(4))
+                    .andExpect(jsonPath("$.errors[1].error").value(containsString("distance")));
+        } finally {
+            deleteJoggings("Csv Import", 2);
+        }
+    }
+
+    @Test
+    @WithMockUser(username = "user1")
+    public void importCsvWithInvalidHeader() throws Exception {
+        client.perform(post("/joggings/import")
+                .content("date,distance,time\n2019-04-01,1000,00:30:00")
+                .contentType(JoggingImportController.CSV_MEDIA_TYPE))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(ErrorMessages.INVALID_CSV_HEADER));
+    }
+
+    @Test
+    @WithMockUser(username = "unknown_user")
+    public void importJoggingsWithUnknownUser() throws Exception {
+        client.perform(post("/joggings/import")
+                .content("{\"date\":\"2019-04-01\",\"distance\":1000,\"time\":\"00:30:00\",\"location\":\"Madrid\"}")
+                .contentType(JoggingImportController.NDJSON_MEDIA_TYPE))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.lineCount").value(1))
+                .andExpect(jsonPath("$.importedCount").value(0))
+                .andExpect(jsonPath("$.failedCount").value(1))
+                .andExpect(jsonPath("$.error").value(containsString("unknown_user")));
+    }
+
+    @Test
+    public void reportProgressWhenChunkFails() {
+        JoggingService failingService = EasyMock.mock(JoggingService.class);
+        EasyMock.expect(failingService.createJoggings(EasyMock.anyObject(), EasyMock.eq("user1")))
+                .andReturn(Arrays.asList(1, 2));
+        EasyMock.expect(failingService.createJoggings(EasyMock.anyObject(), EasyMock.eq("user1")))
+                .andThrow(new IntegrityException("Chunk failed"));
+        EasyMock.replay(failingService);
+
+        String body = "{\"date\":\"2019-04-01\",\"distance\":1000,\"time\":\"00:30:00\",\"location\":\"Rome\"}\n";
+        ResponseEntity response = new JoggingImportController(failingService, validator, objectMapper, 2, 10, 4096)
+                .importNdjsonJoggings(
+                        new ByteArrayInputStream(String.join("", Collections.nCopies(5, body))
+                                .getBytes(StandardCharsets.UTF_8)),
+                        () -> "user1");
+
+        EasyMock.verify(failingService);
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, response.getStatusCode());
+        ImportResultDto result = (ImportResultDto) response.getBody();
+        assertEquals(4, result.getLineCount());
+        assertEquals(2, result.getImportedCount());
+        assertEquals(2, result.getFailedCount());
+        assertEquals("Chunk failed", result.getError());
+    }
+
+    @Test
+    @WithMockUser(username = "user1")
+    public void importLargeVolume() throws Exception {
+        try {
+            long ndjsonRate = importJoggings(
+                    JoggingImportController.NDJSON_MEDIA_TYPE,
+                    createBody(null, i -> "{\"date\":\"2019-04-01\",\"distance\":" + (i + 1)
+                            + ",\"time\":\"00:30:00\",\"location\":\"Import Benchmark\"}\n"));
+            long csvRate = importJoggings(
+                    JoggingImportController.CSV_MEDIA_TYPE,
+                    createBody("date,distance,time,location\n",
+                            i -> "2019-04-01," + (i + 1) + ",00:30:00,Import Benchmark\n"));
+
+            logger.info(
+                    "Imported {} joggings: NDJSON {} rows/s, CSV {} rows/s", BENCHMARK_ROW_COUNT, ndjsonRate, csvRate);
+        } finally {
+            joggingService.deleteJoggings("user1", "location eq 'Import Benchmark'");
+        }
+    }
+
+    private long importJoggings(String contentType, String body) throws Exception {
+        SqlStatementRecorder.clear();
+        long startTime = System.nanoTime();
+        client.perform(post("/joggings/import")
+                .content(body)
+                .contentType(contentType)
+                .requestAttr(SqlStatementCountFilter.MAX_STATEMENTS_ATTRIBUTE, CHUNK_COUNT * STATEMENTS_PER_CHUNK + 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.importedCount").value(BENCHMARK_ROW_COUNT))
+                .andExpect(jsonPath("$.failedCount").value(0));
+        long elapsedNanos = System.nanoTime() - startTime;
+
+        long chunkStatementCount = SqlStatementRecorder.getStatements()
+                .stream()
+                .filter(statement -> !statement.contains(" from user "))
+                .count();
+        assertEquals("Unexpected statements per chunk", CHUNK_COUNT * STATEMENTS_PER_CHUNK, chunkStatementCount);
+        return BENCHMARK_ROW_COUNT * 1_000_000_000L / elapsedNanos;
+    }
+
+    private static String createBody(String header, IntFunction<String> lineFactory) {
+        StringBuilder body = new StringBuilder(header == null ? "" : header);
+        for (int i = 0; i < BENCHMARK_ROW_COUNT; i++) {
+            body.append(lineFactory.apply(i));
+        }
+        return body.toString();
+    }
+
+    private void deleteJoggings(String location, int expectedCount) throws Exception {
+        client.perform(delete("/joggings/").content("location eq '" + location + "'"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affectedCount").value(expectedCount));
+    }
+}
\ No newline at end of file
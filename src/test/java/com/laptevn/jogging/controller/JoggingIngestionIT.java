@@ -0,0 +1,145 @@
+package com.laptevn.jogging.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.laptevn.jogging.entity.JoggingDto;
+import com.laptevn.jogging.repository.JoggingRepository;
+import com.laptevn.jogging.service.JoggingIngestionQueue;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@AutoConfigureMockMvc
+@SpringBootTest(properties = {"jogging.ingestion.mode=async", "jogging.ingestion.flushIntervalMillis=20"})
+public class JoggingIngestionIT {
+    private final static int JOGGING_COUNT = 20;
+    private final static long FLUSH_TIMEOUT_MILLIS = 10_000;
+
+    private MockMvc client;
+    private ObjectMapper objectMapper;
+    private JoggingRepository joggingRepository;
+    private JoggingIngestionQueue ingestionQueue;
+
+    @Autowired
+    public void setClient(MockMvc client) {
+        this.client = client;
+    }
+
+    @Autowired
+    public void setObjectMapper(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Autowired
+    public void setJoggingRepository(JoggingRepository joggingRepository) {
+        this.joggingRepository = joggingRepository;
+    }
+
+    @Autowired
+    public void setIngestionQueue(JoggingIngestionQueue ingestionQueue) {
+        this.ingestionQueue = ingestionQueue;
+    }
+
+    @Test
+    @WithMockUser(username = "user1")
+    public void createJoggingsAsynchronously() throws Exception {
+        List<Integer> ids = new ArrayList<>();
+        try {
+            for (int i = 0; i < JOGGING_COUNT; i++) {
+                JoggingDto joggingDto = new JoggingDto()
+                        .setTime(LocalTime.parse("00:20:00"))
+                        .setLocation("Lisbon")
+                        .setDistance(2000 + i)
+                        .setDate(LocalDate.parse("2019-04-10"));
+
+                String location = client.perform(post("/joggings/")
+                        .content(objectMapper.writeValueAsString(joggingDto))
+                        .contentType(MediaType.APPLICATION_JSON))
+                        .andExpect(status().isAccepted())
+                        .andReturn()
+                        .getResponse()
+                        .getHeader(HttpHeaders.LOCATION);
+                ids.add(Integer.parseInt(location.substring("/joggings/".length())));
+
+                client.perform(get(location).contentType(MediaType.APPLICATION_JSON))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.distance").value(joggingDto.getDistance()));
+            }
+
+            long deadline = System.currentTimeMillis() + FLUSH_TIMEOUT_MILLIS;
+            while (ingestionQueue.size() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            while (countSaved(ids) < JOGGING_COUNT && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            assertEquals("Queued joggings weren't flushed", JOGGING_COUNT, countSaved(ids));
+            assertFalse("Flushed jogging is still pending", ingestionQueue.findPending(ids.get(0)).isPresent());
+            client.perform(get("/joggings/" + ids.get(0)).contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.location").value("Lisbon"));
+        } finally {
+            ids.forEach(id -> joggingRepository.findById(id).ifPresent(joggingRepository::delete));
+        }
+    }
+
+    private long countSaved(List<Integer> ids) {
+        return ids
+                .stream()
+                .filter(joggingRepository::existsById)
+                .count();
+    }
+
+    @Test
+    @WithMockUser(username = "user2")
+    public void hideQueuedJoggingOfAnotherUser() throws Exception {
+        JoggingDto joggingDto = new JoggingDto()
+                .setTime(LocalTime.parse("00:20:00"))
+                .setLocation("Lisbon")
+                .setDistance(3000)
+                .setDate(LocalDate.parse("2019-04-10"));
+
+        String location = client.perform(post("/joggings/")
+                .content(objectMapper.writeValueAsString(joggingDto))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isAccepted())
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.LOCATION);
+        int id = Integer.parseInt(location.substring("/joggings/".length()));
+
+        try {
+            client.perform(get(location)
+                    .with(user("user1"))
+                    .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isNotFound());
+        } finally {
+            long deadline = System.currentTimeMillis() + FLUSH_TIMEOUT_MILLIS;
+            while (!joggingRepository.findById(id).isPresent() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            joggingRepository.deleteById(id);
+        }
+    }
+}
\ No newline at end of file
@@ -114,4 +114,180 @@ public class ReportControllerIT {
                 .andExpect(jsonPath("$.averageSpeed").value(0))
                 .andExpect(jsonPath("$.averageDistance").value(0));
     }
+
+    @Test
+    @WithMockUser(username = "user1")
+    public void reportSeries() throws Exception {
+        List<JoggingDto> joggings = Arrays.asList(
+                new JoggingDto()
+                        .setTime(LocalTime.parse("00:10:00"))
+                        .setLocation("Lisbon")
+                        .setDistance(1000)
+                        .setDate(LocalDate.parse("2018-01-10")),
+                new JoggingDto()
+                        .setTime(LocalTime.parse("00:10:00"))
+                        .setLocation("Porto")
+                        .setDistance(2000)
+                        .setDate(LocalDate.parse("2018-01-20")),
+                new JoggingDto()
+                        .setTime(LocalTime.parse("00:25:00"))
+                        .setLocation("Faro")
+                        .setDistance(3000)
+                        .setDate(LocalDate.parse("2018-03-01")),
+                new JoggingDto()
+                        .setTime(LocalTime.parse("00:25:00"))
+                        .setLocation("Braga")
+                        .setDistance(9000)
+                        .setDate(LocalDate.parse("2018-03-20")));
+
+        List<String> locations = joggings
+                .stream()
+                .map(joggingDto -> {
+                    try {
+                        return JoggingControllerIT.createJogging(joggingDto, client, objectMapper);
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                })
+                .collect(Collectors.toList());
+
+        try {
+            client.perform(get("/reports/?granularity=month&periods=3&until=2018-03-15")
+                    .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(3))
+                    .andExpect(jsonPath("$[0].start").value("2018-01-01"))
+                    .andExpect(jsonPath("$[0].end").value("2018-01-31"))
+                    .andExpect(jsonPath("$[0].runCount").value(2))
+                    .andExpect(jsonPath("$[0].averageSpeed").value(2.5))
+                    .andExpect(jsonPath("$[0].averageDistance").value(1500))
+                    .andExpect(jsonPath("$[1].runCount").value(0))
+                    .andExpect(jsonPath("$[1].averageSpeed").value(0))
+                    .andExpect(jsonPath("$[2].start").value("2018-03-01"))
+                    .andExpect(jsonPath("$[2].runCount").value(1))
+                    .andExpect(jsonPath("$[2].averageSpeed").value(2))
+                    .andExpect(jsonPath("$[2].averageDistance").value(3000));
+        } finally {
+            locations.forEach(location -> {
+                try {
+                    JoggingControllerIT.deleteJogging(location, client);
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+        }
+    }
+
+    @Test
+    @WithMockUser(username = "user1")
+    public void reportSeriesWithUnknownGranularity() throws Exception {
+        client.perform(get("/reports/?granularity=decade").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    @WithMockUser(username = "user1")
+    public void reportWithFilter() throws Exception {
+        List<JoggingDto> joggings = Arrays.asList(
+                new JoggingDto()
+                        .setTime(LocalTime.parse("01:00:00"))
+                        .setLocation("Paris")
+                        .setDistance(12000)
+                        .setDate(LocalDate.parse("2018-05-01")),
+                new JoggingDto()
+                        .setTime(LocalTime.parse("00:40:00"))
+                        .setLocation("Paris")
+                        .setDistance(8000)
+                        .setDate(LocalDate.parse("2018-05-02")),
+                new JoggingDto()
+                        .setTime(LocalTime.parse("01:00:00"))
+                        .setLocation("Paris")
+                        .setDistance(18000)
+                        .setDate(LocalDate.parse("2018-05-03")),
+                new JoggingDto()
+                        .setTime(LocalTime.parse("01:00:00"))
+                        .setLocation("Nice")
+                        .setDistance(15000)
+                        .setDate(LocalDate.parse("2018-05-04")));
+
+        List<String> locations = joggings
+                .stream()
+                .map(joggingDto -> {
+                    try {
+                        return JoggingControllerIT.createJogging(joggingDto, client, objectMapper);
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                })
+                .collect(Collectors.toList());
+
+        try {
+            client.perform(get("/reports/")
+                    .content("(location eq 'Paris') AND (distance gt 10000)")
+                    .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.averageSpeed").value(4.17))
+                    .andExpect(jsonPath("$.averageDistance").value(15000));
+
+            client.perform(get("/reports/")
+                    .content("location eq 'Marsel'")
+                    .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.averageSpeed").value(0))
+                    .andExpect(jsonPath("$.averageDistance").value(0));
+        } finally {
+            locations.forEach(location -> {
+                try {
+                    JoggingControllerIT.deleteJogging(location, client);
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+        }
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    public void reportWithFilterByAdmin() throws Exception {
+        client.perform(get("/reports/")
+                .content("location eq 'Marsel'")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.averageSpeed").value(0.11))
+                .andExpect(jsonPath("$.averageDistance").value(100));
+    }
+
+    @Test
+    @WithMockUser(username = "user1")
+    public void reportWithInvalidFilter() throws Exception {
+        client.perform(get("/reports/")
+                .content("distance gt")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    public void userReports() throws Exception {
+        client.perform(get("/reports/users/?from=2019-03-01&until=2019-03-31").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.userName == 'user2')].runCount").value(2))
+                .andExpect(jsonPath("$[?(@.userName == 'user2')].averageSpeed").value(0.11))
+                .andExpect(jsonPath("$[?(@.userName == 'user2')].averageDistance").value(100))
+                .andExpect(jsonPath("$[?(@.userName == 'user1')]").isEmpty());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    public void userReportsWithInvalidRange() throws Exception {
+        client.perform(get("/reports/users/?from=2019-03-31&until=2019-03-01").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    @WithMockUser(username = "user1")
+    public void userReportsForbidden() throws Exception {
+        client.perform(get("/reports/users/").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isForbidden());
+    }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.laptevn.jogging.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.laptevn.exception.IntegrityException;
 import com.laptevn.jogging.entity.ReportDto;
 import com.laptevn.jogging.service.ReportService;
@@ -19,7 +20,7 @@ public class ReportControllerTest {
         EasyMock.expect(service.generateReport(EasyMock.anyString())).andThrow(new IntegrityException("test"));
         EasyMock.replay(service);
 
-        ResponseEntity response = new ReportController(service).generateReport(new JMXPrincipal("test"));
+        ResponseEntity response = new ReportController(service, new ObjectMapper()).generateReport(null, new JMXPrincipal("test"));
         assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, response.getStatusCode());
     }
 
@@ -29,7 +30,18 @@ public class ReportControllerTest {
         EasyMock.expect(service.generateReport(EasyMock.anyString())).andReturn(new ReportDto(1, 2));
         EasyMock.replay(service);
 
-        ResponseEntity response = new ReportController(service).generateReport(new JMXPrincipal("test"));
+        ResponseEntity response = new ReportController(service, new ObjectMapper()).generateReport(null, new JMXPrincipal("test"));
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
+
+    @Test
+    public void invalidFilter() {
+        ReportService service = EasyMock.mock(ReportService.class);
+        EasyMock.expect(service.generateFilteredReport(EasyMock.anyString(), EasyMock.eq("distance")))
+                .andThrow(new IntegrityException("test"));
+        EasyMock.replay(service);
+
+        ResponseEntity response = new ReportController(service, new ObjectMapper()).generateReport("distance", new JMXPrincipal("test"));
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
 }
\ No newline at end of file
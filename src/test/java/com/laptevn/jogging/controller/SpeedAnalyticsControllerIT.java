@@ -0,0 +1,144 @@
+package com.laptevn.jogging.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.laptevn.jogging.entity.JoggingDto;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@AutoConfigureMockMvc
+@SpringBootTest
+public class SpeedAnalyticsControllerIT {
+    private MockMvc client;
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    public void setClient(MockMvc client) {
+        this.client = client;
+    }
+
+    @Autowired
+    public void setObjectMapper(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Test
+    @WithMockUser(username = "manager", roles = {"MANAGER"})
+    public void analyticsForbidden() throws Exception {
+        client.perform(get("/analytics/speed/percentiles").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(username = "user1")
+    public void rankAndPercentiles() throws Exception {
+        List<JoggingDto> joggings = Arrays.asList(
+                new JoggingDto()
+                        .setTime(LocalTime.parse("00:10:00"))
+                        .setLocation("Helsinki")
+                        .setDistance(1000)
+                        .setDate(LocalDate.parse("2016-06-10")),
+                new JoggingDto()
+                        .setTime(LocalTime.parse("00:10:00"))
+                        .setLocation("Turku")
+                        .setDistance(2000)
+                        .setDate(LocalDate.parse("2016-06-11")),
+                new JoggingDto()
+                        .setTime(LocalTime.parse("00:10:00"))
+                        .setLocation("Helsinki")
+                        .setDistance(3000)
+                        .setDate(LocalDate.parse("2016-06-12")));
+
+        List<String> locations = joggings
+                .stream()
+                .map(joggingDto -> {
+                    try {
+                        return JoggingControllerIT.createJogging(joggingDto, client, objectMapper);
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                })
+                .collect(Collectors.toList());
+
+        try {
+            client.perform(get("/analytics/speed/percentiles?month=2016-06&quantiles=0,0.5,1")
+                    .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.runCount").value(3))
+                    .andExpect(jsonPath("$.relativeAccuracy").value(0.01))
+                    .andExpect(jsonPath("$.percentiles.length()").value(3))
+                    .andExpect(jsonPath("$.percentiles[0].speed").value(closeTo(1.67, 0.03)))
+                    .andExpect(jsonPath("$.percentiles[1].speed").value(closeTo(3.33, 0.05)))
+                    .andExpect(jsonPath("$.percentiles[2].speed").value(5));
+
+            client.perform(get("/analytics/speed/percentiles?month=2016-06&location=Helsinki")
+                    .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.runCount").value(2))
+                    .andExpect(jsonPath("$.percentiles.length()").value(4));
+
+            client.perform(get("/analytics/speed/rank?month=2016-06").contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.runCount").value(3))
+                    .andExpect(jsonPath("$.speed").value(3.33))
+                    .andExpect(jsonPath("$.percentile").value(33.33));
+
+            client.perform(get("/analytics/speed/rank?month=2016-06&location=Helsinki&speed=6")
+                    .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.runCount").value(2))
+                    .andExpect(jsonPath("$.percentile").value(100));
+        } finally {
+            locations.forEach(location -> {
+                try {
+                    JoggingControllerIT.deleteJogging(location, client);
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+        }
+
+        client.perform(get("/analytics/speed/percentiles?month=2016-06").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.runCount").value(0));
+    }
+
+    @Test
+    @WithMockUser(username = "user1")
+    public void rankWithoutRuns() throws Exception {
+        client.perform(get("/analytics/speed/rank?month=2016-07").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    @WithMockUser(username = "user1")
+    public void invalidMonth() throws Exception {
+        client.perform(get("/analytics/speed/rank?month=July&speed=3").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    @WithMockUser(username = "user1")
+    public void invalidQuantile() throws Exception {
+        client.perform(get("/analytics/speed/percentiles?quantiles=0.5,2").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isUnprocessableEntity());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,158 @@
+package com.laptevn.jogging.repository;
+
+import com.laptevn.SqlStatementRecorder;
+import com.laptevn.auth.entity.User;
+import com.laptevn.auth.repository.UserRepository;
+import com.laptevn.jogging.entity.Jogging;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "jogging.bulk.chunkSize=3")
+public class JoggingBulkOperationIT {
+    private final static String LOCATION = "Bulkville";
+    private final static String FILTER = "location eq '" + LOCATION + "'";
+    private final static LocalDate DATE = LocalDate.parse("2019-04-01");
+    private final static int OWN_JOGGING_COUNT = 10;
+    private final static int FOREIGN_JOGGING_COUNT = 2;
+
+    private JoggingRepository joggingRepository;
+    private UserRepository userRepository;
+    private final List<Integer> ids = new ArrayList<>();
+    private final List<Jogging> removedJoggings = new ArrayList<>();
+    private final List<Jogging> addedJoggings = new ArrayList<>();
+    private User owner;
+
+    @Autowired
+    public void setJoggingRepository(JoggingRepository joggingRepository) {
+        this.joggingRepository = joggingRepository;
+    }
+
+    @Autowired
+    public void setUserRepository(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Before
+    public void createJoggings() {
+        owner = userRepository.findByCanonicalName("user1").get();
+        User anotherUser = userRepository.findByCanonicalName("user2").get();
+        for (int i = 0; i < OWN_JOGGING_COUNT + FOREIGN_JOGGING_COUNT; i++) {
+            Jogging jogging = new Jogging()
+                    .setDate(DATE)
+                    .setDistance(1000 + i)
+                    .setLocation(LOCATION)
+                    .setTime(LocalTime.parse("00:10:00"))
+                    .setAverageTemperature("10")
+                    .setWeatherCondition("Sunny")
+                    .setUser(i < OWN_JOGGING_COUNT ? owner : anotherUser);
+            joggingRepository.save(jogging);
+            ids.add(jogging.getId());
+        }
+    }
+
+    @After
+    public void deleteJoggings() {
+        ids.stream()
+                .filter(joggingRepository::existsById)
+                .forEach(joggingRepository::deleteById);
+    }
+
+    @Test
+    public void deleteInChunks() {
+        SqlStatementRecorder.clear();
+        assertEquals(OWN_JOGGING_COUNT, joggingRepository.deleteByUser(owner, FILTER, this::collectChangedRuns));
+        assertEquals(
+                "Unexpected number of chunks",
+                OWN_JOGGING_COUNT / 3 + 1,
+                SqlStatementRecorder.getStatements().stream().filter(statement -> statement.startsWith("delete")).count());
+
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(
+                    "Unexpected existence of jogging " + i,
+                    i >= OWN_JOGGING_COUNT,
+                    joggingRepository.existsById(ids.get(i)));
+        }
+        assertEquals(OWN_JOGGING_COUNT, removedJoggings.size());
+        assertEquals(LOCATION, removedJoggings.get(0).getLocation());
+        assertTrue(addedJoggings.isEmpty());
+    }
+
+    @Test
+    public void deleteAllMatching() {
+        assertEquals(
+                OWN_JOGGING_COUNT + FOREIGN_JOGGING_COUNT,
+                joggingRepository.deleteAll(FILTER, this::collectChangedRuns));
+        assertEquals(0, joggingRepository.deleteAll(FILTER, this::collectChangedRuns));
+    }
+
+    @Test
+    public void deleteOnlyMatching() {
+        assertEquals(
+                2, joggingRepository.deleteByUser(owner, FILTER + " AND (distance lt 1002)", this::collectChangedRuns));
+        assertFalse(joggingRepository.existsById(ids.get(1)));
+        assertEquals(OWN_JOGGING_COUNT - 2, joggingRepository.deleteByUser(owner, FILTER, this::collectChangedRuns));
+    }
+
+    @Test
+    public void skipContradictoryFilter() {
+        SqlStatementRecorder.clear();
+        assertEquals(0, joggingRepository.deleteAll(
+                FILTER + " AND (distance gt 20) AND (distance lt 5)", this::collectChangedRuns));
+        assertEquals(0, SqlStatementRecorder.getStatements().size());
+    }
+
+    @Test
+    public void updateInChunks() {
+        assertEquals(OWN_JOGGING_COUNT, joggingRepository.updateByUser(
+                owner, FILTER + " AND (distance gt 0)", new Jogging().setDistance(5), this::collectChangedRuns));
+
+        for (int i = 0; i < ids.size(); i++) {
+            Jogging jogging = joggingRepository.findById(ids.get(i)).get();
+            assertEquals(i < OWN_JOGGING_COUNT ? 5 : 1000 + i, (int) jogging.getDistance());
+            assertEquals("Weather was reset", "Sunny", jogging.getWeatherCondition());
+            assertEquals(i < OWN_JOGGING_COUNT ? 1 : 0, (int) jogging.getVersion());
+        }
+        assertEquals(OWN_JOGGING_COUNT, removedJoggings.size());
+        assertEquals(OWN_JOGGING_COUNT, addedJoggings.size());
+        assertEquals(5, (int) addedJoggings.get(0).getDistance());
+        assertEquals(LOCATION, addedJoggings.get(0).getLocation());
+    }
+
+    @Test
+    public void updateResetsOutdatedWeather() {
+        assertEquals(
+                OWN_JOGGING_COUNT + FOREIGN_JOGGING_COUNT,
+                joggingRepository.updateAll(FILTER, new Jogging().setDate(DATE.plusDays(1)), this::collectChangedRuns));
+
+        Jogging jogging = joggingRepository.findById(ids.get(0)).get();
+        assertEquals(DATE.plusDays(1), jogging.getDate());
+        assertNull(jogging.getWeatherCondition());
+        assertNull(jogging.getAverageTemperature());
+
+        assertEquals(
+                OWN_JOGGING_COUNT + FOREIGN_JOGGING_COUNT,
+                joggingRepository.updateAll(FILTER, new Jogging().setLocation(LOCATION), this::collectChangedRuns));
+    }
+
+    private void collectChangedRuns(Collection<Jogging> removed, Collection<Jogging> added) {
+        removedJoggings.addAll(removed);
+        addedJoggings.addAll(added);
+    }
+}
\ No newline at end of file
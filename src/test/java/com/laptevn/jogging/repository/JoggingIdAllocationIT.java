@@ -0,0 +1,113 @@
+package com.laptevn.jogging.repository;
+
+import com.laptevn.SqlStatementRecorder;
+import com.laptevn.auth.entity.User;
+import com.laptevn.auth.repository.UserRepository;
+import com.laptevn.jogging.entity.Jogging;
+import com.laptevn.repository.IdGeneration;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class JoggingIdAllocationIT {
+    private final static Logger logger = LoggerFactory.getLogger(JoggingIdAllocationIT.class);
+    private final static int INSERTS_PER_THREAD = 200;
+
+    private JoggingRepository joggingRepository;
+    private UserRepository userRepository;
+
+    @Autowired
+    public void setJoggingRepository(JoggingRepository joggingRepository) {
+        this.joggingRepository = joggingRepository;
+    }
+
+    @Autowired
+    public void setUserRepository(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Test
+    public void concurrentInserts() throws Exception {
+        User user = userRepository.findByCanonicalName("user1").get();
+        for (int threadCount : new int[]{1, 2, 4, 8}) {
+            insertConcurrently(user, threadCount);
+        }
+    }
+
+    private void insertConcurrently(User user, int threadCount) throws Exception {
+        SqlStatementRecorder.clear();
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        List<Integer> ids = new ArrayList<>();
+        long startTime = System.nanoTime();
+        try {
+            List<Future<List<Integer>>> results = new ArrayList<>();
+            for (int i = 0; i < threadCount; i++) {
+                results.add(executor.submit(() -> insertJoggings(user)));
+            }
+
+            for (Future<List<Integer>> result : results) {
+                ids.addAll(result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        long elapsedNanos = System.nanoTime() - startTime;
+
+        try {
+            int insertCount = threadCount * INSERTS_PER_THREAD;
+            Set<Integer> uniqueIds = new HashSet<>(ids);
+            assertEquals("Allocated ids are not unique", insertCount, uniqueIds.size());
+
+            long allocationCount = SqlStatementRecorder.getStatements()
+                    .stream()
+                    .filter(statement -> statement.contains(IdGeneration.SEQUENCE_NAME))
+                    .count();
+            assertTrue(
+                    "Too many id allocations: " + allocationCount,
+                    allocationCount <= insertCount / Integer.parseInt(IdGeneration.BLOCK_SIZE) + 1);
+
+            logger.info(
+                    "{} threads inserted {} joggings with {} id allocations, {} inserts/s",
+                    threadCount,
+                    insertCount,
+                    allocationCount,
+                    insertCount * 1_000_000_000L / elapsedNanos);
+        } finally {
+            ids.forEach(joggingRepository::deleteById);
+        }
+    }
+
+    private List<Integer> insertJoggings(User user) {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < INSERTS_PER_THREAD; i++) {
+            Jogging jogging = new Jogging()
+                    .setDate(LocalDate.parse("2019-04-01"))
+                    .setDistance(1000 + i)
+                    .setLocation("Oslo")
+                    .setTime(LocalTime.parse("00:10:00"))
+                    .setUser(user);
+            joggingRepository.save(jogging);
+            ids.add(jogging.getId());
+        }
+        return ids;
+    }
+}
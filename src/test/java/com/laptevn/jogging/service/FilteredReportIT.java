@@ -0,0 +1,125 @@
+package com.laptevn.jogging.service;
+
+import com.laptevn.jogging.entity.JoggingDto;
+import com.laptevn.jogging.entity.ReportDto;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "jogging.report.latencyBudgetMillis=500")
+public class FilteredReportIT {
+    private final static Logger logger = LoggerFactory.getLogger(FilteredReportIT.class);
+    private final static List<String> USER_NAMES = Arrays.asList("user1", "user2");
+    private final static List<String> LOCATIONS = Arrays.asList("Latency Paris", "Latency Rome", "Latency Oslo");
+    private final static String CLEANUP_FILTER = "location eq 'Latency Paris' OR location eq 'Latency Rome' "
+            + "OR location eq 'Latency Oslo'";
+    private final static String FILTER = "(location eq 'Latency Paris') AND (distance gt 10000)";
+    private final static int JOGGING_COUNT_PER_USER = 40000;
+    private final static int CHUNK_SIZE = 5000;
+    private final static int ITERATIONS = 10;
+
+    private JoggingService joggingService;
+    private ReportService reportService;
+    private long latencyBudgetMillis;
+
+    @Autowired
+    public void setJoggingService(JoggingService joggingService) {
+        this.joggingService = joggingService;
+    }
+
+    @Autowired
+    public void setReportService(ReportService reportService) {
+        this.reportService = reportService;
+    }
+
+    @Value("${jogging.report.latencyBudgetMillis}")
+    public void setLatencyBudgetMillis(long latencyBudgetMillis) {
+        this.latencyBudgetMillis = latencyBudgetMillis;
+    }
+
+    @Before
+    public void createJoggings() {
+        for (String userName : USER_NAMES) {
+            List<JoggingDto> joggingDtos = new ArrayList<>();
+            for (int i = 0; i < JOGGING_COUNT_PER_USER; i++) {
+                joggingDtos.add(new JoggingDto()
+                        .setDate(LocalDate.parse("2018-01-01").plusDays(i % 365))
+                        .setDistance(1000 + i % 20000)
+                        .setTime(LocalTime.ofSecondOfDay(600 + i % 7200))
+                        .setLocation(LOCATIONS.get(i % LOCATIONS.size())));
+                if (joggingDtos.size() == CHUNK_SIZE) {
+                    joggingService.createJoggings(joggingDtos, userName);
+                    joggingDtos.clear();
+                }
+            }
+        }
+    }
+
+    @After
+    public void deleteJoggings() {
+        USER_NAMES.forEach(userName -> joggingService.deleteJoggings(userName, CLEANUP_FILTER));
+    }
+
+    @Test
+    public void aggregateWithinLatencyBudget() {
+        ReportDto expectedReport = calculateExpectedReport();
+        long userNanos = measure(() -> reportService.generateFilteredReport("user1", FILTER), expectedReport);
+        long adminNanos = measure(() -> reportService.generateFilteredReport("admin", FILTER), expectedReport);
+
+        logger.info(
+                "Filtered report over {} joggings: {} ms for a user, {} ms across users, budget {} ms",
+                JOGGING_COUNT_PER_USER * USER_NAMES.size(),
+                TimeUnit.NANOSECONDS.toMillis(userNanos),
+                TimeUnit.NANOSECONDS.toMillis(adminNanos),
+                latencyBudgetMillis);
+        assertTrue("Report exceeds latency budget", TimeUnit.NANOSECONDS.toMillis(userNanos) < latencyBudgetMillis);
+    }
+
+    private static ReportDto calculateExpectedReport() {
+        double speedSum = 0;
+        long distanceSum = 0;
+        int count = 0;
+        for (int i = 0; i < JOGGING_COUNT_PER_USER; i++) {
+            int distance = 1000 + i % 20000;
+            if (i % LOCATIONS.size() == 0 && distance > 10000) {
+                speedSum += (double) distance / (600 + i % 7200);
+                distanceSum += distance;
+                count++;
+            }
+        }
+        return new ReportDto(speedSum / count, (double) distanceSum / count);
+    }
+
+    private static long measure(ReportGenerator reportGenerator, ReportDto expectedReport) {
+        long startTime = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            ReportDto report = reportGenerator.generate();
+            assertEquals(expectedReport.getAverageSpeed(), report.getAverageSpeed(), 1e-4);
+            assertEquals(expectedReport.getAverageDistance(), report.getAverageDistance(), 1e-4);
+        }
+        return (System.nanoTime() - startTime) / ITERATIONS;
+    }
+
+    @FunctionalInterface
+    private interface ReportGenerator {
+        ReportDto generate();
+    }
+}
\ No newline at end of file
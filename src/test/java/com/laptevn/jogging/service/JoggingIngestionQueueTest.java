@@ -0,0 +1,178 @@
+package com.laptevn.jogging.service;
+
+import com.laptevn.jogging.entity.Jogging;
+import com.laptevn.jogging.repository.JoggingRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.easymock.EasyMock;
+import org.junit.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class JoggingIngestionQueueTest {
+    private final static long FLUSH_INTERVAL_MILLIS = 3_600_000;
+
+    static JoggingIngestionQueue createQueue(JoggingRepository joggingRepository, int capacity) {
+        return createQueue(joggingRepository, capacity, new SimpleMeterRegistry());
+    }
+
+    private static JoggingIngestionQueue createQueue(
+            JoggingRepository joggingRepository, int capacity, MeterRegistry meterRegistry) {
+
+        PlatformTransactionManager transactionManager = EasyMock.niceMock(PlatformTransactionManager.class);
+        SpeedSketchService speedSketchService = EasyMock.niceMock(SpeedSketchService.class);
+        EasyMock.replay(transactionManager, speedSketchService);
+        return new JoggingIngestionQueue(
+                joggingRepository,
+                speedSketchService,
+                transactionManager,
+                meterRegistry,
+                capacity,
+                2,
+                FLUSH_INTERVAL_MILLIS,
+                true,
+                FLUSH_INTERVAL_MILLIS);
+    }
+
+    private static JoggingRepository createNiceRepository() {
+        JoggingRepository repository = EasyMock.niceMock(JoggingRepository.class);
+        EasyMock.replay(repository);
+        return repository;
+    }
+
+    @Test
+    public void rejectWhenFull() throws InterruptedException {
+        JoggingIngestionQueue queue = createQueue(createNiceRepository(), 2);
+        try {
+            assertTrue(queue.offer(new Jogging().setId(1)));
+            assertTrue(queue.offer(new Jogging().setId(2)));
+            assertFalse(queue.offer(new Jogging().setId(3)));
+            assertEquals(2, queue.size());
+            assertFalse("Rejected jogging is visible", queue.findPending(3).isPresent());
+        } finally {
+            queue.destroy();
+        }
+    }
+
+    @Test
+    public void flushInBatches() throws InterruptedException {
+        List<List<Jogging>> batches = new ArrayList<>();
+        JoggingRepository repository = EasyMock.mock(JoggingRepository.class);
+        repository.saveInBatches(EasyMock.anyObject());
+        EasyMock.expectLastCall()
+                .andAnswer(() -> {
+                    @SuppressWarnings("unchecked")
+                    List<Jogging> batch = (List<Jogging>) EasyMock.getCurrentArguments()[0];
+                    batches.add(batch);
+                    return null;
+                })
+                .times(3);
+        EasyMock.replay(repository);
+
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        JoggingIngestionQueue queue = createQueue(repository, 10, meterRegistry);
+        try {
+            for (int id = 1; id <= 5; id++) {
+                queue.offer(new Jogging().setId(id));
+            }
+            assertTrue(queue.findPending(5).isPresent());
+            assertEquals(5, meterRegistry.get("jogging.ingestion.queue.size").gauge().value(), 0);
+
+            queue.flush();
+
+            assertEquals(3, batches.size());
+            assertEquals(2, batches.get(0).size());
+            assertEquals(1, batches.get(2).size());
+            assertEquals(0, queue.size());
+            assertFalse("Saved jogging is still pending", queue.findPending(5).isPresent());
+            assertEquals(3, meterRegistry.get("jogging.ingestion.flush").timer().count());
+        } finally {
+            queue.destroy();
+        }
+        EasyMock.verify(repository);
+    }
+
+    @Test
+    public void saveSeparatelyWhenBatchFails() throws InterruptedException {
+        Jogging validJogging = new Jogging().setId(1);
+        Jogging invalidJogging = new Jogging().setId(2);
+
+        JoggingRepository repository = EasyMock.mock(JoggingRepository.class);
+        repository.saveInBatches(EasyMock.anyObject());
+        EasyMock.expectLastCall().andThrow(new DataIntegrityViolationException("Batch"));
+        repository.saveInBatches(EasyMock.anyObject());
+        EasyMock.expectLastCall().andAnswer(() -> {
+            validJogging.setVersion(0);
+            return null;
+        });
+        repository.saveInBatches(EasyMock.anyObject());
+        EasyMock.expectLastCall().andThrow(new DataIntegrityViolationException("Single"));
+        EasyMock.replay(repository);
+
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        JoggingIngestionQueue queue = createQueue(repository, 10, meterRegistry);
+        queue.offer(validJogging.setVersion(0));
+        queue.offer(invalidJogging);
+        queue.destroy();
+
+        EasyMock.verify(repository);
+        assertEquals(Integer.valueOf(0), validJogging.getVersion());
+        assertFalse(queue.findPending(1).isPresent());
+        assertFalse(queue.findPending(2).isPresent());
+        assertEquals(1, meterRegistry.get("jogging.ingestion.failures").functionCounter().count(), 0);
+    }
+
+    @Test
+    public void retryWhenDatabaseIsUnavailable() throws InterruptedException {
+        List<Jogging> savedJoggings = new ArrayList<>();
+        JoggingRepository repository = EasyMock.mock(JoggingRepository.class);
+        repository.saveInBatches(EasyMock.anyObject());
+        EasyMock.expectLastCall().andThrow(new DataAccessResourceFailureException("Batch"));
+        repository.saveInBatches(EasyMock.anyObject());
+        EasyMock.expectLastCall().andAnswer(() -> {
+            @SuppressWarnings("unchecked")
+            List<Jogging> batch = (List<Jogging>) EasyMock.getCurrentArguments()[0];
+            savedJoggings.addAll(batch);
+            return null;
+        }).times(2);
+        EasyMock.replay(repository);
+
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        JoggingIngestionQueue queue = createQueue(repository, 10, meterRegistry);
+        try {
+            for (int id = 1; id <= 3; id++) {
+                queue.offer(new Jogging().setId(id));
+            }
+
+            queue.flush();
+            assertEquals("Joggings weren't requeued", 3, queue.size());
+            assertTrue("Requeued jogging isn't pending", queue.findPending(1).isPresent());
+
+            queue.flush();
+            assertEquals(0, queue.size());
+            assertEquals(3, savedJoggings.size());
+            assertEquals("Requeued joggings were reordered", Integer.valueOf(1), savedJoggings.get(0).getId());
+            assertFalse(queue.findPending(1).isPresent());
+        } finally {
+            queue.destroy();
+        }
+
+        EasyMock.verify(repository);
+        assertEquals(0, meterRegistry.get("jogging.ingestion.failures").functionCounter().count(), 0);
+    }
+
+    @Test
+    public void rejectAfterShutdown() throws InterruptedException {
+        JoggingIngestionQueue queue = createQueue(createNiceRepository(), 10);
+        queue.destroy();
+        assertFalse(queue.offer(new Jogging().setId(1)));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,169 @@
+package com.laptevn.jogging.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.laptevn.auth.repository.UserRepository;
+import com.laptevn.jogging.entity.Jogging;
+import com.laptevn.jogging.entity.JoggingDto;
+import com.laptevn.jogging.entity.JournaledJoggingWrite;
+import com.laptevn.jogging.repository.JoggingRepository;
+import com.laptevn.journal.repository.JournalCheckpointRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+        "jogging.journal.enable=true",
+        "jogging.journal.directory=" + JoggingJournalIT.DIRECTORY,
+        "jogging.journal.segmentSize=1024",
+        "jogging.journal.batchSize=3",
+        "jogging.journal.replayIntervalMillis=3600000"})
+public class JoggingJournalIT {
+    final static String DIRECTORY = "target/jogging-journal-it";
+    private final static int DISTANCE = 4242;
+    private final static int CREATED_COUNT = 10;
+
+    private JoggingJournal journal;
+    private JoggingJournalReplayer replayer;
+    private JoggingService joggingService;
+    private JoggingRepository joggingRepository;
+    private UserRepository userRepository;
+    private JournalCheckpointRepository checkpointRepository;
+    private PlatformTransactionManager transactionManager;
+    private ObjectMapper objectMapper;
+
+    @BeforeClass
+    public static void deleteJournal() {
+        FileSystemUtils.deleteRecursively(new File(DIRECTORY));
+    }
+
+    @Autowired
+    public void setJournal(JoggingJournal journal) {
+        this.journal = journal;
+    }
+
+    @Autowired
+    public void setReplayer(JoggingJournalReplayer replayer) {
+        this.replayer = replayer;
+    }
+
+    @Autowired
+    public void setJoggingService(JoggingService joggingService) {
+        this.joggingService = joggingService;
+    }
+
+    @Autowired
+    public void setJoggingRepository(JoggingRepository joggingRepository) {
+        this.joggingRepository = joggingRepository;
+    }
+
+    @Autowired
+    public void setUserRepository(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Autowired
+    public void setCheckpointRepository(JournalCheckpointRepository checkpointRepository) {
+        this.checkpointRepository = checkpointRepository;
+    }
+
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.transactionManager = transactionManager;
+    }
+
+    @Autowired
+    public void setObjectMapper(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Test
+    public void replayJournaledWritesOnce() throws IOException, InterruptedException {
+        Jogging existingJogging = joggingRepository.save(new Jogging()
+                .setDate(LocalDate.parse("2019-04-15"))
+                .setDistance(DISTANCE)
+                .setLocation("Berlin")
+                .setTime(LocalTime.parse("00:30:00"))
+                .setUser(userRepository.findByCanonicalName("user1").get()));
+
+        try {
+            for (int i = 0; i < CREATED_COUNT; i++) {
+                journal.append(new JournaledJoggingWrite()
+                        .setUserName("user1")
+                        .setJogging(createJogging("Vienna")));
+            }
+            journal.append(new JournaledJoggingWrite()
+                    .setUserName("user1")
+                    .setId(existingJogging.getId())
+                    .setJogging(createJogging("Prague")));
+            journal.append(new JournaledJoggingWrite()
+                    .setUserName("unknown")
+                    .setJogging(createJogging("Vienna")));
+
+            replayer.replay();
+
+            assertFalse("Journal wasn't replayed", journal.hasPending());
+            assertEquals(CREATED_COUNT, findJoggings("Vienna").size());
+            assertEquals("Prague", joggingRepository.findById(existingJogging.getId()).get().getLocation());
+            assertTrue(
+                    "Checkpoint wasn't saved",
+                    journal.read(checkpointRepository.findById("jogging").get().getPosition(), 1).isEmpty());
+
+            JoggingJournal restartedJournal = new JoggingJournal(
+                    objectMapper, new SimpleMeterRegistry(), DIRECTORY, 1024, 64);
+            JoggingJournalReplayer restartedReplayer = new JoggingJournalReplayer(
+                    restartedJournal,
+                    joggingService,
+                    checkpointRepository,
+                    transactionManager,
+                    new SimpleMeterRegistry(),
+                    "jogging",
+                    3,
+                    3_600_000);
+            try {
+                assertFalse("Replayed journal is pending after restart", restartedJournal.hasPending());
+                restartedReplayer.replay();
+                assertFalse(restartedJournal.hasPending());
+                assertEquals("Journaled joggings were duplicated", CREATED_COUNT, findJoggings("Vienna").size());
+            } finally {
+                restartedReplayer.destroy();
+                restartedJournal.destroy();
+            }
+        } finally {
+            findJoggings("Vienna").forEach(joggingRepository::delete);
+            joggingRepository.deleteById(existingJogging.getId());
+        }
+    }
+
+    private static JoggingDto createJogging(String location) {
+        return new JoggingDto()
+                .setDate(LocalDate.parse("2019-04-15"))
+                .setDistance(DISTANCE)
+                .setLocation(location)
+                .setTime(LocalTime.parse("00:30:00"));
+    }
+
+    private List<Jogging> findJoggings(String location) {
+        return StreamSupport.stream(joggingRepository.findAll().spliterator(), false)
+                .filter(jogging -> jogging.getDistance() == DISTANCE && jogging.getLocation().equals(location))
+                .collect(Collectors.toList());
+    }
+}
\ No newline at end of file
@@ -1,32 +1,53 @@
 package com.laptevn.jogging.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.laptevn.exception.IntegrityException;
+import com.laptevn.exception.ServiceOverloadedException;
+import com.laptevn.exception.WriteJournaledException;
 import com.laptevn.PaginationFactory;
+import com.laptevn.auth.entity.Role;
 import com.laptevn.auth.entity.User;
 import com.laptevn.auth.repository.UserRepository;
+import com.laptevn.auth.service.UserResolver;
 import com.laptevn.jogging.entity.Jogging;
 import com.laptevn.jogging.entity.JoggingDto;
+import com.laptevn.jogging.entity.JoggingPatchDto;
+import com.laptevn.jogging.entity.JournaledJoggingWrite;
 import com.laptevn.jogging.repository.JoggingRepository;
+import com.laptevn.jogging.repository.JoggingStatsRepository;
+import com.laptevn.journal.JournalPosition;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.easymock.EasyMock;
 import org.easymock.IAnswer;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 public class JoggingServiceTest {
+    private final static String USER_NAME = "test";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Test(expected = IntegrityException.class)
     public void createJoggingWithoutUser() {
-        new JoggingService(null, createUserRepository(Optional.empty()), null)
-                .createJogging(new JoggingDto(), null);
+        createJoggingService(null, createUserResolver(Optional.empty()), null)
+                .createJogging(new JoggingDto(), USER_NAME);
     }
 
     @Test(expected = IntegrityException.class)
@@ -36,8 +57,8 @@ public class JoggingServiceTest {
                 .andThrow(new DataIntegrityViolationException("Test exception"));
         EasyMock.replay(joggingRepository);
 
-        new JoggingService(joggingRepository, createUserRepository(Optional.of(new User())), null)
-                .createJogging(new JoggingDto(), null);
+        createJoggingService(joggingRepository, createUserResolver(Optional.of(new User())), null)
+                .createJogging(new JoggingDto(), USER_NAME);
     }
 
     @Test
@@ -48,37 +69,229 @@ public class JoggingServiceTest {
                 .andAnswer((IAnswer<Jogging>) () -> ((Jogging) EasyMock.getCurrentArguments()[0]).setId(expectedId));
         EasyMock.replay(joggingRepository);
 
-        int id = new JoggingService(joggingRepository, createUserRepository(Optional.of(new User())), null)
-                .createJogging(new JoggingDto(), null);
+        int id = createJoggingService(joggingRepository, createUserResolver(Optional.of(new User())), null)
+                .createJogging(new JoggingDto(), USER_NAME);
         assertEquals(expectedId, id);
     }
 
-    private static UserRepository createUserRepository(Optional<User> user) {
+    @Test
+    public void journalJoggingWhenDatabaseIsUnavailable() throws IOException {
+        JoggingRepository joggingRepository = EasyMock.mock(JoggingRepository.class);
+        EasyMock.expect(joggingRepository.save(EasyMock.anyObject()))
+                .andThrow(new DataAccessResourceFailureException("Test exception"));
+        EasyMock.replay(joggingRepository);
+
+        JoggingJournal journal = createJournal();
+        try {
+            new JoggingService(
+                    joggingRepository,
+                    createStatsRepository(),
+                    createSpeedSketchService(),
+                    createUserResolver(Optional.of(new User())),
+                    null,
+                    createTransactionManager(),
+                    Optional.empty(),
+                    Optional.of(journal),
+                    10)
+                    .createJogging(new JoggingDto().setLocation("Oslo"), USER_NAME);
+        } catch (WriteJournaledException e) {
+            assertTrue(journal.hasPending());
+            JournaledJoggingWrite write = journal.parse(journal.read(JournalPosition.START, 1).get(0));
+            assertEquals(USER_NAME, write.getUserName());
+            assertEquals("Oslo", write.getJogging().getLocation());
+            return;
+        } finally {
+            journal.destroy();
+        }
+
+        throw new AssertionError("Jogging wasn't journaled");
+    }
+
+    @Test
+    public void journalJoggingBehindPendingWrites() throws IOException {
+        JoggingRepository joggingRepository = EasyMock.mock(JoggingRepository.class);
+        EasyMock.replay(joggingRepository);
+
+        JoggingJournal journal = createJournal();
+        try {
+            journal.append(new JournaledJoggingWrite().setUserName(USER_NAME).setJogging(new JoggingDto()));
+            new JoggingService(
+                    joggingRepository,
+                    createStatsRepository(),
+                    createSpeedSketchService(),
+                    createUserResolver(Optional.of(new User())),
+                    null,
+                    createTransactionManager(),
+                    Optional.empty(),
+                    Optional.of(journal),
+                    10)
+                    .updateJogging(5, new JoggingDto().setDistance(10), USER_NAME);
+        } catch (WriteJournaledException e) {
+            List<JournaledJoggingWrite> writes = journal.read(JournalPosition.START, 10)
+                    .stream()
+                    .map(journal::parse)
+                    .collect(Collectors.toList());
+            assertEquals(2, writes.size());
+            assertEquals(Integer.valueOf(5), writes.get(1).getId());
+            assertEquals(Integer.valueOf(10), writes.get(1).getJogging().getDistance());
+            return;
+        } finally {
+            journal.destroy();
+        }
+
+        throw new AssertionError("Jogging wasn't journaled");
+    }
+
+    private JoggingJournal createJournal() throws IOException {
+        return new JoggingJournal(
+                new ObjectMapper().findAndRegisterModules(),
+                new SimpleMeterRegistry(),
+                folder.getRoot().getPath(),
+                4096,
+                2);
+    }
+
+    @Test
+    public void createJoggings() {
+        User user = new User().setId(7);
+        JoggingRepository joggingRepository = EasyMock.mock(JoggingRepository.class);
+        joggingRepository.saveInBatches(EasyMock.anyObject());
+        EasyMock.expectLastCall().andAnswer(() -> {
+            @SuppressWarnings("unchecked")
+            List<Jogging> joggings = (List<Jogging>) EasyMock.getCurrentArguments()[0];
+            for (int i = 0; i < joggings.size(); i++) {
+                assertEquals(user.getId(), joggings.get(i).getUser().getId());
+                joggings.get(i).setId(100 + i);
+            }
+            return null;
+        });
+        EasyMock.replay(joggingRepository);
+
+        List<Integer> ids = createJoggingService(joggingRepository, createUserResolver(Optional.of(user)), null)
+                .createJoggings(Arrays.asList(new JoggingDto().setLocation("Paris"), new JoggingDto()), USER_NAME);
+        assertEquals(Arrays.asList(100, 101), ids);
+        EasyMock.verify(joggingRepository);
+    }
+
+    private static UserResolver createUserResolver(Optional<User> user) {
         UserRepository userRepository = EasyMock.mock(UserRepository.class);
-        EasyMock.expect(userRepository.findByNameIgnoreCase(EasyMock.anyString())).andReturn(user);
+        EasyMock.expect(userRepository.findByCanonicalName(EasyMock.anyString())).andReturn(user);
         EasyMock.replay(userRepository);
-        return userRepository;
+        return new UserResolver(userRepository, 10, 5, new SimpleMeterRegistry());
+    }
+
+    private static JoggingService createJoggingService(
+            JoggingRepository joggingRepository, UserResolver userResolver, PaginationFactory paginationFactory) {
+
+        return new JoggingService(
+                joggingRepository,
+                createStatsRepository(),
+                createSpeedSketchService(),
+                userResolver,
+                paginationFactory,
+                createTransactionManager(),
+                Optional.empty(),
+                Optional.empty(),
+                10);
+    }
+
+    private static JoggingStatsRepository createStatsRepository() {
+        JoggingStatsRepository statsRepository = EasyMock.niceMock(JoggingStatsRepository.class);
+        EasyMock.replay(statsRepository);
+        return statsRepository;
+    }
+
+    private static SpeedSketchService createSpeedSketchService() {
+        SpeedSketchService speedSketchService = EasyMock.niceMock(SpeedSketchService.class);
+        EasyMock.replay(speedSketchService);
+        return speedSketchService;
+    }
+
+    private static PlatformTransactionManager createTransactionManager() {
+        PlatformTransactionManager transactionManager = EasyMock.niceMock(PlatformTransactionManager.class);
+        EasyMock.replay(transactionManager);
+        return transactionManager;
+    }
+
+    @Test
+    public void getQueuedJogging() throws InterruptedException {
+        JoggingRepository repository = EasyMock.mock(JoggingRepository.class);
+        EasyMock.expect(repository.reserveId()).andReturn(42);
+        repository.saveInBatches(EasyMock.anyObject());
+        EasyMock.expectLastCall().anyTimes();
+        EasyMock.replay(repository);
+
+        JoggingIngestionQueue ingestionQueue = JoggingIngestionQueueTest.createQueue(repository, 1);
+        try {
+            JoggingService joggingService = new JoggingService(
+                    repository,
+                    createStatsRepository(),
+                    createSpeedSketchService(),
+                    createUserResolver(Optional.of(new User().setId(7))),
+                    null,
+                    createTransactionManager(),
+                    Optional.of(ingestionQueue),
+                    Optional.empty(),
+                    10);
+            assertEquals(42, joggingService.enqueueJogging(new JoggingDto().setLocation("Oslo"), USER_NAME));
+
+            Optional<JoggingDto> joggingDto = joggingService.getJogging(42, USER_NAME);
+            assertTrue("Queued jogging wasn't found", joggingDto.isPresent());
+            assertEquals("Oslo", joggingDto.get().getLocation());
+            assertEquals(Integer.valueOf(0), joggingDto.get().getVersion());
+            assertEquals(Optional.of(0), joggingService.getJoggingVersion(42, USER_NAME));
+        } finally {
+            ingestionQueue.destroy();
+        }
+    }
+
+    @Test(expected = ServiceOverloadedException.class)
+    public void enqueueJoggingToFullQueue() throws InterruptedException {
+        JoggingRepository repository = EasyMock.mock(JoggingRepository.class);
+        EasyMock.expect(repository.reserveId()).andReturn(1).andReturn(2);
+        repository.saveInBatches(EasyMock.anyObject());
+        EasyMock.expectLastCall().anyTimes();
+        EasyMock.replay(repository);
+
+        JoggingIngestionQueue ingestionQueue = JoggingIngestionQueueTest.createQueue(repository, 1);
+        try {
+            JoggingService joggingService = new JoggingService(
+                    repository,
+                    createStatsRepository(),
+                    createSpeedSketchService(),
+                    createUserResolver(Optional.of(new User())),
+                    null,
+                    createTransactionManager(),
+                    Optional.of(ingestionQueue),
+                    Optional.empty(),
+                    10);
+            joggingService.enqueueJogging(new JoggingDto(), USER_NAME);
+            joggingService.enqueueJogging(new JoggingDto(), USER_NAME);
+        } finally {
+            ingestionQueue.destroy();
+        }
     }
 
     @Test
     public void getNotExistingJogging() {
-        Optional<JoggingDto> joggingDto = new JoggingService(
-                createJoggingRepository(Optional.empty()), createUserRepository(Optional.of(new User())), null)
-                .getJogging(0, null);
+        Optional<JoggingDto> joggingDto = createJoggingService(
+                createJoggingRepository(Optional.empty()), createUserResolver(Optional.of(new User())), null)
+                .getJogging(0, USER_NAME);
         assertFalse(joggingDto.isPresent());
     }
 
     @Test
     public void getExistingJogging() {
         Jogging jogging = new Jogging()
+                .setId(0)
                 .setTime(LocalTime.now())
                 .setLocation("Moscow")
                 .setDistance(3000)
                 .setDate(LocalDate.now());
 
-        Optional<JoggingDto> joggingDto = new JoggingService(
-                createJoggingRepository(Optional.of(jogging)), createUserRepository(Optional.of(new User())), null)
-                .getJogging(0, null);
+        Optional<JoggingDto> joggingDto = createJoggingService(
+                createJoggingRepository(Optional.of(jogging)), createUserResolver(Optional.of(new User())), null)
+                .getJogging(0, USER_NAME);
         assertTrue("Jogging wasn't found", joggingDto.isPresent());
         assertEquals("Invalid date", jogging.getDate(), joggingDto.get().getDate());
         assertEquals("Invalid time", jogging.getTime(), joggingDto.get().getTime());
@@ -98,47 +311,189 @@ public class JoggingServiceTest {
     @Test
     public void deleteNotExistingJogging() {
         JoggingRepository repository = EasyMock.mock(JoggingRepository.class);
-        EasyMock.expect(repository.deleteByIdAndUser(EasyMock.anyInt(), EasyMock.anyObject())).andReturn(0);
+        EasyMock.expect(repository.findForUpdateByIdAndUser(EasyMock.anyInt(), EasyMock.anyObject()))
+                .andReturn(Optional.empty());
         EasyMock.replay(repository);
 
-        assertFalse(new JoggingService(repository, createUserRepository(Optional.of(new User())), null)
-                .deleteJogging(0, null));
+        assertFalse(createJoggingService(repository, createUserResolver(Optional.of(new User())), null)
+                .deleteJogging(0, USER_NAME));
     }
 
     @Test
     public void deleteExistingJogging() {
         JoggingRepository repository = EasyMock.mock(JoggingRepository.class);
-        EasyMock.expect(repository.deleteByIdAndUser(EasyMock.anyInt(), EasyMock.anyObject())).andReturn(1);
+        Jogging jogging = new Jogging();
+        EasyMock.expect(repository.findForUpdateByIdAndUser(EasyMock.anyInt(), EasyMock.anyObject()))
+                .andReturn(Optional.of(jogging));
+        repository.delete(jogging);
+        EasyMock.expectLastCall();
         EasyMock.replay(repository);
 
-        assertTrue(new JoggingService(repository, createUserRepository(Optional.of(new User())), null)
-                .deleteJogging(0, null));
+        assertTrue(createJoggingService(repository, createUserResolver(Optional.of(new User())), null)
+                .deleteJogging(0, USER_NAME));
+        EasyMock.verify(repository);
     }
 
     @Test
     public void updateExistingJogging() {
-        Jogging jogging = new Jogging()
-                .setDate(LocalDate.now())
-                .setLocation("test");
         JoggingDto joggingDto = new JoggingDto()
                 .setDate(LocalDate.now())
                 .setLocation("test");
 
-        Optional<Integer> newId = new JoggingService(
-                createJoggingRepository(Optional.of(jogging)), createUserRepository(Optional.of(new User())), null)
-                .updateJogging(0, joggingDto, null);
+        Optional<Integer> newId = createJoggingService(
+                createUpdatableRepository(Optional.of(new Jogging().setId(0).setVersion(0)), 1),
+                createUserResolver(Optional.of(new User())),
+                null)
+                .updateJogging(0, joggingDto, USER_NAME);
         assertFalse(newId.isPresent());
     }
 
     @Test
     public void updateNotExistingJogging() {
-        Optional<Integer> newId = new JoggingService(
-                createJoggingRepository(Optional.empty()), createUserRepository(Optional.of(new User())), null)
-                .updateJogging(0, new JoggingDto(), null);
+        Optional<Integer> newId = createJoggingService(
+                createUpdatableRepository(Optional.empty(), 0), createUserResolver(Optional.of(new User())), null)
+                .updateJogging(0, new JoggingDto(), USER_NAME);
         assertTrue("No id retrieved", newId.isPresent());
         assertEquals("Id is invalid", 0, (int) newId.get());
     }
 
+    @Test
+    public void updateJoggingByAdmin() {
+        JoggingDto joggingDto = new JoggingDto()
+                .setDate(LocalDate.now())
+                .setDistance(1000)
+                .setTime(LocalTime.NOON)
+                .setLocation("test");
+
+        JoggingRepository repository = EasyMock.mock(JoggingRepository.class);
+        EasyMock.expect(repository.findForUpdateById(5)).andReturn(Optional.of(new Jogging().setId(5).setVersion(3)));
+        EasyMock.expect(repository.updateByIdAndVersion(
+                5, 3, joggingDto.getDate(), joggingDto.getDistance(), joggingDto.getTime(), joggingDto.getLocation()))
+                .andReturn(1);
+        EasyMock.replay(repository);
+
+        Optional<Integer> newId = createJoggingService(
+                repository, createUserResolver(Optional.of(new User().setRole(Role.ADMIN))), null)
+                .updateJogging(5, joggingDto, USER_NAME);
+        assertFalse(newId.isPresent());
+        EasyMock.verify(repository);
+    }
+
+    @Test
+    public void updateKnownJoggingWithoutReadingIt() {
+        JoggingDto joggingDto = new JoggingDto()
+                .setDate(LocalDate.now())
+                .setDistance(1000)
+                .setTime(LocalTime.NOON)
+                .setLocation("test");
+
+        JoggingRepository repository = EasyMock.mock(JoggingRepository.class);
+        EasyMock.expect(repository.findById(5))
+                .andReturn(Optional.of(new Jogging().setId(5).setVersion(3).setLocation("Oslo")));
+        EasyMock.expect(repository.updateByIdAndVersion(
+                5, 3, joggingDto.getDate(), joggingDto.getDistance(), joggingDto.getTime(), joggingDto.getLocation()))
+                .andReturn(1);
+        EasyMock.expect(repository.updateByIdAndVersion(
+                5, 4, joggingDto.getDate(), joggingDto.getDistance(), joggingDto.getTime(), joggingDto.getLocation()))
+                .andReturn(1);
+        EasyMock.replay(repository);
+
+        JoggingService joggingService = createJoggingService(
+                repository, createUserResolver(Optional.of(new User().setRole(Role.ADMIN))), null);
+        assertTrue(joggingService.getJogging(5, USER_NAME).isPresent());
+        assertEquals(Optional.of(4), joggingService.updateExistingJogging(5, joggingDto, USER_NAME, Optional.of(3)));
+        assertEquals(Optional.of(5), joggingService.updateExistingJogging(5, joggingDto, USER_NAME, Optional.of(4)));
+        EasyMock.verify(repository);
+    }
+
+    @Test
+    public void updateStaleKnownJogging() {
+        JoggingDto joggingDto = new JoggingDto().setLocation("test");
+        JoggingRepository repository = EasyMock.mock(JoggingRepository.class);
+        EasyMock.expect(repository.findById(5)).andReturn(Optional.of(new Jogging().setId(5).setVersion(3)));
+        EasyMock.expect(repository.updateByIdAndVersion(5, 3, null, null, null, "test")).andReturn(0);
+        EasyMock.expect(repository.findForUpdateById(5)).andReturn(Optional.of(new Jogging().setId(5).setVersion(7)));
+        EasyMock.expect(repository.updateByIdAndVersion(5, 7, null, null, null, "test")).andReturn(1);
+        EasyMock.replay(repository);
+
+        JoggingService joggingService = createJoggingService(
+                repository, createUserResolver(Optional.of(new User().setRole(Role.ADMIN))), null);
+        assertTrue(joggingService.getJogging(5, USER_NAME).isPresent());
+        assertEquals(Optional.of(8), joggingService.updateExistingJogging(5, joggingDto, USER_NAME, Optional.empty()));
+        EasyMock.verify(repository);
+    }
+
+    private static JoggingRepository createUpdatableRepository(
+            Optional<Jogging> existingJogging, int updatedEntriesCount) {
+
+        JoggingRepository repository = EasyMock.mock(JoggingRepository.class);
+        EasyMock.expect(repository.findForUpdateByIdAndUser(EasyMock.anyInt(), EasyMock.anyObject()))
+                .andReturn(existingJogging);
+        EasyMock.expect(repository.updateByIdAndUserAndVersion(
+                EasyMock.anyInt(),
+                EasyMock.anyObject(),
+                EasyMock.anyInt(),
+                EasyMock.anyObject(),
+                EasyMock.anyObject(),
+                EasyMock.anyObject(),
+                EasyMock.anyObject()))
+                .andReturn(updatedEntriesCount)
+                .times(0, 1);
+        EasyMock.expect(repository.save(EasyMock.anyObject()))
+                .andAnswer((IAnswer<Jogging>) () -> ((Jogging) EasyMock.getCurrentArguments()[0]).setId(0))
+                .times(0, 1);
+        EasyMock.replay(repository);
+        return repository;
+    }
+
+    @Test
+    public void deleteJoggingsOfUser() {
+        User user = new User();
+        JoggingRepository repository = EasyMock.mock(JoggingRepository.class);
+        EasyMock.expect(repository.deleteByUser(EasyMock.anyObject(), EasyMock.eq("distance gt 10"), EasyMock.anyObject())).andReturn(3);
+        EasyMock.replay(repository);
+
+        assertEquals(3, createJoggingService(repository, createUserResolver(Optional.of(user)), null)
+                .deleteJoggings(USER_NAME, "distance gt 10"));
+        EasyMock.verify(repository);
+    }
+
+    @Test
+    public void deleteJoggingsByAdmin() {
+        JoggingRepository repository = EasyMock.mock(JoggingRepository.class);
+        EasyMock.expect(repository.deleteAll(EasyMock.eq("distance gt 10"), EasyMock.anyObject())).andReturn(5);
+        EasyMock.replay(repository);
+
+        assertEquals(5, createJoggingService(
+                repository, createUserResolver(Optional.of(new User().setRole(Role.ADMIN))), null)
+                .deleteJoggings(USER_NAME, "distance gt 10"));
+        EasyMock.verify(repository);
+    }
+
+    @Test
+    public void updateJoggingsOfUser() {
+        JoggingRepository repository = EasyMock.mock(JoggingRepository.class);
+        EasyMock.expect(repository.updateByUser(
+                EasyMock.anyObject(), EasyMock.eq("distance gt 10"), EasyMock.anyObject(), EasyMock.anyObject()))
+                .andAnswer(() -> {
+                    Jogging changes = (Jogging) EasyMock.getCurrentArguments()[2];
+                    assertEquals(7, (int) changes.getDistance());
+                    assertEquals(null, changes.getLocation());
+                    return 2;
+                });
+        EasyMock.replay(repository);
+
+        assertEquals(2, createJoggingService(repository, createUserResolver(Optional.of(new User())), null)
+                .updateJoggings(USER_NAME, new JoggingPatchDto().setFilter("distance gt 10").setDistance(7)));
+        EasyMock.verify(repository);
+    }
+
+    @Test(expected = IntegrityException.class)
+    public void updateJoggingsWithoutChanges() {
+        createJoggingService(null, createUserResolver(Optional.of(new User())), null)
+                .updateJoggings(USER_NAME, new JoggingPatchDto().setFilter("distance gt 10"));
+    }
+
     @Test
     public void getAllWithoutPagination() {
         List<Jogging> joggings = Arrays.asList(
@@ -157,9 +512,10 @@ public class JoggingServiceTest {
         EasyMock.expect(repository.findByUser(EasyMock.anyObject())).andReturn(joggings);
         EasyMock.replay(repository);
 
-        List<JoggingDto> foundJoggins = (List<JoggingDto>) new JoggingService(
-                repository, createUserRepository(Optional.of(new User())), new PaginationFactory())
-                .getAllJoggings(null, null, null, null);
+        List<JoggingDto> foundJoggins = (List<JoggingDto>) createJoggingService(
+                repository, createUserResolver(Optional.of(new User())), new PaginationFactory())
+                .getAllJoggings(USER_NAME, null, null, null)
+                .getContent();
 
         assertEquals("Not all joggins were found", joggings.size(), foundJoggins.size());
         assertEquals("Found joggin has invalid location", joggings.get(0).getLocation(), foundJoggins.get(0).getLocation());
@@ -179,9 +535,10 @@ public class JoggingServiceTest {
         EasyMock.expect(repository.findByUser(EasyMock.anyObject(), EasyMock.anyObject())).andReturn(joggings);
         EasyMock.replay(repository);
 
-        List<JoggingDto> foundJoggins = (List<JoggingDto>) new JoggingService(
-                repository, createUserRepository(Optional.of(new User())), new PaginationFactory())
-                .getAllJoggings(null, 1, 2, null);
+        List<JoggingDto> foundJoggins = (List<JoggingDto>) createJoggingService(
+                repository, createUserResolver(Optional.of(new User())), new PaginationFactory())
+                .getAllJoggings(USER_NAME, 1, 2, null)
+                .getContent();
 
         assertEquals("Not all joggins were found", joggings.size(), foundJoggins.size());
         assertEquals("Found joggin has invalid location", joggings.get(0).getLocation(), foundJoggins.get(0).getLocation());
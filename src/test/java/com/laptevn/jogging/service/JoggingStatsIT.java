@@ -0,0 +1,225 @@
+package com.laptevn.jogging.service;
+
+import com.laptevn.auth.entity.User;
+import com.laptevn.auth.repository.UserRepository;
+import com.laptevn.jogging.entity.Jogging;
+import com.laptevn.jogging.entity.JoggingDto;
+import com.laptevn.jogging.entity.JoggingPatchDto;
+import com.laptevn.jogging.entity.JoggingStats;
+import com.laptevn.jogging.entity.JoggingStatsKey;
+import com.laptevn.jogging.entity.ReportDto;
+import com.laptevn.jogging.repository.JoggingRepository;
+import com.laptevn.jogging.repository.JoggingStatsRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "jogging.bulk.chunkSize=7")
+public class JoggingStatsIT {
+    private final static Logger logger = LoggerFactory.getLogger(JoggingStatsIT.class);
+    private final static String USER_NAME = "user1";
+    private final static String LOCATION = "Statsville";
+    private final static String FILTER = "location eq '" + LOCATION + "'";
+    private final static int BENCHMARK_RUN_COUNT = 5000;
+    private final static int BENCHMARK_ITERATIONS = 20;
+
+    private JoggingService joggingService;
+    private ReportService reportService;
+    private JoggingStatsRepairJob repairJob;
+    private JoggingRepository joggingRepository;
+    private JoggingStatsRepository statsRepository;
+    private UserRepository userRepository;
+
+    @Autowired
+    public void setJoggingService(JoggingService joggingService) {
+        this.joggingService = joggingService;
+    }
+
+    @Autowired
+    public void setReportService(ReportService reportService) {
+        this.reportService = reportService;
+    }
+
+    @Autowired
+    public void setRepairJob(JoggingStatsRepairJob repairJob) {
+        this.repairJob = repairJob;
+    }
+
+    @Autowired
+    public void setJoggingRepository(JoggingRepository joggingRepository) {
+        this.joggingRepository = joggingRepository;
+    }
+
+    @Autowired
+    public void setStatsRepository(JoggingStatsRepository statsRepository) {
+        this.statsRepository = statsRepository;
+    }
+
+    @Autowired
+    public void setUserRepository(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Before
+    public void repairStats() {
+        repairJob.repairStats();
+    }
+
+    @After
+    public void deleteJoggings() {
+        joggingService.deleteJoggings(USER_NAME, FILTER);
+    }
+
+    @Test
+    public void keepStatsConsistentOnWrites() {
+        LocalDate today = LocalDate.now();
+        int firstId = joggingService.createJogging(createJoggingDto(today, 1000, "00:05:00"), USER_NAME);
+        int secondId = joggingService.createJogging(createJoggingDto(today, 3000, "00:20:00"), USER_NAME);
+        assertConsistent();
+
+        assertEquals(Optional.empty(), joggingService.updateJogging(
+                firstId, createJoggingDto(today.minusDays(1), 1500, "00:06:00"), USER_NAME));
+        assertConsistent();
+
+        assertFalse(joggingService.updateExistingJogging(
+                secondId, createJoggingDto(today, 100, "00:01:00"), USER_NAME, Optional.of(42)).isPresent());
+        assertTrue(joggingService.updateExistingJogging(
+                secondId, createJoggingDto(today, 100, "00:00:00"), USER_NAME, Optional.of(0)).isPresent());
+        assertConsistent();
+
+        assertTrue(joggingService.deleteJogging(firstId, USER_NAME));
+        assertFalse(joggingService.deleteJogging(firstId, USER_NAME));
+        assertConsistent();
+
+        List<JoggingDto> joggingDtos = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            joggingDtos.add(createJoggingDto(today.minusDays(i % 9), 500 + i * 10, "00:0" + (i % 10) + ":30"));
+        }
+        joggingService.createJoggings(joggingDtos, USER_NAME);
+        assertConsistent();
+
+        assertEquals(11, joggingService.updateJoggings(
+                USER_NAME, new JoggingPatchDto().setFilter(FILTER + " AND distance lt 600").setDistance(777)));
+        assertConsistent();
+
+        assertEquals(31, joggingService.updateJoggings(
+                USER_NAME, new JoggingPatchDto().setFilter(FILTER).setDate(today.minusDays(2))));
+        assertConsistent();
+
+        assertEquals(31, joggingService.updateJoggings(
+                USER_NAME, new JoggingPatchDto().setFilter(FILTER).setLocation(LOCATION)));
+        assertEquals(20, joggingService.deleteJoggings(USER_NAME, FILTER + " AND distance gt 700"));
+        assertConsistent();
+        assertReportMatchesRuns();
+    }
+
+    @Test
+    public void repairCorruptedStats() {
+        LocalDate today = LocalDate.now();
+        joggingService.createJogging(createJoggingDto(today, 2000, "00:10:00"), USER_NAME);
+        joggingService.createJogging(createJoggingDto(today.minusDays(1), 2000, "00:10:00"), USER_NAME);
+        int userId = userRepository.findByCanonicalName(USER_NAME).get().getId();
+
+        JoggingStats corruptedStats = statsRepository.findById(new JoggingStatsKey(userId, today)).get();
+        statsRepository.save(corruptedStats.setRunCount(corruptedStats.getRunCount() + 5));
+        statsRepository.deleteById(new JoggingStatsKey(userId, today.minusDays(1)));
+        statsRepository.save(new JoggingStats(userId, today.minusYears(10), 3, 100, 1));
+
+        List<JoggingStatsKey> inconsistentKeys = repairJob.findInconsistentStats();
+        assertEquals(3, inconsistentKeys.size());
+        assertTrue(inconsistentKeys.contains(new JoggingStatsKey(userId, today)));
+        assertTrue(inconsistentKeys.contains(new JoggingStatsKey(userId, today.minusDays(1))));
+        assertTrue(inconsistentKeys.contains(new JoggingStatsKey(userId, today.minusYears(10))));
+
+        repairJob.repairStats();
+        assertConsistent();
+        assertFalse(statsRepository.existsById(new JoggingStatsKey(userId, today.minusYears(10))));
+        assertReportMatchesRuns();
+    }
+
+    @Test
+    public void benchmarkReport() {
+        LocalDate today = LocalDate.now();
+        List<JoggingDto> joggingDtos = new ArrayList<>();
+        for (int i = 0; i < BENCHMARK_RUN_COUNT; i++) {
+            joggingDtos.add(createJoggingDto(
+                    today.minusDays(i % 7), 1000 + i % 5000, LocalTime.ofSecondOfDay(300 + i % 3000).toString()));
+        }
+        joggingService.createJoggings(joggingDtos, USER_NAME);
+        User user = userRepository.findByCanonicalName(USER_NAME).get();
+
+        ReportDto joggingReport = null;
+        long joggingStartTime = System.nanoTime();
+        for (int i = 0; i < BENCHMARK_ITERATIONS; i++) {
+            joggingReport = generateReportFromRuns(user);
+        }
+        long joggingNanos = (System.nanoTime() - joggingStartTime) / BENCHMARK_ITERATIONS;
+
+        ReportDto statsReport = null;
+        long statsStartTime = System.nanoTime();
+        for (int i = 0; i < BENCHMARK_ITERATIONS; i++) {
+            statsReport = reportService.generateReport(USER_NAME);
+        }
+        long statsNanos = (System.nanoTime() - statsStartTime) / BENCHMARK_ITERATIONS;
+
+        logger.info(
+                "Weekly report over {} runs: {} us from runs, {} us from stats",
+                BENCHMARK_RUN_COUNT, joggingNanos / 1000, statsNanos / 1000);
+        assertEquals(joggingReport.getAverageDistance(), statsReport.getAverageDistance(), 1e-6);
+        assertEquals(joggingReport.getAverageSpeed(), statsReport.getAverageSpeed(), 1e-6);
+        assertTrue("Report isn't faster with stats", statsNanos < joggingNanos);
+    }
+
+    private void assertConsistent() {
+        assertEquals(Collections.emptyList(), repairJob.findInconsistentStats());
+    }
+
+    private void assertReportMatchesRuns() {
+        ReportDto expectedReport = generateReportFromRuns(userRepository.findByCanonicalName(USER_NAME).get());
+        ReportDto report = reportService.generateReport(USER_NAME);
+        assertEquals(expectedReport.getAverageDistance(), report.getAverageDistance(), 1e-6);
+        assertEquals(expectedReport.getAverageSpeed(), report.getAverageSpeed(), 1e-6);
+    }
+
+    private ReportDto generateReportFromRuns(User user) {
+        LocalDate rightBound = LocalDate.now();
+        List<Jogging> joggings = joggingRepository.findByDateBetweenAndUser(
+                rightBound.minus(Period.ofWeeks(1)), rightBound, user);
+        return new ReportDto(
+                joggings.stream()
+                        .mapToDouble(jogging -> JoggingStats.calculateSpeed(jogging.getDistance(), jogging.getTime()))
+                        .average()
+                        .orElse(0),
+                joggings.stream()
+                        .mapToDouble(Jogging::getDistance)
+                        .average()
+                        .orElse(0));
+    }
+
+    private static JoggingDto createJoggingDto(LocalDate date, int distance, String time) {
+        return new JoggingDto()
+                .setDate(date)
+                .setDistance(distance)
+                .setTime(LocalTime.parse(time))
+                .setLocation(LOCATION);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,190 @@
+package com.laptevn.jogging.service;
+
+import com.laptevn.SqlStatementRecorder;
+import com.laptevn.jogging.entity.Jogging;
+import com.laptevn.jogging.entity.JoggingDto;
+import com.laptevn.jogging.repository.JoggingRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class JoggingUpdateIT {
+    private final static Logger logger = LoggerFactory.getLogger(JoggingUpdateIT.class);
+    private final static String USER_NAME = "user1";
+    private final static int THREAD_COUNT = 4;
+    private final static int UPDATES_PER_THREAD = 200;
+    private final static int STATEMENTS_PER_UPDATE = 2;
+    private final static LocalDate DATE = LocalDate.parse("2019-04-01");
+    private final static LocalTime TIME = LocalTime.parse("00:10:00");
+
+    private JoggingService joggingService;
+    private JoggingRepository joggingRepository;
+    private final List<Integer> ids = new ArrayList<>();
+
+    @Autowired
+    public void setJoggingService(JoggingService joggingService) {
+        this.joggingService = joggingService;
+    }
+
+    @Autowired
+    public void setJoggingRepository(JoggingRepository joggingRepository) {
+        this.joggingRepository = joggingRepository;
+    }
+
+    @Before
+    public void createJoggings() {
+        for (int i = 0; i < THREAD_COUNT; i++) {
+            int id = joggingService.createJogging(createJoggingDto(1000, "Oslo"), USER_NAME);
+            Jogging jogging = joggingRepository.findById(id).get();
+            joggingRepository.save(jogging.setAverageTemperature("10").setWeatherCondition("Sunny"));
+            joggingService.getJogging(id, USER_NAME);
+            ids.add(id);
+        }
+    }
+
+    @After
+    public void deleteJoggings() {
+        ids.forEach(id -> joggingService.deleteJogging(id, USER_NAME));
+    }
+
+    @Test
+    public void keepWeatherForSameDateAndLocation() {
+        int id = ids.get(0);
+        SqlStatementRecorder.clear();
+        assertEquals(Optional.empty(), joggingService.updateJogging(id, createJoggingDto(2000, "Oslo"), USER_NAME));
+        assertEquals("Unexpected statements", STATEMENTS_PER_UPDATE, SqlStatementRecorder.getStatements().size());
+
+        Jogging jogging = joggingRepository.findById(id).get();
+        assertEquals(2000, (int) jogging.getDistance());
+        assertEquals("Sunny", jogging.getWeatherCondition());
+        assertEquals("10", jogging.getAverageTemperature());
+        assertEquals("Version wasn't incremented", 2, (int) jogging.getVersion());
+    }
+
+    @Test
+    public void resetWeatherForChangedLocation() {
+        int id = ids.get(0);
+        assertEquals(Optional.empty(), joggingService.updateJogging(id, createJoggingDto(1000, "Bergen"), USER_NAME));
+
+        Jogging jogging = joggingRepository.findById(id).get();
+        assertEquals("Bergen", jogging.getLocation());
+        assertNull(jogging.getWeatherCondition());
+        assertNull(jogging.getAverageTemperature());
+    }
+
+    @Test
+    public void resetWeatherForChangedDate() {
+        int id = ids.get(0);
+        assertEquals(Optional.empty(), joggingService.updateJogging(
+                id, createJoggingDto(1000, "Oslo").setDate(DATE.plusDays(1)), USER_NAME));
+
+        Jogging jogging = joggingRepository.findById(id).get();
+        assertEquals(DATE.plusDays(1), jogging.getDate());
+        assertNull(jogging.getWeatherCondition());
+    }
+
+    @Test
+    public void updateStaleKnownJogging() {
+        int id = ids.get(0);
+        joggingRepository.save(joggingRepository.findById(id).get().setDistance(1500));
+        assertEquals(Optional.empty(), joggingService.updateJogging(id, createJoggingDto(2000, "Oslo"), USER_NAME));
+
+        Jogging jogging = joggingRepository.findById(id).get();
+        assertEquals(2000, (int) jogging.getDistance());
+        assertEquals("Version wasn't incremented", 3, (int) jogging.getVersion());
+    }
+
+    @Test
+    public void notUpdateJoggingOfAnotherUser() {
+        assertFalse(joggingService.updateExistingJogging(
+                ids.get(0), createJoggingDto(2000, "Oslo"), "user2", Optional.empty()).isPresent());
+        assertEquals(1000, (int) joggingRepository.findById(ids.get(0)).get().getDistance());
+    }
+
+    @Test
+    public void concurrentUpdates() throws Exception {
+        long loadAndSaveNanos = updateConcurrently((id, distance) -> {
+            Jogging jogging = joggingRepository.findById(id).get();
+            jogging.setDistance(distance);
+            joggingRepository.save(jogging);
+        });
+        long loadAndSaveStatements = countJoggingStatements();
+        ids.forEach(id -> joggingRepository.save(joggingRepository.findById(id).get().setDistance(1000)));
+        ids.forEach(id -> joggingService.getJogging(id, USER_NAME));
+
+        long serviceUpdateNanos = updateConcurrently(
+                (id, distance) -> joggingService.updateJogging(id, createJoggingDto(distance, "Oslo"), USER_NAME));
+        long serviceUpdateStatements = countJoggingStatements();
+
+        int updateCount = THREAD_COUNT * UPDATES_PER_THREAD;
+        assertEquals("Unexpected statements per update", updateCount * STATEMENTS_PER_UPDATE, serviceUpdateStatements);
+        logger.info(
+                "{} threads, {} updates: load and save {} statements {} us/update, service update with stats {} statements {} us/update",
+                THREAD_COUNT,
+                updateCount,
+                loadAndSaveStatements,
+                loadAndSaveNanos / updateCount / 1000,
+                serviceUpdateStatements,
+                serviceUpdateNanos / updateCount / 1000);
+    }
+
+    private static long countJoggingStatements() {
+        return SqlStatementRecorder.getStatements()
+                .stream()
+                .filter(sql -> !sql.contains(" from user "))
+                .count();
+    }
+
+    private long updateConcurrently(BiConsumer<Integer, Integer> update) throws Exception {
+        SqlStatementRecorder.clear();
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        long startTime = System.nanoTime();
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int id : ids) {
+                results.add(executor.submit(() -> {
+                    for (int i = 0; i < UPDATES_PER_THREAD; i++) {
+                        update.accept(id, 1001 + i);
+                    }
+                }));
+            }
+
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return System.nanoTime() - startTime;
+    }
+
+    private static JoggingDto createJoggingDto(int distance, String location) {
+        return new JoggingDto()
+                .setDate(DATE)
+                .setDistance(distance)
+                .setTime(TIME)
+                .setLocation(location);
+    }
+}
\ No newline at end of file
@@ -1,56 +1,180 @@
 package com.laptevn.jogging.service;
 
+import com.laptevn.auth.entity.Role;
 import com.laptevn.auth.entity.User;
 import com.laptevn.auth.repository.UserRepository;
-import com.laptevn.jogging.entity.Jogging;
+import com.laptevn.auth.service.UserResolver;
+import com.laptevn.exception.IntegrityException;
+import com.laptevn.jogging.entity.JoggingStats;
 import com.laptevn.jogging.entity.ReportDto;
+import com.laptevn.jogging.entity.ReportPeriodDto;
+import com.laptevn.jogging.entity.UserReportDto;
 import com.laptevn.jogging.repository.JoggingRepository;
+import com.laptevn.jogging.repository.JoggingStatsRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.easymock.Capture;
 import org.easymock.EasyMock;
 import org.junit.Test;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.junit.Assert.assertEquals;
 
 public class ReportServiceTest {
     @Test
     public void reportForNoEntries() {
-        ReportDto report = createService(new ArrayList<>()).generateReport(null);
+        ReportDto report = createService(new ArrayList<>()).generateReport("test");
         assertEquals(0, report.getAverageDistance(), 0);
         assertEquals(0, report.getAverageSpeed(), 0);
     }
 
     @Test
     public void report() {
+        LocalDate today = LocalDate.now();
         ReportDto report = createService(Arrays.asList(
-                new Jogging()
-                        .setDistance(1000)
-                        .setTime(LocalTime.parse("00:03:14")),
-                new Jogging()
-                        .setDistance(3000)
-                        .setTime(LocalTime.parse("00:32:54")),
-                new Jogging()
-                        .setDistance(2600)
-                        .setTime(LocalTime.parse("00:26:20"))
-        )).generateReport(null);
+                new JoggingStats(1, today.minusDays(2), 1000, LocalTime.parse("00:03:14")),
+                new JoggingStats(1, today, 3000, LocalTime.parse("00:32:54"))
+                        .add(new JoggingStats(1, today, 2600, LocalTime.parse("00:26:20")))
+        )).generateReport("test");
 
         assertEquals(2200, report.getAverageDistance(), 0);
         assertEquals(2.77, report.getAverageSpeed(), 0.01);
     }
 
-    private static ReportService createService(List<Jogging> joggings) {
-        UserRepository userRepository = EasyMock.mock(UserRepository.class);
-        EasyMock.expect(userRepository.findByNameIgnoreCase(EasyMock.anyString())).andReturn(Optional.of(new User()));
+    @Test
+    public void reportSeries() {
+        List<ReportPeriodDto> series = createService(Arrays.asList(
+                new JoggingStats(1, LocalDate.parse("2019-03-20"), 4, 2000, 10.0),
+                new JoggingStats(1, LocalDate.parse("2019-02-05"), 2, 3000, 4.0),
+                new JoggingStats(1, LocalDate.parse("2019-02-10"), 1, 1000, 2.0)))
+                .generateReportSeries("test", "week", 7, LocalDate.parse("2019-03-20"));
+
+        assertEquals(7, series.size());
+        assertEquals(LocalDate.parse("2019-02-04"), series.get(0).getStart());
+        assertEquals(LocalDate.parse("2019-02-10"), series.get(0).getEnd());
+        assertEquals(3, series.get(0).getRunCount());
+        assertEquals(2, series.get(0).getAverageSpeed(), 0.001);
+        assertEquals(1333.33, series.get(0).getAverageDistance(), 0.01);
+        assertEquals(0, series.get(1).getRunCount());
+        assertEquals(0, series.get(1).getAverageSpeed(), 0);
+        assertEquals(LocalDate.parse("2019-03-18"), series.get(6).getStart());
+        assertEquals(4, series.get(6).getRunCount());
+        assertEquals(2.5, series.get(6).getAverageSpeed(), 0.001);
+        assertEquals(500, series.get(6).getAverageDistance(), 0.001);
+    }
+
+    @Test(expected = IntegrityException.class)
+    public void reportSeriesWithUnknownGranularity() {
+        createService(new ArrayList<>()).generateReportSeries("test", "decade", 1, LocalDate.now());
+    }
+
+    @Test(expected = IntegrityException.class)
+    public void reportSeriesWithTooManyPeriods() {
+        createService(new ArrayList<>()).generateReportSeries("test", "day", 367, LocalDate.now());
+    }
 
+    @Test
+    public void filteredReport() {
         JoggingRepository joggingRepository = EasyMock.mock(JoggingRepository.class);
-        EasyMock.expect(joggingRepository.findByDateBetweenAndUser(EasyMock.anyObject(), EasyMock.anyObject(), EasyMock.anyObject()))
-                .andReturn(joggings);
+        EasyMock.expect(joggingRepository.aggregateByUser(EasyMock.anyObject(), EasyMock.eq("distance gt 10")))
+                .andReturn(new ReportDto(3, 4));
+        EasyMock.replay(joggingRepository);
+
+        ReportDto report = createService(new ArrayList<>(), joggingRepository)
+                .generateFilteredReport("test", "distance gt 10");
+        assertEquals(3, report.getAverageSpeed(), 0);
+        assertEquals(4, report.getAverageDistance(), 0);
+        EasyMock.verify(joggingRepository);
+    }
 
+    @Test
+    public void filteredReportByAdmin() {
+        UserRepository userRepository = EasyMock.mock(UserRepository.class);
+        EasyMock.expect(userRepository.findByCanonicalName(EasyMock.anyString()))
+                .andReturn(Optional.of(new User().setId(1).setRole(Role.ADMIN)));
+        JoggingRepository joggingRepository = EasyMock.mock(JoggingRepository.class);
+        EasyMock.expect(joggingRepository.aggregateAll("distance gt 10")).andReturn(new ReportDto(3, 4));
         EasyMock.replay(userRepository, joggingRepository);
-        return new ReportService(joggingRepository, userRepository);
+
+        new ReportService(
+                EasyMock.mock(JoggingStatsRepository.class),
+                joggingRepository,
+                new UserResolver(userRepository, 10, 5, new SimpleMeterRegistry()),
+                new SimpleMeterRegistry(),
+                EasyMock.niceMock(PlatformTransactionManager.class),
+                366,
+                500)
+                .generateFilteredReport("admin", "distance gt 10");
+        EasyMock.verify(joggingRepository);
+    }
+
+    @Test
+    public void userReports() {
+        JoggingRepository joggingRepository = EasyMock.mock(JoggingRepository.class);
+        Capture<Consumer<Object[]>> consumer = Capture.newInstance();
+        joggingRepository.streamStatsSumsByUser(
+                EasyMock.eq(LocalDate.parse("2019-03-01")),
+                EasyMock.eq(LocalDate.parse("2019-03-31")),
+                EasyMock.capture(consumer));
+        EasyMock.expectLastCall().andAnswer(() -> {
+            consumer.getValue().accept(new Object[]{1, "user1", 2L, 3000L, 4.0});
+            consumer.getValue().accept(new Object[]{2, "user2", 4L, 2000L, 10.0});
+            return null;
+        });
+        EasyMock.replay(joggingRepository);
+
+        List<UserReportDto> reports = new ArrayList<>();
+        createService(new ArrayList<>(), joggingRepository)
+                .streamUserReports(LocalDate.parse("2019-03-01"), LocalDate.parse("2019-03-31"), reports::add);
+
+        assertEquals(2, reports.size());
+        assertEquals("user1", reports.get(0).getUserName());
+        assertEquals(2, reports.get(0).getRunCount());
+        assertEquals(2, reports.get(0).getAverageSpeed(), 0.001);
+        assertEquals(1500, reports.get(0).getAverageDistance(), 0.001);
+        assertEquals(2, reports.get(1).getUserId());
+        assertEquals(2.5, reports.get(1).getAverageSpeed(), 0.001);
+        assertEquals(500, reports.get(1).getAverageDistance(), 0.001);
+    }
+
+    @Test(expected = IntegrityException.class)
+    public void userReportsWithInvalidRange() {
+        createService(new ArrayList<>()).streamUserReports(
+                LocalDate.parse("2019-03-31"), LocalDate.parse("2019-03-01"), report -> {});
+    }
+
+    private static ReportService createService(List<JoggingStats> stats) {
+        JoggingRepository joggingRepository = EasyMock.mock(JoggingRepository.class);
+        EasyMock.replay(joggingRepository);
+        return createService(stats, joggingRepository);
+    }
+
+    private static ReportService createService(List<JoggingStats> stats, JoggingRepository joggingRepository) {
+        UserRepository userRepository = EasyMock.mock(UserRepository.class);
+        EasyMock.expect(userRepository.findByCanonicalName(EasyMock.anyString()))
+                .andReturn(Optional.of(new User().setId(1)));
+
+        JoggingStatsRepository statsRepository = EasyMock.mock(JoggingStatsRepository.class);
+        EasyMock.expect(statsRepository.findByUserIdAndDateBetween(
+                EasyMock.eq(1), EasyMock.anyObject(), EasyMock.anyObject()))
+                .andReturn(stats);
+
+        PlatformTransactionManager transactionManager = EasyMock.niceMock(PlatformTransactionManager.class);
+        EasyMock.replay(userRepository, statsRepository, transactionManager);
+        return new ReportService(
+                statsRepository,
+                joggingRepository,
+                new UserResolver(userRepository, 10, 5, new SimpleMeterRegistry()),
+                new SimpleMeterRegistry(),
+                transactionManager,
+                366,
+                500);
     }
 }
\ No newline at end of file
@@ -0,0 +1,217 @@
+package com.laptevn.jogging.service;
+
+import com.laptevn.jogging.entity.JoggingDto;
+import com.laptevn.jogging.entity.JoggingPatchDto;
+import com.laptevn.jogging.entity.JoggingStats;
+import com.laptevn.jogging.entity.SpeedDistributionDto;
+import com.laptevn.jogging.entity.SpeedPercentileDto;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class SpeedSketchIT {
+    private final static Logger logger = LoggerFactory.getLogger(SpeedSketchIT.class);
+    private final static String USER_NAME = "user1";
+    private final static YearMonth MONTH = YearMonth.parse("2017-02");
+    private final static String FIRST_LOCATION = "Sketchburg";
+    private final static String SECOND_LOCATION = "Sketchton";
+    private final static String FILTER = "location eq '" + FIRST_LOCATION + "' OR location eq '" + SECOND_LOCATION + "'";
+    private final static double RELATIVE_ACCURACY = 0.01;
+    private final static int RUN_COUNT = 3000;
+    private final static int BENCHMARK_ITERATIONS = 10000;
+    private final static List<Double> QUANTILES = IntStream.rangeClosed(0, 20)
+            .mapToObj(i -> i / 20.0)
+            .collect(Collectors.toList());
+
+    private JoggingService joggingService;
+    private SpeedSketchService speedSketchService;
+
+    @Autowired
+    public void setJoggingService(JoggingService joggingService) {
+        this.joggingService = joggingService;
+    }
+
+    @Autowired
+    public void setSpeedSketchService(SpeedSketchService speedSketchService) {
+        this.speedSketchService = speedSketchService;
+    }
+
+    @After
+    public void deleteJoggings() {
+        joggingService.deleteJoggings(USER_NAME, FILTER);
+        speedSketchService.rebuildSketches(MONTH, MONTH);
+    }
+
+    @Test
+    public void percentilesWithinRelativeAccuracy() {
+        assertEquals(0, speedSketchService.getSpeedPercentiles(MONTH.toString(), null, QUANTILES).getRunCount());
+
+        Random random = new Random(20170201);
+        List<JoggingDto> joggingDtos = new ArrayList<>();
+        for (int i = 0; i < RUN_COUNT; i++) {
+            joggingDtos.add(createJoggingDto(
+                    i % 3 == 0 ? FIRST_LOCATION : SECOND_LOCATION,
+                    500 + random.nextInt(20000),
+                    LocalTime.ofSecondOfDay(120 + random.nextInt(7200))));
+        }
+        joggingService.createJoggings(joggingDtos, USER_NAME);
+
+        JoggingDto updatedJogging = createJoggingDto(FIRST_LOCATION, 42000, LocalTime.parse("02:00:00"));
+        int updatedId = joggingService.createJogging(joggingDtos.get(1), USER_NAME);
+        assertEquals(
+                Optional.of(1), joggingService.updateExistingJogging(updatedId, updatedJogging, USER_NAME, Optional.of(0)));
+        int deletedId = joggingService.createJogging(joggingDtos.get(2), USER_NAME);
+        assertTrue(joggingService.deleteJogging(deletedId, USER_NAME));
+
+        List<JoggingDto> expectedJoggings = new ArrayList<>(joggingDtos);
+        expectedJoggings.add(updatedJogging);
+        assertWithinRelativeAccuracy(expectedJoggings);
+
+        speedSketchService.flushSketches();
+        assertWithinRelativeAccuracy(expectedJoggings);
+
+        SpeedDistributionDto flushedDistribution = getDistribution(null);
+        speedSketchService.rebuildSketches(MONTH, MONTH);
+        assertEquals(getSpeeds(flushedDistribution), getSpeeds(getDistribution(null)));
+        assertWithinRelativeAccuracy(expectedJoggings);
+    }
+
+    @Test
+    public void bulkOperationsUpdateSketches() {
+        List<JoggingDto> joggingDtos = Arrays.asList(
+                createJoggingDto(FIRST_LOCATION, 1000, LocalTime.parse("00:05:00")),
+                createJoggingDto(FIRST_LOCATION, 3000, LocalTime.parse("00:10:00")),
+                createJoggingDto(SECOND_LOCATION, 2000, LocalTime.parse("00:20:00")));
+        joggingService.createJoggings(joggingDtos, USER_NAME);
+        speedSketchService.flushSketches();
+        assertEquals(3, getDistribution(null).getRunCount());
+
+        joggingService.deleteJoggings(USER_NAME, "location eq '" + SECOND_LOCATION + "'");
+        assertEquals(2, getDistribution(null).getRunCount());
+        assertEquals(0, getDistribution(SECOND_LOCATION).getRunCount());
+        assertWithinRelativeAccuracy(joggingDtos.subList(0, 2));
+
+        joggingService.updateJoggings(USER_NAME, new JoggingPatchDto()
+                .setFilter("(" + FILTER + ") AND (distance eq 3000)")
+                .setDistance(6000)
+                .setLocation(SECOND_LOCATION));
+        List<JoggingDto> expectedJoggings = Arrays.asList(
+                joggingDtos.get(0),
+                createJoggingDto(SECOND_LOCATION, 6000, LocalTime.parse("00:10:00")));
+        assertWithinRelativeAccuracy(expectedJoggings);
+
+        speedSketchService.flushSketches();
+        speedSketchService.rebuildSketches(MONTH, MONTH);
+        assertWithinRelativeAccuracy(expectedJoggings);
+    }
+
+    @Test
+    public void benchmarkQueries() {
+        List<JoggingDto> joggingDtos = new ArrayList<>();
+        for (int i = 0; i < RUN_COUNT; i++) {
+            joggingDtos.add(createJoggingDto(
+                    FIRST_LOCATION, 1000 + i % 5000, LocalTime.ofSecondOfDay(300 + i % 3000)));
+        }
+        joggingService.createJoggings(joggingDtos, USER_NAME);
+        speedSketchService.flushSketches();
+        getDistribution(FIRST_LOCATION);
+
+        long rankStartTime = System.nanoTime();
+        for (int i = 0; i < BENCHMARK_ITERATIONS; i++) {
+            speedSketchService.rankSpeed(USER_NAME, MONTH.toString(), FIRST_LOCATION, 1 + i % 5000 / 1000.0);
+        }
+        long rankNanos = (System.nanoTime() - rankStartTime) / BENCHMARK_ITERATIONS;
+
+        long percentilesStartTime = System.nanoTime();
+        for (int i = 0; i < BENCHMARK_ITERATIONS; i++) {
+            getDistribution(FIRST_LOCATION);
+        }
+        long percentilesNanos = (System.nanoTime() - percentilesStartTime) / BENCHMARK_ITERATIONS;
+
+        logger.info(
+                "Speed sketch over {} runs: {} us per rank, {} us per {} percentiles",
+                RUN_COUNT, rankNanos / 1000.0, percentilesNanos / 1000.0, QUANTILES.size());
+        assertTrue("Rank isn't answered in memory", rankNanos < 1000000);
+        assertTrue("Percentiles aren't answered in memory", percentilesNanos < 1000000);
+    }
+
+    private void assertWithinRelativeAccuracy(List<JoggingDto> joggingDtos) {
+        assertWithinRelativeAccuracy(joggingDtos, null);
+        assertWithinRelativeAccuracy(joggingDtos, FIRST_LOCATION);
+        assertWithinRelativeAccuracy(joggingDtos, SECOND_LOCATION);
+    }
+
+    private void assertWithinRelativeAccuracy(List<JoggingDto> joggingDtos, String location) {
+        double[] speeds = joggingDtos.stream()
+                .filter(joggingDto -> location == null || location.equals(joggingDto.getLocation()))
+                .mapToDouble(joggingDto -> JoggingStats.calculateSpeed(joggingDto.getDistance(), joggingDto.getTime()))
+                .sorted()
+                .toArray();
+
+        SpeedDistributionDto distribution = getDistribution(location);
+        assertEquals(speeds.length, distribution.getRunCount());
+        if (speeds.length == 0) {
+            return;
+        }
+
+        for (SpeedPercentileDto percentile : distribution.getPercentiles()) {
+            double exactSpeed = speeds[(int) (percentile.getQuantile() * (speeds.length - 1))];
+            assertEquals(
+                    "Quantile " + percentile.getQuantile() + " in '" + location + "' location",
+                    exactSpeed,
+                    percentile.getSpeed(),
+                    exactSpeed * RELATIVE_ACCURACY + 1e-9);
+        }
+
+        double gamma = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+        for (double speed : new double[]{speeds[0], speeds[speeds.length / 2], speeds[speeds.length - 1] * 2}) {
+            double rankedCount = speedSketchService.rankSpeed(USER_NAME, MONTH.toString(), location, speed)
+                    .getPercentile() * speeds.length / 100;
+            assertTrue("Rank of " + speed + " is too low", rankedCount >= countLower(speeds, speed / gamma) - 1e-6);
+            assertTrue("Rank of " + speed + " is too high", rankedCount <= countLower(speeds, speed) + 1e-6);
+        }
+    }
+
+    private static long countLower(double[] speeds, double speed) {
+        return Arrays.stream(speeds).filter(exactSpeed -> exactSpeed < speed).count();
+    }
+
+    private SpeedDistributionDto getDistribution(String location) {
+        return speedSketchService.getSpeedPercentiles(MONTH.toString(), location, QUANTILES);
+    }
+
+    private static List<Double> getSpeeds(SpeedDistributionDto distribution) {
+        return distribution.getPercentiles()
+                .stream()
+                .map(SpeedPercentileDto::getSpeed)
+                .collect(Collectors.toList());
+    }
+
+    private static JoggingDto createJoggingDto(String location, int distance, LocalTime time) {
+        return new JoggingDto()
+                .setDate(MONTH.atDay(1 + distance % 28))
+                .setDistance(distance)
+                .setTime(time)
+                .setLocation(location);
+    }
+}
\ No newline at end of file
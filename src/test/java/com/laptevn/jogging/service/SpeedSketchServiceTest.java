@@ -0,0 +1,325 @@
+package com.laptevn.jogging.service;
+
+import com.laptevn.auth.entity.User;
+import com.laptevn.auth.repository.UserRepository;
+import com.laptevn.auth.service.UserResolver;
+import com.laptevn.exception.IntegrityException;
+import com.laptevn.jogging.entity.Jogging;
+import com.laptevn.jogging.entity.JoggingSketch;
+import com.laptevn.jogging.entity.JoggingSketchKey;
+import com.laptevn.jogging.entity.JoggingSketchRebuild;
+import com.laptevn.jogging.entity.JoggingStats;
+import com.laptevn.jogging.entity.SpeedDistributionDto;
+import com.laptevn.jogging.entity.SpeedRankDto;
+import com.laptevn.jogging.repository.JoggingRepository;
+import com.laptevn.jogging.repository.JoggingSketchRebuildRepository;
+import com.laptevn.jogging.repository.JoggingSketchRepository;
+import com.laptevn.jogging.repository.JoggingStatsRepository;
+import com.laptevn.sketch.QuantileSketch;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.easymock.Capture;
+import org.easymock.EasyMock;
+import org.junit.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+
+public class SpeedSketchServiceTest {
+    private final static double RELATIVE_ACCURACY = 0.01;
+    private final static LocalDate PERIOD_START = LocalDate.parse("2019-03-01");
+
+    @Test
+    public void percentilesOfUpdatedSketches() {
+        SpeedSketchService service = createService(createSketchRepository(Optional.empty()), null);
+        service.updateSketches(Collections.emptyList(), Arrays.asList(
+                createJogging("Paris", 1000, "00:10:00"),
+                createJogging("Paris", 2000, "00:10:00"),
+                createJogging("Oslo", 3000, "00:10:00")));
+
+        SpeedDistributionDto distribution = service.getSpeedPercentiles("2019-03", null, Arrays.asList(0.0, 0.5, 1.0));
+        assertEquals(3, distribution.getRunCount());
+        assertEquals(RELATIVE_ACCURACY, distribution.getRelativeAccuracy(), 0);
+        assertEquals(1.67, distribution.getPercentiles().get(0).getSpeed(), 1.67 * RELATIVE_ACCURACY);
+        assertEquals(3.33, distribution.getPercentiles().get(1).getSpeed(), 3.33 * RELATIVE_ACCURACY);
+        assertEquals(5, distribution.getPercentiles().get(2).getSpeed(), 5 * RELATIVE_ACCURACY);
+
+        SpeedDistributionDto parisDistribution = service.getSpeedPercentiles(
+                "2019-03", "Paris", Collections.singletonList(1.0));
+        assertEquals(2, parisDistribution.getRunCount());
+        assertEquals(3.33, parisDistribution.getPercentiles().get(0).getSpeed(), 3.33 * RELATIVE_ACCURACY);
+
+        service.updateSketches(Collections.singleton(createJogging("Paris", 1000, "00:10:00")), Collections.emptyList());
+        assertEquals(1, service.getSpeedPercentiles("2019-03", "Paris", Collections.singletonList(0.5)).getRunCount());
+    }
+
+    @Test
+    public void emptySketch() {
+        SpeedSketchService service = createService(createSketchRepository(Optional.empty()), null);
+        SpeedDistributionDto distribution = service.getSpeedPercentiles("2019-03", "Paris", Arrays.asList(0.5, 0.9));
+        assertEquals(0, distribution.getRunCount());
+        assertEquals(0, distribution.getPercentiles().get(1).getSpeed(), 0);
+    }
+
+    @Test
+    public void flushIntoStoredSketch() {
+        QuantileSketch storedSketch = new QuantileSketch(RELATIVE_ACCURACY);
+        storedSketch.add(1);
+        storedSketch.add(2);
+        JoggingSketch storedRow = new JoggingSketch(
+                new JoggingSketchKey(PERIOD_START, JoggingSketchKey.ALL_LOCATIONS), storedSketch.toBytes());
+        JoggingSketch storedLocationRow = new JoggingSketch(
+                new JoggingSketchKey(PERIOD_START, "Paris"), storedSketch.toBytes());
+
+        JoggingSketchRepository sketchRepository = EasyMock.mock(JoggingSketchRepository.class);
+        EasyMock.expect(sketchRepository.findById(EasyMock.anyObject())).andReturn(Optional.of(storedRow));
+        EasyMock.expect(sketchRepository.findLockedByPeriodStartAndLocation(
+                PERIOD_START, JoggingSketchKey.ALL_LOCATIONS)).andReturn(Optional.of(storedRow));
+        EasyMock.expect(sketchRepository.findLockedByPeriodStartAndLocation(PERIOD_START, "Paris"))
+                .andReturn(Optional.of(storedLocationRow));
+        EasyMock.replay(sketchRepository);
+
+        SpeedSketchService service = createService(sketchRepository, null);
+        service.updateSketches(Collections.emptyList(), Collections.singleton(createJogging("Paris", 1800, "00:10:00")));
+        assertEquals(3, service.getSpeedPercentiles("2019-03", null, Collections.singletonList(0.5)).getRunCount());
+
+        service.flushSketches();
+        assertEquals(3, QuantileSketch.fromBytes(storedRow.getBuckets()).getCount());
+        assertEquals(3, QuantileSketch.fromBytes(storedLocationRow.getBuckets()).getCount());
+        assertEquals(3, service.getSpeedPercentiles("2019-03", null, Collections.singletonList(0.5)).getRunCount());
+        EasyMock.verify(sketchRepository);
+    }
+
+    @Test
+    public void discardDeltaPrecedingRebuild() {
+        QuantileSketch rebuiltSketch = new QuantileSketch(RELATIVE_ACCURACY);
+        rebuiltSketch.add(1);
+        rebuiltSketch.add(2);
+        JoggingSketch rebuiltRow = new JoggingSketch(
+                new JoggingSketchKey(PERIOD_START, "Paris"), rebuiltSketch.toBytes()).setGeneration(1);
+
+        JoggingSketchRepository sketchRepository = EasyMock.mock(JoggingSketchRepository.class);
+        EasyMock.expect(sketchRepository.findById(EasyMock.anyObject())).andStubReturn(Optional.of(rebuiltRow));
+        EasyMock.expect(sketchRepository.findLockedByPeriodStartAndLocation(PERIOD_START, "Paris"))
+                .andStubReturn(Optional.of(rebuiltRow));
+        EasyMock.expect(sketchRepository.findLockedByPeriodStartAndLocation(PERIOD_START, JoggingSketchKey.ALL_LOCATIONS))
+                .andStubReturn(Optional.of(new JoggingSketch(
+                        new JoggingSketchKey(PERIOD_START, JoggingSketchKey.ALL_LOCATIONS), rebuiltSketch.toBytes())
+                        .setGeneration(1)));
+        EasyMock.replay(sketchRepository);
+
+        SpeedSketchService service = createService(sketchRepository, null);
+        service.flushSketches();
+        service.updateSketches(Collections.emptyList(), Collections.singleton(createJogging("Paris", 1800, "00:10:00")));
+        service.flushSketches();
+        assertEquals("Delta preceding rebuild was flushed", 2, QuantileSketch.fromBytes(rebuiltRow.getBuckets()).getCount());
+        assertEquals(2, service.getSpeedPercentiles("2019-03", "Paris", Collections.singletonList(0.5)).getRunCount());
+
+        service.updateSketches(Collections.emptyList(), Collections.singleton(createJogging("Paris", 1800, "00:10:00")));
+        service.flushSketches();
+        assertEquals("Delta following rebuild was discarded", 3, QuantileSketch.fromBytes(rebuiltRow.getBuckets()).getCount());
+    }
+
+    @Test
+    public void rebuildSketches() {
+        JoggingSketchRepository sketchRepository = EasyMock.mock(JoggingSketchRepository.class);
+        JoggingRepository joggingRepository = EasyMock.mock(JoggingRepository.class);
+        SpeedSketchService service = createService(sketchRepository, joggingRepository);
+
+        EasyMock.expect(sketchRepository.findLockedByPeriodStartAndLocation(EasyMock.anyObject(), EasyMock.anyObject()))
+                .andThrow(new RuntimeException("Lock wait timeout"))
+                .times(2);
+        Capture<Consumer<Object[]>> consumer = Capture.newInstance();
+        joggingRepository.streamRunsByDateBetween(
+                EasyMock.eq(PERIOD_START), EasyMock.eq(LocalDate.parse("2019-03-31")), EasyMock.capture(consumer));
+        EasyMock.expectLastCall().andAnswer(() -> {
+            consumer.getValue().accept(new Object[]{LocalDate.parse("2019-03-05"), "Oslo", 1200, LocalTime.parse("00:10:00")});
+            consumer.getValue().accept(new Object[]{LocalDate.parse("2019-03-06"), "Oslo", 2400, LocalTime.parse("00:10:00")});
+            consumer.getValue().accept(new Object[]{LocalDate.parse("2019-03-10"), "Rome", 1000, LocalTime.parse("00:10:00")});
+            service.updateSketches(Collections.emptyList(), Collections.singleton(createJogging("Oslo", 3600, "00:10:00")));
+            return null;
+        });
+
+        JoggingSketch obsoleteRow = new JoggingSketch(
+                new JoggingSketchKey(PERIOD_START, "Paris"), new QuantileSketch(RELATIVE_ACCURACY).toBytes());
+        EasyMock.expect(sketchRepository.findByPeriodStartBetween(PERIOD_START, LocalDate.parse("2019-03-31")))
+                .andReturn(Collections.singletonList(obsoleteRow));
+        List<JoggingSketch> savedRows = new ArrayList<>();
+        EasyMock.expect(sketchRepository.save(EasyMock.anyObject())).andAnswer(() -> {
+            savedRows.add((JoggingSketch) EasyMock.getCurrentArguments()[0]);
+            return savedRows.get(savedRows.size() - 1);
+        }).times(3);
+        EasyMock.replay(joggingRepository, sketchRepository);
+
+        service.updateSketches(Collections.emptyList(), Collections.singleton(createJogging("Rome", 1000, "00:10:00")));
+        service.rebuildSketches(YearMonth.parse("2019-03"), YearMonth.parse("2019-03"));
+
+        assertEquals(3, savedRows.size());
+        assertEquals(1, savedRows.get(0).getGeneration());
+        assertEquals("Obsolete sketch wasn't emptied", 0, QuantileSketch.fromBytes(obsoleteRow.getBuckets()).getCount());
+        assertEquals(1, obsoleteRow.getGeneration());
+        assertEquals(1, service.getSpeedPercentiles("2019-03", "Rome", Collections.singletonList(0.5)).getRunCount());
+        assertEquals(3, service.getSpeedPercentiles("2019-03", "Oslo", Collections.singletonList(0.5)).getRunCount());
+        assertEquals(4, service.getSpeedPercentiles("2019-03", null, Collections.singletonList(0.5)).getRunCount());
+        EasyMock.verify(joggingRepository, sketchRepository);
+    }
+
+    @Test
+    public void rebuildWaitsForUncommittedUpdates() throws Exception {
+        JoggingSketchRepository sketchRepository = EasyMock.mock(JoggingSketchRepository.class);
+        JoggingRepository joggingRepository = EasyMock.mock(JoggingRepository.class);
+        SpeedSketchService service = createService(sketchRepository, joggingRepository);
+
+        Capture<Consumer<Object[]>> consumer = Capture.newInstance();
+        joggingRepository.streamRunsByDateBetween(
+                EasyMock.eq(PERIOD_START), EasyMock.eq(LocalDate.parse("2019-03-31")), EasyMock.capture(consumer));
+        EasyMock.expectLastCall().andAnswer(() -> {
+            consumer.getValue().accept(new Object[]{LocalDate.parse("2019-03-10"), "Oslo", 1200, LocalTime.parse("00:10:00")});
+            return null;
+        });
+        EasyMock.expect(sketchRepository.findByPeriodStartBetween(EasyMock.anyObject(), EasyMock.anyObject()))
+                .andReturn(Collections.emptyList());
+        EasyMock.expect(sketchRepository.save(EasyMock.anyObject())).andReturn(null).times(2);
+        EasyMock.replay(joggingRepository, sketchRepository);
+
+        CompletableFuture<Void> rebuild;
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.updateSketches(Collections.emptyList(), Collections.singleton(createJogging("Oslo", 1200, "00:10:00")));
+            rebuild = CompletableFuture.runAsync(
+                    () -> service.rebuildSketches(YearMonth.parse("2019-03"), YearMonth.parse("2019-03")));
+            Thread.sleep(200);
+
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                    synchronizations, TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        rebuild.get();
+
+        assertEquals(1, service.getSpeedPercentiles("2019-03", "Oslo", Collections.singletonList(0.5)).getRunCount());
+        EasyMock.verify(joggingRepository, sketchRepository);
+    }
+
+    @Test
+    public void skipRecentlyStartedRebuild() {
+        JoggingSketchRebuildRepository rebuildRepository = EasyMock.mock(JoggingSketchRebuildRepository.class);
+        EasyMock.expect(rebuildRepository.findLockedById(0)).andReturn(Optional.of(
+                new JoggingSketchRebuild().setId(0).setStartedAt(LocalDateTime.now().minusMinutes(5))));
+        JoggingRepository joggingRepository = EasyMock.mock(JoggingRepository.class);
+        EasyMock.replay(rebuildRepository, joggingRepository);
+
+        createService(
+                createSketchRepository(Optional.empty()), rebuildRepository, joggingRepository, Collections.emptyList())
+                .rebuildSketches();
+        EasyMock.verify(rebuildRepository, joggingRepository);
+    }
+
+    @Test
+    public void rankSpeed() {
+        SpeedSketchService service = createService(createSketchRepository(Optional.empty()), null);
+        service.updateSketches(Collections.emptyList(), Arrays.asList(
+                createJogging("Paris", 1200, "00:10:00"),
+                createJogging("Paris", 2400, "00:10:00"),
+                createJogging("Paris", 3600, "00:10:00"),
+                createJogging("Paris", 4800, "00:10:00")));
+
+        SpeedRankDto rank = service.rankSpeed("test", "2019-03", "Paris", 7.0);
+        assertEquals(4, rank.getRunCount());
+        assertEquals(75, rank.getPercentile(), 0);
+
+        SpeedRankDto averageSpeedRank = service.rankSpeed("test", "2019-03", null, null);
+        assertEquals(4.5, averageSpeedRank.getSpeed(), 1e-9);
+        assertEquals(50, averageSpeedRank.getPercentile(), 0);
+    }
+
+    @Test(expected = IntegrityException.class)
+    public void rankWithoutRuns() {
+        createService(createSketchRepository(Optional.empty()), null, null, Collections.emptyList())
+                .rankSpeed("test", "2019-03", null, null);
+    }
+
+    @Test(expected = IntegrityException.class)
+    public void invalidMonth() {
+        createService(createSketchRepository(Optional.empty()), null)
+                .getSpeedPercentiles("March", null, Collections.singletonList(0.5));
+    }
+
+    @Test(expected = IntegrityException.class)
+    public void invalidQuantile() {
+        createService(createSketchRepository(Optional.empty()), null)
+                .getSpeedPercentiles("2019-03", null, Collections.singletonList(1.5));
+    }
+
+    private static Jogging createJogging(String location, int distance, String time) {
+        return new Jogging()
+                .setDate(LocalDate.parse("2019-03-10"))
+                .setLocation(location)
+                .setDistance(distance)
+                .setTime(LocalTime.parse(time));
+    }
+
+    private static JoggingSketchRepository createSketchRepository(Optional<JoggingSketch> storedSketch) {
+        JoggingSketchRepository sketchRepository = EasyMock.mock(JoggingSketchRepository.class);
+        EasyMock.expect(sketchRepository.findById(EasyMock.anyObject())).andStubReturn(storedSketch);
+        EasyMock.replay(sketchRepository);
+        return sketchRepository;
+    }
+
+    private static SpeedSketchService createService(
+            JoggingSketchRepository sketchRepository, JoggingRepository joggingRepository) {
+
+        JoggingSketchRebuildRepository rebuildRepository = EasyMock.niceMock(JoggingSketchRebuildRepository.class);
+        EasyMock.expect(rebuildRepository.findById(0)).andStubReturn(Optional.empty());
+        EasyMock.expect(rebuildRepository.findLockedById(0)).andStubReturn(Optional.empty());
+        EasyMock.replay(rebuildRepository);
+        return createService(sketchRepository, rebuildRepository, joggingRepository, Arrays.asList(
+                new JoggingStats(1, LocalDate.parse("2019-03-02"), 1800, LocalTime.parse("00:10:00")),
+                new JoggingStats(1, LocalDate.parse("2019-03-03"), 3600, LocalTime.parse("00:10:00"))));
+    }
+
+    private static SpeedSketchService createService(
+            JoggingSketchRepository sketchRepository,
+            JoggingSketchRebuildRepository rebuildRepository,
+            JoggingRepository joggingRepository,
+            List<JoggingStats> stats) {
+
+        UserRepository userRepository = EasyMock.mock(UserRepository.class);
+        EasyMock.expect(userRepository.findByCanonicalName(EasyMock.anyString()))
+                .andStubReturn(Optional.of(new User().setId(1)));
+
+        JoggingStatsRepository statsRepository = EasyMock.mock(JoggingStatsRepository.class);
+        EasyMock.expect(statsRepository.findByUserIdAndDateBetween(
+                1, PERIOD_START, LocalDate.parse("2019-03-31")))
+                .andStubReturn(stats);
+
+        PlatformTransactionManager transactionManager = EasyMock.niceMock(PlatformTransactionManager.class);
+        EasyMock.replay(userRepository, statsRepository, transactionManager);
+        return new SpeedSketchService(
+                sketchRepository,
+                rebuildRepository,
+                joggingRepository,
+                statsRepository,
+                new UserResolver(userRepository, 10, 5, new SimpleMeterRegistry()),
+                transactionManager,
+                RELATIVE_ACCURACY,
+                2,
+                60);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,109 @@
+package com.laptevn.jogging.service;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class UserReportsIT {
+    private final static Logger logger = LoggerFactory.getLogger(UserReportsIT.class);
+    private final static int FIRST_USER_ID = 200000;
+    private final static int USER_COUNT = 100000;
+    private final static int DAY_COUNT = 3;
+    private final static int CHUNK_SIZE = 5000;
+    private final static LocalDate RIGHT_BOUND = LocalDate.parse("2017-06-30");
+    private final static LocalDate LEFT_BOUND = RIGHT_BOUND.minusDays(6);
+
+    private ReportService reportService;
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public void setReportService(ReportService reportService) {
+        this.reportService = reportService;
+    }
+
+    @Autowired
+    public void setJdbcTemplate(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Before
+    public void createStats() {
+        List<Object[]> users = new ArrayList<>();
+        List<Object[]> stats = new ArrayList<>();
+        for (int id = FIRST_USER_ID; id < FIRST_USER_ID + USER_COUNT; id++) {
+            users.add(new Object[]{id, "report" + id, "report" + id, "password", "USER", 0});
+            for (int day = 0; day < DAY_COUNT; day++) {
+                stats.add(new Object[]{id, Date.valueOf(RIGHT_BOUND.minusDays(day * 3)), 2, 2000L + id % 1000, 0.5});
+            }
+
+            if (users.size() == CHUNK_SIZE) {
+                insert(users, stats);
+            }
+        }
+        insert(users, stats);
+    }
+
+    private void insert(List<Object[]> users, List<Object[]> stats) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO user (id, name, canonical_name, password, role, version) VALUES (?, ?, ?, ?, ?, ?)",
+                users);
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO jogging_stats (user_id, date, run_count, distance_sum, speed_sum) VALUES (?, ?, ?, ?, ?)",
+                stats);
+        users.clear();
+        stats.clear();
+    }
+
+    @After
+    public void deleteStats() {
+        jdbcTemplate.update("DELETE FROM jogging_stats WHERE user_id >= ?", FIRST_USER_ID);
+        jdbcTemplate.update("DELETE FROM user WHERE id >= ?", FIRST_USER_ID);
+    }
+
+    @Test
+    public void streamReportsForAllUsers() {
+        Runtime runtime = Runtime.getRuntime();
+        long[] lastUserId = {0};
+        long[] maxUsedMemory = {0};
+        int[] count = {0};
+
+        long startTime = System.nanoTime();
+        reportService.streamUserReports(LEFT_BOUND, RIGHT_BOUND, report -> {
+            assertTrue("Reports aren't ordered by user", report.getUserId() > lastUserId[0]);
+            assertEquals(DAY_COUNT * 2, report.getRunCount());
+            assertEquals(0.25, report.getAverageSpeed(), 1e-9);
+            assertEquals((2000 + report.getUserId() % 1000) / 2.0, report.getAverageDistance(), 1e-9);
+
+            lastUserId[0] = report.getUserId();
+            if (++count[0] % CHUNK_SIZE == 0) {
+                maxUsedMemory[0] = Math.max(maxUsedMemory[0], runtime.totalMemory() - runtime.freeMemory());
+            }
+        });
+        long elapsedNanos = System.nanoTime() - startTime;
+
+        assertEquals(USER_COUNT, count[0]);
+        logger.info(
+                "Streamed reports for {} users in {} ms, max used heap {} MB",
+                count[0],
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                maxUsedMemory[0] / (1024 * 1024));
+    }
+}
\ No newline at end of file
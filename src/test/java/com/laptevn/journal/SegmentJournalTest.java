@@ -0,0 +1,188 @@
+package com.laptevn.journal;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SegmentJournalTest {
+    private final static int SEGMENT_SIZE = 64;
+    private final static int CRASH_SEGMENT_SIZE = 4096;
+    private final static int CRASH_COUNT = 3;
+    private final static int ACKS_BEFORE_CRASH = 300;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void appendAndReadAcrossSegments() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        try (SegmentJournal journal = new SegmentJournal(directory, SEGMENT_SIZE, 10)) {
+            for (int i = 0; i < 10; i++) {
+                assertTrue(journal.append(("record-" + i).getBytes(StandardCharsets.UTF_8)));
+            }
+            assertTrue("Segments weren't rolled", journal.getSegmentCount() > 1);
+        }
+
+        try (SegmentJournal journal = new SegmentJournal(directory, SEGMENT_SIZE, 10)) {
+            List<JournalRecord> records = journal.read(JournalPosition.START, 100);
+            assertEquals(10, records.size());
+            assertEquals("record-9", toString(records.get(9)));
+
+            List<JournalRecord> tail = journal.read(records.get(6).getNextPosition(), 2);
+            assertEquals("record-7", toString(tail.get(0)));
+            assertEquals("record-8", toString(tail.get(1)));
+        }
+    }
+
+    @Test
+    public void recoverTornRecord() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        JournalPosition endPosition;
+        try (SegmentJournal journal = new SegmentJournal(directory, CRASH_SEGMENT_SIZE, 10)) {
+            journal.append("first".getBytes(StandardCharsets.UTF_8));
+            journal.append("second".getBytes(StandardCharsets.UTF_8));
+            List<JournalRecord> records = journal.read(JournalPosition.START, 10);
+            endPosition = records.get(records.size() - 1).getNextPosition();
+        }
+
+        try (FileChannel channel = FileChannel.open(
+                Files.list(directory).findFirst().get(), StandardOpenOption.WRITE)) {
+
+            ByteBuffer tornRecord = ByteBuffer.allocate(12);
+            tornRecord.putInt(100).putInt(12345).putInt(0x7468_6972);
+            tornRecord.flip();
+            channel.write(tornRecord, endPosition.getOffset());
+        }
+
+        try (SegmentJournal journal = new SegmentJournal(directory, CRASH_SEGMENT_SIZE, 10)) {
+            assertEquals(2, journal.read(JournalPosition.START, 10).size());
+            journal.append("third".getBytes(StandardCharsets.UTF_8));
+        }
+
+        try (SegmentJournal journal = new SegmentJournal(directory, CRASH_SEGMENT_SIZE, 10)) {
+            List<JournalRecord> records = journal.read(JournalPosition.START, 10);
+            assertEquals(3, records.size());
+            assertEquals("third", toString(records.get(2)));
+        }
+    }
+
+    @Test
+    public void rejectWhenFull() throws IOException {
+        try (SegmentJournal journal = new SegmentJournal(folder.getRoot().toPath(), SEGMENT_SIZE, 2)) {
+            int appendedCount = 0;
+            while (journal.append(("record-" + appendedCount).getBytes(StandardCharsets.UTF_8))) {
+                appendedCount++;
+            }
+
+            assertEquals(2, journal.getSegmentCount());
+            assertEquals(appendedCount, journal.read(JournalPosition.START, 100).size());
+        }
+    }
+
+    @Test
+    public void compactReplayedSegments() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        try (SegmentJournal journal = new SegmentJournal(directory, SEGMENT_SIZE, 10)) {
+            for (int i = 0; i < 10; i++) {
+                journal.append(("record-" + i).getBytes(StandardCharsets.UTF_8));
+            }
+            int segmentCount = journal.getSegmentCount();
+            List<JournalRecord> records = journal.read(JournalPosition.START, 100);
+
+            journal.compact(records.get(6).getNextPosition());
+            assertTrue("Segments weren't deleted", journal.getSegmentCount() < segmentCount);
+            assertEquals(journal.getSegmentCount(), Files.list(directory).count());
+            assertEquals("record-7", toString(journal.read(records.get(6).getNextPosition(), 1).get(0)));
+
+            journal.compact(records.get(9).getNextPosition());
+            assertEquals(1, journal.getSegmentCount());
+            assertTrue(journal.read(records.get(9).getNextPosition(), 1).isEmpty());
+        }
+    }
+
+    @Test
+    public void keepAcceptedRecordsWhenProcessIsKilled() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        int acceptedCount = 0;
+        for (int i = 0; i < CRASH_COUNT; i++) {
+            int recordCount = readAll(directory).size();
+            assertTrue("Accepted records were lost", recordCount >= acceptedCount);
+            acceptedCount = appendUntilKilled(directory, recordCount);
+        }
+
+        List<String> records = readAll(directory);
+        assertTrue("Accepted records were lost", records.size() >= acceptedCount);
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals("Records are lost, duplicated or reordered", "record-" + i, records.get(i));
+        }
+    }
+
+    private static int appendUntilKilled(Path directory, int firstIndex) throws Exception {
+        Process process = new ProcessBuilder(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp",
+                System.getProperty("java.class.path"),
+                Appender.class.getName(),
+                directory.toString(),
+                String.valueOf(firstIndex))
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+
+        int acceptedCount = firstIndex;
+        try (BufferedReader output = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+
+            String line;
+            while (acceptedCount < firstIndex + ACKS_BEFORE_CRASH && (line = output.readLine()) != null) {
+                acceptedCount = Integer.parseInt(line) + 1;
+            }
+            process.destroyForcibly().waitFor();
+        }
+        return acceptedCount;
+    }
+
+    private static List<String> readAll(Path directory) throws IOException {
+        try (SegmentJournal journal = new SegmentJournal(directory, CRASH_SEGMENT_SIZE, Integer.MAX_VALUE)) {
+            return journal.read(JournalPosition.START, Integer.MAX_VALUE)
+                    .stream()
+                    .map(SegmentJournalTest::toString)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static String toString(JournalRecord record) {
+        return new String(record.getPayload(), StandardCharsets.UTF_8);
+    }
+
+    public static class Appender {
+        public static void main(String[] args) throws IOException {
+            try (SegmentJournal journal = new SegmentJournal(
+                    new File(args[0]).toPath(), CRASH_SEGMENT_SIZE, Integer.MAX_VALUE)) {
+
+                for (int i = Integer.parseInt(args[1]); ; i++) {
+                    journal.append(("record-" + i).getBytes(StandardCharsets.UTF_8));
+                    System.out.println(i);
+                    System.out.flush();
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -8,13 +8,13 @@ import static org.junit.Assert.assertTrue;
 public class ExpressionBuildingVisitorTest {
     @Test
     public void visitNextNode() {
-        assertTrue(new ExpressionBuildingVisitor(null, null, null)
+        assertTrue(new ExpressionBuildingVisitor()
                 .shouldVisitNextChild(null, null));
     }
 
     @Test
     public void notVisitNextNode() {
-        assertFalse(new ExpressionBuildingVisitor(null, null, null)
+        assertFalse(new ExpressionBuildingVisitor()
                 .shouldVisitNextChild(null, new Object()));
     }
 }
\ No newline at end of file
@@ -0,0 +1,70 @@
+package com.laptevn.repository.filtering;
+
+import com.laptevn.exception.IntegrityException;
+import com.laptevn.repository.filtering.expression.ComparisonExpression;
+import com.laptevn.repository.filtering.expression.FilterExpression;
+import com.laptevn.repository.filtering.expression.LogicalExpression;
+import com.laptevn.repository.filtering.expression.LogicalOperator;
+import com.laptevn.repository.filtering.operation.OperationType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class FilterExpressionCacheTest {
+    @Test
+    public void compile() {
+        FilterExpression expression = createCache()
+                .get("(date eq '2016-05-01') AND ((distance gt 20) OR (distance lt 10))", null)
+                .getExpression();
+        assertEquals(
+                new LogicalExpression(
+                        LogicalOperator.AND,
+                        new ComparisonExpression("date", OperationType.EQ, LocalDate.parse("2016-05-01")),
+                        new LogicalExpression(
+                                LogicalOperator.OR,
+                                new ComparisonExpression("distance", OperationType.GT, 20),
+                                new ComparisonExpression("distance", OperationType.LT, 10))),
+                expression);
+    }
+
+    @Test
+    public void reuseCompiledFilter() {
+        FilterExpressionCache cache = createCache();
+        CompiledFilter filter = cache.get("location eq 'New York'", null);
+
+        assertSame(filter, cache.get("  location   eq\t'New York' \n", null));
+        assertEquals("Invalid hit count", 1, cache.getCache().getHitCount());
+        assertEquals("Invalid miss count", 1, cache.getCache().getMissCount());
+    }
+
+    @Test
+    public void notCacheInvalidFilter() {
+        FilterExpressionCache cache = createCache();
+        for (int i = 0; i < 2; i++) {
+            try {
+                cache.get("distance eq", null);
+            } catch (IntegrityException ignore) {
+            }
+        }
+
+        assertEquals("Invalid filter was cached", 0, cache.getCache().size());
+        assertEquals("Invalid miss count", 2, cache.getCache().getMissCount());
+    }
+
+    @Test
+    public void normalize() {
+        assertEquals("a eq 'x  y' AND b gt 1", FilterExpressionCache.normalize(" a  eq 'x  y'\r\n AND\tb gt 1 "));
+    }
+
+    private static FilterExpressionCache createCache() {
+        return new FilterExpressionCache(
+                new AntlrFilterParser(new WhereClauseParserFactory(), new ExpressionBuildingVisitorFactory()),
+                new FilterOptimizer(),
+                10,
+                new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,128 @@
+package com.laptevn.repository.filtering;
+
+import com.laptevn.repository.filtering.expression.ComparisonExpression;
+import com.laptevn.repository.filtering.expression.ConstantExpression;
+import com.laptevn.repository.filtering.expression.FilterExpression;
+import com.laptevn.repository.filtering.expression.InExpression;
+import com.laptevn.repository.filtering.expression.LogicalExpression;
+import com.laptevn.repository.filtering.expression.LogicalOperator;
+import com.laptevn.repository.filtering.operation.OperationType;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class FilterOptimizerTest {
+    private final static Map<String, Class<?>> ATTRIBUTE_TYPES = new HashMap<>();
+
+    static {
+        ATTRIBUTE_TYPES.put("id", Integer.class);
+        ATTRIBUTE_TYPES.put("date", LocalDate.class);
+        ATTRIBUTE_TYPES.put("distance", Integer.class);
+        ATTRIBUTE_TYPES.put("time", LocalTime.class);
+        ATTRIBUTE_TYPES.put("location", String.class);
+    }
+
+    private final FilterParser filterParser = new AntlrFilterParser(
+            new WhereClauseParserFactory(), new ExpressionBuildingVisitorFactory());
+
+    @Test
+    public void flattenChains() {
+        assertEquals(
+                new LogicalExpression(
+                        LogicalOperator.AND,
+                        new ComparisonExpression("location", OperationType.EQ, "'Paris'"),
+                        new ComparisonExpression("location", OperationType.NE, "'Rome'"),
+                        new ComparisonExpression("time", OperationType.NE, LocalTime.parse("00:10:00"))),
+                optimize("(location eq 'Paris') AND ((location ne 'Rome') AND (time ne '00:10:00'))"));
+    }
+
+    @Test
+    public void removeDuplicates() {
+        assertEquals(
+                new ComparisonExpression("date", OperationType.EQ, LocalDate.parse("2019-01-01")),
+                optimize("(date eq '2019-01-01' OR date eq '2019-01-01')"));
+        assertEquals(
+                new ComparisonExpression("location", OperationType.EQ, "'Paris'"),
+                optimize("location eq 'Paris' AND (location eq 'Paris')"));
+    }
+
+    @Test
+    public void mergeRanges() {
+        assertEquals(
+                new LogicalExpression(
+                        LogicalOperator.AND,
+                        new ComparisonExpression("distance", OperationType.GT, 10),
+                        new ComparisonExpression("distance", OperationType.LT, 20),
+                        new ComparisonExpression("distance", OperationType.NE, 15)),
+                optimize("distance gt 5 AND distance lt 30 AND distance gt 10 AND distance lt 20 "
+                        + "AND distance ne 15 AND distance ne 40"));
+        assertEquals(
+                new ComparisonExpression("date", OperationType.EQ, LocalDate.parse("2019-01-05")),
+                optimize("date gt '2019-01-01' AND date eq '2019-01-05' AND date lt '2019-02-01'"));
+    }
+
+    @Test
+    public void detectContradictions() {
+        for (String filter : Arrays.asList(
+                "(distance gt 20) AND (distance lt 5)",
+                "(distance gt 20) AND (distance lt 20)",
+                "id eq 1 AND id eq 2",
+                "id eq 1 AND id ne 1",
+                "time eq '10:00:00' AND time gt '11:00:00'",
+                "(location eq 'Paris') AND ((date gt '2019-02-01') AND (date lt '2019-01-01'))",
+                "(distance gt 20 AND distance lt 5) OR (id eq 1 AND id eq 2)")) {
+
+            assertEquals("Contradiction isn't detected in '" + filter + "'", ConstantExpression.FALSE, optimize(filter));
+        }
+    }
+
+    @Test
+    public void removeContradictoryAlternatives() {
+        assertEquals(
+                new ComparisonExpression("location", OperationType.EQ, "'Paris'"),
+                optimize("(distance gt 20 AND distance lt 5) OR (location eq 'Paris')"));
+    }
+
+    @Test
+    public void convertEqualityAlternativesToIn() {
+        assertEquals(
+                new LogicalExpression(
+                        LogicalOperator.OR,
+                        new InExpression("location", Arrays.asList("'Paris'", "'Rome'", "'Oslo'")),
+                        new ComparisonExpression("distance", OperationType.GT, 10)),
+                optimize("location eq 'Paris' OR distance gt 10 OR (location eq 'Rome' OR location eq 'Oslo') "
+                        + "OR location eq 'Paris'"));
+    }
+
+    @Test
+    public void keepValuesOfDifferentTypesApart() {
+        assertEquals(
+                new LogicalExpression(
+                        LogicalOperator.OR,
+                        new ComparisonExpression("location", OperationType.EQ, 10),
+                        new ComparisonExpression("location", OperationType.EQ, "'Paris'")),
+                optimize("location eq 10 OR location eq 'Paris'"));
+    }
+
+    @Test
+    public void notMergeTextComparisons() {
+        FilterExpression expression = filterParser.parse("location gt 10 AND location lt 9");
+        assertEquals(expression, new FilterOptimizer().optimize(expression, ATTRIBUTE_TYPES::get));
+    }
+
+    @Test
+    public void notMergeUnknownAttributes() {
+        FilterExpression expression = filterParser.parse("distance gt 20 AND distance lt 5");
+        assertEquals(expression, new FilterOptimizer().optimize(expression, attributeName -> null));
+    }
+
+    private FilterExpression optimize(String filter) {
+        return new FilterOptimizer().optimize(filterParser.parse(filter), ATTRIBUTE_TYPES::get);
+    }
+}
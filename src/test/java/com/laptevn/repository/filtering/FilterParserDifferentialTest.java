@@ -0,0 +1,123 @@
+package com.laptevn.repository.filtering;
+
+import com.laptevn.exception.IntegrityException;
+import com.laptevn.repository.filtering.expression.FilterExpression;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FilterParserDifferentialTest {
+    private final static long SEED = 20190328;
+    private final static int CORPUS_SIZE = 5000;
+    private final static List<String> IDENTIFIERS = Arrays.asList("date", "distance", "time", "location", "role", "_x1", "id");
+    private final static List<String> COMPARATORS = Arrays.asList("eq", "EQ", "ne", "NE", "gt", "GT", "lt", "LT");
+    private final static List<String> BINARY_OPERATORS = Arrays.asList("AND", "and", "OR", "or");
+    private final static List<String> VALUES = Arrays.asList(
+            "0", "10", "-5", "1.5", "99999999999", "'Paris'", "'New York'", "'-29.5'", "'partially, cloudy'", "''",
+            "'USER'", "'2019-03-28'", "'2018-20-20'", "'00:14:44'", "'25:61:00'", "2019-03-28", "'20180210'");
+    private final static String MUTATION_SYMBOLS = "() '-.:,#0aA_\t";
+
+    private final FilterParser antlrParser = new AntlrFilterParser(
+            new WhereClauseParserFactory(), new ExpressionBuildingVisitorFactory());
+    private final FilterParser recursiveDescentParser = new RecursiveDescentFilterParser();
+
+    @Test
+    public void handwrittenCases() {
+        for (String filter : Arrays.asList(
+                "(date eq '2016-05-01') AND ((distance gt 20) OR (distance lt 10))",
+                "a eq 1 AND b eq 2 OR c eq 3",
+                "a eq 1 OR b eq 2 AND c eq 3",
+                "((((a eq 1))))",
+                "ANDx eq 1",
+                "and eq 1",
+                "a eq1",
+                "a eq 1.",
+                "a eq -",
+                "a eq 'unterminated",
+                "a eq 'x' b",
+                "",
+                "   ",
+                "()",
+                "a eq 1)")) {
+
+            assertSameResult(filter);
+        }
+    }
+
+    @Test
+    public void generatedCorpus() {
+        Random random = new Random(SEED);
+        int validCount = 0;
+        for (int i = 0; i < CORPUS_SIZE; i++) {
+            String filter = generateExpression(random, 3);
+            if (random.nextInt(3) == 0) {
+                filter = mutate(random, filter);
+            }
+
+            if (assertSameResult(filter)) {
+                validCount++;
+            }
+        }
+
+        assertTrue("Corpus has too few valid filters", validCount > CORPUS_SIZE / 4);
+        assertTrue("Corpus has too few invalid filters", validCount < CORPUS_SIZE);
+    }
+
+    private boolean assertSameResult(String filter) {
+        Object expected = parse(antlrParser, filter);
+        assertEquals("Parsers disagree on '" + filter + "'", expected, parse(recursiveDescentParser, filter));
+        return expected instanceof FilterExpression;
+    }
+
+    private static Object parse(FilterParser parser, String filter) {
+        try {
+            return parser.parse(filter);
+        } catch (IntegrityException e) {
+            return IntegrityException.class;
+        }
+    }
+
+    private static String generateExpression(Random random, int depth) {
+        if (depth == 0 || random.nextInt(3) == 0) {
+            String comparison = pick(random, IDENTIFIERS) + space(random) + pick(random, COMPARATORS)
+                    + space(random) + pick(random, VALUES);
+            return random.nextBoolean() ? comparison : "(" + space(random) + comparison + space(random) + ")";
+        }
+
+        String expression = generateExpression(random, depth - 1) + space(random) + pick(random, BINARY_OPERATORS)
+                + space(random) + generateExpression(random, depth - 1);
+        return random.nextBoolean() ? expression : "(" + expression + ")";
+    }
+
+    private static String space(Random random) {
+        return random.nextInt(5) == 0 ? " \t\n" : " ";
+    }
+
+    private static String mutate(Random random, String filter) {
+        List<Character> symbols = new ArrayList<>();
+        for (char symbol : filter.toCharArray()) {
+            symbols.add(symbol);
+        }
+
+        int position = symbols.isEmpty() ? 0 : random.nextInt(symbols.size());
+        if (random.nextBoolean() && !symbols.isEmpty()) {
+            symbols.remove(position);
+        } else {
+            symbols.add(position, MUTATION_SYMBOLS.charAt(random.nextInt(MUTATION_SYMBOLS.length())));
+        }
+
+        StringBuilder mutatedFilter = new StringBuilder();
+        symbols.forEach(mutatedFilter::append);
+        return mutatedFilter.toString();
+    }
+
+    private static String pick(Random random, List<String> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+}
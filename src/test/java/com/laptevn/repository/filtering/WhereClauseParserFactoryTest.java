@@ -0,0 +1,80 @@
+package com.laptevn.repository.filtering;
+
+import com.laptevn.exception.IntegrityException;
+import com.laptevn.jogging.WhereClauseLexer;
+import com.laptevn.jogging.WhereClauseParser;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class WhereClauseParserFactoryTest {
+    @Test
+    public void reuseParser() {
+        WhereClauseParserFactory parserFactory = new WhereClauseParserFactory();
+        assertEquals(
+                "(distancegt10)AND(locationeq'Paris')",
+                parserFactory.parse("(distance gt 10) AND (location eq 'Paris')").expression().getText());
+        assertEquals("dateeq'2019-01-01'", parserFactory.parse("date eq '2019-01-01'").expression().getText());
+    }
+
+    @Test
+    public void parseDeeplyNestedExpression() {
+        String expression = String.join("", Collections.nCopies(100, "("))
+                + "distance gt 10"
+                + String.join("", Collections.nCopies(100, ") AND (distance lt 20)"));
+        assertNotNull(new WhereClauseParserFactory().parse(expression).expression());
+    }
+
+    @Test
+    public void keepErrorMessages() {
+        WhereClauseParserFactory parserFactory = new WhereClauseParserFactory();
+        for (String expression : Arrays.asList(
+                "",
+                "distance",
+                "distance eq",
+                "distance eq 10 AND",
+                "(distance eq 10",
+                "distance eq 10)",
+                "distance eq 10 distance eq 20",
+                "distance like 10",
+                "distance eq #10",
+                "(distance eq 10) OR ((date eq '2019-01-01') AND)")) {
+
+            assertEquals(
+                    "Error message differs for '" + expression + "'",
+                    getLlErrorMessage(expression),
+                    getErrorMessage(() -> parserFactory.parse(expression)));
+        }
+
+        assertNotNull("Parser isn't usable after an error", parserFactory.parse("distance eq 10"));
+    }
+
+    private static String getLlErrorMessage(String expression) {
+        return getErrorMessage(() -> {
+            ExceptionErrorListener errorListener = new ExceptionErrorListener();
+            WhereClauseLexer lexer = new WhereClauseLexer(CharStreams.fromString(expression));
+            lexer.removeErrorListeners();
+            lexer.addErrorListener(errorListener);
+
+            WhereClauseParser parser = new WhereClauseParser(new CommonTokenStream(lexer));
+            parser.removeErrorListeners();
+            parser.addErrorListener(errorListener);
+            parser.parse();
+        });
+    }
+
+    private static String getErrorMessage(Runnable parsing) {
+        try {
+            parsing.run();
+        } catch (IntegrityException e) {
+            return e.getMessage();
+        }
+        throw new AssertionError("Expression was parsed without errors");
+    }
+}
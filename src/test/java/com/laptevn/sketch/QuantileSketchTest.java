@@ -0,0 +1,134 @@
+package com.laptevn.sketch;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class QuantileSketchTest {
+    private final static long SEED = 20190328;
+    private final static int VALUE_COUNT = 100000;
+    private final static double RELATIVE_ACCURACY = 0.01;
+
+    @Test
+    public void quantilesWithinRelativeAccuracy() {
+        double[] values = generateValues(new Random(SEED));
+        QuantileSketch sketch = createSketch(values);
+        Arrays.sort(values);
+
+        for (int percent = 0; percent <= 100; percent++) {
+            double quantile = percent / 100.0;
+            double exactValue = values[(int) (quantile * (values.length - 1))];
+            assertEquals(
+                    "Quantile " + quantile,
+                    exactValue,
+                    sketch.getQuantile(quantile),
+                    exactValue * RELATIVE_ACCURACY + 1e-12);
+        }
+    }
+
+    @Test
+    public void ranksWithinRelativeAccuracy() {
+        Random random = new Random(SEED);
+        double[] values = generateValues(random);
+        QuantileSketch sketch = createSketch(values);
+        Arrays.sort(values);
+
+        double gamma = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+        for (int i = 0; i < 1000; i++) {
+            double value = 0.1 + random.nextDouble() * 8;
+            double rank = sketch.getRank(value) * values.length;
+            assertTrue("Rank of " + value + " is too low", rank >= countLower(values, value / gamma, true) - 1e-6);
+            assertTrue("Rank of " + value + " is too high", rank <= countLower(values, value, false) + 1e-6);
+        }
+    }
+
+    private static long countLower(double[] sortedValues, double value, boolean isInclusive) {
+        return Arrays.stream(sortedValues).filter(v -> isInclusive ? v <= value : v < value).count();
+    }
+
+    @Test
+    public void mergeSketches() {
+        double[] values = generateValues(new Random(SEED));
+        QuantileSketch firstHalf = createSketch(Arrays.copyOfRange(values, 0, values.length / 2));
+        firstHalf.merge(createSketch(Arrays.copyOfRange(values, values.length / 2, values.length)));
+        assertArrayEquals(createSketch(values).toBytes(), firstHalf.toBytes());
+    }
+
+    @Test
+    public void removeValues() {
+        double[] values = generateValues(new Random(SEED));
+        QuantileSketch sketch = createSketch(values);
+        for (int i = 0; i < values.length / 2; i++) {
+            sketch.remove(values[i]);
+        }
+        assertArrayEquals(createSketch(Arrays.copyOfRange(values, values.length / 2, values.length)).toBytes(),
+                sketch.toBytes());
+        assertEquals(values.length - values.length / 2, sketch.getCount());
+    }
+
+    @Test
+    public void emptyDelta() {
+        QuantileSketch delta = new QuantileSketch(RELATIVE_ACCURACY);
+        delta.add(2.5);
+        delta.add(0);
+        delta.remove(2.5);
+        delta.remove(0);
+        assertTrue(delta.isEmpty());
+        assertEquals(0, delta.getCount());
+        assertTrue(Double.isNaN(delta.getQuantile(0.5)));
+    }
+
+    @Test
+    public void mergeNegation() {
+        QuantileSketch sketch = createSketch(generateValues(new Random(SEED)));
+        sketch.add(0);
+        sketch.merge(sketch.negate());
+        assertTrue(sketch.isEmpty());
+    }
+
+    @Test
+    public void zeroValues() {
+        QuantileSketch sketch = createSketch(new double[]{0, 0, 0, 2, 4});
+        assertEquals(0, sketch.getQuantile(0.5), 0);
+        assertEquals(4, sketch.getQuantile(1), 4 * RELATIVE_ACCURACY);
+        assertEquals(0.8, sketch.getRank(3), 1e-9);
+        assertEquals(0, sketch.getRank(0), 0);
+    }
+
+    @Test
+    public void serialize() {
+        QuantileSketch sketch = createSketch(generateValues(new Random(SEED)));
+        sketch.add(0);
+        QuantileSketch deserializedSketch = QuantileSketch.fromBytes(sketch.toBytes());
+        assertArrayEquals(sketch.toBytes(), deserializedSketch.toBytes());
+        assertEquals(sketch.getCount(), deserializedSketch.getCount());
+        assertEquals(sketch.getQuantile(0.9), deserializedSketch.getQuantile(0.9), 0);
+        assertEquals(RELATIVE_ACCURACY, deserializedSketch.getRelativeAccuracy(), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void mergeDifferentAccuracy() {
+        new QuantileSketch(0.01).merge(new QuantileSketch(0.02));
+    }
+
+    private static double[] generateValues(Random random) {
+        double[] values = new double[VALUE_COUNT];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.exp(random.nextGaussian() * 0.4 + 1);
+        }
+        return values;
+    }
+
+    private static QuantileSketch createSketch(double[] values) {
+        QuantileSketch sketch = new QuantileSketch(RELATIVE_ACCURACY);
+        for (double value : values) {
+            sketch.add(value);
+        }
+        return sketch;
+    }
+}
\ No newline at end of file
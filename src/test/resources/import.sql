@@ -1,6 +1,7 @@
-INSERT INTO user VALUES (99999,'user1','$2a$10$QHiSYzD4znIKll8pR5T1Veq03NWrSfAnJMHhfX/0B6sHGB02ZAhIK','USER',1);
-INSERT INTO user VALUES (99998,'user2','$2a$10$QHiSYzD4znIKll8pR5T1Veq03NWrSfAnJMHhfX/0B6sHGB02ZAhIK','USER',1);
-INSERT INTO user VALUES (99997,'admin','$2a$10$QHiSYzD4znIKll8pR5T1Veq03NWrSfAnJMHhfX/0B6sHGB02ZAhIK','ADMIN',1);
+INSERT INTO user (id, name, canonical_name, password, role, version) VALUES (99999,'user1','user1','$2a$10$QHiSYzD4znIKll8pR5T1Veq03NWrSfAnJMHhfX/0B6sHGB02ZAhIK','USER',1);
+INSERT INTO user (id, name, canonical_name, password, role, version) VALUES (99998,'user2','user2','$2a$10$QHiSYzD4znIKll8pR5T1Veq03NWrSfAnJMHhfX/0B6sHGB02ZAhIK','USER',1);
+INSERT INTO user (id, name, canonical_name, password, role, version) VALUES (99997,'admin','admin','$2a$10$QHiSYzD4znIKll8pR5T1Veq03NWrSfAnJMHhfX/0B6sHGB02ZAhIK','ADMIN',1);
 
 INSERT INTO jogging (id, date, distance, location, time, version, user_id, average_temperature, weather_condition) VALUES (99999,'2019-03-28',100,'Paris','00:14:44',0,99998,NULL,NULL);
-INSERT INTO jogging (id, date, distance, location, time, version, user_id, average_temperature, weather_condition) VALUES (99998,'2019-03-28',100,'Marsel','00:14:44',0,99998,NULL,NULL);
\ No newline at end of file
+INSERT INTO jogging (id, date, distance, location, time, version, user_id, average_temperature, weather_condition) VALUES (99998,'2019-03-28',100,'Marsel','00:14:44',0,99998,NULL,NULL);
+INSERT INTO jogging_stats (user_id, date, run_count, distance_sum, speed_sum) VALUES (99998,'2019-03-28',2,200,0.22624434389140272);
\ No newline at end of file
@@ -10,14 +10,18 @@ CREATE TABLE `hibernate_sequence` (
   `next_val` bigint(20) DEFAULT NULL
 ) ENGINE=InnoDB DEFAULT CHARSET=latin1;
 
+INSERT INTO `hibernate_sequence` VALUES (1);
+
 CREATE TABLE `user` (
   `id` int(11) NOT NULL,
   `name` varchar(255) NOT NULL,
+  `canonical_name` varchar(255) NOT NULL,
   `password` varchar(255) NOT NULL,
   `role` varchar(255) NOT NULL,
   `version` int(11) DEFAULT NULL,
   PRIMARY KEY (`id`),
-  UNIQUE KEY `UK_gj2fy3dcix7ph7k8684gka40c` (`name`)
+  UNIQUE KEY `UK_gj2fy3dcix7ph7k8684gka40c` (`name`),
+  UNIQUE KEY `UK_user_canonical_name` (`canonical_name`)
 ) ENGINE=InnoDB DEFAULT CHARSET=latin1;
 
 CREATE TABLE `jogging` (
@@ -32,7 +36,40 @@ CREATE TABLE `jogging` (
   `weather_condition` varchar(255) DEFAULT NULL,
   PRIMARY KEY (`id`),
   KEY `FKfd94ajm13oropxmth4t3t91vj` (`user_id`),
+  KEY `IDX_jogging_user_date` (`user_id`,`date`,`distance`,`time`),
   CONSTRAINT `FKfd94ajm13oropxmth4t3t91vj` FOREIGN KEY (`user_id`) REFERENCES `user` (`id`) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=latin1;
 
-INSERT INTO user VALUES (0,'admin','$2a$10$QHiSYzD4znIKll8pR5T1Veq03NWrSfAnJMHhfX/0B6sHGB02ZAhIK','ADMIN',0);
\ No newline at end of file
+CREATE TABLE `journal_checkpoint` (
+  `name` varchar(255) NOT NULL,
+  `segment` bigint(20) NOT NULL,
+  `segment_offset` int(11) NOT NULL,
+  PRIMARY KEY (`name`)
+) ENGINE=InnoDB DEFAULT CHARSET=latin1;
+
+CREATE TABLE `jogging_stats` (
+  `user_id` int(11) NOT NULL,
+  `date` date NOT NULL,
+  `run_count` int(11) NOT NULL,
+  `distance_sum` bigint(20) NOT NULL,
+  `speed_sum` double NOT NULL,
+  PRIMARY KEY (`user_id`,`date`),
+  CONSTRAINT `FK_jogging_stats_user` FOREIGN KEY (`user_id`) REFERENCES `user` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=latin1;
+
+CREATE TABLE `jogging_sketch` (
+  `period_start` date NOT NULL,
+  `location` varchar(255) NOT NULL,
+  `buckets` longblob NOT NULL,
+  `generation` int(11) NOT NULL DEFAULT 0,
+  PRIMARY KEY (`period_start`,`location`)
+) ENGINE=InnoDB DEFAULT CHARSET=latin1;
+
+CREATE TABLE `jogging_sketch_rebuild` (
+  `id` int(11) NOT NULL,
+  `started_at` datetime NOT NULL,
+  `generation` int(11) NOT NULL DEFAULT 0,
+  PRIMARY KEY (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=latin1;
+
+INSERT INTO user (id, name, canonical_name, password, role, version) VALUES (0,'admin','admin','$2a$10$QHiSYzD4znIKll8pR5T1Veq03NWrSfAnJMHhfX/0B6sHGB02ZAhIK','ADMIN',0);
\ No newline at end of file